@@ -2,6 +2,8 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.1"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
+    id("org.springframework.boot.aot") version "3.4.1"
 }
 
 group = "com.example"
@@ -22,18 +24,87 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
     implementation("org.flywaydb:flyway-core")
     implementation("org.flywaydb:flyway-database-postgresql")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.0")
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql")
+    // Reactive read tier (rebooking.reactive-reads): WebFlux handlers on Reactor Netty over R2DBC
+    implementation("org.springframework:spring-webflux")
+    implementation("io.projectreactor.netty:reactor-netty-http")
+    implementation("org.springframework:spring-r2dbc")
+    implementation("org.postgresql:r2dbc-postgresql")
+    implementation("io.r2dbc:r2dbc-pool")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.boot:spring-boot-testcontainers")
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("org.testcontainers:postgresql")
+    testImplementation("org.hdrhistogram:HdrHistogram:2.2.2")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+jmh {
+    // Benchmarks live in src/jmh/java; run with ./gradlew jmh -PjmhIncludes=<regex>
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // The benchmarks need none of the test classes, and the full dependency set overflows a plain zip
+    includeTests = false
+    zip64 = true
+    // Benchmarks read their database settings (-Djdbc.url=..., -Djdbc.shards=...) in the forked JVM
+    jvmArgsAppend = providers.systemPropertiesPrefixedBy("jdbc.").map { properties ->
+        properties.map { (name, value) -> "-D$name=$value" }
+    }
+}
+
+// The AOT plugin also puts the generated test contexts on the test task's classpath; only aotTest uses them
+tasks.test {
+    classpath = sourceSets.test.get().runtimeClasspath
+}
+
+tasks.register<Test>("aotTest") {
+    group = "verification"
+    description = "Runs the tests on the JVM against the application contexts generated by processTestAot"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets["aotTest"].runtimeClasspath + sourceSets.test.get().runtimeClasspath
+    systemProperty("spring.aot.enabled", "true")
+}
+
+// Fast startup (see README): the boot jar extracted to build/cds, plus a CDS archive of the
+// classes a training run of its AOT-processed context loads. The training run starts the
+// application until its context has refreshed, so it needs the database in DATABASE_URL.
+val cdsDirectory = layout.buildDirectory.dir("cds")
+val toolchainJava = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(21) }
+    .map { it.executablePath.asFile.absolutePath }
+
+val extractBootJar by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Extracts the boot jar into build/cds, the layout a CDS archive can be used with"
+    val bootJar = tasks.bootJar.flatMap { it.archiveFile }
+    inputs.file(bootJar)
+    outputs.dir(cdsDirectory)
+    doFirst {
+        executable = toolchainJava.get()
+        args("-Djarmode=tools", "-jar", bootJar.get().asFile.absolutePath,
+            "extract", "--force", "--destination", cdsDirectory.get().asFile.absolutePath)
+    }
+}
+
+tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Records build/cds/application.jsa from a training run of the extracted jar; needs the database"
+    dependsOn(extractBootJar)
+    val jar = tasks.bootJar.flatMap { it.archiveFileName }
+    workingDir(cdsDirectory)
+    doFirst {
+        executable = toolchainJava.get()
+        args("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.aot.enabled=true",
+            "-Dspring.context.exit=onRefresh", "-jar", jar.get())
+    }
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
     // Disable Ryuk for Colima/rootless Docker compatibility
@@ -41,3 +112,11 @@ tasks.withType<Test> {
     environment("TESTCONTAINERS_RYUK_DISABLED",
         providers.environmentVariable("TESTCONTAINERS_RYUK_DISABLED").getOrElse("true"))
 }
+
+tasks.register<JavaExec>("generateDataset") {
+    group = "benchmark"
+    description = "Bulk-loads a seeded synthetic dataset; pass options with --args=\"--seed=42 --flights=... --reset\""
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.flightrebooking.dataset.DatasetGenerator"
+    maxHeapSize = "1g"
+}
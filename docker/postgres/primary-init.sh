@@ -0,0 +1,10 @@
+#!/bin/bash
+# Runs once on first start of the primary (docker-entrypoint-initdb.d):
+# creates the replication role and allows streaming connections from the replica.
+set -euo pipefail
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-SQL
+    CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD:-replicator}';
+SQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
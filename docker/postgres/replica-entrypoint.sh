@@ -0,0 +1,27 @@
+#!/bin/bash
+# Entrypoint for a hot-standby streaming replica. On first start it clones the primary
+# with pg_basebackup (-R writes standby.signal and primary_conninfo), then hands over
+# to the stock postgres entrypoint, which skips initdb because PGDATA is populated.
+set -euo pipefail
+
+PRIMARY_HOST="${PRIMARY_HOST:-postgres}"
+PRIMARY_PORT="${PRIMARY_PORT:-5432}"
+export PGPASSWORD="${REPLICATION_PASSWORD:-replicator}"
+
+# Debian images ship gosu, Alpine images su-exec
+if command -v gosu >/dev/null; then RUN_AS="gosu postgres"; else RUN_AS="su-exec postgres"; fi
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_isready -h "$PRIMARY_HOST" -p "$PRIMARY_PORT" -U replicator >/dev/null 2>&1; do
+        echo "Waiting for primary at $PRIMARY_HOST:$PRIMARY_PORT..."
+        sleep 1
+    done
+
+    mkdir -p "$PGDATA"
+    chown postgres:postgres "$PGDATA"
+    chmod 700 "$PGDATA"
+    $RUN_AS pg_basebackup -h "$PRIMARY_HOST" -p "$PRIMARY_PORT" -U replicator \
+        -D "$PGDATA" -R -X stream --checkpoint=fast
+fi
+
+exec docker-entrypoint.sh postgres -c hot_standby=on
@@ -0,0 +1,67 @@
+import org.springframework.boot.gradle.plugin.SpringBootPlugin
+
+plugins {
+    java
+    application
+    id("io.spring.dependency-management")
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        mavenBom(SpringBootPlugin.BOM_COORDINATES)
+    }
+}
+
+dependencies {
+    // The service itself, so the harness can start it in-process against a Testcontainers Postgres
+    implementation(project(":"))
+    implementation("org.springframework.boot:spring-boot")
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+    implementation("org.testcontainers:postgresql")
+    implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+application {
+    mainClass = "com.example.flightrebooking.loadtest.LoadTest"
+}
+
+tasks.named<JavaExec>("run") {
+    // Reports land in load-test/build/reports/load-test; Testcontainers needs Docker
+    workingDir = projectDir
+    environment("TESTCONTAINERS_RYUK_DISABLED",
+        providers.environmentVariable("TESTCONTAINERS_RYUK_DISABLED").getOrElse("true"))
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("replayTraffic") {
+    group = "application"
+    description = "Replays captured booking API traffic; pass options with --args=\"--trace=... --speed=...\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.example.flightrebooking.loadtest.TrafficReplay"
+    workingDir = projectDir
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "application"
+    description = "Times startup and first response of each startup mode built; pass options with --args=\"--runs=...\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.example.flightrebooking.loadtest.StartupBenchmark"
+    workingDir = projectDir
+}
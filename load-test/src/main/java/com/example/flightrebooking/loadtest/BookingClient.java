@@ -0,0 +1,88 @@
+package com.example.flightrebooking.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The booking API calls the scenarios make. Every call is recorded in the
+ * {@link LatencyRecorder} under its endpoint and outcome (status code, {@code timeout} or
+ * {@code error}); failures never propagate to the virtual user.
+ */
+final class BookingClient {
+
+    static final String GET_BOOKING = "GET /bookings/{ref}";
+    static final String GET_OPTIONS = "GET /bookings/{ref}/rebooking-options";
+    static final String POST_REBOOK = "POST /bookings/{ref}/rebook";
+
+    record Result(int status, String body, String eTag) {
+        static final Result FAILED = new Result(-1, "", null);
+    }
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final LatencyRecorder recorder;
+
+    BookingClient(HttpClient http, String baseUrl, Duration timeout, LatencyRecorder recorder) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.recorder = recorder;
+    }
+
+    BookingClient withRecorder(LatencyRecorder recorder) {
+        return new BookingClient(http, baseUrl, timeout, recorder);
+    }
+
+    BookingClient withBaseUrl(String baseUrl) {
+        return new BookingClient(http, baseUrl, timeout, recorder);
+    }
+
+    Result getBooking(String ref, long intendedNanos) {
+        return send(GET_BOOKING, get("/api/v1/bookings/" + ref), intendedNanos).join();
+    }
+
+    Result getOptions(String ref, long intendedNanos) {
+        return send(GET_OPTIONS, get("/api/v1/bookings/" + ref + "/rebooking-options"), intendedNanos).join();
+    }
+
+    CompletableFuture<Result> rebook(String ref, String flightId, UUID idempotencyKey, String ifMatch,
+                                     long intendedNanos) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/bookings/" + ref + "/rebook"))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header("Idempotency-Key", idempotencyKey.toString())
+            .POST(HttpRequest.BodyPublishers.ofString("{\"selectedFlightId\":\"" + flightId + "\"}"));
+        if (ifMatch != null) {
+            request.header("If-Match", ifMatch);
+        }
+        return send(POST_REBOOK, request.build(), intendedNanos);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET().build();
+    }
+
+    private CompletableFuture<Result> send(String endpoint, HttpRequest request, long intendedNanos) {
+        long sent = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, failure) -> {
+                long completed = System.nanoTime();
+                if (failure != null) {
+                    String outcome = failure instanceof HttpTimeoutException
+                        || failure.getCause() instanceof HttpTimeoutException ? "timeout" : "error";
+                    recorder.record(endpoint, outcome, intendedNanos, sent, completed);
+                    return Result.FAILED;
+                }
+                recorder.record(endpoint, String.valueOf(response.statusCode()), intendedNanos, sent, completed);
+                return new Result(response.statusCode(), response.body(),
+                    response.headers().firstValue("ETag").orElse(null));
+            });
+    }
+}
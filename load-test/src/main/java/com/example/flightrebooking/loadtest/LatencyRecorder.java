@@ -0,0 +1,49 @@
+package com.example.flightrebooking.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HDR histograms per endpoint and outcome, in microseconds.
+ *
+ * Each request is recorded twice: service time (from when it was actually sent) and
+ * response time (from when the {@link Pacer} intended it to be sent). The gap between the
+ * two is the queueing the closed loop would otherwise hide.
+ */
+final class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    record Key(String endpoint, String outcome) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byEndpoint = endpoint.compareTo(other.endpoint);
+            return byEndpoint != 0 ? byEndpoint : outcome.compareTo(other.outcome);
+        }
+    }
+
+    record Histograms(Histogram serviceTime, Histogram responseTime) {}
+
+    private final Map<Key, Histograms> histograms = new ConcurrentHashMap<>();
+
+    void record(String endpoint, String outcome, long intendedNanos, long sentNanos, long completedNanos) {
+        Histograms h = histograms.computeIfAbsent(new Key(endpoint, outcome), k -> new Histograms(
+            new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3),
+            new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3)));
+        h.serviceTime().recordValue(Math.min(micros(completedNanos - sentNanos), HIGHEST_TRACKABLE_MICROS));
+        h.responseTime().recordValue(Math.min(micros(completedNanos - intendedNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    Map<Key, Histograms> snapshot() {
+        return new TreeMap<>(histograms);
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
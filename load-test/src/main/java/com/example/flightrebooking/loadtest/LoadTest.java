@@ -0,0 +1,154 @@
+package com.example.flightrebooking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for the booking API.
+ *
+ * Each scenario runs {@code --users} virtual users (virtual threads), each starting
+ * iterations on a fixed {@code --rate} schedule and waiting for its own responses before
+ * continuing. Latencies are recorded per endpoint and outcome in HDR histograms, both
+ * as service time and as response time from the intended start, and the run is written
+ * to a JSON report that later runs can be compared against.
+ *
+ * {@code --stacks=servlet,reactive} runs each read-only scenario against the servlet
+ * endpoints and then the reactive read tier, reported as {@code options-storm/servlet} and
+ * {@code options-storm/reactive}. Both stacks then read the primary through pools of the same
+ * size (see {@link ServiceUnderTest#STACK_COMPARISON_PROPERTIES}). For a side-by-side at
+ * high concurrency, run the service as a {@code --target} in its own process pinned to its
+ * own cores, and the generator on others, so that neither takes CPU from the other.
+ *
+ * <pre>
+ * ./gradlew :load-test:run --args="--scenario=options-storm --users=200 --rate=20 --duration=60s"
+ * ./gradlew :load-test:run --args="--scenario=options-storm,booking-poll --stacks=servlet,reactive --users=5000"
+ * ./gradlew :load-test:run --args="--baseline=build/reports/load-test/load-test-....json"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Map<String, LoadTestReport.Row> baseline = options.baseline() == null
+            ? Map.of() : LoadTestReport.readRows(options.baseline());
+
+        Instant startedAt = Instant.now();
+        List<LoadTestReport.Row> rows = new ArrayList<>();
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(options.requestTimeout())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+        try (ServiceUnderTest service = ServiceUnderTest.start(options)) {
+            BookingClient client = new BookingClient(http, service.baseUrl(), options.requestTimeout(),
+                new LatencyRecorder());
+            service.resetBookings(options.bookings());
+            String flightId = rebookingTarget(client);
+
+            for (Scenario scenario : options.scenarios()) {
+                for (String stack : options.stacks()) {
+                    if (!scenario.readOnly() && !stack.equals(LoadTestOptions.SERVLET)) {
+                        continue;
+                    }
+                    String name = options.comparesStacks() ? scenario.cliName() + "/" + stack : scenario.cliName();
+                    BookingClient stackClient = client.withBaseUrl(service.baseUrl(stack));
+                    service.resetBookings(options.bookings());
+                    AtomicLong nextBooking = new AtomicLong();
+                    System.out.printf("%s: %d users at %.1f/s each, %s warmup, %s recorded%n", name,
+                        options.users(), options.ratePerUser(), options.warmup(), options.duration());
+
+                    run(scenario, options, stackClient.withRecorder(new LatencyRecorder()), flightId, nextBooking,
+                        options.warmup());
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    long started = System.nanoTime();
+                    run(scenario, options, stackClient.withRecorder(recorder), flightId, nextBooking,
+                        options.duration());
+                    double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+                    rows.addAll(LoadTestReport.rows(name, recorder, elapsedSeconds));
+                }
+            }
+        }
+
+        LoadTestReport report = new LoadTestReport(startedAt, options, rows);
+        report.print(System.out, baseline);
+        Path file = report.write(options.reportDir(), "load-test");
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static void run(Scenario scenario, LoadTestOptions options, BookingClient client, String flightId,
+                            AtomicLong nextBooking, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        double interval = options.ratePerUser() <= 0 ? 0 : 1e9 / options.ratePerUser();
+
+        Scenario.Session session = new Scenario.Session() {
+            @Override
+            public BookingClient client() {
+                return client;
+            }
+
+            @Override
+            public String randomBooking() {
+                return ServiceUnderTest.bookingReference(1 + ThreadLocalRandom.current().nextInt(options.bookings()));
+            }
+
+            @Override
+            public String nextBooking() {
+                return ServiceUnderTest.bookingReference(1 + nextBooking.getAndIncrement() % options.bookings());
+            }
+
+            @Override
+            public String flightId() {
+                return flightId;
+            }
+
+            @Override
+            public double retryRate() {
+                return options.retryRate();
+            }
+        };
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users(); i++) {
+                // Spread users over the first interval so they don't fire in lockstep
+                Pacer pacer = Pacer.forRate(options.ratePerUser(), start + (long) (interval * i / options.users()));
+                users.submit(() -> {
+                    long intended;
+                    while ((intended = pacer.awaitNext()) < deadline) {
+                        scenario.iterate(session, intended);
+                    }
+                });
+            }
+        }
+    }
+
+    /** The first rebooking option of a seeded booking, used as the target of every rebook. */
+    private static String rebookingTarget(BookingClient client) throws Exception {
+        BookingClient.Result result = client.getOptions(ServiceUnderTest.bookingReference(1), System.nanoTime());
+        if (result.status() != 200) {
+            throw new IllegalStateException("Could not load rebooking options (HTTP " + result.status() + ")");
+        }
+        // Scenarios send a single selectedFlightId, so only direct options qualify
+        for (JsonNode option : MAPPER.readTree(result.body()).get("options")) {
+            if (option.get("connectingFlights").isEmpty()) {
+                return option.get("flight").get("flightId").asText();
+            }
+        }
+        throw new IllegalStateException("Seeded bookings have no direct rebooking options");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.flightrebooking.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link LoadTest}, given as {@code --name=value}.
+ *
+ * @param scenarios scenarios to run, one after another
+ * @param users concurrent virtual users
+ * @param ratePerUser iterations per second each user is scheduled to start; 0 runs unpaced
+ * @param warmup load applied before recording starts
+ * @param duration recorded load per scenario
+ * @param bookings disrupted {@code LT-} bookings seeded (and reset) before each scenario
+ * @param retryRate share of rebooks that are re-sent with the same Idempotency-Key
+ * @param requestTimeout client-side timeout; timed-out requests are recorded as {@code timeout}
+ * @param stacks servers each scenario is run against: {@code servlet}, and {@code reactive} for the
+ *               reactive read tier, which only read-only scenarios are run against
+ * @param target base URL of an already running service; when absent the service is started in-process
+ * @param reactiveTarget base URL of the running service's reactive read tier, for {@code reactive} with {@code target}
+ * @param jdbcUrl database used to seed bookings when {@code target} is set
+ * @param reportDir where the JSON report is written
+ * @param baseline earlier report to compare against
+ */
+record LoadTestOptions(
+    List<Scenario> scenarios,
+    int users,
+    double ratePerUser,
+    Duration warmup,
+    Duration duration,
+    int bookings,
+    double retryRate,
+    Duration requestTimeout,
+    List<String> stacks,
+    String target,
+    String reactiveTarget,
+    String jdbcUrl,
+    String jdbcUser,
+    String jdbcPassword,
+    Path reportDir,
+    Path baseline
+) {
+
+    static final String SERVLET = "servlet";
+    static final String REACTIVE = "reactive";
+
+    boolean comparesStacks() {
+        return stacks.size() > 1;
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        String scenarios = values.getOrDefault("scenario", "all");
+        return new LoadTestOptions(
+            scenarios.equals("all")
+                ? List.of(Scenario.values())
+                : Arrays.stream(scenarios.split(",")).map(Scenario::fromName).toList(),
+            Integer.parseInt(values.getOrDefault("users", "64")),
+            Double.parseDouble(values.getOrDefault("rate", "10")),
+            Duration.parse("PT" + values.getOrDefault("warmup", "5s")),
+            Duration.parse("PT" + values.getOrDefault("duration", "30s")),
+            Integer.parseInt(values.getOrDefault("bookings", "50000")),
+            Double.parseDouble(values.getOrDefault("retry-rate", "0.2")),
+            Duration.parse("PT" + values.getOrDefault("timeout", "5s")),
+            stacks(values.getOrDefault("stacks", SERVLET)),
+            values.get("target"),
+            values.get("reactive-target"),
+            values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5433/flightrebooking"),
+            values.getOrDefault("jdbc-user", "flight"),
+            values.getOrDefault("jdbc-password", "flight"),
+            Path.of(values.getOrDefault("report-dir", "build/reports/load-test")),
+            values.containsKey("baseline") ? Path.of(values.get("baseline")) : null
+        );
+    }
+
+    private static List<String> stacks(String value) {
+        List<String> stacks = Arrays.asList(value.split(","));
+        for (String stack : stacks) {
+            if (!stack.equals(SERVLET) && !stack.equals(REACTIVE)) {
+                throw new IllegalArgumentException("Unknown stack: " + stack);
+            }
+        }
+        return stacks;
+    }
+}
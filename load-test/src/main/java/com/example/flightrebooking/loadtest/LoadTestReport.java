@@ -0,0 +1,124 @@
+package com.example.flightrebooking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a load test run, written as JSON so runs can be compared with
+ * {@code --baseline}. Each row also carries its response-time histogram in HdrHistogram's
+ * compressed encoding, for merging or plotting with standard HdrHistogram tooling.
+ */
+record LoadTestReport(
+    Instant startedAt,
+    Object settings,
+    List<Row> rows
+) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    record Row(
+        String scenario,
+        String endpoint,
+        String outcome,
+        long count,
+        double throughputPerSecond,
+        Map<String, Double> serviceTimeMillis,
+        Map<String, Double> responseTimeMillis,
+        String responseTimeHistogram
+    ) {
+        String key() {
+            return scenario + " " + endpoint + " " + outcome;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT);
+
+    static List<Row> rows(String scenario, LatencyRecorder recorder, double elapsedSeconds) {
+        List<Row> rows = new ArrayList<>();
+        recorder.snapshot().forEach((key, histograms) -> rows.add(new Row(
+            scenario,
+            key.endpoint(),
+            key.outcome(),
+            histograms.responseTime().getTotalCount(),
+            histograms.responseTime().getTotalCount() / elapsedSeconds,
+            percentiles(histograms.serviceTime()),
+            percentiles(histograms.responseTime()),
+            encode(histograms.responseTime()))));
+        return rows;
+    }
+
+    Path write(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(prefix + "-" + startedAt.toString().replace(':', '-') + ".json");
+        MAPPER.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    static Map<String, Row> readRows(Path file) throws IOException {
+        Map<String, Row> rows = new HashMap<>();
+        for (var node : MAPPER.readTree(file.toFile()).get("rows")) {
+            Row row = MAPPER.treeToValue(node, Row.class);
+            rows.put(row.key(), row);
+        }
+        return rows;
+    }
+
+    void print(PrintStream out, Map<String, Row> baseline) {
+        out.printf("%-22s %-40s %-8s %9s %9s %10s %10s %10s %10s%n",
+            "scenario", "endpoint", "outcome", "count", "req/s", "svc p99", "p50", "p99", "p99.9");
+        for (Row row : rows) {
+            out.printf("%-22s %-40s %-8s %9d %9.1f %10.2f %10.2f %10.2f %10.2f%s%n",
+                row.scenario(), row.endpoint(), row.outcome(), row.count(), row.throughputPerSecond(),
+                row.serviceTimeMillis().get("p99"), row.responseTimeMillis().get("p50"),
+                row.responseTimeMillis().get("p99"), row.responseTimeMillis().get("p99.9"),
+                comparison(row, baseline));
+        }
+        out.println("Latencies in ms. p50/p99/p99.9 are response times measured from the intended send time "
+            + "(corrected for coordinated omission); svc p99 is measured from the actual send.");
+    }
+
+    private static String comparison(Row row, Map<String, Row> baseline) {
+        Row previous = baseline.get(row.key());
+        if (previous == null) {
+            return baseline.isEmpty() ? "" : "   (new)";
+        }
+        double before = previous.responseTimeMillis().get("p99");
+        double after = row.responseTimeMillis().get("p99");
+        return before == 0 ? "" : "   p99 %+.1f%% vs baseline".formatted((after - before) * 100 / before);
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        values.put("max", histogram.getMaxValue() / 1000.0);
+        return values;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
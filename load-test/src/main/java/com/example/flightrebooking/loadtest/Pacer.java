@@ -0,0 +1,45 @@
+package com.example.flightrebooking.loadtest;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-rate schedule for one virtual user.
+ *
+ * Iteration {@code n} is intended to start at {@code start + n * interval} no matter how
+ * long earlier iterations took. When the service stalls, later iterations start late and
+ * their latency is measured from the intended start, so the stall shows up in every
+ * request that should have been sent during it instead of in a single slow sample
+ * (coordinated omission).
+ */
+final class Pacer {
+
+    private final long intervalNanos;
+    private final long startNanos;
+    private long iteration;
+
+    Pacer(long intervalNanos, long startNanos) {
+        this.intervalNanos = intervalNanos;
+        this.startNanos = startNanos;
+    }
+
+    static Pacer forRate(double perSecond, long startNanos) {
+        return new Pacer(perSecond <= 0 ? 0 : (long) (1_000_000_000L / perSecond), startNanos);
+    }
+
+    /** Intended start of the next iteration; waits for it unless it is already overdue. */
+    long awaitNext() {
+        if (intervalNanos == 0) {
+            return System.nanoTime();
+        }
+        long intended = nextIntendedStart();
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return intended;
+    }
+
+    long nextIntendedStart() {
+        return startNanos + iteration++ * intervalNanos;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.flightrebooking.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link TrafficReplay}, given as {@code --name=value}.
+ *
+ * @param trace a capture file, or a directory whose {@code traffic-*.cbor} files are replayed together
+ * @param target base URL of the service to replay against
+ * @param speed replay speed relative to the captured timeline; 10 replays an hour in six minutes
+ * @param from first capture instant replayed, inclusive; the start of the trace when absent
+ * @param to last capture instant replayed, exclusive; the end of the trace when absent
+ * @param remap {@code none} keeps captured references; {@code disrupted} maps them onto DISRUPTED bookings
+ *              read from {@code jdbcUrl}; {@code <format>:<count>} maps them onto e.g. {@code LT-%07d:50000}
+ * @param requestTimeout client-side timeout; timed-out requests are recorded as {@code timeout}
+ * @param reorderWindow longest captured request expected; requests are put back in arrival order
+ *                      within this window while the trace is streamed
+ * @param reportDir where the JSON report is written
+ * @param baseline earlier report to compare against
+ */
+record ReplayOptions(
+    Path trace,
+    String target,
+    double speed,
+    Instant from,
+    Instant to,
+    String remap,
+    String jdbcUrl,
+    String jdbcUser,
+    String jdbcPassword,
+    Duration requestTimeout,
+    Duration reorderWindow,
+    Path reportDir,
+    Path baseline
+) {
+
+    static ReplayOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        if (!values.containsKey("trace")) {
+            throw new IllegalArgumentException("--trace=<capture file or directory> is required");
+        }
+
+        ReplayOptions options = new ReplayOptions(
+            Path.of(values.get("trace")),
+            values.getOrDefault("target", "http://localhost:8080"),
+            Double.parseDouble(values.getOrDefault("speed", "1")),
+            values.containsKey("from") ? Instant.parse(values.get("from")) : null,
+            values.containsKey("to") ? Instant.parse(values.get("to")) : null,
+            values.getOrDefault("remap", "none"),
+            values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5433/flightrebooking"),
+            values.getOrDefault("jdbc-user", "flight"),
+            values.getOrDefault("jdbc-password", "flight"),
+            Duration.parse("PT" + values.getOrDefault("timeout", "5s")),
+            Duration.parse("PT" + values.getOrDefault("reorder-window", "60s")),
+            Path.of(values.getOrDefault("report-dir", "build/reports/load-test")),
+            values.containsKey("baseline") ? Path.of(values.get("baseline")) : null
+        );
+        if (options.speed() <= 0) {
+            throw new IllegalArgumentException("--speed must be positive");
+        }
+        if (options.reorderWindow().isNegative()) {
+            throw new IllegalArgumentException("--reorder-window must not be negative");
+        }
+        return options;
+    }
+}
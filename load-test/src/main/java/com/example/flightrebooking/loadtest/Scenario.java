@@ -0,0 +1,108 @@
+package com.example.flightrebooking.loadtest;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One iteration of each scenario, as run by every virtual user on its {@link Pacer}
+ * schedule. The first request of an iteration is measured from the iteration's intended
+ * start; requests that depend on an earlier response are measured from when they could
+ * first have been sent.
+ */
+enum Scenario {
+
+    /** Passengers of a disrupted flight refreshing their options. */
+    OPTIONS_STORM("options-storm", true) {
+        @Override
+        void iterate(Session session, long intendedNanos) {
+            session.client().getOptions(session.randomBooking(), intendedNanos);
+        }
+    },
+
+    /** Passengers and agent screens polling bookings for their latest state. */
+    BOOKING_POLL("booking-poll", true) {
+        @Override
+        void iterate(Session session, long intendedNanos) {
+            session.client().getBooking(session.randomBooking(), intendedNanos);
+        }
+    },
+
+    /**
+     * Read-then-rebook, with a share of rebooks re-sent under the same Idempotency-Key as a
+     * client would after a lost response; those should replay with 200.
+     */
+    REBOOK_BURST("rebook-burst", false) {
+        @Override
+        void iterate(Session session, long intendedNanos) {
+            String ref = session.nextBooking();
+            BookingClient.Result booking = session.client().getBooking(ref, intendedNanos);
+            UUID key = UUID.randomUUID();
+            session.client().rebook(ref, session.flightId(), key, booking.eTag(), System.nanoTime()).join();
+            if (ThreadLocalRandom.current().nextDouble() < session.retryRate()) {
+                session.client().rebook(ref, session.flightId(), key, booking.eTag(), System.nanoTime()).join();
+            }
+        }
+    },
+
+    /**
+     * Two clients read the same booking and rebook it concurrently with the same
+     * {@code If-Match}: one should win with 201 and the other get 409.
+     */
+    IF_MATCH_CONFLICT("if-match-conflict", false) {
+        @Override
+        void iterate(Session session, long intendedNanos) {
+            String ref = session.nextBooking();
+            BookingClient.Result booking = session.client().getBooking(ref, intendedNanos);
+            long sent = System.nanoTime();
+            CompletableFuture<BookingClient.Result> first =
+                session.client().rebook(ref, session.flightId(), UUID.randomUUID(), booking.eTag(), sent);
+            CompletableFuture<BookingClient.Result> second =
+                session.client().rebook(ref, session.flightId(), UUID.randomUUID(), booking.eTag(), sent);
+            CompletableFuture.allOf(first, second).join();
+        }
+    };
+
+    private final String cliName;
+    private final boolean readOnly;
+
+    Scenario(String cliName, boolean readOnly) {
+        this.cliName = cliName;
+        this.readOnly = readOnly;
+    }
+
+    String cliName() {
+        return cliName;
+    }
+
+    /** Whether the scenario only reads, and so can also be run against the reactive read tier. */
+    boolean readOnly() {
+        return readOnly;
+    }
+
+    static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.cliName.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+
+    abstract void iterate(Session session, long intendedNanos);
+
+    /** What a virtual user needs to run iterations. */
+    interface Session {
+        BookingClient client();
+
+        /** A random seeded booking, for reads. */
+        String randomBooking();
+
+        /** The next unused seeded booking, for writes; wraps around once all are used. */
+        String nextBooking();
+
+        String flightId();
+
+        double retryRate();
+    }
+}
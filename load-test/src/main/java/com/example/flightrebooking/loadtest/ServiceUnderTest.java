@@ -0,0 +1,150 @@
+package com.example.flightrebooking.loadtest;
+
+import com.example.flightrebooking.FlightRebookingApplication;
+import com.example.flightrebooking.reactive.ReactiveReadServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The service being load tested: either a running instance given by {@code --target}, or
+ * the application started in this JVM on a random port against a Testcontainers Postgres.
+ * The in-process mode needs nothing but a local Docker image, but shares CPU with the load
+ * generator; use {@code --target} for numbers that are meant to be compared with production.
+ *
+ * With {@code --stacks=servlet,reactive} the in-process service also serves reads from its
+ * reactive tier and is started with {@link #STACK_COMPARISON_PROPERTIES}. A {@code --target}
+ * instance must be started with the same properties for its two stacks to be comparable.
+ */
+final class ServiceUnderTest implements AutoCloseable {
+
+    // Flight NZ101 from the seed data; its same-day AKL-WLG departures are the rebooking options
+    private static final String DISRUPTED_FLIGHT_ID = "00000000-0000-0000-0000-000000000001";
+
+    /**
+     * Gives both stacks the same path to the database: the primary only, through a pool of the
+     * same size that a read waits on for the same time, with no limiter, bulkhead or near-cache
+     * in front.
+     */
+    static final List<String> STACK_COMPARISON_PROPERTIES = List.of(
+        "rebooking.reactive-reads.enabled=true",
+        "rebooking.booking-cache.enabled=false",
+        "rebooking.concurrency-limit.enabled=false",
+        "rebooking.bulkhead.enabled=false",
+        "rebooking.replicas.urls=",
+        "rebooking.bulkhead.read.pool-size=20",
+        "rebooking.reactive-reads.pool-size=20",
+        "rebooking.bulkhead.read.connection-timeout=1s",
+        "rebooking.reactive-reads.max-acquire-time=1s");
+
+    private final String baseUrl;
+    private final String reactiveUrl;
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext application;
+
+    private ServiceUnderTest(String baseUrl, String reactiveUrl, String jdbcUrl, String jdbcUser, String jdbcPassword,
+                             PostgreSQLContainer<?> postgres, ConfigurableApplicationContext application) {
+        this.baseUrl = baseUrl;
+        this.reactiveUrl = reactiveUrl;
+        this.jdbcUrl = jdbcUrl;
+        this.jdbcUser = jdbcUser;
+        this.jdbcPassword = jdbcPassword;
+        this.postgres = postgres;
+        this.application = application;
+    }
+
+    static ServiceUnderTest start(LoadTestOptions options) {
+        if (options.target() != null) {
+            return new ServiceUnderTest(options.target(), options.reactiveTarget(), options.jdbcUrl(),
+                options.jdbcUser(), options.jdbcPassword(), null, null);
+        }
+
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+        postgres.start();
+
+        boolean reactive = options.stacks().contains(LoadTestOptions.REACTIVE);
+        List<String> properties = new ArrayList<>(List.of(
+            "server.port=0",
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "rebooking.reactive-reads.enabled=" + reactive,
+            "rebooking.reactive-reads.port=0",
+            "logging.level.root=WARN"));
+        if (options.comparesStacks()) {
+            properties.addAll(STACK_COMPARISON_PROPERTIES);
+        }
+        ConfigurableApplicationContext application = new SpringApplicationBuilder(FlightRebookingApplication.class)
+            .properties(properties.toArray(String[]::new))
+            .run();
+        String port = application.getEnvironment().getProperty("local.server.port");
+        String reactiveUrl = reactive
+            ? "http://localhost:" + application.getBean(ReactiveReadServer.class).port() : null;
+        return new ServiceUnderTest("http://localhost:" + port, reactiveUrl, postgres.getJdbcUrl(),
+            postgres.getUsername(), postgres.getPassword(), postgres, application);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    /** Base URL of the server that {@code stack} names. */
+    String baseUrl(String stack) {
+        if (stack.equals(LoadTestOptions.SERVLET)) {
+            return baseUrl;
+        }
+        if (reactiveUrl == null) {
+            throw new IllegalStateException("--stacks=reactive against --target needs --reactive-target");
+        }
+        return reactiveUrl;
+    }
+
+    /**
+     * Seeds {@code LT-0000001..n} as DISRUPTED bookings on NZ101, or puts existing ones back
+     * into that state, so every scenario starts from the same data.
+     */
+    void resetBookings(int count) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+             Statement statement = connection.createStatement();
+             PreparedStatement upsert = connection.prepareStatement(
+                 "INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+                 "SELECT gen_random_uuid(), 'LT-' || lpad(i::text, 7, '0'), 'DISRUPTED', 'Load Test ' || i, ?::uuid " +
+                 "FROM generate_series(1, ?) i " +
+                 "ON CONFLICT (reference) DO UPDATE SET status = 'DISRUPTED', rebooked_flight_id = NULL, version = 1")) {
+            statement.execute("DELETE FROM rebooking_audit WHERE booking_id IN " +
+                "(SELECT id FROM bookings WHERE reference LIKE 'LT-%')");
+            upsert.setString(1, DISRUPTED_FLIGHT_ID);
+            upsert.setInt(2, count);
+            upsert.executeUpdate();
+            statement.execute("ANALYZE bookings");
+        }
+    }
+
+    static String bookingReference(long ordinal) {
+        return "LT-%07d".formatted(ordinal);
+    }
+
+    @Override
+    public void close() {
+        if (application != null) {
+            application.close();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.flightrebooking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures how soon a new instance can take traffic, for each startup mode the build
+ * produces: the plain jar, the jar with its AOT-generated context, and the same with the CDS
+ * archive of a training run.
+ *
+ * Each start is a fresh process against an already migrated database, as when an
+ * autoscaler adds an instance. Two times are taken from launching the process: until the
+ * application logs that it has started, and until {@code --path} first answers 200, which
+ * also covers the work done lazily on the first request. One unmeasured start per mode
+ * comes first, so the operating system's file cache is equally warm for every mode.
+ *
+ * <pre>
+ * ./gradlew bootJar cdsArchive
+ * ./gradlew :load-test:startupBenchmark --args="--runs=10 --skip-migrations"
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final String STARTED = "Started FlightRebookingApplication";
+
+    /** One start; a time is -1 if it never happened. */
+    record Run(long startedMillis, long firstResponseMillis) {}
+
+    record Row(String mode, List<Run> runs, Map<String, Long> startedMillis, Map<String, Long> firstResponseMillis) {}
+
+    public static void main(String[] args) throws Exception {
+        StartupOptions options = StartupOptions.parse(args);
+        Instant startedAt = Instant.now();
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+        List<Row> rows = new ArrayList<>();
+        for (String mode : options.modes()) {
+            for (boolean skipMigrations : options.skipMigrations() ? List.of(false, true) : List.of(false)) {
+                String name = skipMigrations ? mode + " skip-migrations" : mode;
+                System.out.printf("%s: 1 unmeasured and %d measured starts%n", name, options.runs());
+                start(mode, skipMigrations, options, http);
+                List<Run> runs = new ArrayList<>();
+                for (int i = 0; i < options.runs(); i++) {
+                    runs.add(start(mode, skipMigrations, options, http));
+                }
+                rows.add(new Row(name, runs, summary(runs, Run::startedMillis),
+                    summary(runs, Run::firstResponseMillis)));
+            }
+        }
+
+        System.out.printf("%-22s %9s %9s %9s %12s %9s %9s%n",
+            "mode", "started", "min", "max", "first 200", "min", "max");
+        for (Row row : rows) {
+            System.out.printf("%-22s %9d %9d %9d %12d %9d %9d%n", row.mode(),
+                row.startedMillis().get("p50"), row.startedMillis().get("min"), row.startedMillis().get("max"),
+                row.firstResponseMillis().get("p50"), row.firstResponseMillis().get("min"),
+                row.firstResponseMillis().get("max"));
+        }
+        System.out.println("Milliseconds from launching the process, median of " + options.runs()
+            + " starts; -1 means a start that did not get that far within " + options.timeout() + ".");
+
+        Files.createDirectories(options.reportDir());
+        Path file = options.reportDir().resolve("startup-" + startedAt.toString().replace(':', '-') + ".json");
+        MAPPER.writeValue(file.toFile(), Map.of("startedAt", startedAt, "settings", options, "rows", rows));
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static Run start(String mode, boolean skipMigrations, StartupOptions options, HttpClient http)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(command(mode, options));
+        command.add("--server.port=" + options.port());
+        command.add("--rebooking.migrations.skip=" + skipMigrations);
+        command.add("--logging.level.root=WARN");
+        command.add("--logging.level.com.example.flightrebooking.FlightRebookingApplication=INFO");
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("DATABASE_URL", options.jdbcUrl());
+        builder.environment().put("DATABASE_USERNAME", options.jdbcUser());
+        builder.environment().put("DATABASE_PASSWORD", options.jdbcPassword());
+
+        long launched = System.nanoTime();
+        Process process = builder.start();
+        try {
+            CompletableFuture<Long> started = new CompletableFuture<>();
+            Thread.ofVirtual().start(() -> readOutput(process, launched, started));
+            long firstResponse = awaitFirstResponse(http, options, process, launched);
+            // The port opens just before the application reports it has started
+            long startedMillis = firstResponse < 0 ? started.getNow(-1L)
+                : started.completeOnTimeout(-1L, 10, TimeUnit.SECONDS).join();
+            return new Run(startedMillis, firstResponse);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static List<String> command(String mode, StartupOptions options) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return switch (mode) {
+            case "jvm" -> List.of(java, "-jar", options.jar().toString());
+            case "aot" -> List.of(java, "-Dspring.aot.enabled=true", "-jar", options.jar().toString());
+            case "cds" -> List.of(java, "-XX:SharedArchiveFile=" + options.cdsDirectory().resolve("application.jsa"),
+                "-Dspring.aot.enabled=true", "-jar", StartupOptions.onlyJar(options.cdsDirectory()).toString());
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+    }
+
+    /**
+     * Reads the process's output until it ends, completing {@code started} with the
+     * milliseconds until the application logged that it had started, and echoing errors.
+     */
+    private static void readOutput(Process process, long launched, CompletableFuture<Long> started) {
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.contains(STARTED)) {
+                    started.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched));
+                } else if (line.contains("ERROR") || line.startsWith("Error")) {
+                    System.out.println("  " + line);
+                }
+            }
+        } catch (IOException e) {
+            // The process was stopped
+        } finally {
+            started.complete(-1L);
+        }
+    }
+
+    private static long awaitFirstResponse(HttpClient http, StartupOptions options, Process process, long launched)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + options.port() + options.path()))
+            .timeout(options.timeout())
+            .GET()
+            .build();
+        long deadline = launched + options.timeout().toNanos();
+        while (System.nanoTime() < deadline && process.isAlive()) {
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            } catch (IOException e) {
+                // Connection dropped while starting
+            }
+            Thread.sleep(10);
+        }
+        return -1;
+    }
+
+    private static Map<String, Long> summary(List<Run> runs, ToLongFunction<Run> time) {
+        List<Long> times = runs.stream().map(time::applyAsLong).sorted(Comparator.naturalOrder()).toList();
+        return Map.of("p50", times.get(times.size() / 2), "min", times.getFirst(), "max", times.getLast());
+    }
+}
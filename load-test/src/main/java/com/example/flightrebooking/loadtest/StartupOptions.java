@@ -0,0 +1,102 @@
+package com.example.flightrebooking.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Command-line options for {@link StartupBenchmark}, given as {@code --name=value}.
+ *
+ * @param modes startup modes to measure: {@code jvm}, {@code aot} and {@code cds} (AOT plus the CDS archive); by
+ *              default every mode whose build output exists
+ * @param runs starts measured per mode, after one unmeasured start
+ * @param skipMigrations also measure each mode with {@code rebooking.migrations.skip}
+ * @param jar the executable jar, as built by {@code bootJar}
+ * @param cdsDirectory the extracted jar and its {@code application.jsa}, as built by {@code cdsArchive}
+ * @param port HTTP port the service is started on
+ * @param path request whose first successful response is timed
+ * @param timeout a start that has not answered {@code path} by then is stopped and reported as failed
+ * @param reportDir where the JSON report is written
+ */
+record StartupOptions(
+    List<String> modes,
+    int runs,
+    boolean skipMigrations,
+    Path jar,
+    Path cdsDirectory,
+    String jdbcUrl,
+    String jdbcUser,
+    String jdbcPassword,
+    int port,
+    String path,
+    Duration timeout,
+    Path reportDir
+) {
+
+    static final List<String> MODES = List.of("jvm", "aot", "cds");
+
+    static StartupOptions parse(String[] args) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        Path cdsDirectory = Path.of(values.getOrDefault("cds-dir", "../build/cds"));
+        List<String> modes = values.containsKey("modes")
+            ? Arrays.asList(values.get("modes").split(","))
+            : MODES.stream()
+                .filter(mode -> !mode.equals("cds") || Files.exists(cdsDirectory.resolve("application.jsa")))
+                .toList();
+        for (String mode : modes) {
+            if (!MODES.contains(mode)) {
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        }
+
+        StartupOptions options = new StartupOptions(
+            modes,
+            Integer.parseInt(values.getOrDefault("runs", "5")),
+            Boolean.parseBoolean(values.getOrDefault("skip-migrations", "false")),
+            values.containsKey("jar") ? Path.of(values.get("jar")) : onlyJar(Path.of("../build/libs")),
+            cdsDirectory,
+            values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5433/flightrebooking"),
+            values.getOrDefault("jdbc-user", "flight"),
+            values.getOrDefault("jdbc-password", "flight"),
+            Integer.parseInt(values.getOrDefault("port", "18080")),
+            values.getOrDefault("path", "/api/v1/bookings/BK-001/rebooking-options"),
+            Duration.parse("PT" + values.getOrDefault("timeout", "120s")),
+            Path.of(values.getOrDefault("report-dir", "build/reports/load-test"))
+        );
+        if (options.runs() < 1) {
+            throw new IllegalArgumentException("--runs must be at least 1");
+        }
+        return options;
+    }
+
+    /** The executable jar in {@code directory}: not the plain or benchmark jar. */
+    static Path onlyJar(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("No jar in " + directory + "; build it first or pass --jar");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> jars = files
+                .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                .filter(file -> !file.getFileName().toString().matches(".*-(plain|jmh)\\.jar"))
+                .toList();
+            if (jars.size() != 1) {
+                throw new IllegalArgumentException("Expected one jar in " + directory + " but found " + jars);
+            }
+            return jars.getFirst();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.flightrebooking.loadtest;
+
+import com.example.flightrebooking.capture.CapturedRequest;
+import com.example.flightrebooking.capture.TrafficTrace;
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Streams the captured requests of a trace in arrival order without loading it.
+ *
+ * Each capture file holds its records in completion order, as the writer appends them when
+ * requests finish. The files are merged on completion time, and a request is released once
+ * the merge has reached {@code reorderWindow} past its arrival: no request still to come can
+ * have arrived earlier unless it took longer than the window. Only requests within the
+ * window are held in memory. One that took longer is released late and counted in
+ * {@link #lateRecords()}.
+ */
+final class TraceReader implements Iterator<CapturedRequest>, Closeable {
+
+    private final List<MappingIterator<CapturedRequest>> files = new ArrayList<>();
+    private final PriorityQueue<Pending> byCompletion =
+        new PriorityQueue<>(Comparator.comparingLong(Pending::completedAtMicros));
+    private final PriorityQueue<CapturedRequest> byArrival =
+        new PriorityQueue<>(Comparator.comparingLong(CapturedRequest::receivedAtMicros));
+    private final long fromMicros;
+    private final long toMicros;
+    private final long reorderWindowMicros;
+    private long releasedMicros = Long.MIN_VALUE;
+    private long lateRecords;
+
+    TraceReader(Path trace, long fromMicros, long toMicros, long reorderWindowMicros) throws IOException {
+        this.fromMicros = fromMicros;
+        this.toMicros = toMicros;
+        this.reorderWindowMicros = reorderWindowMicros;
+        List<Path> paths;
+        if (Files.isDirectory(trace)) {
+            try (Stream<Path> listing = Files.list(trace)) {
+                paths = listing.filter(p -> p.getFileName().toString().matches("traffic-.*\\.cbor")).sorted().toList();
+            }
+        } else {
+            paths = List.of(trace);
+        }
+        try {
+            for (Path path : paths) {
+                MappingIterator<CapturedRequest> records =
+                    TrafficTrace.read(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+                files.add(records);
+                advance(records);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !byArrival.isEmpty();
+    }
+
+    @Override
+    public CapturedRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CapturedRequest request = byArrival.poll();
+        if (request.receivedAtMicros() < releasedMicros) {
+            lateRecords++;
+        }
+        releasedMicros = Math.max(releasedMicros, request.receivedAtMicros());
+        return request;
+    }
+
+    /** Requests released after a later arrival, having taken longer than the reorder window. */
+    long lateRecords() {
+        return lateRecords;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (MappingIterator<CapturedRequest> records : files) {
+            try {
+                records.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void fill() {
+        while (!byCompletion.isEmpty() && (byArrival.isEmpty()
+                || byCompletion.peek().completedAtMicros() - reorderWindowMicros
+                    < byArrival.peek().receivedAtMicros())) {
+            Pending pending = byCompletion.poll();
+            CapturedRequest request = pending.request();
+            if (request.receivedAtMicros() >= fromMicros && request.receivedAtMicros() < toMicros) {
+                byArrival.add(request);
+            }
+            advance(pending.file());
+        }
+    }
+
+    private void advance(MappingIterator<CapturedRequest> records) {
+        try {
+            if (records.hasNextValue()) {
+                CapturedRequest request = records.nextValue();
+                byCompletion.add(new Pending(request.receivedAtMicros() + request.durationMicros(), request, records));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Pending(long completedAtMicros, CapturedRequest request, MappingIterator<CapturedRequest> file) {}
+}
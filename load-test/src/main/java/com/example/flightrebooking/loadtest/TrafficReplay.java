@@ -0,0 +1,290 @@
+package com.example.flightrebooking.loadtest;
+
+import com.example.flightrebooking.capture.CapturedRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives a captured booking API trace against a test instance.
+ *
+ * Requests are sent open-loop on the captured timeline (scaled by {@code --speed}), so
+ * arrival bursts are reproduced even when the service slows down, and latency is measured
+ * from each request's scheduled time. Captured references can be remapped onto synthetic
+ * bookings; Idempotency-Keys are remapped per run so retries still pair up without
+ * colliding with earlier runs, and rebook bodies are pointed at a valid option of the
+ * remapped booking. The report lists the captured production latencies next to the replay.
+ *
+ * The trace is streamed twice, once to find the references it uses and once to replay it,
+ * so memory use follows the number of bookings in it rather than its length. Requests whose body was too large to
+ * capture in full are skipped, unless they are rebooks whose body is replaced anyway.
+ *
+ * <pre>
+ * ./gradlew :load-test:replayTraffic --args="--trace=../capture --from=2026-07-03T17:00:00Z \
+ *     --to=2026-07-03T18:00:00Z --speed=4 --remap=disrupted"
+ * </pre>
+ */
+public final class TrafficReplay {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        replay(ReplayOptions.parse(args), System.out);
+    }
+
+    static void replay(ReplayOptions options, PrintStream out) throws Exception {
+        Map<String, LoadTestReport.Row> baseline = options.baseline() == null
+            ? Map.of() : LoadTestReport.readRows(options.baseline());
+
+        TraceSummary summary = summarize(options, out);
+        if (summary.requests() == 0) {
+            out.println("No captured requests in the selected window");
+            return;
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(options.requestTimeout())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        Map<String, String> rebookBodies = resolveRebookBodies(http, options, summary);
+
+        String runSalt = UUID.randomUUID().toString();
+        LatencyRecorder replayed = new LatencyRecorder();
+        long start = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        Instant startedAt = Instant.now();
+        out.printf("Replaying %,d requests spanning %s at %.1fx against %s%n", summary.requests(),
+            Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(summary.lastMicros() - summary.firstMicros())),
+            options.speed(), options.target());
+
+        AtomicLong inFlight = new AtomicLong();
+        long skipped = 0;
+        long late;
+        try (TraceReader trace = open(options)) {
+            while (trace.hasNext()) {
+                CapturedRequest request = trace.next();
+                HttpRequest replay = toReplayRequest(request, options, summary.references(), rebookBodies, runSalt);
+                if (replay == null) {
+                    skipped++;
+                    continue;
+                }
+                long due = dueAt(start, summary.firstMicros(), request.receivedAtMicros(), options.speed());
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String endpoint = endpointOf(request);
+                long sent = System.nanoTime();
+                inFlight.incrementAndGet();
+                http.sendAsync(replay, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        String outcome = failure == null ? String.valueOf(response.statusCode())
+                            : failure instanceof HttpTimeoutException || failure.getCause() instanceof HttpTimeoutException
+                                ? "timeout" : "error";
+                        replayed.record(endpoint, outcome, due, sent, System.nanoTime());
+                        inFlight.decrementAndGet();
+                        return null;
+                    });
+            }
+            late = trace.lateRecords();
+        }
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        if (skipped > 0) {
+            out.printf("Skipped %,d requests whose bodies were too large to capture%n", skipped);
+        }
+        if (late > 0) {
+            out.printf("Warning: %,d requests took longer than the %s reorder window and were sent late%n",
+                late, options.reorderWindow());
+        }
+        double capturedSeconds = Math.max(1e-3, (summary.lastMicros() - summary.firstMicros()) / 1e6);
+        List<LoadTestReport.Row> rows = new ArrayList<>(LoadTestReport.rows("captured", summary.captured(), capturedSeconds));
+        rows.addAll(LoadTestReport.rows("replay", replayed, elapsedSeconds));
+        LoadTestReport report = new LoadTestReport(startedAt, options, rows);
+        report.print(out, baseline);
+        Path file = report.write(options.reportDir(), "replay");
+        out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    /** When a request captured at {@code receivedAtMicros} is due, on the {@code System.nanoTime()} clock. */
+    static long dueAt(long startNanos, long firstMicros, long receivedAtMicros, double speed) {
+        return startNanos + (long) (TimeUnit.MICROSECONDS.toNanos(receivedAtMicros - firstMicros) / speed);
+    }
+
+    private static TraceReader open(ReplayOptions options) throws IOException {
+        long fromMicros = options.from() == null ? Long.MIN_VALUE
+            : TimeUnit.MILLISECONDS.toMicros(options.from().toEpochMilli());
+        long toMicros = options.to() == null ? Long.MAX_VALUE
+            : TimeUnit.MILLISECONDS.toMicros(options.to().toEpochMilli());
+        return new TraceReader(options.trace(), fromMicros, toMicros, options.reorderWindow().toNanos() / 1000);
+    }
+
+    /**
+     * What the replay needs to know before its clock starts: the span of the selected window,
+     * the remapped references and the bookings it rebooks. Also records the captured latencies.
+     */
+    private static TraceSummary summarize(ReplayOptions options, PrintStream out) throws IOException, SQLException {
+        List<String> targets = remapTargets(options);
+        Map<String, String> references = new HashMap<>();
+        Set<String> rebooked = new TreeSet<>();
+        LatencyRecorder captured = new LatencyRecorder();
+        long requests = 0;
+        long firstMicros = 0;
+        long lastMicros = 0;
+        try (TraceReader trace = open(options)) {
+            while (trace.hasNext()) {
+                CapturedRequest request = trace.next();
+                if (requests++ == 0) {
+                    firstMicros = request.receivedAtMicros();
+                }
+                lastMicros = Math.max(lastMicros, request.receivedAtMicros());
+                captured.record(endpointOf(request), String.valueOf(request.status()), 0, 0,
+                    TimeUnit.MICROSECONDS.toNanos(request.durationMicros()));
+                if (targets != null) {
+                    // Assigned in order of first appearance
+                    references.computeIfAbsent(request.reference(),
+                        ref -> targets.get(references.size() % targets.size()));
+                    if (request.method().equals("POST") && request.path().endsWith("/rebook")) {
+                        rebooked.add(references.get(request.reference()));
+                    }
+                }
+            }
+        }
+        if (targets != null && references.size() > targets.size()) {
+            out.printf("Warning: %,d captured references share %,d target bookings%n",
+                references.size(), targets.size());
+        }
+        return new TraceSummary(requests, firstMicros, lastMicros, references, rebooked, captured);
+    }
+
+    /** The bookings captured references are mapped onto, or null to keep them. */
+    private static List<String> remapTargets(ReplayOptions options) throws SQLException {
+        List<String> targets;
+        if (options.remap().equals("none")) {
+            return null;
+        } else if (options.remap().equals("disrupted")) {
+            targets = new ArrayList<>();
+            try (Connection connection = DriverManager.getConnection(options.jdbcUrl(), options.jdbcUser(),
+                     options.jdbcPassword());
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                     "SELECT reference FROM bookings WHERE status = 'DISRUPTED' ORDER BY reference")) {
+                while (rs.next()) {
+                    targets.add(rs.getString(1));
+                }
+            }
+        } else {
+            int colon = options.remap().lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("--remap must be none, disrupted or <format>:<count>");
+            }
+            String format = options.remap().substring(0, colon);
+            int count = Integer.parseInt(options.remap().substring(colon + 1));
+            targets = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                targets.add(format.formatted(i));
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("No bookings to remap captured references onto");
+        }
+        return targets;
+    }
+
+    /**
+     * A rebook request body selecting the first rebooking option (with its connecting legs,
+     * if any) of each remapped booking that the trace rebooks, looked up before the replay
+     * clock starts. Captured flight IDs mean nothing on synthetic data.
+     */
+    private static Map<String, String> resolveRebookBodies(HttpClient http, ReplayOptions options,
+                                                            TraceSummary summary) throws Exception {
+        Map<String, String> bodies = new HashMap<>();
+        for (String ref : summary.rebooked()) {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                    URI.create(options.target() + "/api/v1/bookings/" + ref + "/rebooking-options"))
+                .timeout(options.requestTimeout()).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                JsonNode available = MAPPER.readTree(response.body()).get("options");
+                if (!available.isEmpty()) {
+                    JsonNode option = available.get(0);
+                    ObjectNode body = MAPPER.createObjectNode()
+                        .put("selectedFlightId", option.get("flight").get("flightId").asText());
+                    ArrayNode connecting = body.putArray("connectingFlightIds");
+                    option.get("connectingFlights").forEach(leg -> connecting.add(leg.get("flightId").asText()));
+                    bodies.put(ref, MAPPER.writeValueAsString(body));
+                }
+            }
+        }
+        return bodies;
+    }
+
+    /** The request to send for a captured one, or null when its body was not captured in full. */
+    static HttpRequest toReplayRequest(CapturedRequest request, ReplayOptions options,
+                                       Map<String, String> references, Map<String, String> rebookBodies,
+                                       String runSalt) {
+        String ref = references.getOrDefault(request.reference(), request.reference());
+        String path = request.path().replace("/" + request.reference(), "/" + ref);
+        String uri = options.target() + path + (request.query() == null ? "" : "?" + request.query());
+
+        byte[] body = request.body();
+        if (rebookBodies.containsKey(ref) && request.path().endsWith("/rebook")) {
+            body = rebookBodies.get(ref).getBytes(StandardCharsets.UTF_8);
+        } else if (request.bodyTruncated()) {
+            return null;
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+            .timeout(options.requestTimeout())
+            .method(request.method(), body == null || body.length == 0
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        request.headers().forEach((name, value) -> {
+            if (name.equals("Idempotency-Key")) {
+                // Same captured key, same replayed key: retries still replay, earlier runs don't interfere
+                value = UUID.nameUUIDFromBytes((runSalt + value).getBytes(StandardCharsets.UTF_8)).toString();
+            }
+            builder.header(name, value);
+        });
+        return builder.build();
+    }
+
+    private static String endpointOf(CapturedRequest request) {
+        return request.method() + " " + request.path()
+            .replaceFirst("^/api/v1", "")
+            .replace("/" + request.reference(), "/{ref}");
+    }
+
+    private record TraceSummary(long requests, long firstMicros, long lastMicros, Map<String, String> references,
+                                Set<String> rebooked, LatencyRecorder captured) {}
+}
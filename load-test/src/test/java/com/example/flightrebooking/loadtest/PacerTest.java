@@ -0,0 +1,34 @@
+package com.example.flightrebooking.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacerTest {
+
+    @Test
+    @DisplayName("should keep the intended schedule when an iteration overruns its slot")
+    void shouldNotShiftScheduleAfterStall() throws InterruptedException {
+        long start = System.nanoTime();
+        Pacer pacer = new Pacer(1_000_000, start);
+
+        assertEquals(start, pacer.awaitNext());
+        Thread.sleep(20); // the service stalls for ~20 intervals
+
+        // The overdue iterations are still due at their original times, not at "now"
+        long next = pacer.awaitNext();
+        assertEquals(start + 1_000_000, next);
+        assertTrue(System.nanoTime() - next >= 19_000_000);
+    }
+
+    @Test
+    @DisplayName("should start unpaced iterations immediately")
+    void shouldNotWaitWhenUnpaced() {
+        Pacer pacer = Pacer.forRate(0, System.nanoTime() + 60_000_000_000L);
+
+        long before = System.nanoTime();
+        assertTrue(pacer.awaitNext() >= before);
+        assertTrue(System.nanoTime() - before < 1_000_000_000L);
+    }
+}
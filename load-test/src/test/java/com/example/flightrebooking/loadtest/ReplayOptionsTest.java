@@ -0,0 +1,54 @@
+package com.example.flightrebooking.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayOptionsTest {
+
+    @Test
+    @DisplayName("should default everything but the trace")
+    void shouldApplyDefaults() {
+        ReplayOptions options = ReplayOptions.parse(new String[] {"--trace=capture"});
+
+        assertEquals(Path.of("capture"), options.trace());
+        assertEquals("http://localhost:8080", options.target());
+        assertEquals(1.0, options.speed());
+        assertNull(options.from());
+        assertNull(options.to());
+        assertEquals("none", options.remap());
+        assertEquals(Duration.ofSeconds(5), options.requestTimeout());
+        assertEquals(Duration.ofSeconds(60), options.reorderWindow());
+        assertNull(options.baseline());
+    }
+
+    @Test
+    @DisplayName("should parse the replay window, speed and durations")
+    void shouldParseOptions() {
+        ReplayOptions options = ReplayOptions.parse(new String[] {
+            "--trace=capture/traffic-1.cbor", "--from=2026-07-03T17:00:00Z", "--to=2026-07-03T18:00:00Z",
+            "--speed=4", "--remap=LT-%07d:50000", "--timeout=0.5s", "--reorder-window=2m"});
+
+        assertEquals(Instant.parse("2026-07-03T17:00:00Z"), options.from());
+        assertEquals(Instant.parse("2026-07-03T18:00:00Z"), options.to());
+        assertEquals(4.0, options.speed());
+        assertEquals("LT-%07d:50000", options.remap());
+        assertEquals(Duration.ofMillis(500), options.requestTimeout());
+        assertEquals(Duration.ofMinutes(2), options.reorderWindow());
+    }
+
+    @Test
+    @DisplayName("should reject a missing trace, a non-positive speed and stray arguments")
+    void shouldRejectInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> ReplayOptions.parse(new String[] {"--speed=2"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> ReplayOptions.parse(new String[] {"--trace=capture", "--speed=0"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> ReplayOptions.parse(new String[] {"--trace=capture", "fast"}));
+    }
+}
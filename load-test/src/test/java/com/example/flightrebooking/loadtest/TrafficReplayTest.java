@@ -0,0 +1,160 @@
+package com.example.flightrebooking.loadtest;
+
+import com.example.flightrebooking.capture.CapturedRequest;
+import com.example.flightrebooking.capture.TrafficTrace;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficReplayTest {
+
+    private static final long T0 = TimeUnit.SECONDS.toMicros(1_783_000_000L);
+
+    @TempDir
+    Path directory;
+
+    private static CapturedRequest get(String ref, long offsetMillis, long durationMillis) {
+        return new CapturedRequest(T0 + TimeUnit.MILLISECONDS.toMicros(offsetMillis), "GET",
+            "/api/v1/bookings/" + ref, null, ref, Map.of(), new byte[0], false, 200,
+            TimeUnit.MILLISECONDS.toMicros(durationMillis));
+    }
+
+    private static CapturedRequest rebook(String ref, String key, boolean bodyTruncated) {
+        return new CapturedRequest(T0, "POST", "/api/v1/bookings/" + ref + "/rebook", null, ref,
+            Map.of("Content-Type", "application/json", "Idempotency-Key", key),
+            "{\"selectedFlightId\":\"f2\"}".getBytes(StandardCharsets.UTF_8), bodyTruncated, 201, 1_000);
+    }
+
+    private Path writeTrace(String name, CapturedRequest... requests) throws IOException {
+        Path file = directory.resolve(name);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (CapturedRequest request : requests) {
+                TrafficTrace.write(out, request);
+            }
+        }
+        return file;
+    }
+
+    private static List<String> read(TraceReader reader) throws IOException {
+        List<String> references = new ArrayList<>();
+        try (reader) {
+            reader.forEachRemaining(request -> references.add(request.reference()));
+        }
+        return references;
+    }
+
+    @Test
+    @DisplayName("should schedule requests on the captured timeline divided by the speed")
+    void shouldScaleTimeline() {
+        long start = 1_000;
+        assertEquals(start, TrafficReplay.dueAt(start, T0, T0, 4));
+        assertEquals(start + TimeUnit.SECONDS.toNanos(1), TrafficReplay.dueAt(start, T0, T0 + 4_000_000, 4));
+        assertEquals(start + TimeUnit.SECONDS.toNanos(8), TrafficReplay.dueAt(start, T0, T0 + 4_000_000, 0.5));
+    }
+
+    @Test
+    @DisplayName("should map each captured Idempotency-Key to one replayed key per run")
+    void shouldRewriteIdempotencyKeys() {
+        ReplayOptions options = ReplayOptions.parse(new String[] {"--trace=capture", "--target=http://test"});
+        CapturedRequest captured = rebook("BK-001", "550e8400-e29b-41d4-a716-446655440000", false);
+        Map<String, String> references = Map.of("BK-001", "LT-0000007");
+
+        HttpRequest first = TrafficReplay.toReplayRequest(captured, options, references, Map.of(), "run-1");
+        HttpRequest retry = TrafficReplay.toReplayRequest(captured, options, references, Map.of(), "run-1");
+        HttpRequest nextRun = TrafficReplay.toReplayRequest(captured, options, references, Map.of(), "run-2");
+
+        String key = first.headers().firstValue("Idempotency-Key").orElseThrow();
+        assertEquals(key, retry.headers().firstValue("Idempotency-Key").orElseThrow());
+        assertNotEquals(key, nextRun.headers().firstValue("Idempotency-Key").orElseThrow());
+        assertNotEquals("550e8400-e29b-41d4-a716-446655440000", key);
+        assertEquals("http://test/api/v1/bookings/LT-0000007/rebook", first.uri().toString());
+    }
+
+    @Test
+    @DisplayName("should skip a request whose body was truncated unless the body is replaced")
+    void shouldSkipTruncatedBodies() {
+        ReplayOptions options = ReplayOptions.parse(new String[] {"--trace=capture"});
+        CapturedRequest truncated = rebook("BK-001", "550e8400-e29b-41d4-a716-446655440000", true);
+
+        assertNull(TrafficReplay.toReplayRequest(truncated, options, Map.of(), Map.of(), "run"));
+        assertNotNull(TrafficReplay.toReplayRequest(truncated, options, Map.of(),
+            Map.of("BK-001", "{\"selectedFlightId\":\"f3\"}"), "run"));
+    }
+
+    @Test
+    @DisplayName("should stream files written in completion order back in arrival order")
+    void shouldRestoreArrivalOrder() throws IOException {
+        // One instance: B finished before A, which arrived first but ran for five seconds
+        writeTrace("traffic-20260703T170000Z-000.cbor", get("B", 1_000, 1_000), get("A", 0, 5_000), get("D", 6_000, 10));
+        // Another instance writing at the same time
+        writeTrace("traffic-20260703T170000Z-001.cbor", get("C", 2_000, 500), get("E", 7_000, 10));
+
+        TraceReader reader = new TraceReader(directory, Long.MIN_VALUE, Long.MAX_VALUE, TimeUnit.SECONDS.toMicros(60));
+        assertEquals(List.of("A", "B", "C", "D", "E"), read(reader));
+
+        // A window shorter than A's duration releases it late rather than holding everything
+        TraceReader narrow = new TraceReader(directory, Long.MIN_VALUE, Long.MAX_VALUE, TimeUnit.SECONDS.toMicros(1));
+        assertEquals(List.of("B", "C", "A", "D", "E"), read(narrow));
+        assertEquals(1, narrow.lateRecords());
+
+        TraceReader window = new TraceReader(directory, T0 + 1_000_000, T0 + 6_000_000, TimeUnit.SECONDS.toMicros(60));
+        assertEquals(List.of("B", "C"), read(window));
+    }
+
+    @Test
+    @DisplayName("should replay the trace at the chosen speed and print captured and replayed latencies")
+    void shouldReplayAndSummarize() throws Exception {
+        Path trace = writeTrace("trace.cbor", get("BK-001", 0, 20), get("BK-002", 1_000, 30), get("BK-001", 2_000, 40));
+        List<Long> arrivals = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            arrivals.add(System.nanoTime());
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            TrafficReplay.replay(ReplayOptions.parse(new String[] {
+                "--trace=" + trace, "--target=http://localhost:" + server.getAddress().getPort(), "--speed=2",
+                "--report-dir=" + directory.resolve("reports")}), new PrintStream(output, true, StandardCharsets.UTF_8));
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(3, arrivals.size());
+        // Captured one second apart, replayed at twice the speed
+        for (int i = 1; i < arrivals.size(); i++) {
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(arrivals.get(i) - arrivals.get(i - 1));
+            assertTrue(gapMillis > 350 && gapMillis < 650, "gap " + gapMillis + " ms");
+        }
+        String summary = output.toString(StandardCharsets.UTF_8);
+        assertTrue(summary.contains("Replaying 3 requests spanning PT2S at 2.0x"), summary);
+        assertTrue(summary.lines().anyMatch(line -> line.matches("captured\\s+GET /bookings/\\{ref}\\s+200\\s+3 .*")),
+            summary);
+        assertTrue(summary.lines().anyMatch(line -> line.matches("replay\\s+GET /bookings/\\{ref}\\s+200\\s+3 .*")),
+            summary);
+        assertTrue(summary.contains("Report written to"), summary);
+        try (var reports = Files.list(directory.resolve("reports"))) {
+            assertEquals(1, reports.count());
+        }
+    }
+}
@@ -1 +1,3 @@
 rootProject.name = "flight-rebooking-service"
+
+include("load-test")
@@ -0,0 +1,82 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.config.AuditProperties;
+import com.example.flightrebooking.config.AuditProperties.PayloadFormat;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.service.AuditPayloadCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSONB and CBOR encodings of {@code rebooking_audit.response_payload}.
+ * Encoded sizes are printed once per trial; on-disk size can be checked with
+ * {@code SELECT avg(pg_column_size(response_payload)), avg(pg_column_size(response_payload_cbor)) FROM rebooking_audit}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuditPayloadEncodingBenchmark {
+
+    private ObjectMapper jsonMapper;
+    private CBORMapper cborMapper;
+    private RebookResponse response;
+    private String json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Mirrors Spring Boot's default ObjectMapper (ISO-8601 dates)
+        jsonMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        cborMapper = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+
+        response = new RebookResponse(
+            "BK-001",
+            "REBOOKED",
+            new FlightResponse(UUID.randomUUID().toString(), "NZ101", "AKL", "WLG",
+                Instant.parse("2026-06-15T08:00:00Z"), Instant.parse("2026-06-15T09:05:00Z")),
+            new FlightResponse(UUID.randomUUID().toString(), "NZ103", "AKL", "WLG",
+                Instant.parse("2026-06-15T14:00:00Z"), Instant.parse("2026-06-15T15:05:00Z")),
+            List.of(),
+            Instant.now()
+        );
+        json = jsonMapper.writeValueAsString(response);
+        cbor = new AuditPayloadCodec(jsonMapper, new AuditProperties(PayloadFormat.CBOR)).encode(response).cbor();
+
+        System.out.printf("%nPayload bytes: json=%d cbor=%d%n",
+            json.getBytes(StandardCharsets.UTF_8).length, cbor.length);
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        return jsonMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public RebookResponse decodeJson() throws Exception {
+        return jsonMapper.readValue(json, RebookResponse.class);
+    }
+
+    @Benchmark
+    public RebookResponse decodeCbor() throws Exception {
+        return cborMapper.readValue(cbor, RebookResponse.class);
+    }
+}
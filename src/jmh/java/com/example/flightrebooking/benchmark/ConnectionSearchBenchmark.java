@@ -0,0 +1,75 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.connection.Timetable;
+import com.example.flightrebooking.dataset.DatasetOptions;
+import com.example.flightrebooking.dataset.Network;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connecting-itinerary search over the same network {@code generateDataset} produces,
+ * held in memory at full scale (a million flights by default). Each invocation searches a
+ * random spoke-to-spoke or spoke-to-hub pair from a random time in the first half of the
+ * schedule, as a rebooking options request would.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=ConnectionSearchBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ConnectionSearchBenchmark {
+
+    @Param({"1000000"})
+    public long flights;
+
+    @Param({"2", "3"})
+    public int maxLegs;
+
+    private Timetable timetable;
+    private List<Network.Airport> airports;
+    private Instant start;
+    private int days;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        DatasetOptions options = DatasetOptions.parse(new String[] {"--flights=" + flights});
+        Network network = Network.build(options, new SplittableRandom(options.seed()));
+        airports = network.airports;
+        start = options.start().atStartOfDay(ZoneOffset.UTC).toInstant();
+        days = options.days();
+
+        SplittableRandom ids = new SplittableRandom(options.seed());
+        Timetable.Builder builder = Timetable.builder(Duration.ofMinutes(45));
+        for (int day = 0; day < days; day++) {
+            Instant midnight = LocalDate.ofInstant(start, ZoneOffset.UTC).plusDays(day)
+                .atStartOfDay(ZoneOffset.UTC).toInstant();
+            for (Network.Service service : network.services) {
+                Instant departure = midnight.plusSeconds(service.departureMinute() * 60L);
+                builder.flight(new UUID(ids.nextLong(), ids.nextLong()), service.origin().code(),
+                    service.destination().code(), departure, departure.plusSeconds(service.blockMinutes() * 60L));
+            }
+        }
+        timetable = builder.build();
+        random = new SplittableRandom(7);
+        System.out.printf("%nTimetable: %,d flights, %,d airports%n", timetable.size(), airports.size());
+    }
+
+    @Benchmark
+    public List<Timetable.Itinerary> findConnections() {
+        Network.Airport origin = airports.get(random.nextInt(airports.size()));
+        Network.Airport destination = airports.get(random.nextInt(airports.size()));
+        Instant after = start.plusSeconds(random.nextLong(days * 43_200L));
+        return timetable.findConnections(origin.code(), destination.code(), after, null, maxLegs, 5,
+            Duration.ofHours(48));
+    }
+}
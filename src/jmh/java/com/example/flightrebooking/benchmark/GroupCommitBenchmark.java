@@ -0,0 +1,192 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.groupcommit.GroupCommitQueue;
+import com.example.flightrebooking.id.UuidV7Generator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rebook-shaped writes (one booking update plus one audit insert) committed one transaction
+ * per request, as {@code RebookingService.rebook} does, against the same writes committed
+ * through a {@link GroupCommitQueue}. Each operation is one rebook acknowledged after its
+ * commit, so the score is durable rebooks per second. The {@code commits} secondary result
+ * is transactions committed per second; the score divided by it is the average number of
+ * rebooks per commit, which each iteration also prints as its average batch size.
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=GroupCommit -Djdbc.url=jdbc:postgresql://localhost:5433/flightrebooking
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+public class GroupCommitBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+
+    private static final String UPDATE = "UPDATE bench_group_bookings SET version = version + 1 WHERE reference = ?";
+    private static final String INSERT = "INSERT INTO bench_group_audit (id, reference) VALUES (?, ?)";
+
+    @Param({"transaction", "group"})
+    public String mode;
+
+    final UuidV7Generator ids = new UuidV7Generator();
+    HikariDataSource flusherPool;
+    GroupCommitQueue<String, Integer> queue;
+    final LongAdder batches = new LongAdder();
+    final LongAdder batched = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS bench_group_audit");
+            stmt.execute("DROP TABLE IF EXISTS bench_group_bookings");
+            stmt.execute("CREATE TABLE bench_group_bookings (reference VARCHAR(20) PRIMARY KEY, version BIGINT NOT NULL)");
+            stmt.execute("CREATE TABLE bench_group_audit (id UUID PRIMARY KEY, reference VARCHAR(20) NOT NULL, "
+                + "created_at TIMESTAMPTZ NOT NULL DEFAULT NOW())");
+            stmt.execute("INSERT INTO bench_group_bookings SELECT 'BK-' || i, 1 FROM generate_series(0, "
+                + (BOOKINGS - 1) + ") i");
+        }
+
+        if (mode.equals("group")) {
+            flusherPool = new HikariDataSource();
+            flusherPool.setJdbcUrl(url());
+            flusherPool.setUsername(user());
+            flusherPool.setPassword(password());
+            flusherPool.setMaximumPoolSize(1);
+            // Defaults of rebooking.group-commit
+            queue = new GroupCommitQueue<>("bench", flusherPool, this::write, 64, Duration.ofMillis(2), 1024,
+                new SimpleMeterRegistry());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBatches() {
+        batches.reset();
+        batched.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportBatches() {
+        if (queue != null && batches.sum() > 0) {
+            System.out.printf("%naverage batch size: %.1f rebooks per commit%n",
+                (double) batched.sum() / batches.sum());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (queue != null) {
+            queue.close();
+            flusherPool.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement update;
+        PreparedStatement insert;
+
+        @Setup(Level.Trial)
+        public void open(GroupCommitBenchmark benchmark) throws Exception {
+            if (benchmark.mode.equals("transaction")) {
+                connection = connect();
+                connection.setAutoCommit(false);
+                update = connection.prepareStatement(UPDATE);
+                insert = connection.prepareStatement(INSERT);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws Exception {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    /** Transactions committed, as a rate; a rebook in a batch of n counts as 1/n of one. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Commits {
+
+        public double commits;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            commits = 0;
+        }
+    }
+
+    @Benchmark
+    public Object rebookWrite(Session session, Commits commits) throws Exception {
+        String reference = "BK-" + ThreadLocalRandom.current().nextInt(BOOKINGS);
+        if (queue != null) {
+            int batchSize = queue.submit(reference).join();
+            commits.commits += 1.0 / batchSize;
+            return batchSize;
+        }
+
+        session.update.setString(1, reference);
+        session.update.executeUpdate();
+        session.insert.setObject(1, ids.next());
+        session.insert.setString(2, reference);
+        session.insert.executeUpdate();
+        session.connection.commit();
+        commits.commits++;
+        return Boolean.TRUE;
+    }
+
+    private void write(Connection connection, List<GroupCommitQueue.Item<String, Integer>> batch)
+            throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE);
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (GroupCommitQueue.Item<String, Integer> item : batch) {
+                update.setString(1, item.value());
+                update.addBatch();
+                insert.setObject(1, ids.next());
+                insert.setString(2, item.value());
+                insert.addBatch();
+            }
+            update.executeBatch();
+            insert.executeBatch();
+        }
+        batches.increment();
+        batched.add(batch.size());
+        batch.forEach(item -> item.succeed(batch.size()));
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(url(), user(), password());
+    }
+
+    private static String url() {
+        return System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5433/flightrebooking");
+    }
+
+    private static String user() {
+        return System.getProperty("jdbc.user", "flight");
+    }
+
+    private static String password() {
+        return System.getProperty("jdbc.password", "flight");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.id.IdGenerator;
+import com.example.flightrebooking.id.RandomUuidGenerator;
+import com.example.flightrebooking.id.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput and primary-key index size for random (v4) versus time-ordered (v7) keys.
+ *
+ * Requires a running Postgres (defaults to the docker-compose instance). Each invocation inserts
+ * one batch into a scratch table shaped like {@code rebooking_audit}; with the default iteration
+ * settings a trial accumulates several million rows. Index size is printed at the end of each trial.
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=IdInsert -Djdbc.url=jdbc:postgresql://localhost:5433/flightrebooking
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 5, time = 30)
+public class IdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"RANDOM", "UUID_V7"})
+    public String strategy;
+
+    private IdGenerator generator;
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        generator = strategy.equals("UUID_V7") ? new UuidV7Generator() : new RandomUuidGenerator();
+        connection = DriverManager.getConnection(
+            System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5433/flightrebooking"),
+            System.getProperty("jdbc.user", "flight"),
+            System.getProperty("jdbc.password", "flight"));
+        connection.setAutoCommit(false);
+
+        table = "bench_ids_" + strategy.toLowerCase();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + table);
+            stmt.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, booking_id UUID NOT NULL, "
+                + "idempotency_key UUID NOT NULL, created_at TIMESTAMPTZ NOT NULL DEFAULT NOW())");
+        }
+        connection.commit();
+        insert = connection.prepareStatement(
+            "INSERT INTO " + table + " (id, booking_id, idempotency_key) VALUES (?, ?, ?)");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() throws Exception {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, generator.next());
+            insert.setObject(2, UUID.randomUUID());
+            insert.setObject(3, UUID.randomUUID());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*), pg_relation_size('" + table + "_pkey') FROM " + table)) {
+            rs.next();
+            System.out.printf("%n%s: rows=%d pkeyIndexBytes=%d (%.1f bytes/row)%n",
+                strategy, rs.getLong(1), rs.getLong(2), (double) rs.getLong(2) / rs.getLong(1));
+        }
+        insert.close();
+        connection.close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.reaccommodation.ReaccommodationSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reaccommodation of {@code passengers} disrupted passengers onto {@code candidates}
+ * replacement flights, every passenger with their own random score for every flight, so no
+ * two passengers can be solved as one. Seats fall short of passengers when
+ * {@code seatsPerFlight * candidates < passengers}. {@code events} independent problems of
+ * that size are solved together, as for a storm cancelling flights on unrelated routes.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=ReaccommodationBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReaccommodationBenchmark {
+
+    @Param({"500"})
+    public int passengers;
+
+    @Param({"50"})
+    public int candidates;
+
+    @Param({"8", "12"})
+    public int seatsPerFlight;
+
+    @Param({"1", "16"})
+    public int events;
+
+    private List<ReaccommodationSolver.Demand> demands;
+    private int[] seats;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        demands = new ArrayList<>(events * passengers);
+        seats = new int[events * candidates];
+        for (int event = 0; event < events; event++) {
+            int[] flights = new int[candidates];
+            for (int k = 0; k < candidates; k++) {
+                flights[k] = event * candidates + k;
+                seats[flights[k]] = seatsPerFlight;
+            }
+            for (int p = 0; p < passengers; p++) {
+                int[] scores = new int[candidates];
+                for (int k = 0; k < candidates; k++) {
+                    // Range of RebookingService scores, best for the earliest flights
+                    scores[k] = Math.max(0, 110 - 2 * k - random.nextInt(30));
+                }
+                demands.add(new ReaccommodationSolver.Demand(1, flights, scores));
+            }
+        }
+    }
+
+    @Benchmark
+    public ReaccommodationSolver.Solution solve() {
+        return ReaccommodationSolver.solve(demands, seats);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.id.UuidV7Generator;
+import com.example.flightrebooking.sharding.ShardRouter;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebook-shaped write throughput spread over 1..N shards with {@link ShardRouter}: per
+ * rebook, the idempotency key is looked up on the booking's shard and, as
+ * {@code CrossShardIdempotencyCheck} does, on every other shard, then one booking update
+ * and one audit insert commit on the booking's shard. Scaling shows up as throughput
+ * growing with {@code shardCount} at a fixed thread count; the N-1 lookups are the part
+ * that does not shrink as shards are added.
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=ShardedWrite \
+ *     -Djdbc.shards=jdbc:postgresql://localhost:5433/flightrebooking,jdbc:postgresql://localhost:5435/flightrebooking
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+public class ShardedWriteBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+    private static final String KEY_EXISTS =
+        "SELECT EXISTS (SELECT 1 FROM bench_shard_audit WHERE idempotency_key = ?)";
+
+    @Param({"1", "2"})
+    public int shardCount;
+
+    List<String> urls;
+    ShardRouter router;
+    final UuidV7Generator ids = new UuidV7Generator();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<String> configured = Arrays.asList(System.getProperty("jdbc.shards",
+            "jdbc:postgresql://localhost:5433/flightrebooking").split(","));
+        if (configured.size() < shardCount) {
+            throw new IllegalStateException("jdbc.shards lists " + configured.size() + " shards; need " + shardCount);
+        }
+        urls = configured.subList(0, shardCount);
+        router = new ShardRouter(shardCount, 128);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            try (Connection conn = connect(urls.get(shard));
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS bench_shard_audit");
+                stmt.execute("DROP TABLE IF EXISTS bench_shard_bookings");
+                stmt.execute("CREATE TABLE bench_shard_bookings (reference VARCHAR(20) PRIMARY KEY, version BIGINT NOT NULL)");
+                stmt.execute("CREATE TABLE bench_shard_audit (id UUID PRIMARY KEY, reference VARCHAR(20) NOT NULL, "
+                    + "idempotency_key UUID NOT NULL UNIQUE, created_at TIMESTAMPTZ NOT NULL DEFAULT NOW())");
+            }
+        }
+        List<List<String>> perShard = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            perShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < BOOKINGS; i++) {
+            String reference = "BK-" + i;
+            perShard.get(router.shardFor(reference)).add(reference);
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            try (Connection conn = connect(urls.get(shard));
+                 PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO bench_shard_bookings (reference, version) VALUES (?, 1)")) {
+                for (String reference : perShard.get(shard)) {
+                    insert.setString(1, reference);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Connections {
+
+        Connection[] shards;
+        Connection[] lookupConnections;
+        PreparedStatement[] keyLookups;
+        PreparedStatement[] otherShardKeyLookups;
+        PreparedStatement[] updates;
+        PreparedStatement[] inserts;
+
+        @Setup(Level.Trial)
+        public void open(ShardedWriteBenchmark benchmark) throws Exception {
+            int count = benchmark.shardCount;
+            shards = new Connection[count];
+            lookupConnections = new Connection[count];
+            keyLookups = new PreparedStatement[count];
+            otherShardKeyLookups = new PreparedStatement[count];
+            updates = new PreparedStatement[count];
+            inserts = new PreparedStatement[count];
+            for (int i = 0; i < count; i++) {
+                shards[i] = connect(benchmark.urls.get(i));
+                shards[i].setAutoCommit(false);
+                keyLookups[i] = shards[i].prepareStatement(KEY_EXISTS);
+                // Outside the rebook's transaction, as the check's own pool connections are
+                lookupConnections[i] = connect(benchmark.urls.get(i));
+                otherShardKeyLookups[i] = lookupConnections[i].prepareStatement(KEY_EXISTS);
+                updates[i] = shards[i].prepareStatement(
+                    "UPDATE bench_shard_bookings SET version = version + 1 WHERE reference = ?");
+                inserts[i] = shards[i].prepareStatement(
+                    "INSERT INTO bench_shard_audit (id, reference, idempotency_key) VALUES (?, ?, ?)");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws Exception {
+            for (int i = 0; i < shards.length; i++) {
+                shards[i].close();
+                lookupConnections[i].close();
+            }
+        }
+    }
+
+    @Benchmark
+    public void rebookWrite(Connections connections) throws Exception {
+        String reference = "BK-" + ThreadLocalRandom.current().nextInt(BOOKINGS);
+        int shard = router.shardFor(reference);
+        UUID idempotencyKey = UUID.randomUUID();
+
+        exists(connections.keyLookups[shard], idempotencyKey);
+        for (int other = 0; other < shardCount; other++) {
+            if (other != shard) {
+                exists(connections.otherShardKeyLookups[other], idempotencyKey);
+            }
+        }
+
+        PreparedStatement update = connections.updates[shard];
+        update.setString(1, reference);
+        update.executeUpdate();
+
+        PreparedStatement insert = connections.inserts[shard];
+        insert.setObject(1, ids.next());
+        insert.setString(2, reference);
+        insert.setObject(3, idempotencyKey);
+        insert.executeUpdate();
+
+        connections.shards[shard].commit();
+    }
+
+    private static boolean exists(PreparedStatement lookup, UUID idempotencyKey) throws Exception {
+        lookup.setObject(1, idempotencyKey);
+        try (ResultSet rs = lookup.executeQuery()) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private static Connection connect(String url) throws Exception {
+        return DriverManager.getConnection(url,
+            System.getProperty("jdbc.user", "flight"),
+            System.getProperty("jdbc.password", "flight"));
+    }
+}
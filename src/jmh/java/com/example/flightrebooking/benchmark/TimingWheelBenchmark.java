@@ -0,0 +1,56 @@
+package com.example.flightrebooking.benchmark;
+
+import com.example.flightrebooking.seathold.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The seat hold expiry wheel in a steady state of {@code liveHolds} two-minute holds at a
+ * 100ms tick. Each operation releases one hold, places another and moves the clock on, so
+ * holds expire as fast as they are placed. The work per operation does not depend on
+ * {@code liveHolds}; what time it gains with more holds is cache misses over a larger heap.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=TimingWheelBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TimingWheelBenchmark {
+
+    private static final long HOLD_MILLIS = 120_000;
+
+    @Param({"10000", "100000", "500000"})
+    public int liveHolds;
+
+    private HierarchicalTimingWheel<Integer> wheel;
+    private HierarchicalTimingWheel.Timeout[] holds;
+    private SplittableRandom random;
+    private double millisPerOperation;
+    private double now;
+
+    @Setup
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel<>(100, 4, 0);
+        holds = new HierarchicalTimingWheel.Timeout[liveHolds];
+        random = new SplittableRandom(42);
+        for (int i = 0; i < liveHolds; i++) {
+            holds[i] = wheel.schedule(i, random.nextLong(HOLD_MILLIS));
+        }
+        millisPerOperation = (double) HOLD_MILLIS / liveHolds;
+        now = 0;
+    }
+
+    @Benchmark
+    public int releaseAndHold() {
+        int i = random.nextInt(liveHolds);
+        holds[i].cancel();
+        long nowMillis = (long) (now += millisPerOperation);
+        holds[i] = wheel.schedule(i, nowMillis + HOLD_MILLIS);
+        return wheel.advanceTo(nowMillis).size();
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.flightrebooking.dataset;
+
+import com.example.flightrebooking.sharding.ShardRouter;
+import org.flywaydb.core.Flyway;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates a production-sized, reproducible dataset and bulk-loads it with {@code COPY}.
+ *
+ * Flights are replicated to every shard; bookings and their disruptions go to the shard
+ * {@link ShardRouter} picks for their reference, exactly as the service would place them.
+ * Disruptions come in bursts: a storm closes a hub for a few hours and every departure
+ * in that window is cancelled or delayed, on top of a low background rate of mechanical
+ * cancellations.
+ *
+ * Network, schedule and bookings each draw from their own random stream split off the
+ * seed, so the same {@code --seed} reproduces the same rows and changing
+ * {@code --bookings} does not reshuffle the flights.
+ *
+ * <pre>
+ * ./gradlew generateDataset --args="--seed=42 --flights=1000000 --bookings=10000000 --reset"
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    private static final String[] FIRST_NAMES = {
+        "Aroha", "Ben", "Chloe", "Daniel", "Emma", "Finn", "Grace", "Hemi", "Isla", "Jack",
+        "Kiri", "Liam", "Mia", "Noah", "Olivia", "Priya", "Quinn", "Ruby", "Sam", "Tama",
+        "Uma", "Victor", "Wiremu", "Xin", "Yusuf", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+        "Anderson", "Brown", "Chen", "Davies", "Evans", "Ngata", "Kumar", "Lee", "Martin", "Nguyen",
+        "Patel", "Parata", "Robinson", "Singh", "Smith", "Taylor", "Thompson", "Walker", "Wilson", "Wong"
+    };
+
+    private static final double STORM_CANCEL_SHARE = 0.7;
+    private static final double MECHANICAL_RATE = 0.002;
+    private static final double CANCELLED_BOOKING_RATE = 0.02;
+
+    private final DatasetOptions options;
+    private final ShardRouter router;
+
+    private DatasetGenerator(DatasetOptions options) {
+        this.options = options;
+        this.router = new ShardRouter(options.shardUrls().size(), options.virtualNodes());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DatasetGenerator(DatasetOptions.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        long started = System.nanoTime();
+        SplittableRandom seed = new SplittableRandom(options.seed());
+        SplittableRandom networkRandom = seed.split();
+        SplittableRandom scheduleRandom = seed.split();
+        SplittableRandom bookingRandom = seed.split();
+
+        Network network = Network.build(options, networkRandom);
+        double demandPerDay = network.services.stream().mapToDouble(Network.Service::demand).sum();
+        double bookingsPerDemand = options.bookings() / (demandPerDay * options.days());
+        System.out.printf("Network: %d airports, %d hubs, %d daily services%n",
+            network.airports.size(), network.hubs.size(), network.services.size());
+
+        List<Shard> shards = new ArrayList<>();
+        try {
+            for (String url : options.shardUrls()) {
+                shards.add(Shard.open(url, options));
+            }
+
+            long flights = 0;
+            long bookings = 0;
+            long disruptions = 0;
+            long bookingOrdinal = 0;
+            for (int day = 0; day < options.days(); day++) {
+                LocalDate date = options.start().plusDays(day);
+                Instant midnight = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+                Storm[] storms = stormsFor(network, scheduleRandom);
+
+                for (Network.Service service : network.services) {
+                    UUID flightId = randomUuid(scheduleRandom);
+                    Instant departure = midnight.plusSeconds(service.departureMinute() * 60L);
+                    for (Shard shard : shards) {
+                        shard.flights.row(flightId, service.flightNumber(), service.origin().code(),
+                            service.destination().code(), departure,
+                            departure.plusSeconds(service.blockMinutes() * 60L));
+                    }
+                    flights++;
+
+                    Disruption disruption = disruptionFor(network, service, storms, midnight, scheduleRandom);
+                    double expected = service.demand() * bookingsPerDemand * (0.6 + 0.8 * bookingRandom.nextDouble());
+                    long passengers = (long) expected + (bookingRandom.nextDouble() < expected % 1 ? 1 : 0);
+                    for (long p = 0; p < passengers; p++) {
+                        String reference = "SY" + Long.toString(bookingOrdinal++, 36).toUpperCase();
+                        Shard shard = shards.get(router.shardFor(reference));
+                        UUID bookingId = randomUuid(bookingRandom);
+                        String name = FIRST_NAMES[bookingRandom.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[bookingRandom.nextInt(LAST_NAMES.length)];
+                        String status;
+                        if (disruption != null) {
+                            status = "DISRUPTED";
+                            shard.disruptions.row(randomUuid(bookingRandom), bookingId, disruption.type(),
+                                disruption.reasonCode(), disruption.reasonDescription(), disruption.occurredAt());
+                            disruptions++;
+                        } else {
+                            status = bookingRandom.nextDouble() < CANCELLED_BOOKING_RATE ? "CANCELLED" : "CONFIRMED";
+                        }
+                        shard.bookings.row(bookingId, reference, status, name, flightId, departure);
+                        bookings++;
+                    }
+                }
+                System.out.printf("Day %d/%d (%s): %,d flights, %,d bookings, %,d disruptions%n",
+                    day + 1, options.days(), date, flights, bookings, disruptions);
+            }
+
+            for (Shard shard : shards) {
+                shard.finish();
+            }
+            System.out.printf("Loaded %,d flights, %,d bookings and %,d disruptions into %d shard(s) in %d s%n",
+                flights, bookings, disruptions, shards.size(), (System.nanoTime() - started) / 1_000_000_000L);
+        } finally {
+            for (Shard shard : shards) {
+                shard.close();
+            }
+        }
+    }
+
+    private record Storm(int fromMinute, int toMinute) {}
+
+    private record Disruption(String type, String reasonCode, String reasonDescription, Instant occurredAt) {}
+
+    /** At most one storm per hub per day, lasting two to five hours. */
+    private Storm[] stormsFor(Network network, SplittableRandom random) {
+        Storm[] storms = new Storm[network.hubs.size()];
+        for (int i = 0; i < storms.length; i++) {
+            if (random.nextDouble() < options.stormRate()) {
+                int from = (5 + random.nextInt(15)) * 60;
+                storms[i] = new Storm(from, from + (2 + random.nextInt(4)) * 60);
+            }
+        }
+        return storms;
+    }
+
+    private Disruption disruptionFor(Network network, Network.Service service, Storm[] storms, Instant midnight,
+                                     SplittableRandom random) {
+        int hub = network.hubs.indexOf(service.origin());
+        if (hub >= 0 && storms[hub] != null
+                && service.departureMinute() >= storms[hub].fromMinute()
+                && service.departureMinute() < storms[hub].toMinute()) {
+            Instant occurredAt = midnight.plusSeconds((storms[hub].fromMinute() - 120) * 60L);
+            return random.nextDouble() < STORM_CANCEL_SHARE
+                ? new Disruption("CANCELLATION", "WX", "Weather", occurredAt)
+                : new Disruption("DELAY", "WX", "Weather", occurredAt);
+        }
+        if (random.nextDouble() < MECHANICAL_RATE) {
+            Instant occurredAt = midnight.plusSeconds((service.departureMinute() - 90) * 60L);
+            return new Disruption("CANCELLATION", "MX", "Mechanical", occurredAt);
+        }
+        return null;
+    }
+
+    private static UUID randomUuid(SplittableRandom random) {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * The connections and {@code COPY} streams of one shard. Flights and bookings stream
+     * concurrently on their own connections; disruptions reference bookings, so they are
+     * spooled to a temporary file and copied once the bookings are committed.
+     */
+    private static final class Shard {
+
+        final String url;
+        final Connection flightConnection;
+        final Connection bookingConnection;
+        final CopyStream flights;
+        final CopyStream bookings;
+        final Path disruptionFile;
+        final SpoolStream disruptions;
+
+        private Shard(String url, Connection flightConnection, Connection bookingConnection, Path disruptionFile)
+                throws SQLException, IOException {
+            this.url = url;
+            this.flightConnection = flightConnection;
+            this.bookingConnection = bookingConnection;
+            this.flights = new CopyStream(flightConnection,
+                "COPY flights (id, flight_number, origin, destination, scheduled_departure, scheduled_arrival) " +
+                "FROM STDIN");
+            this.bookings = new CopyStream(bookingConnection,
+                "COPY bookings (id, reference, status, passenger_name, original_flight_id, original_departure) " +
+                "FROM STDIN");
+            this.disruptionFile = disruptionFile;
+            this.disruptions = new SpoolStream(Files.newBufferedWriter(disruptionFile, StandardCharsets.UTF_8));
+        }
+
+        static Shard open(String url, DatasetOptions options) throws SQLException, IOException {
+            Flyway.configure()
+                .dataSource(url, options.user(), options.password())
+                .load()
+                .migrate();
+
+            Connection flightConnection = DriverManager.getConnection(url, options.user(), options.password());
+            try (Statement statement = flightConnection.createStatement()) {
+                if (options.reset()) {
+                    // Everything keyed by a booking reference or flight id; reference data such as
+                    // airport_connection_times is kept
+                    statement.execute("TRUNCATE rebooking_audit, rebook_requests, seat_holds, seat_inventory, " +
+                                      "disruptions, bookings, flights");
+                }
+                // Partitions for the whole range up front, so nothing lands in flights_default
+                LocalDate end = options.start().plusDays(options.days());
+                for (LocalDate month = options.start().withDayOfMonth(1); month.isBefore(end); month = month.plusMonths(1)) {
+                    statement.execute("SELECT create_flight_partition('" + month + "')");
+                }
+            }
+            Connection bookingConnection = DriverManager.getConnection(url, options.user(), options.password());
+            return new Shard(url, flightConnection, bookingConnection, Files.createTempFile("disruptions", ".tsv"));
+        }
+
+        void finish() throws SQLException, IOException {
+            flights.finish();
+            bookings.finish();
+            disruptions.flush();
+            disruptions.writer.close();
+            try (BufferedReader reader = Files.newBufferedReader(disruptionFile, StandardCharsets.UTF_8)) {
+                bookingConnection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) FROM STDIN",
+                    reader);
+            }
+            try (Statement statement = bookingConnection.createStatement()) {
+                statement.execute("ANALYZE flights");
+                statement.execute("ANALYZE bookings");
+                statement.execute("ANALYZE disruptions");
+            }
+        }
+
+        void close() {
+            try {
+                flights.cancel();
+                bookings.cancel();
+                disruptions.writer.close();
+                Files.deleteIfExists(disruptionFile);
+                flightConnection.close();
+                bookingConnection.close();
+            } catch (SQLException | IOException e) {
+                System.err.println("Failed to close shard " + url + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Tab-separated rows in COPY text format; generated values never need escaping. */
+    private abstract static class RowStream {
+
+        final StringBuilder buffer = new StringBuilder(1 << 20);
+
+        void row(Object... fields) {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                buffer.append(fields[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= 1 << 20) {
+                flush();
+            }
+        }
+
+        abstract void flush();
+    }
+
+    private static final class CopyStream extends RowStream {
+
+        final CopyIn copy;
+
+        CopyStream(Connection connection, String sql) throws SQLException {
+            this.copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        @Override
+        void flush() {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.setLength(0);
+            try {
+                copy.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new IllegalStateException("COPY failed: " + e.getMessage(), e);
+            }
+        }
+
+        void finish() throws SQLException {
+            flush();
+            copy.endCopy();
+        }
+
+        void cancel() throws SQLException {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static final class SpoolStream extends RowStream {
+
+        final Writer writer;
+
+        SpoolStream(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void flush() {
+            try {
+                writer.append(buffer);
+                buffer.setLength(0);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to spool disruptions", e);
+            }
+        }
+    }
+}
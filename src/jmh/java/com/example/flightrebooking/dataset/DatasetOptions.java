@@ -0,0 +1,63 @@
+package com.example.flightrebooking.dataset;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link DatasetGenerator}, given as {@code --name=value}.
+ * Everything the generated data depends on is an option with a fixed default, so the same
+ * arguments always produce the same rows.
+ */
+public record DatasetOptions(
+    long seed,
+    int airports,
+    int hubs,
+    long flights,
+    long bookings,
+    int days,
+    LocalDate start,
+    double stormRate,
+    List<String> shardUrls,
+    String user,
+    String password,
+    int virtualNodes,
+    boolean reset
+) {
+
+    public static DatasetOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        DatasetOptions options = new DatasetOptions(
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            Integer.parseInt(values.getOrDefault("airports", "2000")),
+            Integer.parseInt(values.getOrDefault("hubs", "24")),
+            Long.parseLong(values.getOrDefault("flights", "1000000")),
+            Long.parseLong(values.getOrDefault("bookings", "10000000")),
+            Integer.parseInt(values.getOrDefault("days", "90")),
+            LocalDate.parse(values.getOrDefault("start", "2026-11-01")),
+            Double.parseDouble(values.getOrDefault("storm-rate", "0.02")),
+            Arrays.asList(values.getOrDefault("shards", "jdbc:postgresql://localhost:5433/flightrebooking").split(",")),
+            values.getOrDefault("user", "flight"),
+            values.getOrDefault("password", "flight"),
+            Integer.parseInt(values.getOrDefault("virtual-nodes", "128")),
+            Boolean.parseBoolean(values.getOrDefault("reset", "false"))
+        );
+        if (options.hubs() < 2 || options.hubs() >= options.airports() || options.airports() > 26 * 26 * 26) {
+            throw new IllegalArgumentException("Need 2 <= hubs < airports <= 17576");
+        }
+        if (options.days() < 1 || options.flights() < options.days()) {
+            throw new IllegalArgumentException("Need at least one flight per day");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.flightrebooking.dataset;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A hub-and-spoke route network: every hub pair is connected, every spoke is connected to
+ * one to three hubs, and a sprinkling of spoke-to-spoke routes is added on top. Daily
+ * frequencies follow the product of both endpoints' traffic weight, so hub-to-hub routes
+ * are flown many times a day and thin spoke routes once or not at all.
+ */
+public final class Network {
+
+    // UTC departure banks; hub connections are timed so spokes feed into these waves
+    private static final int[] BANKS = {6 * 60, 8 * 60, 10 * 60 + 30, 13 * 60, 16 * 60, 18 * 60 + 30, 21 * 60};
+
+    public record Airport(String code, boolean hub, double weight) {}
+
+    /**
+     * One daily departure on a route: the same flight number leaves at the same minute of
+     * every day of the dataset.
+     */
+    public record Service(Airport origin, Airport destination, String flightNumber, int departureMinute, int blockMinutes,
+                   double demand) {}
+
+    public final List<Airport> airports;
+    public final List<Airport> hubs;
+    public final List<Service> services;
+
+    private Network(List<Airport> airports, List<Airport> hubs, List<Service> services) {
+        this.airports = airports;
+        this.hubs = hubs;
+        this.services = services;
+    }
+
+    public static Network build(DatasetOptions options, SplittableRandom random) {
+        List<String> codes = new ArrayList<>(26 * 26 * 26);
+        for (char a = 'A'; a <= 'Z'; a++) {
+            for (char b = 'A'; b <= 'Z'; b++) {
+                for (char c = 'A'; c <= 'Z'; c++) {
+                    codes.add("" + a + b + c);
+                }
+            }
+        }
+        for (int i = codes.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = codes.get(i);
+            codes.set(i, codes.get(j));
+            codes.set(j, swap);
+        }
+
+        List<Airport> airports = new ArrayList<>(options.airports());
+        List<Airport> hubs = new ArrayList<>(options.hubs());
+        for (int i = 0; i < options.airports(); i++) {
+            boolean hub = i < options.hubs();
+            // Zipf-like traffic: a few large airports, a long tail of small ones
+            double weight = hub ? 20.0 / (1 + i * 0.1) : 1.0 / Math.pow(1 + (i - options.hubs()) / 50.0, 0.8);
+            Airport airport = new Airport(codes.get(i), hub, weight);
+            airports.add(airport);
+            if (hub) {
+                hubs.add(airport);
+            }
+        }
+
+        List<Airport[]> routes = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Airport from : hubs) {
+            for (Airport to : hubs) {
+                addRoute(routes, seen, from, to);
+            }
+        }
+        for (Airport spoke : airports.subList(options.hubs(), airports.size())) {
+            int connections = 1 + (random.nextDouble() < 0.4 ? 1 : 0) + (random.nextDouble() < 0.1 ? 1 : 0);
+            for (int i = 0; i < connections; i++) {
+                Airport hub = hubs.get(random.nextInt(hubs.size()));
+                addRoute(routes, seen, spoke, hub);
+                addRoute(routes, seen, hub, spoke);
+            }
+        }
+        for (int i = 0; i < options.airports() / 4; i++) {
+            Airport a = airports.get(options.hubs() + random.nextInt(options.airports() - options.hubs()));
+            Airport b = airports.get(options.hubs() + random.nextInt(options.airports() - options.hubs()));
+            addRoute(routes, seen, a, b);
+            addRoute(routes, seen, b, a);
+        }
+
+        double totalWeight = 0;
+        for (Airport[] route : routes) {
+            totalWeight += route[0].weight() * route[1].weight();
+        }
+        double flightsPerDay = (double) options.flights() / options.days();
+
+        List<Service> services = new ArrayList<>();
+        int flightNumber = 0;
+        for (Airport[] route : routes) {
+            double weight = route[0].weight() * route[1].weight();
+            // Stochastic rounding keeps the total on target when most routes get under one flight a day
+            double exact = flightsPerDay * weight / totalWeight;
+            int frequency = (int) exact + (random.nextDouble() < exact % 1 ? 1 : 0);
+            int bankOffset = random.nextInt(BANKS.length);
+            for (int slot = 0; slot < frequency; slot++) {
+                int bank = BANKS[(bankOffset + slot * BANKS.length / frequency) % BANKS.length];
+                int minute = (int) Math.round(bank + random.nextGaussian() * 20);
+                services.add(new Service(route[0], route[1], flightNumberFor(flightNumber++),
+                    Math.floorMod(minute, 24 * 60), blockMinutes(route[0], route[1]), weight / frequency));
+            }
+        }
+        return new Network(airports, hubs, services);
+    }
+
+    private static void addRoute(List<Airport[]> routes, Set<String> seen, Airport from, Airport to) {
+        if (from != to && seen.add(from.code() + to.code())) {
+            routes.add(new Airport[] {from, to});
+        }
+    }
+
+    /**
+     * 45 minutes to 6 hours, the same in both directions. Derived from the codes rather than
+     * the random stream, so adding it left every other generated value unchanged.
+     */
+    private static int blockMinutes(Airport a, Airport b) {
+        String pair = a.code().compareTo(b.code()) < 0 ? a.code() + b.code() : b.code() + a.code();
+        return 45 + Math.floorMod(pair.hashCode() * 0x9E3779B9, 316);
+    }
+
+    /** XX1..XX9999, then XY1.. — stable per service, so a leg keeps its number every day. */
+    private static String flightNumberFor(int ordinal) {
+        int airline = ordinal / 9999;
+        return "" + (char) ('A' + airline / 26 % 26) + (char) ('A' + airline % 26) + (ordinal % 9999 + 1);
+    }
+}
@@ -2,8 +2,16 @@ package com.example.flightrebooking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
-@SpringBootApplication
+// DataSourceConfig and the reactive read tier build their own pools, per shard. The JDBC
+// auto-configuration's embedded-database fallback would also resolve spring.datasource.url
+// while conditions are evaluated, which AOT processing of the test contexts does before
+// their containers have started.
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, R2dbcAutoConfiguration.class})
+@ConfigurationPropertiesScan
 public class FlightRebookingApplication {
     public static void main(String[] args) {
         SpringApplication.run(FlightRebookingApplication.class, args);
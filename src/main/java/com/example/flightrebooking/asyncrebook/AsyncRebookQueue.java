@@ -0,0 +1,208 @@
+package com.example.flightrebooking.asyncrebook;
+
+import com.example.flightrebooking.config.AsyncRebookProperties;
+import com.example.flightrebooking.dto.RebookRequest;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.entity.RebookRequestStatus;
+import com.example.flightrebooking.exception.IdempotencyKeyReusedException;
+import com.example.flightrebooking.id.IdGenerator;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The durable queue behind asynchronous rebooks: a {@code rebook_requests} table on each
+ * shard, holding every rebook accepted for a booking on that shard.
+ *
+ * Workers claim the oldest runnable requests with {@code FOR UPDATE SKIP LOCKED}, as the
+ * booking work queue does, and hold them under a lease kept in {@code available_at}. A
+ * request whose worker died is claimed again once the lease runs out; running it twice is
+ * safe because the rebook itself is idempotent on the request's idempotency key.
+ */
+@Component
+public class AsyncRebookQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncRebookQueue.class);
+
+    private static final String COLUMNS =
+        "id, booking_reference, idempotency_key, selected_flight_id, connecting_flight_ids, expected_version, " +
+        "status::text, attempts, response_payload::text, error_status, error_title, error_detail, created_at";
+
+    private static final String ENQUEUE =
+        "INSERT INTO rebook_requests (id, booking_reference, idempotency_key, selected_flight_id, " +
+        "                             connecting_flight_ids, expected_version) " +
+        "VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (idempotency_key) DO NOTHING " +
+        "RETURNING " + COLUMNS;
+
+    private static final String FIND_BY_KEY = "SELECT " + COLUMNS + " FROM rebook_requests WHERE idempotency_key = ?";
+
+    private static final String FIND =
+        "SELECT " + COLUMNS + " FROM rebook_requests WHERE id = ? AND booking_reference = ?";
+
+    // Served by the partial index over unfinished requests; a PROCESSING row is only runnable
+    // again once its worker's lease has run out. The inner id is renamed so that RETURNING
+    // can name the columns unqualified
+    private static final String CLAIM =
+        "UPDATE rebook_requests r SET status = 'PROCESSING', attempts = r.attempts + 1, " +
+        "                             available_at = now() + make_interval(secs => ?) " +
+        "FROM (SELECT id AS next_id FROM rebook_requests " +
+        "      WHERE status IN ('PENDING', 'PROCESSING') AND available_at <= now() " +
+        "      ORDER BY available_at " +
+        "      LIMIT ? " +
+        "      FOR UPDATE SKIP LOCKED) next " +
+        "WHERE r.id = next.next_id " +
+        "RETURNING " + COLUMNS;
+
+    private static final String SUCCEED =
+        "UPDATE rebook_requests SET status = 'SUCCEEDED', response_payload = ?::jsonb, completed_at = now() " +
+        "WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String FAIL =
+        "UPDATE rebook_requests SET status = 'FAILED', error_status = ?, error_title = ?, error_detail = ?, " +
+        "                           completed_at = now() " +
+        "WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String RETRY =
+        "UPDATE rebook_requests SET status = 'PENDING', available_at = now() + make_interval(secs => ?) " +
+        "WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String PURGE =
+        "DELETE FROM rebook_requests WHERE completed_at < now() - make_interval(secs => ?)";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final AsyncRebookProperties properties;
+    private final RowMapper<QueuedRebook> rowMapper = this::mapRow;
+
+    public AsyncRebookQueue(ShardRoutingDataSource shardRoutingDataSource, IdGenerator idGenerator,
+                            ObjectMapper objectMapper, AsyncRebookProperties properties) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Accepts a rebook on the current shard. A second request with the same idempotency key
+     * gets the request already accepted for it rather than a new one.
+     *
+     * @throws IdempotencyKeyReusedException if the key was accepted for a different booking
+     */
+    public QueuedRebook enqueue(String reference, UUID idempotencyKey, RebookRequest request, Long expectedVersion) {
+        JdbcTemplate jdbc = jdbc(ShardContext.currentShard());
+        List<String> connectingFlightIds = request.connectingFlightIds() == null
+            ? List.of() : request.connectingFlightIds();
+        List<QueuedRebook> inserted = jdbc.query(ENQUEUE, rowMapper,
+            idGenerator.next(), reference, idempotencyKey, request.selectedFlightId(),
+            connectingFlightIds.toArray(String[]::new), expectedVersion);
+        QueuedRebook queued = inserted.isEmpty()
+            ? jdbc.queryForObject(FIND_BY_KEY, rowMapper, idempotencyKey)
+            : inserted.getFirst();
+        if (!queued.bookingReference().equals(reference)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return queued;
+    }
+
+    /**
+     * Reads from the shard primary, so a request is visible as soon as it has been accepted.
+     */
+    public Optional<QueuedRebook> find(String reference, UUID requestId) {
+        return jdbc(ShardContext.currentShard()).query(FIND, rowMapper, requestId, reference).stream().findFirst();
+    }
+
+    List<QueuedRebook> claim(int shard, int limit) {
+        return jdbc(shard).query(CLAIM, rowMapper, seconds(properties.leaseDuration()), limit);
+    }
+
+    void succeed(int shard, UUID requestId, RebookResponse response) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize rebook response", e);
+        }
+        jdbc(shard).update(SUCCEED, payload, requestId);
+    }
+
+    void fail(int shard, UUID requestId, ProblemDetail problem) {
+        jdbc(shard).update(FAIL, problem.getStatus(), problem.getTitle(), problem.getDetail(), requestId);
+    }
+
+    void retry(int shard, UUID requestId, Duration delay) {
+        jdbc(shard).update(RETRY, seconds(delay), requestId);
+    }
+
+    @Scheduled(fixedDelayString = "${rebooking.async-rebook.purge-interval:10m}")
+    public void purge() {
+        try {
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                int purged = new JdbcTemplate(shard.writePool()).update(PURGE, seconds(properties.retention()));
+                if (purged > 0) {
+                    log.debug("Purged {} finished rebook requests from shard {}", purged, shard.index());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Purging finished rebook requests failed", e);
+        }
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.getShards().get(shard).writePool());
+    }
+
+    private QueuedRebook mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Array connecting = rs.getArray(5);
+        String payload = rs.getString(9);
+        ProblemDetail problem = null;
+        if (rs.getObject(10) != null) {
+            problem = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(rs.getInt(10)), rs.getString(12));
+            problem.setTitle(rs.getString(11));
+        }
+        return new QueuedRebook(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            rs.getObject(3, UUID.class),
+            rs.getString(4),
+            connecting != null ? Arrays.asList((String[]) connecting.getArray()) : List.of(),
+            rs.getObject(6, Long.class),
+            RebookRequestStatus.valueOf(rs.getString(7)),
+            rs.getInt(8),
+            payload != null ? readResponse(payload) : null,
+            problem,
+            rs.getObject(13, OffsetDateTime.class).toInstant());
+    }
+
+    private RebookResponse readResponse(String payload) {
+        try {
+            return objectMapper.readValue(payload, RebookResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored rebook response", e);
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
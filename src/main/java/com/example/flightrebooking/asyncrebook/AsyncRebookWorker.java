@@ -0,0 +1,182 @@
+package com.example.flightrebooking.asyncrebook;
+
+import com.example.flightrebooking.config.AsyncRebookProperties;
+import com.example.flightrebooking.dto.RebookResult;
+import com.example.flightrebooking.exception.GlobalExceptionHandler;
+import com.example.flightrebooking.exception.GroupCommitUnavailableException;
+import com.example.flightrebooking.groupcommit.GroupCommitRebooker;
+import com.example.flightrebooking.routing.ReadConsistency;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs accepted asynchronous rebooks on a fixed pool of {@code worker-threads}, so however
+ * many are accepted, no more than that many compete with synchronous rebooks for the
+ * database at once.
+ *
+ * A rebook runs exactly as the synchronous endpoint would run it, and its outcome is stored
+ * for polling: the response on success, otherwise the error response the endpoint would
+ * have returned, produced by {@link GlobalExceptionHandler}. Only transient database
+ * failures (lock timeouts, deadlocks, no connection) and a full or slow group commit queue
+ * are retried, with exponential backoff, up to {@code max-attempts}.
+ */
+@Component
+public class AsyncRebookWorker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncRebookWorker.class);
+
+    private final AsyncRebookQueue queue;
+    private final RebookingService rebookingService;
+    private final GroupCommitRebooker groupCommitRebooker;
+    private final ReadConsistency readConsistency;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ExceptionHandlerMethodResolver exceptionHandlers =
+        new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+    private final AsyncRebookProperties properties;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter retried;
+    private final Timer completionTime;
+
+    public AsyncRebookWorker(AsyncRebookQueue queue, RebookingService rebookingService,
+                             GroupCommitRebooker groupCommitRebooker, ReadConsistency readConsistency,
+                             ShardRoutingDataSource shardRoutingDataSource, GlobalExceptionHandler exceptionHandler,
+                             AsyncRebookProperties properties, MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.rebookingService = rebookingService;
+        this.groupCommitRebooker = groupCommitRebooker;
+        this.readConsistency = readConsistency;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.exceptionHandler = exceptionHandler;
+        this.properties = properties;
+        this.workers = Executors.newFixedThreadPool(properties.workerThreads(),
+            Thread.ofPlatform().name("async-rebook-", 0).daemon().factory());
+        this.idleWorkers = new Semaphore(properties.workerThreads());
+        this.succeeded = meterRegistry.counter("rebooking.async-rebook.completed", "outcome", "succeeded");
+        this.failed = meterRegistry.counter("rebooking.async-rebook.completed", "outcome", "failed");
+        this.retried = meterRegistry.counter("rebooking.async-rebook.retried");
+        this.completionTime = meterRegistry.timer("rebooking.async-rebook.completion-time");
+    }
+
+    /**
+     * Claims as many runnable rebooks as there are idle workers, oldest first, shard by shard.
+     */
+    @Scheduled(fixedDelayString = "${rebooking.async-rebook.poll-interval:100ms}")
+    public void dispatch() {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            int idle = idleWorkers.drainPermits();
+            if (idle == 0) {
+                return;
+            }
+            int claimed = 0;
+            try {
+                for (QueuedRebook request : queue.claim(shard.index(), idle)) {
+                    claimed++;
+                    workers.execute(() -> run(shard.index(), request));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Claiming asynchronous rebooks on shard {} failed", shard.index(), e);
+            } finally {
+                idleWorkers.release(idle - claimed);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Rebooks still running are claimed again once their lease runs out
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run(int shard, QueuedRebook request) {
+        try {
+            RebookResult result = ShardContext.onShard(shard, () -> rebook(request));
+            queue.succeed(shard, request.id(), result.response());
+            readConsistency.recordWrite(request.bookingReference());
+            succeeded.increment();
+            completionTime.record(Duration.between(request.createdAt(), Instant.now()));
+        } catch (RuntimeException e) {
+            if (isTransient(e) && request.attempts() < properties.maxAttempts()) {
+                Duration backoff = properties.retryBackoff().multipliedBy(1L << (request.attempts() - 1));
+                log.debug("Rebook request {} hit a transient failure; retrying in {}", request.id(), backoff, e);
+                queue.retry(shard, request.id(), backoff);
+                retried.increment();
+            } else {
+                queue.fail(shard, request.id(), problemFor(e));
+                failed.increment();
+                completionTime.record(Duration.between(request.createdAt(), Instant.now()));
+            }
+        } finally {
+            idleWorkers.release();
+        }
+    }
+
+    private RebookResult rebook(QueuedRebook request) {
+        try {
+            return rebookOnce(request);
+        } catch (DataIntegrityViolationException e) {
+            // Concurrent request with same idempotency key - retry will find existing audit
+            return rebookOnce(request);
+        }
+    }
+
+    private RebookResult rebookOnce(QueuedRebook request) {
+        if (groupCommitRebooker.isEnabled()) {
+            return groupCommitRebooker.rebook(request.bookingReference(), request.selectedFlightId(),
+                request.connectingFlightIds(), request.idempotencyKey(), request.expectedVersion());
+        }
+        return rebookingService.rebook(request.bookingReference(), request.selectedFlightId(),
+            request.connectingFlightIds(), request.idempotencyKey(), request.expectedVersion());
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            // A real conflict, answered with 409 like the synchronous endpoint
+            return false;
+        }
+        return e instanceof TransientDataAccessException
+            || e instanceof GroupCommitUnavailableException
+            || e instanceof RecoverableDataAccessException
+            || e instanceof CannotCreateTransactionException;
+    }
+
+    private ProblemDetail problemFor(RuntimeException e) {
+        Method handler = exceptionHandlers.resolveMethodByThrowable(e);
+        try {
+            Object problem = handler.invoke(exceptionHandler, e);
+            return problem instanceof ResponseEntity<?> response ? (ProblemDetail) response.getBody() : (ProblemDetail) problem;
+        } catch (IllegalAccessException | InvocationTargetException reflectionFailure) {
+            throw new IllegalStateException("Could not map " + e + " to an error response", reflectionFailure);
+        }
+    }
+}
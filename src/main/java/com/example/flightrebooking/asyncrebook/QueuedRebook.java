@@ -0,0 +1,31 @@
+package com.example.flightrebooking.asyncrebook;
+
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.entity.RebookRequestStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A rebook accepted for asynchronous processing, with everything the synchronous endpoint
+ * would have been called with.
+ *
+ * @param attempts attempts started so far, including one in progress
+ * @param response the rebook's response once it has {@code SUCCEEDED}
+ * @param problem the error response the synchronous endpoint would have returned, once it has {@code FAILED}
+ */
+public record QueuedRebook(
+    UUID id,
+    String bookingReference,
+    UUID idempotencyKey,
+    String selectedFlightId,
+    List<String> connectingFlightIds,
+    Long expectedVersion,
+    RebookRequestStatus status,
+    int attempts,
+    RebookResponse response,
+    ProblemDetail problem,
+    Instant createdAt
+) {}
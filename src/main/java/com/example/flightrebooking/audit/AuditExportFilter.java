@@ -0,0 +1,23 @@
+package com.example.flightrebooking.audit;
+
+import com.example.flightrebooking.entity.RebookingOutcome;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Which audit records an export includes; null or empty criteria match everything.
+ *
+ * @param from records created at or after this instant
+ * @param to records created before this instant
+ * @param outcomes records with any of these outcomes
+ * @param origin departure airport of the disrupted flight
+ * @param destination arrival airport of the disrupted flight
+ */
+public record AuditExportFilter(Instant from, Instant to, Set<RebookingOutcome> outcomes,
+                                String origin, String destination) {
+
+    public AuditExportFilter {
+        outcomes = outcomes == null ? Set.of() : Set.copyOf(outcomes);
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.flightrebooking.audit;
+
+import com.example.flightrebooking.config.AuditExportProperties;
+import com.example.flightrebooking.entity.RebookingOutcome;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams the rebooking audit log as newline-delimited JSON.
+ *
+ * Each shard is read in turn through a server-side cursor ({@code fetchSize} rows per round
+ * trip) in a read-only transaction, so it is served by a replica when one is healthy, and
+ * every row is written straight to the response through a {@link JsonGenerator}. Nothing
+ * is collected, so memory use does not depend on how many rows are exported.
+ *
+ * No transaction stays open for the whole export: after {@code segmentRows} rows or
+ * {@code segmentDuration}, whichever comes first, the transaction is committed and the
+ * next one resumes after the last row written, by {@code (created_at, id)}. Records
+ * are ordered by creation time within a shard but not across shards.
+ */
+@Component
+public class AuditExporter {
+
+    private static final String SELECT =
+        "SELECT a.id, a.created_at, b.reference, a.idempotency_key, a.outcome, " +
+        "       a.previous_flight_id, pf.flight_number, pf.origin, pf.destination, pf.scheduled_departure, " +
+        "       a.new_flight_id, nf.flight_number, nf.origin, nf.destination, nf.scheduled_departure " +
+        "FROM rebooking_audit a " +
+        "JOIN bookings b ON b.id = a.booking_id " +
+        // Flights of archived partitions are no longer joined; their records carry only the flight id
+        "LEFT JOIN flights pf ON pf.id = a.previous_flight_id " +
+        "LEFT JOIN flights nf ON nf.id = a.new_flight_id";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ObjectMapper objectMapper;
+    private final AuditExportProperties properties;
+    private final Counter exportedRows;
+    private final Timer exportTimer;
+
+    public AuditExporter(ShardRoutingDataSource shardRoutingDataSource, ObjectMapper objectMapper,
+                         AuditExportProperties properties, MeterRegistry meterRegistry) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.exportedRows = meterRegistry.counter("rebooking.audit.export.rows");
+        this.exportTimer = meterRegistry.timer("rebooking.audit.export.duration");
+    }
+
+    /**
+     * Writes every matching record to {@code out}, one JSON object per line.
+     *
+     * @return the number of records written
+     */
+    public long export(AuditExportFilter filter, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Every record ends with its own newline instead of Jackson's separator between root values
+            generator.setRootValueSeparator(null);
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                exportShard(shard, filter, generator, progress);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            exportTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+        return progress.rows;
+    }
+
+    private void exportShard(ShardRoutingDataSource.Shard shard, AuditExportFilter filter,
+                             JsonGenerator generator, Progress progress) {
+        JdbcTemplate jdbc = new JdbcTemplate(shard.dataSource());
+        // Fetch size only streams inside a transaction; without one the driver buffers every row
+        jdbc.setFetchSize(properties.fetchSize());
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(shard.dataSource()));
+        tx.setReadOnly(true);
+
+        Position position = null;
+        do {
+            Position after = position;
+            ResultSetExtractor<Position> segment = rs -> writeSegment(rs, shard.index(), generator, progress);
+            position = tx.execute(status -> jdbc.query(con -> prepare(con, filter, after), segment));
+        } while (position != null);
+    }
+
+    private PreparedStatement prepare(Connection con, AuditExportFilter filter, Position after) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (filter.from() != null) {
+            conditions.add("a.created_at >= ?");
+            parameters.add(filter.from().atOffset(ZoneOffset.UTC));
+        }
+        if (filter.to() != null) {
+            conditions.add("a.created_at < ?");
+            parameters.add(filter.to().atOffset(ZoneOffset.UTC));
+        }
+        if (!filter.outcomes().isEmpty()) {
+            conditions.add("a.outcome::text = ANY(?)");
+            parameters.add(con.createArrayOf("text",
+                filter.outcomes().stream().map(RebookingOutcome::name).toArray()));
+        }
+        if (filter.origin() != null) {
+            conditions.add("pf.origin = ?");
+            parameters.add(filter.origin());
+        }
+        if (filter.destination() != null) {
+            conditions.add("pf.destination = ?");
+            parameters.add(filter.destination());
+        }
+        if (after != null) {
+            conditions.add("(a.created_at, a.id) > (?, ?)");
+            parameters.add(after.createdAt());
+            parameters.add(after.id());
+        }
+
+        String sql = SELECT
+            + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + " ORDER BY a.created_at, a.id LIMIT ?";
+        parameters.add(properties.segmentRows());
+
+        PreparedStatement statement = con.prepareStatement(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+        return statement;
+    }
+
+    /**
+     * Writes rows until the segment's limits are reached.
+     *
+     * @return where the next segment resumes, or null when this shard is done
+     */
+    private Position writeSegment(ResultSet rs, int shard, JsonGenerator generator, Progress progress)
+            throws SQLException {
+        long deadline = System.nanoTime() + properties.segmentDuration().toNanos();
+        int rows = 0;
+        Position last = null;
+        try {
+            while (rs.next()) {
+                last = new Position(rs.getObject(2, OffsetDateTime.class), rs.getObject(1, UUID.class));
+                writeRecord(rs, shard, last, generator);
+                rows++;
+                exportedRows.increment();
+                if (++progress.rows % properties.flushRows() == 0) {
+                    generator.flush();
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    return last;
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows == properties.segmentRows() ? last : null;
+    }
+
+    private static void writeRecord(ResultSet rs, int shard, Position position, JsonGenerator generator)
+            throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", position.id().toString());
+        generator.writeNumberField("shard", shard);
+        generator.writeStringField("bookingReference", rs.getString(3));
+        generator.writeStringField("idempotencyKey", rs.getString(4));
+        generator.writeStringField("outcome", rs.getString(5));
+        generator.writeStringField("createdAt", position.createdAt().toInstant().toString());
+        writeFlight(rs, 6, "previousFlight", generator);
+        writeFlight(rs, 11, "newFlight", generator);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeFlight(ResultSet rs, int column, String name, JsonGenerator generator)
+            throws SQLException, IOException {
+        generator.writeObjectFieldStart(name);
+        generator.writeStringField("id", rs.getString(column));
+        String flightNumber = rs.getString(column + 1);
+        if (flightNumber != null) {
+            generator.writeStringField("flightNumber", flightNumber);
+            generator.writeStringField("origin", rs.getString(column + 2));
+            generator.writeStringField("destination", rs.getString(column + 3));
+            generator.writeStringField("scheduledDeparture",
+                rs.getObject(column + 4, OffsetDateTime.class).toInstant().toString());
+        }
+        generator.writeEndObject();
+    }
+
+    private record Position(OffsetDateTime createdAt, UUID id) {}
+
+    private static final class Progress {
+        long rows;
+    }
+}
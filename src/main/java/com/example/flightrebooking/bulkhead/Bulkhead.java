@@ -0,0 +1,64 @@
+package com.example.flightrebooking.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Semaphore bulkhead with a bounded wait queue.
+ *
+ * At most {@code maxConcurrent} callers run at once and at most {@code maxWaiting} wait
+ * (each for no longer than {@code maxWaitNanos}); anyone else is turned away immediately,
+ * so a saturated traffic class can only ever tie up a fixed number of request threads.
+ */
+public class Bulkhead {
+
+    private final TrafficClass trafficClass;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public Bulkhead(TrafficClass trafficClass, int maxConcurrent, int maxWaiting, long maxWaitNanos) {
+        this.trafficClass = trafficClass;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWaitNanos;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public TrafficClass getTrafficClass() {
+        return trafficClass;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+}
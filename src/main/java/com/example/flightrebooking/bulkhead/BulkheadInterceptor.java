@@ -0,0 +1,60 @@
+package com.example.flightrebooking.bulkhead;
+
+import com.example.flightrebooking.config.BulkheadProperties;
+import com.example.flightrebooking.exception.BulkheadFullException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+@Component
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String BULKHEAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".bulkhead";
+
+    private final BulkheadRegistry registry;
+    private final BulkheadProperties properties;
+
+    public BulkheadInterceptor(BulkheadRegistry registry, BulkheadProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // A stream's completion is dispatched again; its permit was returned when it went async
+        if (!properties.enabled() || !(handler instanceof HandlerMethod method)
+                || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        BulkheadIsolated annotation = method.getMethodAnnotation(BulkheadIsolated.class);
+        if (annotation == null) {
+            return true;
+        }
+
+        Bulkhead bulkhead = registry.bulkhead(annotation.value());
+        if (!bulkhead.tryEnter()) {
+            registry.recordRejection(annotation.value());
+            throw new BulkheadFullException(annotation.value(), properties.retryAfter());
+        }
+        request.setAttribute(BULKHEAD_ATTRIBUTE, bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // A streamed response holds no request thread, so no permit either
+        afterCompletion(request, response, handler, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(BULKHEAD_ATTRIBUTE) instanceof Bulkhead bulkhead) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            bulkhead.exit();
+        }
+    }
+}
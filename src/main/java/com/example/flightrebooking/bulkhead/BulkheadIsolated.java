@@ -0,0 +1,17 @@
+package com.example.flightrebooking.bulkhead;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a controller method inside the bulkhead for its traffic class. Read methods must
+ * only use {@code readOnly = true} transactions so they also stay on the read connection pool.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkheadIsolated {
+
+    TrafficClass value();
+}
@@ -0,0 +1,51 @@
+package com.example.flightrebooking.bulkhead;
+
+import com.example.flightrebooking.config.BulkheadProperties;
+import com.example.flightrebooking.config.BulkheadProperties.Compartment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class BulkheadRegistry {
+
+    private final Map<TrafficClass, Bulkhead> bulkheads = new EnumMap<>(TrafficClass.class);
+    private final Map<TrafficClass, Counter> rejections = new EnumMap<>(TrafficClass.class);
+
+    public BulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        register(TrafficClass.READ, properties.read(), meterRegistry);
+        register(TrafficClass.WRITE, properties.write(), meterRegistry);
+    }
+
+    public Bulkhead bulkhead(TrafficClass trafficClass) {
+        return bulkheads.get(trafficClass);
+    }
+
+    public void recordRejection(TrafficClass trafficClass) {
+        rejections.get(trafficClass).increment();
+    }
+
+    private void register(TrafficClass trafficClass, Compartment config, MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = new Bulkhead(trafficClass, config.maxConcurrent(), config.maxWaiting(),
+            config.maxWait().toNanos());
+        bulkheads.put(trafficClass, bulkhead);
+
+        String tag = trafficClass.name().toLowerCase();
+        Gauge.builder("rebooking.bulkhead.active", bulkhead, Bulkhead::getActive)
+            .description("Requests executing inside the bulkhead")
+            .tag("traffic", tag)
+            .register(meterRegistry);
+        Gauge.builder("rebooking.bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+            .description("Requests queued for a bulkhead permit")
+            .tag("traffic", tag)
+            .register(meterRegistry);
+        rejections.put(trafficClass, Counter.builder("rebooking.bulkhead.rejected")
+            .description("Requests rejected because the bulkhead and its queue were full")
+            .tag("traffic", tag)
+            .register(meterRegistry));
+    }
+}
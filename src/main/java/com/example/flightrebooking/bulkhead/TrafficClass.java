@@ -0,0 +1,6 @@
+package com.example.flightrebooking.bulkhead;
+
+public enum TrafficClass {
+    READ,
+    WRITE
+}
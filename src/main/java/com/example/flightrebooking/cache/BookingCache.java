@@ -0,0 +1,171 @@
+package com.example.flightrebooking.cache;
+
+import com.example.flightrebooking.changefeed.ChangeFeed;
+import com.example.flightrebooking.config.BookingCacheProperties;
+import com.example.flightrebooking.dto.BookingResponse;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.routing.ReadConsistency;
+import com.example.flightrebooking.routing.ReadRoutingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Bookings as {@code GET /bookings/{ref}} returns them, kept in this instance's memory by
+ * reference and served until the booking changes, on any instance.
+ *
+ * Changes are learnt from the {@link ChangeFeed}: a booking's entry is dropped when the
+ * booking is announced. A route's announcement only notes when the route changed, in O(1)
+ * on the listener thread: an entry naming a flight of that route and loaded before then is
+ * no longer served, and is replaced on its next read or evicted with the expired ones.
+ * After a gap in the feed the whole cache is dropped, and while any shard is not being
+ * listened to nothing is served from or added to it. A booking written on this instance
+ * within the read-your-writes window is read from the database, since its own announcement
+ * may still be on the way.
+ *
+ * Misses are read from the primary: a replica may not yet have a change that was already
+ * announced, and nothing would drop that stale entry again. An entry loaded while its
+ * booking was announced is not kept, whichever finishes first: each load notes its
+ * reference's invalidation stamp beforehand and checks it again after storing the entry,
+ * and an invalidation bumps the stamp before it removes the entry.
+ */
+@Component
+public class BookingCache {
+
+    private static final int STRIPES = 4096;
+
+    /** {@code routeChanges}: the route change count before the booking was read. */
+    private record Entry(BookingResponse booking, long loadedAt, long routeChanges,
+                         String originalRoute, String rebookedRoute) {}
+
+    private final BookingCacheProperties properties;
+    private final ChangeFeed changeFeed;
+    private final ReadConsistency readConsistency;
+    private final long maxAgeNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    // Bumped when every entry is dropped
+    private final AtomicLong epoch = new AtomicLong();
+    // Counts route changes; each route maps to the count its last change took
+    private final AtomicLong routeChanges = new AtomicLong();
+    private final Map<String, Long> routeChangedAt = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public BookingCache(BookingCacheProperties properties, ChangeFeed changeFeed, ReadConsistency readConsistency,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.changeFeed = changeFeed;
+        this.readConsistency = readConsistency;
+        this.maxAgeNanos = properties.maxAge().toNanos();
+        meterRegistry.gaugeMapSize("rebooking.booking-cache.size", Tags.empty(), entries);
+        this.hits = meterRegistry.counter("rebooking.booking-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("rebooking.booking-cache.requests", "result", "miss");
+        this.invalidations = meterRegistry.counter("rebooking.booking-cache.invalidations");
+
+        changeFeed.addListener(ChangeFeed.BOOKING_CHANGES, new ChangeFeed.Listener() {
+            @Override
+            public void onChange(int shard, String reference) {
+                invalidate(reference);
+            }
+
+            @Override
+            public void onMissedChanges() {
+                invalidateAll();
+            }
+        });
+        changeFeed.addListener(ChangeFeed.FLIGHT_CHANGES, new ChangeFeed.Listener() {
+            @Override
+            public void onChange(int shard, String route) {
+                invalidateRoute(route);
+            }
+
+            @Override
+            public void onMissedChanges() {
+                // Dropped by the booking listener
+            }
+        });
+    }
+
+    /**
+     * The booking, from memory if it is there and unchanged, else from {@code load}, which
+     * reads it with the entity's details in the current shard.
+     */
+    public Optional<BookingResponse> get(String reference, Supplier<Optional<BookingResponse>> load) {
+        if (!properties.enabled() || !changeFeed.isListening() || readConsistency.isRecentlyWritten(reference)) {
+            return readConsistency.readBooking(reference, load);
+        }
+        Entry cached = entries.get(reference);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < maxAgeNanos && isCurrent(cached)) {
+            hits.increment();
+            return Optional.of(cached.booking());
+        }
+        misses.increment();
+
+        int stripe = stripe(reference);
+        long stamp = stamps.get(stripe);
+        long epochBefore = epoch.get();
+        long routeChangesBefore = routeChanges.get();
+        Optional<BookingResponse> loaded = ReadRoutingContext.onPrimary(load);
+        if (loaded.isPresent() && (cached != null || entries.size() < properties.maxEntries())) {
+            Entry entry = new Entry(loaded.get(), System.nanoTime(), routeChangesBefore,
+                route(loaded.get().originalFlight()), route(loaded.get().rebookedFlight()));
+            entries.put(reference, entry);
+            if (stamps.get(stripe) != stamp || epoch.get() != epochBefore) {
+                entries.remove(reference, entry);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(String reference) {
+        stamps.incrementAndGet(stripe(reference));
+        if (entries.remove(reference) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${rebooking.booking-cache.max-age:1m}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.loadedAt() >= maxAgeNanos || !isCurrent(entry));
+    }
+
+    /** A flight's number or times changed, which bookings on it show. */
+    private void invalidateRoute(String route) {
+        routeChangedAt.put(route, routeChanges.incrementAndGet());
+    }
+
+    private boolean isCurrent(Entry entry) {
+        return !changedSince(entry.originalRoute(), entry.routeChanges())
+            && !changedSince(entry.rebookedRoute(), entry.routeChanges());
+    }
+
+    // A load that took the count after the change's was read after it, since it is announced after commit
+    private boolean changedSince(String route, long count) {
+        return route != null && routeChangedAt.getOrDefault(route, 0L) > count;
+    }
+
+    private static String route(FlightResponse flight) {
+        return flight == null ? null : flight.origin() + "-" + flight.destination();
+    }
+
+    private static int stripe(String reference) {
+        return (reference.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+}
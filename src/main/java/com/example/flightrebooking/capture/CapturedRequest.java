@@ -0,0 +1,24 @@
+package com.example.flightrebooking.capture;
+
+import java.util.Map;
+
+/**
+ * One captured booking API request. Only the headers that change request semantics are
+ * kept; responses are not captured.
+ *
+ * @param receivedAtMicros when the request arrived, in microseconds since the epoch
+ * @param bodyTruncated whether {@code body} holds only the start of a longer body
+ * @param durationMicros time spent in the service
+ */
+public record CapturedRequest(
+    long receivedAtMicros,
+    String method,
+    String path,
+    String query,
+    String reference,
+    Map<String, String> headers,
+    byte[] body,
+    boolean bodyTruncated,
+    int status,
+    long durationMicros
+) {}
@@ -0,0 +1,182 @@
+package com.example.flightrebooking.capture;
+
+import com.example.flightrebooking.config.TrafficCaptureProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures booking API requests for later replay. Sampling is by booking reference, so a
+ * sampled booking keeps its full sequence of reads, rebooks and retries.
+ *
+ * Bodies are read up front rather than as the handler consumes them, so requests shed
+ * before their body is read (503s during a storm) are still captured complete. Only the
+ * first 16KB are buffered: a longer body, declared or chunked, is recorded cut to that
+ * size and flagged as truncated, and the handler reads the rest from the connection.
+ *
+ * The filter is always registered and skips every request while capture is off: the flag
+ * is read when the application starts rather than when its bean definitions are built, so
+ * an AOT-processed build honours it too.
+ */
+@Component
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final String BOOKINGS_PATH = "/api/v1/bookings/";
+    private static final List<String> CAPTURED_HEADERS = List.of("Content-Type", "Idempotency-Key", "If-Match");
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final TrafficCaptureWriter writer;
+    private final boolean enabled;
+    private final int sampleThreshold;
+
+    public TrafficCaptureFilter(TrafficCaptureWriter writer, TrafficCaptureProperties properties) {
+        this.writer = writer;
+        this.enabled = properties.enabled();
+        this.sampleThreshold = (int) Math.round(properties.sampleRate() * 10_000);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (!enabled || !uri.startsWith(BOOKINGS_PATH)) {
+            return true;
+        }
+        return Math.floorMod(referenceOf(uri).hashCode(), 10_000) >= sampleThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long receivedAtMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        long started = System.nanoTime();
+        byte[] body = new byte[0];
+        boolean bodyTruncated = false;
+        HttpServletRequest wrapped = request;
+        // -1 is a chunked body, or none at all
+        if (request.getContentLengthLong() != 0) {
+            ServletInputStream in = request.getInputStream();
+            byte[] buffered = in.readNBytes(MAX_BODY_BYTES + 1);
+            bodyTruncated = buffered.length > MAX_BODY_BYTES;
+            body = bodyTruncated ? Arrays.copyOf(buffered, MAX_BODY_BYTES) : buffered;
+            wrapped = new BufferedBodyRequest(request, buffered, bodyTruncated ? in : null);
+        }
+        try {
+            chain.doFilter(wrapped, response);
+        } finally {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : CAPTURED_HEADERS) {
+                String value = request.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            writer.submit(new CapturedRequest(
+                receivedAtMicros,
+                request.getMethod(),
+                request.getRequestURI(),
+                request.getQueryString(),
+                referenceOf(request.getRequestURI()),
+                headers,
+                body,
+                bodyTruncated,
+                response.getStatus(),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+        }
+    }
+
+    private static String referenceOf(String uri) {
+        int end = uri.indexOf('/', BOOKINGS_PATH.length());
+        return uri.substring(BOOKINGS_PATH.length(), end < 0 ? uri.length() : end);
+    }
+
+    /** Serves the buffered start of the body, then the rest of it, if any, from the connection. */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] buffered;
+        private final ServletInputStream rest;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] buffered, ServletInputStream rest) {
+            super(request);
+            this.buffered = buffered;
+            this.rest = rest;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream start = new ByteArrayInputStream(buffered);
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = start.read();
+                    if (b < 0 && rest != null) {
+                        b = rest.read();
+                    }
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = start.read(b, off, len);
+                    if (n <= 0 && rest != null) {
+                        n = rest.read(b, off, len);
+                    }
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished || (rest == null && start.available() == 0);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Reads never block on the buffered part, so the listener is called straight away
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
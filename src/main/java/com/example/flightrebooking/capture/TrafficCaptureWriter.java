@@ -0,0 +1,140 @@
+package com.example.flightrebooking.capture;
+
+import com.example.flightrebooking.config.TrafficCaptureProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends captured requests to rolling files on a single background thread. Request
+ * threads only enqueue; when the writer falls behind, captures are dropped and counted
+ * rather than slowing the API down. With capture off it starts no thread and opens no files.
+ */
+@Component
+public class TrafficCaptureWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final TrafficCaptureProperties properties;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Counter recorded;
+    private final Counter dropped;
+    // Null while capture is off
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private OutputStream out;
+    private long fileBytes;
+    private int fileSequence;
+
+    public TrafficCaptureWriter(TrafficCaptureProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.recorded = meterRegistry.counter("rebooking.capture.requests", "result", "recorded");
+        this.dropped = meterRegistry.counter("rebooking.capture.requests", "result", "dropped");
+        if (!properties.enabled()) {
+            this.writer = null;
+            return;
+        }
+        Files.createDirectories(properties.directory());
+        this.writer = Thread.ofPlatform().daemon().name("traffic-capture").start(this::drain);
+    }
+
+    void submit(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                CapturedRequest request = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (request == null) {
+                    if (out != null) {
+                        out.flush();
+                    }
+                    continue;
+                }
+                append(request);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Traffic capture stopped: {}", e.getMessage(), e);
+        } finally {
+            closeFile();
+        }
+    }
+
+    private void append(CapturedRequest request) throws IOException {
+        if (out == null || fileBytes >= properties.maxFileSize().toBytes()) {
+            closeFile();
+            Path file = properties.directory().resolve(
+                "traffic-%s-%03d.cbor".formatted(FILE_TIMESTAMP.format(Instant.now()), fileSequence++));
+            out = new CountingOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.APPEND), 1 << 16));
+            fileBytes = 0;
+            log.info("Capturing booking API traffic to {}", file);
+        }
+        TrafficTrace.write(out, request);
+        recorded.increment();
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("Failed to close capture file", e);
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private final class CountingOutputStream extends FilterOutputStream {
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            fileBytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            fileBytes += len;
+        }
+    }
+}
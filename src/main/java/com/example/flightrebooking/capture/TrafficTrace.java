@@ -0,0 +1,32 @@
+package com.example.flightrebooking.capture;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The on-disk capture format: an append-only sequence of CBOR-encoded
+ * {@link CapturedRequest}s with no framing beyond CBOR itself, so a file cut short by a
+ * crash is still readable up to its last complete record.
+ */
+public final class TrafficTrace {
+
+    private static final CBORMapper MAPPER = CBORMapper.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+        .build();
+
+    private TrafficTrace() {}
+
+    public static void write(OutputStream out, CapturedRequest request) throws IOException {
+        MAPPER.writeValue(out, request);
+    }
+
+    public static MappingIterator<CapturedRequest> read(InputStream in) throws IOException {
+        return MAPPER.readerFor(CapturedRequest.class).readValues(in);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.flightrebooking.changefeed;
+
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Committed changes to bookings and flights, as announced by the database's own triggers
+ * with {@code NOTIFY} (see {@code V16__notify_changes_per_statement.sql}), whichever
+ * instance or tool wrote them.
+ *
+ * Each shard is listened to on a connection of its own, outside the pools, by one thread
+ * that blocks until notifications arrive and hands each to the channel's listeners on that
+ * thread; listeners must return quickly. Flights are written to every shard, so each flight
+ * change arrives once per shard, each time with the shard it was committed on: a listener
+ * whose data lives on one shard acts on that shard's announcement alone. Notifications sent while a connection is down are lost, so
+ * after reconnecting every listener is told that it may have missed changes, and until then
+ * {@link #isListening()} is false.
+ */
+@Component
+public class ChangeFeed implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /** Payload: the booking reference. */
+    public static final String BOOKING_CHANGES = "booking_changes";
+
+    /** Payload: the route, {@code ORIGIN-DESTINATION}. */
+    public static final String FLIGHT_CHANGES = "flight_changes";
+
+    private static final List<String> CHANNELS = List.of(BOOKING_CHANGES, FLIGHT_CHANGES);
+    private static final int RECEIVE_TIMEOUT_MILLIS = 1_000;
+    // A dead connection is only noticed on use; a quiet one is checked this often
+    private static final long KEEPALIVE_MILLIS = 30_000;
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    public interface Listener {
+
+        /** A change committed on {@code shard}. */
+        void onChange(int shard, String payload);
+
+        /** Changes on some shard may not have been delivered; treat everything as changed. */
+        void onMissedChanges();
+    }
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public ChangeFeed(ShardRoutingDataSource shardRoutingDataSource) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+    }
+
+    public void addListener(String channel, Listener listener) {
+        if (!CHANNELS.contains(channel)) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Notifications received so far, or missed-change signals: a reader that sees the same
+     * count before and after a read knows nothing was announced in between.
+     */
+    public long changesReceived() {
+        return received.get();
+    }
+
+    /** Whether every shard is being listened to, so that no change can currently go unannounced. */
+    public boolean isListening() {
+        return !threads.isEmpty() && connected.get() == threads.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            threads.add(Thread.ofPlatform().name("change-feed-" + shard.index()).daemon()
+                .start(() -> listen(shard.index(), shard.writePool())));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(RECEIVE_TIMEOUT_MILLIS * 2L);
+        }
+    }
+
+    private void listen(int shard, HikariDataSource pool) {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    pool.getJdbcUrl(), pool.getUsername(), pool.getPassword());
+                 Statement statement = connection.createStatement()) {
+                for (String channel : CHANNELS) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    received.incrementAndGet();
+                    listeners.values().forEach(channelListeners -> channelListeners.forEach(Listener::onMissedChanges));
+                }
+                connectedBefore = true;
+
+                connected.incrementAndGet();
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    long lastHeard = System.currentTimeMillis();
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MILLIS);
+                        if (notifications != null && notifications.length > 0) {
+                            lastHeard = System.currentTimeMillis();
+                            for (PGNotification notification : notifications) {
+                                dispatch(shard, notification.getName(), notification.getParameter());
+                            }
+                        } else if (System.currentTimeMillis() - lastHeard > KEEPALIVE_MILLIS) {
+                            statement.execute("SELECT 1");
+                            lastHeard = System.currentTimeMillis();
+                        }
+                    }
+                } finally {
+                    connected.decrementAndGet();
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Change feed connection to {} failed; reconnecting", pool.getJdbcUrl(), e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(int shard, String channel, String payload) {
+        received.incrementAndGet();
+        for (Listener listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.onChange(shard, payload);
+            } catch (RuntimeException e) {
+                log.error("Change listener failed on {} {}", channel, payload, e);
+            }
+        }
+    }
+}
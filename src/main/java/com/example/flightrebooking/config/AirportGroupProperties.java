@@ -0,0 +1,19 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param groups airports serving the same city, keyed by a group name (typically the IATA city code);
+ *               an airport may belong to at most one group
+ * @param alternateAirportPenalty score deducted for each end of an option that uses a different airport
+ *                                of the group than the original flight
+ */
+@ConfigurationProperties(prefix = "rebooking.airport-groups")
+public record AirportGroupProperties(
+    @DefaultValue Map<String, List<String>> groups,
+    @DefaultValue("20") int alternateAirportPenalty
+) {}
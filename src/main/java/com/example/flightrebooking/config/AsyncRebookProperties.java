@@ -0,0 +1,26 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param workerThreads most asynchronous rebooks run at once on this instance
+ * @param pollInterval how often idle workers look for accepted rebooks
+ * @param leaseDuration how long a rebook stays with the worker running it before another may take it over
+ * @param maxAttempts attempts at a rebook that keeps hitting transient database errors before it fails
+ * @param retryBackoff wait before the second attempt; doubles with each further attempt
+ * @param retention how long finished rebooks can still be polled
+ * @param purgeInterval how often finished rebooks past their retention are deleted
+ */
+@ConfigurationProperties(prefix = "rebooking.async-rebook")
+public record AsyncRebookProperties(
+    @DefaultValue("4") int workerThreads,
+    @DefaultValue("100ms") Duration pollInterval,
+    @DefaultValue("1m") Duration leaseDuration,
+    @DefaultValue("5") int maxAttempts,
+    @DefaultValue("1s") Duration retryBackoff,
+    @DefaultValue("24h") Duration retention,
+    @DefaultValue("10m") Duration purgeInterval
+) {}
@@ -0,0 +1,20 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param fetchSize rows the driver fetches per round trip from the server-side cursor
+ * @param flushRows rows written between flushes of the response stream
+ * @param segmentRows most rows read in one transaction before the export resumes in a new one
+ * @param segmentDuration how long one transaction may stay open before the export resumes in a new one
+ */
+@ConfigurationProperties(prefix = "rebooking.audit.export")
+public record AuditExportProperties(
+    @DefaultValue("1000") int fetchSize,
+    @DefaultValue("1000") int flushRows,
+    @DefaultValue("100000") int segmentRows,
+    @DefaultValue("10s") Duration segmentDuration
+) {}
@@ -0,0 +1,14 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "rebooking.audit")
+public record AuditProperties(
+    @DefaultValue("JSON") PayloadFormat payloadFormat
+) {
+    public enum PayloadFormat {
+        JSON,
+        CBOR
+    }
+}
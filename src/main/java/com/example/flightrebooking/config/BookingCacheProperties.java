@@ -0,0 +1,18 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled serve GET /bookings/{ref} from this instance's memory while the booking is unchanged
+ * @param maxEntries most bookings kept; further ones are read from the database until entries age out
+ * @param maxAge longest an entry is served, bounding staleness should a change notification be lost unnoticed
+ */
+@ConfigurationProperties(prefix = "rebooking.booking-cache")
+public record BookingCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("100000") int maxEntries,
+    @DefaultValue("1m") Duration maxAge
+) {}
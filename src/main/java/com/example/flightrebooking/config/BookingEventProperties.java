@@ -0,0 +1,20 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxStreams most booking event streams open at once on this instance; more are refused with 503
+ * @param timeout how long a stream stays open; clients reconnect and get a fresh snapshot
+ * @param heartbeatInterval how often an idle stream is sent a comment, so proxies keep it open
+ * @param refreshThreads most streams re-reading their booking and options at once after a change
+ */
+@ConfigurationProperties(prefix = "rebooking.events")
+public record BookingEventProperties(
+    @DefaultValue("20000") int maxStreams,
+    @DefaultValue("30m") Duration timeout,
+    @DefaultValue("30s") Duration heartbeatInterval,
+    @DefaultValue("4") int refreshThreads
+) {}
@@ -0,0 +1,27 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Sizing for the read and write bulkheads. Keep
+ * {@code read.maxConcurrent + read.maxWaiting} below the servlet thread pool size so a
+ * read storm can never occupy every request thread.
+ */
+@ConfigurationProperties(prefix = "rebooking.bulkhead")
+public record BulkheadProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1s") Duration retryAfter,
+    @DefaultValue Compartment read,
+    @DefaultValue Compartment write
+) {
+    public record Compartment(
+        @DefaultValue("40") int maxConcurrent,
+        @DefaultValue("40") int maxWaiting,
+        @DefaultValue("100ms") Duration maxWait,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("2s") Duration connectionTimeout
+    ) {}
+}
@@ -0,0 +1,30 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "rebooking.concurrency-limit")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1s") Duration retryAfter,
+    Map<String, EndpointLimit> endpoints
+) {
+    public ConcurrencyLimitProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+
+    public record EndpointLimit(
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("500ms") Duration latencyThreshold,
+        @DefaultValue("0.9") double backoffRatio
+    ) {
+        public static EndpointLimit defaults() {
+            return new EndpointLimit(20, 4, 200, Duration.ofMillis(500), 0.9);
+        }
+    }
+}
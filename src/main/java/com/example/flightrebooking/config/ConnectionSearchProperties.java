@@ -0,0 +1,24 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled offer connecting itineraries alongside direct flights
+ * @param maxLegs most legs in one itinerary; 2 means at most one stop
+ * @param maxResults connecting itineraries considered per page of rebooking options
+ * @param searchWindow only legs departing within this long after the disrupted flight are used
+ * @param defaultMinimumConnectionTime used for airports without a row in {@code airport_connection_times}
+ * @param refreshInterval how often the in-memory timetable is rebuilt; schedule imports also rebuild it
+ */
+@ConfigurationProperties(prefix = "rebooking.connections")
+public record ConnectionSearchProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("2") int maxLegs,
+    @DefaultValue("5") int maxResults,
+    @DefaultValue("48h") Duration searchWindow,
+    @DefaultValue("45m") Duration defaultMinimumConnectionTime,
+    @DefaultValue("5m") Duration refreshInterval
+) {}
@@ -0,0 +1,104 @@
+package com.example.flightrebooking.config;
+
+import com.example.flightrebooking.routing.ReadRoutingDataSource;
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separate connection pools for read-only and read-write transactions.
+ *
+ * The primary {@link DataSource} is a {@link LazyConnectionDataSourceProxy}: the physical
+ * connection is only fetched on first use, after the transaction manager has marked the
+ * connection read-only, so {@code @Transactional(readOnly = true)} work is routed by
+ * {@link ReadRoutingDataSource} to a replica (or the primary's read pool) and can never
+ * exhaust the connections the rebook path commits on.
+ *
+ * With sharding configured, one such proxy exists per shard behind a
+ * {@link ShardRoutingDataSource}. Shard 0 is built from the beans below; additional shards
+ * get their own write and read pools and no replicas.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writeDataSource(DataSourceProperties properties, BulkheadProperties bulkheads) {
+        return pool(properties, properties.determineUrl(), "write", false, bulkheads.write());
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(DataSourceProperties properties, BulkheadProperties bulkheads) {
+        return pool(properties, properties.determineUrl(), "read", true, bulkheads.read());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadRoutingDataSource readRoutingDataSource(HikariDataSource readDataSource,
+                                                       DataSourceProperties properties,
+                                                       BulkheadProperties bulkheads,
+                                                       ReplicaProperties replicaProperties) {
+        List<ReadRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.urls().size(); i++) {
+            String name = "replica-" + i;
+            replicas.add(new ReadRoutingDataSource.Replica(name,
+                pool(properties, replicaProperties.urls().get(i), name, true, bulkheads.read())));
+        }
+        return new ReadRoutingDataSource(readDataSource, replicas);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource writeDataSource,
+                                             HikariDataSource readDataSource,
+                                             ReadRoutingDataSource readRoutingDataSource,
+                                             DataSourceProperties properties,
+                                             BulkheadProperties bulkheads,
+                                             ShardingProperties sharding) {
+        List<ShardRoutingDataSource.Shard> shards = new ArrayList<>();
+        shards.add(new ShardRoutingDataSource.Shard(0, writeDataSource, readDataSource,
+            readWriteSplitting(writeDataSource, readRoutingDataSource)));
+
+        for (int i = 0; i < sharding.additionalShardUrls().size(); i++) {
+            int index = i + 1;
+            String url = sharding.additionalShardUrls().get(i);
+            HikariDataSource write = pool(properties, url, "shard-" + index + "-write", false, bulkheads.write());
+            HikariDataSource read = pool(properties, url, "shard-" + index + "-read", true, bulkheads.read());
+            shards.add(new ShardRoutingDataSource.Shard(index, write, read, readWriteSplitting(write, read)));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties sharding) {
+        return new ShardRouter(1 + sharding.additionalShardUrls().size(), sharding.virtualNodes());
+    }
+
+    private DataSource readWriteSplitting(DataSource write, DataSource read) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(write);
+        proxy.setReadOnlyDataSource(read);
+        return proxy;
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, String url, String name, boolean readOnly,
+                                  BulkheadProperties.Compartment compartment) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .url(url)
+            .build();
+        pool.setPoolName("rebooking-" + name);
+        pool.setMaximumPoolSize(compartment.poolSize());
+        pool.setConnectionTimeout(compartment.connectionTimeout().toMillis());
+        pool.setReadOnly(readOnly);
+        return pool;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param monthsAhead monthly {@code flights} partitions kept created ahead of the current month
+ * @param archiveAfter how long after a partition's last possible departure it becomes eligible for archival
+ * @param cron when partition maintenance runs
+ */
+@ConfigurationProperties(prefix = "rebooking.flights.partitions")
+public record FlightPartitionProperties(
+    @DefaultValue("12") int monthsAhead,
+    @DefaultValue("30d") Duration archiveAfter,
+    @DefaultValue("0 15 3 * * *") String cron
+) {}
@@ -0,0 +1,52 @@
+package com.example.flightrebooking.config;
+
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Migrates every shard with the same configuration. The auto-configured instance
+     * covers shard 0; reference data such as flights is seeded on every shard.
+     *
+     * With {@code rebooking.migrations.skip} no shard is touched: migrating takes Flyway's
+     * lock and reads the history table on each one, which every instance scaled out in a
+     * storm would otherwise queue on, only to find nothing pending.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource dataSource,
+                                                            MigrationProperties properties) {
+        return flyway -> {
+            if (properties.skip()) {
+                return;
+            }
+            for (ShardRoutingDataSource.Shard shard : dataSource.getShards()) {
+                Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shard.writePool())
+                    .load()
+                    .migrate();
+            }
+        };
+    }
+
+    /**
+     * Hibernate's own check of the mapping against the schema ({@code ddl-auto: validate})
+     * reads the metadata of every mapped table before the application can serve; skipped
+     * along with the migrations.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer schemaValidationCustomizer(MigrationProperties properties) {
+        return hibernateProperties -> {
+            if (properties.skip()) {
+                hibernateProperties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled commit concurrent rebooks together in micro-batches instead of one transaction each
+ * @param maxBatchSize most rebooks committed in one transaction
+ * @param linger how long a batch waits for more rebooks after the first one arrives
+ * @param maxPending most rebooks waiting for a batch per shard; more are refused with 503
+ * @param commitTimeout how long a rebook waits for its batch to commit before it is answered with 503
+ */
+@ConfigurationProperties(prefix = "rebooking.group-commit")
+public record GroupCommitProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("64") int maxBatchSize,
+    @DefaultValue("2ms") Duration linger,
+    @DefaultValue("1024") int maxPending,
+    @DefaultValue("5s") Duration commitTimeout
+) {}
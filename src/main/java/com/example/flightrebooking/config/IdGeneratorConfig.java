@@ -0,0 +1,19 @@
+package com.example.flightrebooking.config;
+
+import com.example.flightrebooking.id.IdGenerator;
+import com.example.flightrebooking.id.RandomUuidGenerator;
+import com.example.flightrebooking.id.UuidV7Generator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(IdGeneratorProperties properties) {
+        return switch (properties.strategy()) {
+            case UUID_V7 -> new UuidV7Generator();
+            case RANDOM -> new RandomUuidGenerator();
+        };
+    }
+}
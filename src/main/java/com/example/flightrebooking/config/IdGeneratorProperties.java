@@ -0,0 +1,14 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "rebooking.ids")
+public record IdGeneratorProperties(
+    @DefaultValue("UUID_V7") Strategy strategy
+) {
+    public enum Strategy {
+        UUID_V7,
+        RANDOM
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param skip start without running Flyway on any shard and without validating the JPA mapping against the
+ *             schema; for instances scaled out from a version whose migrations an earlier instance of the same
+ *             release has already applied. Nothing checks that they have: an instance started with this set
+ *             against an older schema fails on its first query instead of at startup
+ */
+@ConfigurationProperties(prefix = "rebooking.migrations")
+public record MigrationProperties(
+    @DefaultValue("false") boolean skip
+) {}
@@ -0,0 +1,12 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxCandidates best direct flights considered for each group of bookings with the same search
+ */
+@ConfigurationProperties(prefix = "rebooking.reaccommodation")
+public record ReaccommodationProperties(
+    @DefaultValue("50") int maxCandidates
+) {}
@@ -0,0 +1,20 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled also serve the booking and rebooking-options reads from a non-blocking server on {@code port}
+ * @param port port of the reactive read server; 0 picks a free one
+ * @param poolSize R2DBC connections per shard, which bounds the reads in flight per shard
+ * @param maxAcquireTime longest a read waits for a connection before it is refused with 503
+ */
+@ConfigurationProperties(prefix = "rebooking.reactive-reads")
+public record ReactiveReadProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("8081") int port,
+    @DefaultValue("20") int poolSize,
+    @DefaultValue("1s") Duration maxAcquireTime
+) {}
@@ -0,0 +1,16 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param searchHorizon only flights departing within this long after the search start are
+ *                      offered; past a day or so every later flight scores the same, so
+ *                      without a horizon a page of low-scoring options reads the whole route
+ */
+@ConfigurationProperties(prefix = "rebooking.options")
+public record RebookingOptionsProperties(
+    @DefaultValue("7d") Duration searchHorizon
+) {}
@@ -0,0 +1,25 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streaming replicas that serve {@code readOnly} transactions. With no URLs configured,
+ * read-only work uses the primary's read pool.
+ *
+ * @param urls JDBC URLs of the replicas; credentials are shared with {@code spring.datasource}
+ * @param maxLag replicas further behind than this are skipped until they catch up
+ * @param readYourWritesWindow how long reads of a just-rebooked booking are pinned to the primary, on the
+ *                             instance that rebooked it
+ * @param lagCheckInterval how often replica lag is sampled, and a heartbeat committed on the primary
+ */
+@ConfigurationProperties(prefix = "rebooking.replicas")
+public record ReplicaProperties(
+    @DefaultValue List<String> urls,
+    @DefaultValue("5s") Duration maxLag,
+    @DefaultValue("10s") Duration readYourWritesWindow,
+    @DefaultValue("2s") Duration lagCheckInterval
+) {}
@@ -0,0 +1,16 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxReportedErrors rejected rows listed individually in the import response; the rest are only counted
+ * @param progressInterval rows between progress log lines
+ * @param copyBufferBytes rows are buffered up to this size before being sent to each shard's COPY stream
+ */
+@ConfigurationProperties(prefix = "rebooking.schedule.import")
+public record ScheduleImportProperties(
+    @DefaultValue("100") int maxReportedErrors,
+    @DefaultValue("100000") long progressInterval,
+    @DefaultValue("262144") int copyBufferBytes
+) {}
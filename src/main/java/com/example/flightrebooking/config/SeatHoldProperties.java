@@ -0,0 +1,19 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param duration how long a seat hold lasts unless it is placed again, which extends it
+ * @param tick resolution of the expiry timing wheel; a hold expires at most one tick late
+ * @param sweepInterval how often every instance also deletes the expired holds its wheel does not
+ *                      cover, such as those placed by an instance that stopped
+ */
+@ConfigurationProperties(prefix = "rebooking.seat-holds")
+public record SeatHoldProperties(
+    @DefaultValue("2m") Duration duration,
+    @DefaultValue("100ms") Duration tick,
+    @DefaultValue("30s") Duration sweepInterval
+) {}
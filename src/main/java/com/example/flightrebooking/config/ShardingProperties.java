@@ -0,0 +1,19 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Booking-reference sharding. Shard 0 is always {@code spring.datasource} (with its
+ * replicas); each URL here adds one more shard with the same credentials and pool sizing.
+ *
+ * @param additionalShardUrls JDBC URLs of shards 1..N
+ * @param virtualNodes points per shard on the consistent-hash ring
+ */
+@ConfigurationProperties(prefix = "rebooking.sharding")
+public record ShardingProperties(
+    @DefaultValue List<String> additionalShardUrls,
+    @DefaultValue("128") int virtualNodes
+) {}
@@ -0,0 +1,23 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * @param enabled whether booking API requests are captured at all
+ * @param sampleRate share of booking references captured; all requests for a sampled reference are kept together
+ * @param directory where capture files are written
+ * @param maxFileSize a new capture file is started once the current one reaches this size
+ * @param queueCapacity requests buffered for the writer thread; captures beyond this are dropped, never waited for
+ */
+@ConfigurationProperties(prefix = "rebooking.capture")
+public record TrafficCaptureProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1.0") double sampleRate,
+    @DefaultValue("capture") Path directory,
+    @DefaultValue("256MB") DataSize maxFileSize,
+    @DefaultValue("10000") int queueCapacity
+) {}
@@ -0,0 +1,33 @@
+package com.example.flightrebooking.config;
+
+import com.example.flightrebooking.bulkhead.BulkheadInterceptor;
+import com.example.flightrebooking.limit.ConcurrencyLimitInterceptor;
+import com.example.flightrebooking.sharding.ShardRoutingInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ShardRoutingInterceptor shardRoutingInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    public WebConfig(ShardRoutingInterceptor shardRoutingInterceptor,
+                     ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                     BulkheadInterceptor bulkheadInterceptor) {
+        this.shardRoutingInterceptor = shardRoutingInterceptor;
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.bulkheadInterceptor = bulkheadInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Registered first so its afterCompletion always clears the shard binding
+        registry.addInterceptor(shardRoutingInterceptor);
+        // Shed excess load first; only admitted requests compete for bulkhead permits
+        registry.addInterceptor(concurrencyLimitInterceptor);
+        registry.addInterceptor(bulkheadInterceptor);
+    }
+}
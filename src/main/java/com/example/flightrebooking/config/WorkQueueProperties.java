@@ -0,0 +1,16 @@
+package com.example.flightrebooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param leaseDuration how long a claimed booking stays with its worker unless renewed or released
+ * @param depthRefreshInterval how often the queue depth gauges are recounted
+ */
+@ConfigurationProperties(prefix = "rebooking.work-queue")
+public record WorkQueueProperties(
+    @DefaultValue("5m") Duration leaseDuration,
+    @DefaultValue("15s") Duration depthRefreshInterval
+) {}
@@ -0,0 +1,47 @@
+package com.example.flightrebooking.connection;
+
+import com.example.flightrebooking.config.AirportGroupProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves an airport to every airport of its city group, so one route search covers all
+ * origin and destination alternatives.
+ */
+@Component
+public class AirportGroups {
+
+    private final Map<String, List<String>> alternatives = new HashMap<>();
+    private final int alternateAirportPenalty;
+
+    public AirportGroups(AirportGroupProperties properties) {
+        this.alternateAirportPenalty = properties.alternateAirportPenalty();
+        properties.groups().forEach((group, airports) -> {
+            for (String airport : airports) {
+                List<String> members = new ArrayList<>(airports.size());
+                // The airport itself first, then the others in configured order
+                members.add(airport);
+                airports.stream().filter(other -> !other.equals(airport)).forEach(members::add);
+                if (alternatives.put(airport, List.copyOf(members)) != null) {
+                    throw new IllegalStateException("Airport " + airport + " is in more than one airport group");
+                }
+            }
+        });
+    }
+
+    /**
+     * The airport and the other airports of its group, or just the airport when it is not
+     * in a group.
+     */
+    public List<String> withAlternatives(String airport) {
+        return alternatives.getOrDefault(airport, List.of(airport));
+    }
+
+    public int alternateAirportPenalty() {
+        return alternateAirportPenalty;
+    }
+}
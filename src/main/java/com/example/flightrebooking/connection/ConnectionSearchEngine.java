@@ -0,0 +1,148 @@
+package com.example.flightrebooking.connection;
+
+import com.example.flightrebooking.config.ConnectionSearchProperties;
+import com.example.flightrebooking.schedule.Route;
+import com.example.flightrebooking.schedule.ScheduleChangeListener;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Finds connecting itineraries for rebooking in an in-memory {@link Timetable}.
+ *
+ * The timetable is rebuilt from the {@code flights} table at startup, periodically, and
+ * after every schedule import, then swapped in atomically; searches never touch the
+ * database. Flights are replicated to every shard, so the first shard is read; departed
+ * months are archived out of {@code flights}, which keeps the snapshot to the live schedule.
+ */
+@Component
+public class ConnectionSearchEngine implements ScheduleChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionSearchEngine.class);
+
+    private static final String LOAD_FLIGHTS =
+        "SELECT id, origin, destination, scheduled_departure, scheduled_arrival FROM flights " +
+        "WHERE scheduled_arrival IS NOT NULL " +
+        "ORDER BY scheduled_departure";
+
+    private static final String LOAD_CONNECTION_TIMES =
+        "SELECT airport, minimum_connection_minutes FROM airport_connection_times";
+
+    private final DataSource dataSource;
+    private final ConnectionSearchProperties properties;
+    private final Timer searchTimer;
+    private final Timer refreshTimer;
+
+    private volatile Timetable timetable;
+
+    public ConnectionSearchEngine(ShardRoutingDataSource shardRoutingDataSource,
+                                  ConnectionSearchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.dataSource = shardRoutingDataSource.getShards().getFirst().writePool();
+        this.properties = properties;
+        this.timetable = Timetable.builder(properties.defaultMinimumConnectionTime()).build();
+        this.searchTimer = Timer.builder("rebooking.connections.search")
+            .description("Connection Scan search time per rebooking options request")
+            .register(meterRegistry);
+        this.refreshTimer = Timer.builder("rebooking.connections.refresh")
+            .description("Time to rebuild the in-memory timetable")
+            .register(meterRegistry);
+        Gauge.builder("rebooking.connections.timetable.flights", this, engine -> engine.timetable.size())
+            .description("Flights in the in-memory timetable")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Connecting itineraries from any of {@code origins} to any of {@code destinations}
+     * departing after {@code departAfter}, earliest arrival first.
+     *
+     * @param excluded flight that may not be used as a leg, typically the disrupted one
+     */
+    public List<Timetable.Itinerary> findConnections(Collection<String> origins, Collection<String> destinations,
+                                                     Instant departAfter, UUID excluded) {
+        return findConnections(origins, destinations, departAfter, excluded, itinerary -> true);
+    }
+
+    /**
+     * As {@link #findConnections(Collection, Collection, Instant, UUID)}, with only the
+     * itineraries that pass {@code counted} counting towards the configured maximum, so each
+     * page of options can get its own.
+     */
+    public List<Timetable.Itinerary> findConnections(Collection<String> origins, Collection<String> destinations,
+                                                     Instant departAfter, UUID excluded,
+                                                     Predicate<Timetable.Itinerary> counted) {
+        if (!properties.enabled()) {
+            return List.of();
+        }
+        Timetable current = timetable;
+        return searchTimer.record(() -> current.findConnections(origins, destinations, departAfter, excluded,
+            properties.maxLegs(), properties.maxResults(), properties.searchWindow(), counted));
+    }
+
+    /**
+     * Routes whose options a change to a flight from {@code origin} to {@code destination} can
+     * alter, as each route's origin mapped to its destinations: its own route, and those of the
+     * connections it could be a leg of.
+     */
+    public Map<String, Set<String>> routesThrough(String origin, String destination) {
+        if (!properties.enabled()) {
+            return Map.of(origin, Set.of(destination));
+        }
+        return timetable.routesThrough(origin, destination, properties.maxLegs());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${rebooking.connections.refresh-interval:5m}",
+        fixedDelayString = "${rebooking.connections.refresh-interval:5m}")
+    public void refresh() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // Fetch size only streams inside a transaction; without one the driver buffers every row
+        jdbc.setFetchSize(10_000);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.setReadOnly(true);
+        Timetable refreshed = tx.execute(status -> {
+            Timetable.Builder builder = Timetable.builder(properties.defaultMinimumConnectionTime());
+            jdbc.query(LOAD_CONNECTION_TIMES, rs -> {
+                builder.minimumConnectionTime(rs.getString(1), Duration.ofMinutes(rs.getInt(2)));
+            });
+            jdbc.query(LOAD_FLIGHTS, rs -> {
+                builder.flight(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+                    rs.getTimestamp(4).toInstant(), rs.getTimestamp(5).toInstant());
+            });
+            return builder.build();
+        });
+        timetable = refreshed;
+        long elapsed = System.nanoTime() - start;
+        refreshTimer.record(Duration.ofNanos(elapsed));
+        log.info("Loaded {} flights into the connection timetable in {} ms", refreshed.size(), elapsed / 1_000_000);
+    }
+
+    @Override
+    public void onRoutesChanged(Set<Route> routes) {
+        refresh();
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.flightrebooking.connection;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, array-based snapshot of the flight schedule for Connection Scan searches.
+ *
+ * Every flight is one elementary connection, stored column-wise and sorted by departure,
+ * so a search is a single forward pass over a contiguous slice of primitive arrays with
+ * no allocation per flight. Airports are interned to dense indexes and carry their
+ * minimum connection time.
+ */
+public final class Timetable {
+
+    /**
+     * A connecting itinerary.
+     *
+     * @param flightIds legs in travel order
+     * @param origin the first leg's departure airport
+     * @param destination the last leg's arrival airport
+     * @param via the connecting airports, in order
+     */
+    public record Itinerary(List<UUID> flightIds, String origin, String destination, List<String> via,
+                            Instant departure, Instant arrival) {}
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final String[] airports;
+    private final Map<String, Integer> airportIndex;
+    private final long[] minimumConnectionSeconds;
+
+    private final int[] departureAirport;
+    private final int[] arrivalAirport;
+    private final long[] departureSeconds;
+    private final long[] arrivalSeconds;
+    private final long[] idHigh;
+    private final long[] idLow;
+    // Distinct airports flown to from, and from to, each airport
+    private final int[][] flownTo;
+    private final int[][] flownFrom;
+
+    private Timetable(Builder builder, int[] order) {
+        this.airports = builder.airports.toArray(String[]::new);
+        this.airportIndex = Map.copyOf(builder.airportIndex);
+        this.minimumConnectionSeconds = new long[airports.length];
+        for (int i = 0; i < airports.length; i++) {
+            Duration mct = builder.minimumConnectionTimes.getOrDefault(airports[i], builder.defaultMinimumConnectionTime);
+            minimumConnectionSeconds[i] = mct.toSeconds();
+        }
+
+        int n = builder.size;
+        this.departureAirport = new int[n];
+        this.arrivalAirport = new int[n];
+        this.departureSeconds = new long[n];
+        this.arrivalSeconds = new long[n];
+        this.idHigh = new long[n];
+        this.idLow = new long[n];
+        for (int i = 0; i < n; i++) {
+            int from = order == null ? i : order[i];
+            departureAirport[i] = builder.departureAirport[from];
+            arrivalAirport[i] = builder.arrivalAirport[from];
+            departureSeconds[i] = builder.departureSeconds[from];
+            arrivalSeconds[i] = builder.arrivalSeconds[from];
+            idHigh[i] = builder.idHigh[from];
+            idLow[i] = builder.idLow[from];
+        }
+
+        List<Set<Integer>> to = new ArrayList<>();
+        List<Set<Integer>> from = new ArrayList<>();
+        for (int i = 0; i < airports.length; i++) {
+            to.add(new LinkedHashSet<>());
+            from.add(new LinkedHashSet<>());
+        }
+        for (int i = 0; i < n; i++) {
+            to.get(departureAirport[i]).add(arrivalAirport[i]);
+            from.get(arrivalAirport[i]).add(departureAirport[i]);
+        }
+        this.flownTo = to.stream().map(set -> set.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+        this.flownFrom = from.stream().map(set -> set.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+    }
+
+    public static Builder builder(Duration defaultMinimumConnectionTime) {
+        return new Builder(defaultMinimumConnectionTime);
+    }
+
+    public int size() {
+        return departureSeconds.length;
+    }
+
+    public List<Itinerary> findConnections(String origin, String destination, Instant departAfter, UUID excluded,
+                                           int maxLegs, int maxResults, Duration window) {
+        return findConnections(List.of(origin), List.of(destination), departAfter, excluded, maxLegs, maxResults,
+            window, itinerary -> true);
+    }
+
+    /**
+     * Connecting itineraries (two or more legs) from any of {@code origins} to any of
+     * {@code destinations}, each the earliest-arriving journey whose first leg departs after
+     * the previous result's, so later departures are only offered when they still get the
+     * passenger there sooner than waiting would. Several origins are scanned in the same
+     * pass, so searching a whole airport group costs no more than searching one airport.
+     *
+     * @param departAfter first legs must depart strictly after this
+     * @param excluded flight that may not be used, typically the disrupted one; may be null
+     * @param window only legs departing within this long after {@code departAfter} are considered
+     * @param counted which itineraries count towards {@code maxResults}; the others are returned
+     *                as well, so a caller paging through results can skip the ones already shown
+     */
+    public List<Itinerary> findConnections(Collection<String> origins, Collection<String> destinations,
+                                           Instant departAfter, UUID excluded,
+                                           int maxLegs, int maxResults, Duration window,
+                                           Predicate<Itinerary> counted) {
+        boolean[] o = new boolean[airports.length];
+        boolean[] d = new boolean[airports.length];
+        if (!mark(origins, o) || !mark(destinations, d) || maxLegs < 2) {
+            return List.of();
+        }
+        for (int i = 0; i < airports.length; i++) {
+            if (o[i] && d[i]) {
+                return List.of();
+            }
+        }
+
+        long boardAfter = departAfter.getEpochSecond();
+        long lastDeparture = boardAfter + window.toSeconds();
+        List<Itinerary> results = new ArrayList<>();
+        long[][] arrival = new long[maxLegs + 1][airports.length];
+        int[][] via = new int[maxLegs + 1][airports.length];
+
+        int count = 0;
+        while (count < maxResults) {
+            Itinerary itinerary = earliestArrival(o, d, boardAfter, lastDeparture, excluded, maxLegs, arrival, via);
+            if (itinerary == null) {
+                break;
+            }
+            results.add(itinerary);
+            if (counted.test(itinerary)) {
+                count++;
+            }
+            boardAfter = itinerary.departure().getEpochSecond();
+        }
+        return results;
+    }
+
+    /**
+     * One Connection Scan pass. {@code arrival[k][stop]} is the earliest arrival at
+     * {@code stop} using exactly {@code k} legs and {@code via[k][stop]} the connection
+     * that achieved it; a leg can be boarded at a stop once the previous leg's arrival plus
+     * the stop's minimum connection time has passed.
+     */
+    /**
+     * Routes that a flight from {@code origin} to {@code destination} can serve in itineraries
+     * of at most {@code maxLegs} legs: its own, and those of every connection it could be a
+     * leg of given the airports flown between. Each route's origin maps to its destinations.
+     * Only the network is considered, not the times, so some routes may have no connection.
+     */
+    public Map<String, Set<String>> routesThrough(String origin, String destination, int maxLegs) {
+        Integer from = airportIndex.get(origin);
+        Integer to = airportIndex.get(destination);
+        if (from == null || to == null || maxLegs < 2) {
+            return Map.of(origin, Set.of(destination));
+        }
+        int[] legsBefore = legsTo(from, flownFrom, maxLegs - 1);
+        int[] legsAfter = legsTo(to, flownTo, maxLegs - 1);
+
+        // Destinations reachable within 0, 1, ... legs after the flight
+        List<Set<String>> within = new ArrayList<>();
+        Set<String> reached = new HashSet<>();
+        for (int legs = 0; legs < maxLegs; legs++) {
+            for (int i = 0; i < airports.length; i++) {
+                if (legsAfter[i] == legs) {
+                    reached.add(airports[i]);
+                }
+            }
+            within.add(Set.copyOf(reached));
+        }
+
+        Map<String, Set<String>> routes = new HashMap<>();
+        for (int i = 0; i < airports.length; i++) {
+            if (legsBefore[i] < maxLegs) {
+                routes.put(airports[i], within.get(maxLegs - 1 - legsBefore[i]));
+            }
+        }
+        return routes;
+    }
+
+    /** Fewest legs between {@code start} and each airport along {@code edges}, up to {@code maxLegs}. */
+    private int[] legsTo(int start, int[][] edges, int maxLegs) {
+        int[] legs = new int[airports.length];
+        Arrays.fill(legs, Integer.MAX_VALUE);
+        legs[start] = 0;
+        List<Integer> frontier = List.of(start);
+        for (int depth = 1; depth <= maxLegs && !frontier.isEmpty(); depth++) {
+            List<Integer> next = new ArrayList<>();
+            for (int airport : frontier) {
+                for (int neighbour : edges[airport]) {
+                    if (legs[neighbour] == Integer.MAX_VALUE) {
+                        legs[neighbour] = depth;
+                        next.add(neighbour);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return legs;
+    }
+
+    private Itinerary earliestArrival(boolean[] origin, boolean[] destination, long boardAfter, long lastDeparture,
+                                      UUID excluded, int maxLegs, long[][] arrival, int[][] via) {
+        for (long[] row : arrival) {
+            Arrays.fill(row, UNREACHED);
+        }
+        long excludedHigh = excluded == null ? 0 : excluded.getMostSignificantBits();
+        long excludedLow = excluded == null ? 0 : excluded.getLeastSignificantBits();
+
+        long best = UNREACHED;
+        int bestLegs = -1;
+        int bestStop = -1;
+        for (int c = firstDepartingAfter(boardAfter); c < departureSeconds.length; c++) {
+            long departs = departureSeconds[c];
+            if (departs > lastDeparture || departs >= best) {
+                // Nothing departing from here on can arrive earlier than what we have
+                break;
+            }
+            if (excluded != null && idHigh[c] == excludedHigh && idLow[c] == excludedLow) {
+                continue;
+            }
+            int from = departureAirport[c];
+            int to = arrivalAirport[c];
+            if (origin[to]) {
+                continue;
+            }
+            long arrives = arrivalSeconds[c];
+
+            // Direct flights are offered separately; only first legs to other airports count here
+            if (origin[from]) {
+                if (!destination[to] && arrives < arrival[1][to]) {
+                    arrival[1][to] = arrives;
+                    via[1][to] = c;
+                }
+                continue;
+            }
+            if (destination[from]) {
+                continue;
+            }
+            for (int k = 2; k <= maxLegs; k++) {
+                long previous = arrival[k - 1][from];
+                if (previous == UNREACHED || previous + minimumConnectionSeconds[from] > departs) {
+                    continue;
+                }
+                if (arrives < arrival[k][to]) {
+                    arrival[k][to] = arrives;
+                    via[k][to] = c;
+                    if (destination[to] && arrives < best) {
+                        best = arrives;
+                        bestLegs = k;
+                        bestStop = to;
+                    }
+                }
+            }
+        }
+        if (bestLegs < 0) {
+            return null;
+        }
+
+        List<Integer> legs = new ArrayList<>(bestLegs);
+        int stop = bestStop;
+        for (int k = bestLegs; k >= 1; k--) {
+            int c = via[k][stop];
+            legs.add(c);
+            stop = departureAirport[c];
+        }
+        Collections.reverse(legs);
+
+        List<UUID> flightIds = new ArrayList<>(legs.size());
+        List<String> connectingAirports = new ArrayList<>(legs.size() - 1);
+        for (int i = 0; i < legs.size(); i++) {
+            int c = legs.get(i);
+            flightIds.add(new UUID(idHigh[c], idLow[c]));
+            if (i > 0) {
+                connectingAirports.add(airports[departureAirport[c]]);
+            }
+        }
+        return new Itinerary(flightIds, airports[departureAirport[legs.getFirst()]],
+            airports[arrivalAirport[legs.getLast()]], connectingAirports,
+            Instant.ofEpochSecond(departureSeconds[legs.getFirst()]), Instant.ofEpochSecond(best));
+    }
+
+    /** Flags the given airports; false when none of them has a flight. */
+    private boolean mark(Collection<String> codes, boolean[] flags) {
+        boolean any = false;
+        for (String code : codes) {
+            Integer index = airportIndex.get(code);
+            if (index != null) {
+                flags[index] = true;
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private int firstDepartingAfter(long epochSecond) {
+        int low = 0;
+        int high = departureSeconds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureSeconds[mid] <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static final class Builder {
+
+        private final Duration defaultMinimumConnectionTime;
+        private final List<String> airports = new ArrayList<>();
+        private final Map<String, Integer> airportIndex = new HashMap<>();
+        private final Map<String, Duration> minimumConnectionTimes = new HashMap<>();
+
+        private int size;
+        private boolean sorted = true;
+        private int[] departureAirport = new int[1024];
+        private int[] arrivalAirport = new int[1024];
+        private long[] departureSeconds = new long[1024];
+        private long[] arrivalSeconds = new long[1024];
+        private long[] idHigh = new long[1024];
+        private long[] idLow = new long[1024];
+
+        private Builder(Duration defaultMinimumConnectionTime) {
+            this.defaultMinimumConnectionTime = defaultMinimumConnectionTime;
+        }
+
+        public Builder minimumConnectionTime(String airport, Duration minimumConnectionTime) {
+            minimumConnectionTimes.put(airport, minimumConnectionTime);
+            return this;
+        }
+
+        /** Adds a flight; flights added in departure order skip the sort in {@link #build()}. */
+        public Builder flight(UUID id, String origin, String destination, Instant departure, Instant arrival) {
+            if (size == departureSeconds.length) {
+                int capacity = size * 2;
+                departureAirport = Arrays.copyOf(departureAirport, capacity);
+                arrivalAirport = Arrays.copyOf(arrivalAirport, capacity);
+                departureSeconds = Arrays.copyOf(departureSeconds, capacity);
+                arrivalSeconds = Arrays.copyOf(arrivalSeconds, capacity);
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+            }
+            long departs = departure.getEpochSecond();
+            if (size > 0 && departs < departureSeconds[size - 1]) {
+                sorted = false;
+            }
+            departureAirport[size] = intern(origin);
+            arrivalAirport[size] = intern(destination);
+            departureSeconds[size] = departs;
+            arrivalSeconds[size] = arrival.getEpochSecond();
+            idHigh[size] = id.getMostSignificantBits();
+            idLow[size] = id.getLeastSignificantBits();
+            size++;
+            return this;
+        }
+
+        public Timetable build() {
+            int[] order = null;
+            if (!sorted) {
+                long[] departures = departureSeconds;
+                order = IntStream.range(0, size).boxed()
+                    .sorted((a, b) -> Long.compare(departures[a], departures[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            }
+            return new Timetable(this, order);
+        }
+
+        private int intern(String airport) {
+            return airportIndex.computeIfAbsent(airport, code -> {
+                airports.add(code);
+                return airports.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.audit.AuditExportFilter;
+import com.example.flightrebooking.audit.AuditExporter;
+import com.example.flightrebooking.entity.RebookingOutcome;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@Validated
+@Tag(name = "Audit", description = "Rebooking audit log extracts")
+public class AuditController {
+
+    private static final String AIRPORT_PATTERN = "^[A-Z]{3}$";
+    private static final String AIRPORT_MESSAGE = "Airport must be a three-letter IATA code";
+
+    private final AuditExporter auditExporter;
+
+    public AuditController(AuditExporter auditExporter) {
+        this.auditExporter = auditExporter;
+    }
+
+    @Operation(summary = "Export the rebooking audit log",
+               description = "Streams matching audit records as newline-delimited JSON, one record per line, " +
+                             "oldest first within each shard. from is inclusive and to exclusive; origin and " +
+                             "destination match the disrupted flight's route.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Invalid filter")
+    })
+    @GetMapping(value = "/api/v1/audit:export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAudit(
+            @RequestParam(name = "from", required = false) Instant from,
+            @RequestParam(name = "to", required = false) Instant to,
+            @RequestParam(name = "outcome", required = false) List<RebookingOutcome> outcomes,
+            @RequestParam(name = "origin", required = false)
+            @Pattern(regexp = AIRPORT_PATTERN, message = AIRPORT_MESSAGE)
+            String origin,
+            @RequestParam(name = "destination", required = false)
+            @Pattern(regexp = AIRPORT_PATTERN, message = AIRPORT_MESSAGE)
+            String destination,
+            HttpServletResponse response) throws IOException {
+
+        AuditExportFilter filter = new AuditExportFilter(from, to,
+            outcomes == null ? Set.of() : Set.copyOf(outcomes), origin, destination);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        auditExporter.export(filter, response.getOutputStream());
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.flightrebooking.controller;
 
+import com.example.flightrebooking.asyncrebook.AsyncRebookQueue;
+import com.example.flightrebooking.asyncrebook.QueuedRebook;
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.cache.BookingCache;
 import com.example.flightrebooking.dto.BookingResponse;
 import com.example.flightrebooking.dto.RebookRequest;
+import com.example.flightrebooking.dto.RebookRequestStatusResponse;
 import com.example.flightrebooking.dto.RebookResponse;
 import com.example.flightrebooking.dto.RebookResult;
+import com.example.flightrebooking.dto.RebookingOptionsQuery;
 import com.example.flightrebooking.dto.RebookingOptionsResponse;
-import com.example.flightrebooking.entity.Booking;
 import com.example.flightrebooking.exception.BookingNotFoundException;
+import com.example.flightrebooking.exception.RebookRequestNotFoundException;
+import com.example.flightrebooking.groupcommit.GroupCommitRebooker;
+import com.example.flightrebooking.limit.ConcurrencyLimited;
 import com.example.flightrebooking.repository.BookingRepository;
+import com.example.flightrebooking.routing.ReadConsistency;
 import com.example.flightrebooking.service.RebookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,14 +26,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -32,60 +49,91 @@ import java.util.UUID;
 @Tag(name = "Bookings", description = "Flight booking management and rebooking operations")
 public class BookingController {
 
-    private static final String BOOKING_REF_PATTERN = "^[A-Z0-9-]{3,20}$";
-    private static final String BOOKING_REF_MESSAGE = "Booking reference must be 3-20 alphanumeric characters or hyphens";
+    // Every endpoint taking a {ref}, the reactive read tier's included, validates it against these
+    public static final String BOOKING_REF_PATTERN = "^[A-Z0-9-]{3,20}$";
+    public static final String BOOKING_REF_MESSAGE = "Booking reference must be 3-20 alphanumeric characters or hyphens";
 
     private final BookingRepository bookingRepository;
     private final RebookingService rebookingService;
-
-    public BookingController(BookingRepository bookingRepository, RebookingService rebookingService) {
+    private final ReadConsistency readConsistency;
+    private final GroupCommitRebooker groupCommitRebooker;
+    private final AsyncRebookQueue asyncRebookQueue;
+    private final BookingCache bookingCache;
+
+    public BookingController(BookingRepository bookingRepository, RebookingService rebookingService,
+                             ReadConsistency readConsistency, GroupCommitRebooker groupCommitRebooker,
+                             AsyncRebookQueue asyncRebookQueue, BookingCache bookingCache) {
         this.bookingRepository = bookingRepository;
         this.rebookingService = rebookingService;
+        this.readConsistency = readConsistency;
+        this.groupCommitRebooker = groupCommitRebooker;
+        this.asyncRebookQueue = asyncRebookQueue;
+        this.bookingCache = bookingCache;
     }
 
     @GetMapping("/{ref}")
+    @BulkheadIsolated(TrafficClass.READ)
     public ResponseEntity<BookingResponse> getBooking(
             @PathVariable("ref")
             @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
             String ref) {
 
-        Booking booking = bookingRepository.findByReferenceWithDetails(ref)
+        BookingResponse response = bookingCache.get(ref,
+                () -> bookingRepository.findByReferenceWithDetails(ref).map(BookingResponse::from))
             .orElseThrow(() -> new BookingNotFoundException(ref));
 
-        BookingResponse response = BookingResponse.from(booking);
-
         return ResponseEntity.ok()
-            .eTag("\"" + booking.getVersion() + "\"")
+            .eTag("\"" + response.version() + "\"")
             .body(response);
     }
 
     @GetMapping("/{ref}/rebooking-options")
+    @ConcurrencyLimited("rebooking-options")
+    @BulkheadIsolated(TrafficClass.READ)
     public RebookingOptionsResponse getRebookingOptions(
             @PathVariable("ref")
             @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
-            String ref) {
-
-        return rebookingService.getRebookingOptions(ref);
+            String ref,
+            @RequestParam(name = "limit", defaultValue = "" + RebookingOptionsQuery.DEFAULT_LIMIT)
+            @Min(value = 1, message = RebookingOptionsQuery.LIMIT_MESSAGE)
+            @Max(value = RebookingOptionsQuery.MAX_LIMIT,
+                 message = RebookingOptionsQuery.LIMIT_MESSAGE)
+            int limit,
+            @RequestParam(name = "earliestDeparture", required = false) Instant earliestDeparture,
+            @RequestParam(name = "latestDeparture", required = false) Instant latestDeparture,
+            @RequestParam(name = "sameDayOnly", defaultValue = "false") boolean sameDayOnly,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        RebookingOptionsQuery query = new RebookingOptionsQuery(limit, earliestDeparture, latestDeparture,
+            sameDayOnly, cursor);
+        return readConsistency.readBooking(ref, () -> rebookingService.getRebookingOptions(ref, query));
     }
 
-    @Operation(summary = "Rebook a disrupted flight", description = "Confirms rebooking to a selected flight. Idempotent via Idempotency-Key header.")
+    @Operation(summary = "Rebook a disrupted flight", description = "Confirms rebooking to a selected flight. Idempotent via Idempotency-Key header. With Prefer: respond-async the rebook is queued and its outcome polled from the Location returned.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Successfully rebooked",
                      content = @Content(schema = @Schema(implementation = RebookResponse.class))),
+        @ApiResponse(responseCode = "202", description = "Accepted for asynchronous processing (Prefer: respond-async)",
+                     content = @Content(schema = @Schema(implementation = RebookRequestStatusResponse.class))),
         @ApiResponse(responseCode = "200", description = "Idempotent replay - already processed",
                      content = @Content(schema = @Schema(implementation = RebookResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid request",
                      content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
         @ApiResponse(responseCode = "409", description = "Conflict - booking not eligible or already rebooked",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "503", description = "Overloaded - retry after the Retry-After interval",
                      content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
     })
     @PostMapping("/{ref}/rebook")
+    @ConcurrencyLimited("rebook")
+    @BulkheadIsolated(TrafficClass.WRITE)
     public ResponseEntity<?> rebook(
             @PathVariable("ref")
             @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
             String ref,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
             @RequestHeader(value = "If-Match", required = false) String ifMatchHeader,
+            @RequestHeader(value = "Prefer", required = false) String preferHeader,
             @Valid @RequestBody RebookRequest request) {
 
         // Validate idempotency key
@@ -126,25 +174,73 @@ public class BookingController {
             }
         }
 
+        if (prefersAsync(preferHeader)) {
+            QueuedRebook queued = asyncRebookQueue.enqueue(ref, idempotencyKey, request, expectedVersion);
+            RebookRequestStatusResponse accepted = statusOf(queued);
+            return ResponseEntity.accepted()
+                .location(accepted.statusUrl())
+                .header("Preference-Applied", "respond-async")
+                .body(accepted);
+        }
+
         RebookResult result;
         try {
-            result = rebookingService.rebook(
-                ref,
-                request.selectedFlightId(),
-                idempotencyKey,
-                expectedVersion
-            );
+            result = rebookOnce(ref, request.selectedFlightId(), request.connectingFlightIds(),
+                idempotencyKey, expectedVersion);
         } catch (DataIntegrityViolationException e) {
             // Concurrent request with same idempotency key - retry will find existing audit
-            result = rebookingService.rebook(
-                ref,
-                request.selectedFlightId(),
-                idempotencyKey,
-                expectedVersion
-            );
+            result = rebookOnce(ref, request.selectedFlightId(), request.connectingFlightIds(),
+                idempotencyKey, expectedVersion);
         }
 
+        // Committed: keep this booking's reads on the primary until replicas have caught up
+        readConsistency.recordWrite(ref);
+
         HttpStatus status = result.isReplay() ? HttpStatus.OK : HttpStatus.CREATED;
         return ResponseEntity.status(status).body(result.response());
     }
+
+    private RebookResult rebookOnce(String ref, String selectedFlightId, List<String> connectingFlightIds,
+                                    UUID idempotencyKey, Long expectedVersion) {
+        if (groupCommitRebooker.isEnabled()) {
+            return groupCommitRebooker.rebook(ref, selectedFlightId, connectingFlightIds, idempotencyKey,
+                expectedVersion);
+        }
+        return rebookingService.rebook(ref, selectedFlightId, connectingFlightIds, idempotencyKey, expectedVersion);
+    }
+
+    @Operation(summary = "Poll an asynchronous rebook",
+               description = "202 while the rebook is queued or running; then the response or error the synchronous rebook would have returned.")
+    @GetMapping("/{ref}/rebook-requests/{requestId}")
+    @BulkheadIsolated(TrafficClass.READ)
+    public ResponseEntity<?> getRebookRequest(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref,
+            @PathVariable("requestId") UUID requestId) {
+
+        QueuedRebook queued = asyncRebookQueue.find(ref, requestId)
+            .orElseThrow(() -> new RebookRequestNotFoundException(ref, requestId));
+
+        return switch (queued.status()) {
+            case SUCCEEDED -> ResponseEntity.ok(queued.response());
+            case FAILED -> ResponseEntity.status(queued.problem().getStatus()).body(queued.problem());
+            case PENDING, PROCESSING -> ResponseEntity.accepted()
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(statusOf(queued));
+        };
+    }
+
+    private static boolean prefersAsync(String preferHeader) {
+        // Prefer: respond-async (RFC 7240), possibly among other preferences
+        return preferHeader != null && Arrays.stream(preferHeader.split(","))
+            .map(preference -> preference.split(";")[0].trim())
+            .anyMatch("respond-async"::equalsIgnoreCase);
+    }
+
+    private static RebookRequestStatusResponse statusOf(QueuedRebook queued) {
+        URI statusUrl = URI.create("/api/v1/bookings/" + queued.bookingReference() + "/rebook-requests/" + queued.id());
+        return new RebookRequestStatusResponse(queued.id(), queued.bookingReference(), queued.status(),
+            queued.createdAt(), statusUrl);
+    }
 }
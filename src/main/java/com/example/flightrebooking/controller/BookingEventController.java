@@ -0,0 +1,58 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.events.BookingEventStreams;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_MESSAGE;
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_PATTERN;
+
+@RestController
+@RequestMapping("/api/v1/bookings")
+@Validated
+@Tag(name = "Bookings", description = "Flight booking management and rebooking operations")
+public class BookingEventController {
+
+    private final BookingEventStreams bookingEventStreams;
+
+    public BookingEventController(BookingEventStreams bookingEventStreams) {
+        this.bookingEventStreams = bookingEventStreams;
+    }
+
+    @Operation(summary = "Stream booking and option changes",
+               description = "Server-sent events instead of polling: a 'booking' event with the booking as " +
+                             "GET /bookings/{ref} returns it and, while it is disrupted, an 'options' event with " +
+                             "the first page of rebooking options. Both are sent on connect and then only when " +
+                             "they change.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream",
+                     content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+        @ApiResponse(responseCode = "404", description = "Booking not found",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "503", description = "Too many open streams - retry after the Retry-After interval",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @GetMapping(value = "/{ref}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @BulkheadIsolated(TrafficClass.READ)
+    public SseEmitter events(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref) {
+        return bookingEventStreams.open(ref);
+    }
+}
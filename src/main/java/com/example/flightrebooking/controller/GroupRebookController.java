@@ -0,0 +1,107 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.dto.GroupRebookRequest;
+import com.example.flightrebooking.dto.GroupRebookResponse;
+import com.example.flightrebooking.dto.GroupRebookResult;
+import com.example.flightrebooking.limit.ConcurrencyLimited;
+import com.example.flightrebooking.routing.ReadConsistency;
+import com.example.flightrebooking.service.GroupRebooker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@Validated
+@Tag(name = "Bookings", description = "Flight booking management and rebooking operations")
+public class GroupRebookController {
+
+    private final GroupRebooker groupRebooker;
+    private final ReadConsistency readConsistency;
+
+    public GroupRebookController(GroupRebooker groupRebooker, ReadConsistency readConsistency) {
+        this.groupRebooker = groupRebooker;
+        this.readConsistency = readConsistency;
+    }
+
+    @Operation(summary = "Rebook a group of bookings together",
+               description = "Moves every listed booking onto the same selection, or none of them, whichever " +
+                             "shards they are stored on. Idempotent via Idempotency-Key header.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Every booking rebooked",
+                     content = @Content(schema = @Schema(implementation = GroupRebookResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Idempotent replay - already processed",
+                     content = @Content(schema = @Schema(implementation = GroupRebookResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "404", description = "A booking does not exist; nothing was rebooked",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "409", description = "A booking is not eligible or already rebooked; nothing was rebooked",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "503", description = "Overloaded - retry after the Retry-After interval; or " +
+                     "committed on only some shards - retry with the same Idempotency-Key to complete it",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @PostMapping("/api/v1/bookings:groupRebook")
+    @ConcurrencyLimited("rebook")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public ResponseEntity<?> groupRebook(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
+            @Valid @RequestBody GroupRebookRequest request) {
+
+        UUID idempotencyKey;
+        try {
+            idempotencyKey = idempotencyKeyHeader == null ? null : UUID.fromString(idempotencyKeyHeader);
+        } catch (IllegalArgumentException e) {
+            idempotencyKey = null;
+        }
+        if (idempotencyKey == null) {
+            return badRequest("Idempotency-Key header is required and must be a valid UUID");
+        }
+
+        List<String> references = request.bookingReferences();
+        if (new HashSet<>(references).size() != references.size()) {
+            return badRequest("bookingReferences must not list a booking more than once");
+        }
+
+        GroupRebookResult result;
+        try {
+            result = groupRebooker.groupRebook(references, request.selectedFlightId(),
+                request.connectingFlightIds(), idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Concurrent request with same idempotency key - retry will find existing audits
+            result = groupRebooker.groupRebook(references, request.selectedFlightId(),
+                request.connectingFlightIds(), idempotencyKey);
+        }
+
+        // Committed: keep these bookings' reads on the primary until replicas have caught up
+        references.forEach(readConsistency::recordWrite);
+
+        HttpStatus status = result.isReplay() ? HttpStatus.OK : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(result.response());
+    }
+
+    private static ResponseEntity<ProblemDetail> badRequest(String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail);
+        problem.setTitle("Bad Request");
+        return ResponseEntity.badRequest().body(problem);
+    }
+}
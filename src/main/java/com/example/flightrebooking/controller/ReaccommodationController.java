@@ -0,0 +1,105 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.dto.GroupRebookResponse;
+import com.example.flightrebooking.dto.ReaccommodationCommitRequest;
+import com.example.flightrebooking.dto.ReaccommodationPlanRequest;
+import com.example.flightrebooking.dto.ReaccommodationPlanResponse;
+import com.example.flightrebooking.reaccommodation.ReaccommodationPlanner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@Validated
+@Tag(name = "Reaccommodation", description = "Plans and commits the rebooking of every passenger of disrupted flights")
+public class ReaccommodationController {
+
+    private final ReaccommodationPlanner planner;
+
+    public ReaccommodationController(ReaccommodationPlanner planner) {
+        this.planner = planner;
+    }
+
+    @Operation(summary = "Plan a mass reaccommodation",
+               description = "Assigns the disrupted bookings of the given flights to direct replacement flights, " +
+                             "seating as many as the given seats allow with the highest total score. Rebooks nothing.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Proposed plan",
+                     content = @Content(schema = @Schema(implementation = ReaccommodationPlanResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @PostMapping("/api/v1/reaccommodation:plan")
+    @BulkheadIsolated(TrafficClass.READ)
+    public ReaccommodationPlanResponse plan(@Valid @RequestBody ReaccommodationPlanRequest request) {
+        return planner.plan(request.flightIds().stream().distinct().toList(), request.defaultSeatsAvailable(),
+            request.seatsAvailable());
+    }
+
+    @Operation(summary = "Commit a reaccommodation plan",
+               description = "Rebooks every assigned booking, one transaction per shard and replacement flight. " +
+                             "Idempotent via Idempotency-Key header; after a failure, retrying with the same key " +
+                             "replays the groups already committed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Every booking rebooked",
+                     content = @Content(schema = @Schema(implementation = GroupRebookResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Idempotent replay - already processed",
+                     content = @Content(schema = @Schema(implementation = GroupRebookResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "404", description = "A booking does not exist",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "409", description = "A booking is not eligible or already rebooked",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @PostMapping("/api/v1/reaccommodation:commit")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public ResponseEntity<?> commit(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
+            @Valid @RequestBody ReaccommodationCommitRequest request) {
+
+        UUID idempotencyKey;
+        try {
+            idempotencyKey = idempotencyKeyHeader == null ? null : UUID.fromString(idempotencyKeyHeader);
+        } catch (IllegalArgumentException e) {
+            idempotencyKey = null;
+        }
+        if (idempotencyKey == null) {
+            return badRequest("Idempotency-Key header is required and must be a valid UUID");
+        }
+
+        long bookings = request.assignments().stream()
+            .map(ReaccommodationCommitRequest.Assignment::bookingReference)
+            .distinct()
+            .count();
+        if (bookings != request.assignments().size()) {
+            return badRequest("assignments must not list a booking more than once");
+        }
+
+        ReaccommodationPlanner.CommitResult result = planner.commit(request.assignments(), idempotencyKey);
+        HttpStatus status = result.isReplay() ? HttpStatus.OK : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(result.response());
+    }
+
+    private static ResponseEntity<ProblemDetail> badRequest(String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail);
+        problem.setTitle("Bad Request");
+        return ResponseEntity.badRequest().body(problem);
+    }
+}
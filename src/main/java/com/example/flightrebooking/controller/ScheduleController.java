@@ -0,0 +1,38 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.dto.ScheduleImportResponse;
+import com.example.flightrebooking.schedule.ScheduleImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.Reader;
+
+@RestController
+@Tag(name = "Schedules", description = "Flight schedule maintenance")
+public class ScheduleController {
+
+    private final ScheduleImporter scheduleImporter;
+
+    public ScheduleController(ScheduleImporter scheduleImporter) {
+        this.scheduleImporter = scheduleImporter;
+    }
+
+    @Operation(summary = "Import a flight schedule",
+               description = "Streams a CSV schedule (flight_number,origin,destination,scheduled_departure) into the " +
+                             "flights table. New legs are inserted and changed legs updated; invalid rows are skipped " +
+                             "and reported.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Schedule imported",
+                     content = @Content(schema = @Schema(implementation = ScheduleImportResponse.class)))
+    })
+    @PostMapping(value = "/api/v1/schedules:import", consumes = "text/csv")
+    public ScheduleImportResponse importSchedule(Reader body) {
+        return scheduleImporter.importSchedule(body);
+    }
+}
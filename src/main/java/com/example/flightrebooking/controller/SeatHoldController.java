@@ -0,0 +1,105 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.dto.SeatHoldRequest;
+import com.example.flightrebooking.dto.SeatHoldResponse;
+import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.routing.ReadConsistency;
+import com.example.flightrebooking.seathold.SeatHolds;
+import com.example.flightrebooking.service.RebookingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.UUID;
+
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_MESSAGE;
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_PATTERN;
+
+@RestController
+@RequestMapping("/api/v1/bookings")
+@Validated
+@Tag(name = "Bookings", description = "Flight booking management and rebooking operations")
+public class SeatHoldController {
+
+    private final RebookingService rebookingService;
+    private final SeatHolds seatHolds;
+    private final ReadConsistency readConsistency;
+
+    public SeatHoldController(RebookingService rebookingService, SeatHolds seatHolds,
+                              ReadConsistency readConsistency) {
+        this.rebookingService = rebookingService;
+        this.seatHolds = seatHolds;
+        this.readConsistency = readConsistency;
+    }
+
+    @Operation(summary = "Hold a seat on a replacement flight",
+               description = "Keeps a seat on one of the booking's direct options for a short time; rebooking " +
+                             "onto that flight before the hold expires uses it. Holding the same flight again " +
+                             "extends the hold; holding another one replaces it and gives its seat back.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Seat held",
+                     content = @Content(schema = @Schema(implementation = SeatHoldResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Existing hold extended",
+                     content = @Content(schema = @Schema(implementation = SeatHoldResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request or not one of the booking's options",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "404", description = "Booking not found",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        @ApiResponse(responseCode = "409", description = "Booking not eligible, or no seats left on the flight",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @PostMapping("/{ref}/seat-holds")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public ResponseEntity<SeatHoldResponse> hold(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref,
+            @Valid @RequestBody SeatHoldRequest request) {
+
+        Flight flight = readConsistency.readBooking(ref,
+            () -> rebookingService.findHoldableFlight(ref, request.flightId()));
+        SeatHolds.SeatHold hold = seatHolds.hold(ref, flight.getId());
+
+        SeatHoldResponse response = new SeatHoldResponse(hold.id(), ref, hold.flightId().toString(),
+            hold.expiresAt());
+        if (!hold.placed()) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.created(URI.create("/api/v1/bookings/" + ref + "/seat-holds/" + hold.id()))
+            .body(response);
+    }
+
+    @Operation(summary = "Release a seat hold", description = "Gives the held seat back before the hold expires.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Hold released"),
+        @ApiResponse(responseCode = "404", description = "No such hold; it expired, was used or was released",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @DeleteMapping("/{ref}/seat-holds/{holdId}")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public ResponseEntity<Void> release(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref,
+            @PathVariable("holdId") UUID holdId) {
+        seatHolds.release(ref, holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
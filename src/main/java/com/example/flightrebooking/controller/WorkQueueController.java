@@ -0,0 +1,81 @@
+package com.example.flightrebooking.controller;
+
+import com.example.flightrebooking.bulkhead.BulkheadIsolated;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.dto.WorkItemResponse;
+import com.example.flightrebooking.dto.WorkQueueClaimRequest;
+import com.example.flightrebooking.dto.WorkQueueClaimResponse;
+import com.example.flightrebooking.workqueue.WorkQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_MESSAGE;
+import static com.example.flightrebooking.controller.BookingController.BOOKING_REF_PATTERN;
+
+@RestController
+@Validated
+@Tag(name = "Work queue", description = "Leases disrupted bookings to rebooking agents and workers")
+public class WorkQueueController {
+
+    private final WorkQueue workQueue;
+
+    public WorkQueueController(WorkQueue workQueue) {
+        this.workQueue = workQueue;
+    }
+
+    @Operation(summary = "Claim disrupted bookings",
+               description = "Leases the next unleased disrupted bookings, earliest original departure first. " +
+                             "Never waits on other claims; returns fewer items, or none, when the queue runs dry.")
+    @PostMapping("/api/v1/work-queue:claim")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public WorkQueueClaimResponse claim(@Valid @RequestBody WorkQueueClaimRequest request) {
+        return new WorkQueueClaimResponse(workQueue.claim(request.worker(), request.limitOrDefault()));
+    }
+
+    @Operation(summary = "Renew a lease", description = "Extends the lease by the full lease duration from now.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lease renewed",
+                     content = @Content(schema = @Schema(implementation = WorkItemResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Lease expired, released or held by another claim",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @PutMapping("/api/v1/work-queue/{ref}/lease")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public WorkItemResponse renew(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref,
+            @RequestParam("leaseId") UUID leaseId) {
+        return workQueue.renew(ref, leaseId);
+    }
+
+    @Operation(summary = "Release a lease",
+               description = "Returns the booking to the queue, or just drops the lease once it has been rebooked.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Lease released"),
+        @ApiResponse(responseCode = "409", description = "Booking is not leased under this lease id",
+                     content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    @DeleteMapping("/api/v1/work-queue/{ref}/lease")
+    @BulkheadIsolated(TrafficClass.WRITE)
+    public ResponseEntity<Void> release(
+            @PathVariable("ref")
+            @Pattern(regexp = BOOKING_REF_PATTERN, message = BOOKING_REF_MESSAGE)
+            String ref,
+            @RequestParam("leaseId") UUID leaseId) {
+        workQueue.release(ref, leaseId);
+        return ResponseEntity.noContent().build();
+    }
+}
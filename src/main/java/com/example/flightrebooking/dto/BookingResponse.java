@@ -2,6 +2,9 @@ package com.example.flightrebooking.dto;
 
 import com.example.flightrebooking.entity.Booking;
 
+import java.util.List;
+import java.util.UUID;
+
 public record BookingResponse(
     String reference,
     String status,
@@ -9,6 +12,7 @@ public record BookingResponse(
     FlightResponse originalFlight,
     DisruptionResponse disruption,
     FlightResponse rebookedFlight,
+    List<String> rebookedConnectingFlightIds,
     Long version
 ) {
     public static BookingResponse from(Booking booking) {
@@ -19,6 +23,7 @@ public record BookingResponse(
             FlightResponse.from(booking.getOriginalFlight()),
             DisruptionResponse.from(booking.getDisruption()),
             FlightResponse.from(booking.getRebookedFlight()),
+            booking.getRebookedConnectingFlightIds().stream().map(UUID::toString).toList(),
             booking.getVersion()
         );
     }
@@ -8,7 +8,8 @@ public record FlightResponse(
     String flightNumber,
     String origin,
     String destination,
-    Instant scheduledDeparture
+    Instant scheduledDeparture,
+    Instant scheduledArrival
 ) {
     public static FlightResponse from(Flight flight) {
         if (flight == null) return null;
@@ -17,7 +18,8 @@ public record FlightResponse(
             flight.getFlightNumber(),
             flight.getOrigin(),
             flight.getDestination(),
-            flight.getScheduledDeparture()
+            flight.getScheduledDeparture(),
+            flight.getScheduledArrival()
         );
     }
 }
@@ -0,0 +1,26 @@
+package com.example.flightrebooking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * @param bookingReferences the bookings to move together, each listed once
+ * @param selectedFlightId an option's {@code flight.flightId}, offered to every one of the bookings
+ * @param connectingFlightIds the option's {@code connectingFlights} IDs, in order; omit for a direct flight
+ */
+public record GroupRebookRequest(
+    @NotEmpty(message = "bookingReferences is required")
+    @Size(max = GroupRebookRequest.MAX_BOOKINGS,
+          message = "bookingReferences can list at most " + GroupRebookRequest.MAX_BOOKINGS + " bookings")
+    List<@Pattern(regexp = "^[A-Z0-9-]{3,20}$",
+                  message = "Booking reference must be 3-20 alphanumeric characters or hyphens") String> bookingReferences,
+    @NotBlank(message = "selectedFlightId is required")
+    String selectedFlightId,
+    List<String> connectingFlightIds
+) {
+    public static final int MAX_BOOKINGS = 20;
+}
@@ -0,0 +1,10 @@
+package com.example.flightrebooking.dto;
+
+import java.util.List;
+
+/**
+ * @param bookings one rebooking per booking, in the order the request listed them
+ */
+public record GroupRebookResponse(
+    List<RebookResponse> bookings
+) {}
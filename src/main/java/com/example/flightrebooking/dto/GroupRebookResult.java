@@ -0,0 +1,14 @@
+package com.example.flightrebooking.dto;
+
+public record GroupRebookResult(
+    GroupRebookResponse response,
+    boolean isReplay
+) {
+    public static GroupRebookResult newRebook(GroupRebookResponse response) {
+        return new GroupRebookResult(response, false);
+    }
+
+    public static GroupRebookResult replay(GroupRebookResponse response) {
+        return new GroupRebookResult(response, true);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.flightrebooking.dto;
+
+/**
+ * One booking's place in a reaccommodation plan.
+ *
+ * @param selectedFlightId the flight to rebook onto, as a rebook request's {@code selectedFlightId}
+ */
+public record PlannedRebooking(
+    String bookingReference,
+    String selectedFlightId,
+    FlightResponse flight,
+    int score,
+    String reason
+) {}
@@ -0,0 +1,30 @@
+package com.example.flightrebooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * The assignments of a reaccommodation plan to commit; a plan response can be sent back as is.
+ */
+public record ReaccommodationCommitRequest(
+    @NotEmpty(message = "assignments is required")
+    @Size(max = ReaccommodationCommitRequest.MAX_ASSIGNMENTS,
+          message = "assignments can list at most " + ReaccommodationCommitRequest.MAX_ASSIGNMENTS + " bookings")
+    List<@Valid Assignment> assignments
+) {
+    public static final int MAX_ASSIGNMENTS = 5000;
+
+    public record Assignment(
+        @Pattern(regexp = "^[A-Z0-9-]{3,20}$",
+                 message = "Booking reference must be 3-20 alphanumeric characters or hyphens")
+        @NotBlank(message = "bookingReference is required")
+        String bookingReference,
+        @NotBlank(message = "selectedFlightId is required")
+        String selectedFlightId
+    ) {}
+}
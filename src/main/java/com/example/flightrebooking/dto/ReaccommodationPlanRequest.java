@@ -0,0 +1,28 @@
+package com.example.flightrebooking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @param flightIds the disrupted flights whose passengers are planned together, competing for the same seats
+ * @param defaultSeatsAvailable seats free on any replacement flight not listed in {@code seatsAvailable}
+ * @param seatsAvailable seats free on particular replacement flights, by flight ID
+ */
+public record ReaccommodationPlanRequest(
+    @NotEmpty(message = "flightIds is required")
+    @Size(max = ReaccommodationPlanRequest.MAX_FLIGHTS,
+          message = "flightIds can list at most " + ReaccommodationPlanRequest.MAX_FLIGHTS + " flights")
+    List<@NotNull UUID> flightIds,
+    @NotNull(message = "defaultSeatsAvailable is required")
+    @PositiveOrZero(message = "defaultSeatsAvailable must not be negative")
+    Integer defaultSeatsAvailable,
+    Map<UUID, @NotNull @PositiveOrZero(message = "seatsAvailable must not be negative") Integer> seatsAvailable
+) {
+    public static final int MAX_FLIGHTS = 100;
+}
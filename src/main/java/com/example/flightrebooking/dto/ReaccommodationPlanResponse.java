@@ -0,0 +1,21 @@
+package com.example.flightrebooking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A proposed reaccommodation: nothing is rebooked until it is committed.
+ *
+ * @param bookings disrupted bookings of the planned flights
+ * @param totalScore sum of the assigned options' scores
+ * @param assignments by booking reference
+ * @param unassigned bookings left without a seat, by reference
+ */
+public record ReaccommodationPlanResponse(
+    List<String> flightIds,
+    Instant plannedAt,
+    int bookings,
+    long totalScore,
+    List<PlannedRebooking> assignments,
+    List<String> unassigned
+) {}
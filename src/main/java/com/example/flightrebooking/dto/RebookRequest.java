@@ -2,7 +2,14 @@ package com.example.flightrebooking.dto;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.List;
+
+/**
+ * @param selectedFlightId the option's {@code flight.flightId}
+ * @param connectingFlightIds the option's {@code connectingFlights} IDs, in order; omit for a direct flight
+ */
 public record RebookRequest(
     @NotBlank(message = "selectedFlightId is required")
-    String selectedFlightId
+    String selectedFlightId,
+    List<String> connectingFlightIds
 ) {}
@@ -0,0 +1,20 @@
+package com.example.flightrebooking.dto;
+
+import com.example.flightrebooking.entity.RebookRequestStatus;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An accepted asynchronous rebook that has not finished yet.
+ *
+ * @param statusUrl poll until it returns the rebook's outcome instead of this
+ */
+public record RebookRequestStatusResponse(
+    UUID requestId,
+    String bookingReference,
+    RebookRequestStatus status,
+    Instant acceptedAt,
+    URI statusUrl
+) {}
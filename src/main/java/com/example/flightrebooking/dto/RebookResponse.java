@@ -1,11 +1,13 @@
 package com.example.flightrebooking.dto;
 
 import java.time.Instant;
+import java.util.List;
 
 public record RebookResponse(
     String bookingReference,
     String status,
     FlightResponse previousFlight,
     FlightResponse newFlight,
+    List<FlightResponse> connectingFlights,
     Instant rebookedAt
 ) {}
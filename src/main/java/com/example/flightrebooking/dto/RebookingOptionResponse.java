@@ -1,7 +1,14 @@
 package com.example.flightrebooking.dto;
 
+import java.util.List;
+
+/**
+ * @param flight the flight to rebook onto, or the first leg of a connecting itinerary
+ * @param connectingFlights onward legs in travel order; empty for a direct flight
+ */
 public record RebookingOptionResponse(
     FlightResponse flight,
+    List<FlightResponse> connectingFlights,
     int score,
     String reason
 ) {}
@@ -0,0 +1,29 @@
+package com.example.flightrebooking.dto;
+
+import java.time.Instant;
+
+/**
+ * A page of rebooking options and the filters applied to it. Departure filters apply to
+ * the first leg of a connecting itinerary.
+ *
+ * @param limit options per page
+ * @param earliestDeparture only options departing at or after this; null for no bound
+ * @param latestDeparture only options departing at or before this; null for no bound
+ * @param sameDayOnly only options departing on the original flight's (UTC) date
+ * @param cursor {@code nextCursor} of the previous page, or null for the first page
+ */
+public record RebookingOptionsQuery(
+    int limit,
+    Instant earliestDeparture,
+    Instant latestDeparture,
+    boolean sameDayOnly,
+    String cursor
+) {
+    public static final int DEFAULT_LIMIT = 5;
+    public static final int MAX_LIMIT = 50;
+    public static final String LIMIT_MESSAGE = "limit must be between 1 and " + MAX_LIMIT;
+
+    public static RebookingOptionsQuery firstPage() {
+        return new RebookingOptionsQuery(DEFAULT_LIMIT, null, null, false, null);
+    }
+}
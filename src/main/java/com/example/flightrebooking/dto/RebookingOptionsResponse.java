@@ -3,8 +3,12 @@ package com.example.flightrebooking.dto;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * @param nextCursor pass as {@code cursor} to fetch the following page; null on the last page
+ */
 public record RebookingOptionsResponse(
     String bookingReference,
     Instant generatedAt,
-    List<RebookingOptionResponse> options
+    List<RebookingOptionResponse> options,
+    String nextCursor
 ) {}
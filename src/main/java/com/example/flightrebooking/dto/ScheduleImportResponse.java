@@ -0,0 +1,19 @@
+package com.example.flightrebooking.dto;
+
+import java.util.List;
+
+public record ScheduleImportResponse(
+    long rowsRead,
+    long rowsAccepted,
+    long rowsRejected,
+    long flightsInserted,
+    long flightsUpdated,
+    int routesChanged,
+    long durationMillis,
+    List<RowError> errors
+) {
+    public record RowError(
+        long line,
+        String message
+    ) {}
+}
@@ -0,0 +1,11 @@
+package com.example.flightrebooking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * @param flightId a direct option's {@code flight.flightId}
+ */
+public record SeatHoldRequest(
+    @NotBlank(message = "flightId is required")
+    String flightId
+) {}
@@ -0,0 +1,17 @@
+package com.example.flightrebooking.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A seat held for a booking on a replacement flight.
+ *
+ * @param holdId releases the hold before it expires
+ * @param expiresAt after this the seat is free again; rebooking onto the flight before then uses the hold
+ */
+public record SeatHoldResponse(
+    UUID holdId,
+    String bookingReference,
+    String flightId,
+    Instant expiresAt
+) {}
@@ -0,0 +1,17 @@
+package com.example.flightrebooking.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A disrupted booking leased to one worker.
+ *
+ * @param leaseId proves ownership when renewing or releasing the lease
+ * @param leaseExpiresAt after this the booking can be claimed by another worker
+ */
+public record WorkItemResponse(
+    String bookingReference,
+    Instant originalDeparture,
+    UUID leaseId,
+    Instant leaseExpiresAt
+) {}
@@ -0,0 +1,25 @@
+package com.example.flightrebooking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * @param worker who is claiming, recorded as the lease owner
+ * @param limit most bookings to claim; defaults to one
+ */
+public record WorkQueueClaimRequest(
+    @NotBlank(message = "worker is required")
+    @Size(max = 100, message = "worker must be at most 100 characters")
+    String worker,
+    @Min(value = 1, message = "limit must be between 1 and " + WorkQueueClaimRequest.MAX_LIMIT)
+    @Max(value = WorkQueueClaimRequest.MAX_LIMIT, message = "limit must be between 1 and " + WorkQueueClaimRequest.MAX_LIMIT)
+    Integer limit
+) {
+    public static final int MAX_LIMIT = 50;
+
+    public int limitOrDefault() {
+        return limit != null ? limit : 1;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.flightrebooking.dto;
+
+import java.util.List;
+
+/**
+ * @param items claimed bookings, earliest original departure first; empty when the queue is drained
+ */
+public record WorkQueueClaimResponse(
+    List<WorkItemResponse> items
+) {}
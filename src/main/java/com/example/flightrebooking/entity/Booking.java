@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -33,6 +34,10 @@ public class Booking {
     @JoinColumn(name = "rebooked_flight_id")
     private Flight rebookedFlight;
 
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "rebooked_connecting_flight_ids")
+    private List<UUID> rebookedConnectingFlightIds;
+
     @OneToOne(mappedBy = "booking", fetch = FetchType.LAZY)
     private Disruption disruption;
 
@@ -80,6 +85,14 @@ public class Booking {
         this.rebookedFlight = rebookedFlight;
     }
 
+    public List<UUID> getRebookedConnectingFlightIds() {
+        return rebookedConnectingFlightIds == null ? List.of() : rebookedConnectingFlightIds;
+    }
+
+    public void setRebookedConnectingFlightIds(List<UUID> rebookedConnectingFlightIds) {
+        this.rebookedConnectingFlightIds = rebookedConnectingFlightIds.isEmpty() ? null : rebookedConnectingFlightIds;
+    }
+
     public Disruption getDisruption() {
         return disruption;
     }
@@ -24,6 +24,9 @@ public class Flight {
     @Column(name = "scheduled_departure", nullable = false)
     private Instant scheduledDeparture;
 
+    @Column(name = "scheduled_arrival")
+    private Instant scheduledArrival;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -34,6 +37,7 @@ public class Flight {
     public void setOrigin(String origin) { this.origin = origin; }
     public void setDestination(String destination) { this.destination = destination; }
     public void setScheduledDeparture(Instant scheduledDeparture) { this.scheduledDeparture = scheduledDeparture; }
+    public void setScheduledArrival(Instant scheduledArrival) { this.scheduledArrival = scheduledArrival; }
 
     public UUID getId() {
         return id;
@@ -55,6 +59,10 @@ public class Flight {
         return scheduledDeparture;
     }
 
+    public Instant getScheduledArrival() {
+        return scheduledArrival;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
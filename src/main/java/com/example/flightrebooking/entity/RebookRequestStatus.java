@@ -0,0 +1,8 @@
+package com.example.flightrebooking.entity;
+
+public enum RebookRequestStatus {
+    PENDING,
+    PROCESSING,
+    SUCCEEDED,
+    FAILED
+}
@@ -37,14 +37,21 @@ public class RebookingAudit {
     @Column(name = "response_payload", columnDefinition = "jsonb")
     private String responsePayload;
 
+    @Column(name = "response_payload_cbor")
+    private byte[] responsePayloadCbor;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
+    @Column(name = "group_idempotency_key")
+    private UUID groupIdempotencyKey;
+
     protected RebookingAudit() {}
 
     public RebookingAudit(UUID id, Booking booking, UUID idempotencyKey,
                           Flight previousFlight, Flight newFlight,
-                          RebookingOutcome outcome, String responsePayload) {
+                          RebookingOutcome outcome, String responsePayload,
+                          byte[] responsePayloadCbor) {
         this.id = id;
         this.booking = booking;
         this.idempotencyKey = idempotencyKey;
@@ -52,9 +59,18 @@ public class RebookingAudit {
         this.newFlight = newFlight;
         this.outcome = outcome;
         this.responsePayload = responsePayload;
+        this.responsePayloadCbor = responsePayloadCbor;
         this.createdAt = Instant.now();
     }
 
+    public RebookingAudit(UUID id, Booking booking, UUID idempotencyKey, UUID groupIdempotencyKey,
+                          Flight previousFlight, Flight newFlight,
+                          RebookingOutcome outcome, String responsePayload,
+                          byte[] responsePayloadCbor) {
+        this(id, booking, idempotencyKey, previousFlight, newFlight, outcome, responsePayload, responsePayloadCbor);
+        this.groupIdempotencyKey = groupIdempotencyKey;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -83,6 +99,14 @@ public class RebookingAudit {
         return responsePayload;
     }
 
+    public byte[] getResponsePayloadCbor() {
+        return responsePayloadCbor;
+    }
+
+    public UUID getGroupIdempotencyKey() {
+        return groupIdempotencyKey;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,339 @@
+package com.example.flightrebooking.events;
+
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.changefeed.ChangeFeed;
+import com.example.flightrebooking.config.BookingEventProperties;
+import com.example.flightrebooking.connection.AirportGroups;
+import com.example.flightrebooking.connection.ConnectionSearchEngine;
+import com.example.flightrebooking.dto.BookingResponse;
+import com.example.flightrebooking.dto.RebookingOptionsResponse;
+import com.example.flightrebooking.entity.Booking;
+import com.example.flightrebooking.entity.BookingStatus;
+import com.example.flightrebooking.exception.BookingNotEligibleException;
+import com.example.flightrebooking.exception.BookingNotFoundException;
+import com.example.flightrebooking.exception.BulkheadFullException;
+import com.example.flightrebooking.repository.BookingRepository;
+import com.example.flightrebooking.routing.ReadRoutingContext;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams of one booking: its state and, while it is disrupted, the first
+ * page of its rebooking options, each sent when the stream opens and again only when it has
+ * changed.
+ *
+ * Nothing is polled. The {@link ChangeFeed} reports every committed change to a booking,
+ * and to the flights of a route. Streams are indexed by route, origin and destination
+ * airport with their alternatives; a stream re-reads its booking and options when its own
+ * booking changes, or a flight changes that is on its route or could be a leg of a
+ * connection on it, as the {@link ConnectionSearchEngine} timetable tells. Flights are
+ * written to every shard, and a stream only acts on the announcement from its booking's
+ * own shard, which is also the one it reads the flights from. Re-reads go to the primary,
+ * since the change may not have reached a replica yet, and run on a small pool of threads.
+ * Changes announced while a stream's re-read is queued fold into that one re-read.
+ * Whatever is unchanged is not sent.
+ *
+ * An open stream holds no thread: the servlet container parks its connection until
+ * something is sent. A comment every {@code heartbeat-interval} keeps idle connections
+ * from being closed by proxies; the sweep runs on the re-read pool, so that walking every
+ * stream does not hold up the other scheduled jobs.
+ */
+@Component
+public class BookingEventStreams implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingEventStreams.class);
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private record Snapshot(BookingResponse booking, RebookingOptionsResponse options) {}
+
+    private final BookingRepository bookingRepository;
+    private final RebookingService rebookingService;
+    private final ShardRouter shardRouter;
+    private final AirportGroups airportGroups;
+    private final ConnectionSearchEngine connectionSearch;
+    private final ChangeFeed changeFeed;
+    private final BookingEventProperties properties;
+    private final ExecutorService refreshers;
+    private final Map<String, Set<Stream>> byReference = new ConcurrentHashMap<>();
+    // Origin airport, then destination airport
+    private final Map<String, Map<String, Set<Stream>>> byRoute = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+    private final Counter bookingEvents;
+    private final Counter optionsEvents;
+    private final Counter refreshes;
+
+    public BookingEventStreams(BookingRepository bookingRepository, RebookingService rebookingService,
+                               ShardRouter shardRouter, AirportGroups airportGroups,
+                               ConnectionSearchEngine connectionSearch, ChangeFeed changeFeed,
+                               BookingEventProperties properties, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.rebookingService = rebookingService;
+        this.shardRouter = shardRouter;
+        this.airportGroups = airportGroups;
+        this.connectionSearch = connectionSearch;
+        this.changeFeed = changeFeed;
+        this.properties = properties;
+        this.refreshers = Executors.newFixedThreadPool(properties.refreshThreads(),
+            Thread.ofPlatform().name("booking-events-", 0).daemon().factory());
+        meterRegistry.gauge("rebooking.events.streams", open);
+        this.bookingEvents = meterRegistry.counter("rebooking.events.sent", "event", "booking");
+        this.optionsEvents = meterRegistry.counter("rebooking.events.sent", "event", "options");
+        this.refreshes = meterRegistry.counter("rebooking.events.refreshes");
+
+        changeFeed.addListener(ChangeFeed.BOOKING_CHANGES, new ChangeFeed.Listener() {
+            @Override
+            public void onChange(int shard, String reference) {
+                refresh(byReference.get(reference));
+            }
+
+            @Override
+            public void onMissedChanges() {
+                byReference.values().forEach(BookingEventStreams.this::refresh);
+            }
+        });
+        changeFeed.addListener(ChangeFeed.FLIGHT_CHANGES, new ChangeFeed.Listener() {
+            @Override
+            public void onChange(int shard, String route) {
+                int separator = route.indexOf('-');
+                connectionSearch.routesThrough(route.substring(0, separator), route.substring(separator + 1))
+                    .forEach((origin, destinations) -> {
+                        Map<String, Set<Stream>> byDestination = byRoute.get(origin);
+                        if (byDestination != null) {
+                            byDestination.forEach((destination, streams) -> {
+                                if (destinations.contains(destination)) {
+                                    refresh(streams.stream().filter(stream -> stream.shard == shard).toList());
+                                }
+                            });
+                        }
+                    });
+            }
+
+            @Override
+            public void onMissedChanges() {
+                // Booking changes are told to the other listener, which refreshes every stream
+            }
+        });
+    }
+
+    /**
+     * Opens a stream whose first events are the booking's current state.
+     *
+     * @throws BookingNotFoundException before anything is streamed
+     */
+    public SseEmitter open(String reference) {
+        if (open.incrementAndGet() > properties.maxStreams()) {
+            open.decrementAndGet();
+            throw new BulkheadFullException(TrafficClass.READ, RETRY_AFTER);
+        }
+        try {
+            long changesBefore = changeFeed.changesReceived();
+            Snapshot snapshot = read(reference);
+
+            SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+            FlightRoute route = new FlightRoute(
+                airportGroups.withAlternatives(snapshot.booking().originalFlight().origin()),
+                airportGroups.withAlternatives(snapshot.booking().originalFlight().destination()));
+            Stream stream = new Stream(reference, shardRouter.shardFor(reference), emitter, route);
+            emitter.onCompletion(() -> close(stream));
+            emitter.onTimeout(emitter::complete);
+            emitter.onError(error -> emitter.complete());
+            register(stream);
+
+            synchronized (stream) {
+                try {
+                    stream.send(snapshot);
+                } catch (IOException e) {
+                    emitter.complete();
+                    return emitter;
+                }
+            }
+            // Announced while the snapshot was read, before the stream was listening
+            if (changeFeed.changesReceived() != changesBefore) {
+                refresh(List.of(stream));
+            }
+            return emitter;
+        } catch (RuntimeException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /** Sends every stream a comment, which also finds the ones whose client has gone. */
+    @Scheduled(fixedDelayString = "${rebooking.events.heartbeat-interval:30s}")
+    public void sendHeartbeats() {
+        if (heartbeatPending.compareAndSet(false, true)) {
+            try {
+                refreshers.execute(this::heartbeat);
+            } catch (RejectedExecutionException e) {
+                heartbeatPending.set(false);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        heartbeatPending.set(false);
+        for (Set<Stream> streams : byReference.values()) {
+            for (Stream stream : streams) {
+                try {
+                    stream.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    stream.emitter.complete();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshers.shutdownNow();
+        byReference.values().forEach(streams -> streams.forEach(stream -> stream.emitter.complete()));
+    }
+
+    private Snapshot read(String reference) {
+        return ShardContext.onShard(shardRouter.shardFor(reference), () -> ReadRoutingContext.onPrimary(() -> {
+            Booking booking = bookingRepository.findByReferenceWithDetails(reference)
+                .orElseThrow(() -> new BookingNotFoundException(reference));
+            RebookingOptionsResponse options = null;
+            if (booking.getStatus() == BookingStatus.DISRUPTED) {
+                try {
+                    options = rebookingService.getRebookingOptions(reference);
+                } catch (BookingNotEligibleException e) {
+                    // Rebooked since it was read; the next change brings the new state
+                }
+            }
+            return new Snapshot(BookingResponse.from(booking), options);
+        }));
+    }
+
+    private void refresh(Collection<Stream> streams) {
+        if (streams == null) {
+            return;
+        }
+        for (Stream stream : streams) {
+            if (stream.refreshPending.compareAndSet(false, true)) {
+                try {
+                    refreshers.execute(() -> refresh(stream));
+                } catch (RejectedExecutionException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void refresh(Stream stream) {
+        synchronized (stream) {
+            stream.refreshPending.set(false);
+            if (stream.closed) {
+                return;
+            }
+            try {
+                refreshes.increment();
+                stream.send(read(stream.reference));
+            } catch (BookingNotFoundException e) {
+                stream.emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                stream.emitter.complete();
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh event stream of booking {}", stream.reference, e);
+            }
+        }
+    }
+
+    private void register(Stream stream) {
+        byReference.computeIfAbsent(stream.reference, key -> ConcurrentHashMap.newKeySet()).add(stream);
+        for (String origin : stream.route.origins()) {
+            for (String destination : stream.route.destinations()) {
+                byRoute.computeIfAbsent(origin, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(destination, key -> ConcurrentHashMap.newKeySet()).add(stream);
+            }
+        }
+    }
+
+    private void close(Stream stream) {
+        synchronized (stream) {
+            if (stream.closed) {
+                return;
+            }
+            stream.closed = true;
+        }
+        open.decrementAndGet();
+        remove(byReference, stream.reference, stream);
+        for (String origin : stream.route.origins()) {
+            byRoute.computeIfPresent(origin, (key, byDestination) -> {
+                stream.route.destinations().forEach(destination -> remove(byDestination, destination, stream));
+                return byDestination.isEmpty() ? null : byDestination;
+            });
+        }
+    }
+
+    private static void remove(Map<String, Set<Stream>> index, String key, Stream stream) {
+        index.computeIfPresent(key, (k, streams) -> {
+            streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    /** Airports whose flights can appear among the booking's options. */
+    private record FlightRoute(List<String> origins, List<String> destinations) {}
+
+    private final class Stream {
+
+        final String reference;
+        final int shard;
+        final SseEmitter emitter;
+        final FlightRoute route;
+        final AtomicBoolean refreshPending = new AtomicBoolean();
+        // Guarded by this stream's monitor
+        boolean closed;
+        BookingResponse lastBooking;
+        RebookingOptionsResponse lastOptions;
+
+        Stream(String reference, int shard, SseEmitter emitter, FlightRoute route) {
+            this.reference = reference;
+            this.shard = shard;
+            this.emitter = emitter;
+            this.route = route;
+        }
+
+        void send(Snapshot snapshot) throws IOException {
+            if (!snapshot.booking().equals(lastBooking)) {
+                emitter.send(SseEmitter.event().name("booking").data(snapshot.booking()));
+                lastBooking = snapshot.booking();
+                bookingEvents.increment();
+            }
+            // generatedAt differs on every read; only the options themselves count
+            if (snapshot.options() != null && (lastOptions == null
+                    || !snapshot.options().options().equals(lastOptions.options())
+                    || !Objects.equals(snapshot.options().nextCursor(), lastOptions.nextCursor()))) {
+                emitter.send(SseEmitter.event().name("options").data(snapshot.options()));
+                lastOptions = snapshot.options();
+                optionsEvents.increment();
+            }
+        }
+    }
+}
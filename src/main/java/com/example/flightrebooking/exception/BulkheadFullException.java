@@ -0,0 +1,25 @@
+package com.example.flightrebooking.exception;
+
+import com.example.flightrebooking.bulkhead.TrafficClass;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends RuntimeException {
+
+    private final TrafficClass trafficClass;
+    private final Duration retryAfter;
+
+    public BulkheadFullException(TrafficClass trafficClass, Duration retryAfter) {
+        super("Service is at capacity for " + trafficClass.name().toLowerCase() + " requests; please retry later");
+        this.trafficClass = trafficClass;
+        this.retryAfter = retryAfter;
+    }
+
+    public TrafficClass getTrafficClass() {
+        return trafficClass;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.flightrebooking.exception;
+
+import java.time.Duration;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String endpoint;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String endpoint, Duration retryAfter) {
+        super("Service is at capacity for " + endpoint + "; please retry later");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
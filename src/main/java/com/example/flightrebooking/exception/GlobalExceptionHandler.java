@@ -3,10 +3,13 @@ package com.example.flightrebooking.exception;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -23,6 +26,16 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(RebookRequestNotFoundException.class)
+    public ProblemDetail handleRebookRequestNotFound(RebookRequestNotFoundException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.NOT_FOUND,
+            ex.getMessage()
+        );
+        problem.setTitle("Rebook request not found");
+        return problem;
+    }
+
     @ExceptionHandler(BookingNotEligibleException.class)
     public ProblemDetail handleBookingNotEligible(BookingNotEligibleException ex) {
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(
@@ -58,6 +71,26 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursor(InvalidCursorException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage()
+        );
+        problem.setTitle("Bad Request");
+        return problem;
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ProblemDetail handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.BAD_REQUEST,
+            String.format("Invalid value for %s: %s", ex.getName(), ex.getValue())
+        );
+        problem.setTitle("Bad Request");
+        return problem;
+    }
+
     @ExceptionHandler(IdempotencyKeyReusedException.class)
     public ProblemDetail handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(
@@ -104,6 +137,36 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(LeaseNotHeldException.class)
+    public ProblemDetail handleLeaseNotHeld(LeaseNotHeldException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT,
+            ex.getMessage()
+        );
+        problem.setTitle("Conflict");
+        return problem;
+    }
+
+    @ExceptionHandler(NoSeatsAvailableException.class)
+    public ProblemDetail handleNoSeatsAvailable(NoSeatsAvailableException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.CONFLICT,
+            ex.getMessage()
+        );
+        problem.setTitle("Conflict");
+        return problem;
+    }
+
+    @ExceptionHandler(SeatHoldNotFoundException.class)
+    public ProblemDetail handleSeatHoldNotFound(SeatHoldNotFoundException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.NOT_FOUND,
+            ex.getMessage()
+        );
+        problem.setTitle("Seat hold not found");
+        return problem;
+    }
+
     @ExceptionHandler(org.springframework.orm.ObjectOptimisticLockingFailureException.class)
     public ProblemDetail handleJpaOptimisticLock(
             org.springframework.orm.ObjectOptimisticLockingFailureException ex) {
@@ -115,6 +178,65 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problem.setTitle("Service Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(problem);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(BulkheadFullException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problem.setTitle("Service Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(problem);
+    }
+
+    @ExceptionHandler(GroupCommitUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleGroupCommitUnavailable(GroupCommitUnavailableException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problem.setTitle("Service Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(problem);
+    }
+
+    @ExceptionHandler(ScheduleImportIncompleteException.class)
+    public ProblemDetail handleScheduleImportIncomplete(ScheduleImportIncompleteException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problem.setTitle("Schedule import incomplete");
+        problem.setProperty("committedShards", ex.getCommittedShards());
+        problem.setProperty("failedShard", ex.getFailedShard());
+        return problem;
+    }
+
+    @ExceptionHandler(GroupRebookIncompleteException.class)
+    public ProblemDetail handleGroupRebookIncomplete(GroupRebookIncompleteException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage()
+        );
+        problem.setTitle("Group rebook incomplete");
+        problem.setProperty("committedReferences", ex.getCommittedReferences());
+        return problem;
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleUnexpectedException(Exception ex) {
         log.error("Unexpected error occurred", ex);
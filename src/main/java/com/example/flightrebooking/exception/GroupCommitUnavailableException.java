@@ -0,0 +1,17 @@
+package com.example.flightrebooking.exception;
+
+import java.time.Duration;
+
+public class GroupCommitUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GroupCommitUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.flightrebooking.exception;
+
+import java.util.List;
+
+public class GroupRebookIncompleteException extends RuntimeException {
+
+    private final List<String> committedReferences;
+
+    public GroupRebookIncompleteException(List<String> committedReferences, Throwable cause) {
+        super("Group rebook was committed for " + String.join(", ", committedReferences)
+            + " but not for the rest of the group; retry with the same Idempotency-Key to complete it", cause);
+        this.committedReferences = List.copyOf(committedReferences);
+    }
+
+    public List<String> getCommittedReferences() {
+        return committedReferences;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.flightrebooking.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super("Cursor is not a nextCursor value returned by this API");
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.flightrebooking.exception;
+
+public class LeaseNotHeldException extends RuntimeException {
+
+    private final String reference;
+
+    public LeaseNotHeldException(String reference) {
+        super(String.format("Booking %s is not leased under this lease id; it expired or was released", reference));
+        this.reference = reference;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+}
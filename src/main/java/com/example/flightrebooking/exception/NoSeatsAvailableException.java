@@ -0,0 +1,17 @@
+package com.example.flightrebooking.exception;
+
+import java.util.UUID;
+
+public class NoSeatsAvailableException extends RuntimeException {
+
+    private final UUID flightId;
+
+    public NoSeatsAvailableException(UUID flightId) {
+        super(String.format("No seats available on flight %s", flightId));
+        this.flightId = flightId;
+    }
+
+    public UUID getFlightId() {
+        return flightId;
+    }
+}
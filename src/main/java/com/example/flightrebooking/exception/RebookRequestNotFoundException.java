@@ -0,0 +1,17 @@
+package com.example.flightrebooking.exception;
+
+import java.util.UUID;
+
+public class RebookRequestNotFoundException extends RuntimeException {
+
+    private final UUID requestId;
+
+    public RebookRequestNotFoundException(String reference, UUID requestId) {
+        super(String.format("No rebook request %s found for booking %s", requestId, reference));
+        this.requestId = requestId;
+    }
+
+    public UUID getRequestId() {
+        return requestId;
+    }
+}
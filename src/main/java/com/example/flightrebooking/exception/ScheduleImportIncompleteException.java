@@ -0,0 +1,24 @@
+package com.example.flightrebooking.exception;
+
+import java.util.List;
+
+public class ScheduleImportIncompleteException extends RuntimeException {
+
+    private final List<Integer> committedShards;
+    private final int failedShard;
+
+    public ScheduleImportIncompleteException(List<Integer> committedShards, int failedShard, Throwable cause) {
+        super("Schedule import was committed on shards " + committedShards + " but failed on shard " + failedShard
+            + "; re-run the same file to complete it", cause);
+        this.committedShards = List.copyOf(committedShards);
+        this.failedShard = failedShard;
+    }
+
+    public List<Integer> getCommittedShards() {
+        return committedShards;
+    }
+
+    public int getFailedShard() {
+        return failedShard;
+    }
+}
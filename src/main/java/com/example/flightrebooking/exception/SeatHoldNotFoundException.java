@@ -0,0 +1,18 @@
+package com.example.flightrebooking.exception;
+
+import java.util.UUID;
+
+public class SeatHoldNotFoundException extends RuntimeException {
+
+    private final UUID holdId;
+
+    public SeatHoldNotFoundException(String reference, UUID holdId) {
+        super(String.format("No seat hold %s found for booking %s; it expired, was used or was released",
+            holdId, reference));
+        this.holdId = holdId;
+    }
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.flightrebooking.groupcommit;
+
+import com.example.flightrebooking.exception.GroupCommitUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commits writes submitted by many threads together, so one WAL flush covers a whole
+ * batch instead of one small transaction each.
+ *
+ * A single flusher thread takes the first waiting write, then keeps collecting until
+ * {@code maxBatchSize} writes are in hand or {@code linger} has passed, and hands the
+ * batch to the {@link BatchWriter} inside one transaction. The writer decides the outcome
+ * of each write; callers only see it once the transaction has committed. If the
+ * transaction fails, every write in it fails with the same exception.
+ *
+ * At most {@code capacity} writes wait for a batch; a submit beyond that is refused at once
+ * rather than queueing for longer than any caller would wait.
+ *
+ * @param <T> what callers submit
+ * @param <R> what a successful write returns to its caller
+ */
+public final class GroupCommitQueue<T, R> implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface BatchWriter<T, R> {
+
+        /**
+         * Writes a batch on a connection with an open transaction. Every item must be given
+         * its outcome with {@link Item#succeed} or {@link Item#fail}; throwing fails them all.
+         */
+        void write(Connection connection, List<Item<T, R>> batch) throws SQLException;
+    }
+
+    public static final class Item<T, R> {
+
+        private final T value;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+        private RuntimeException failure;
+        private boolean decided;
+
+        private Item(T value) {
+            this.value = value;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public void succeed(R result) {
+            this.result = result;
+            this.decided = true;
+        }
+
+        public void fail(RuntimeException failure) {
+            this.failure = failure;
+            this.decided = true;
+        }
+
+        private void complete() {
+            if (!decided) {
+                future.completeExceptionally(new IllegalStateException("Batch writer gave no outcome for " + value));
+            } else if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String name;
+    private final DataSource dataSource;
+    private final BatchWriter<T, R> writer;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Item<T, R>> queue;
+    private final SQLStateSQLExceptionTranslator exceptionTranslator = new SQLStateSQLExceptionTranslator();
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public GroupCommitQueue(String name, DataSource dataSource, BatchWriter<T, R> writer,
+                            int maxBatchSize, Duration linger, int capacity, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (capacity < maxBatchSize) {
+            throw new IllegalArgumentException("capacity must be at least maxBatchSize");
+        }
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.name = name;
+        this.dataSource = dataSource;
+        this.writer = writer;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.batchSizes = DistributionSummary.builder("rebooking.group-commit.batch.size")
+            .tag("queue", name)
+            .register(meterRegistry);
+        this.flushTimer = meterRegistry.timer("rebooking.group-commit.flush", "queue", name);
+        this.rejected = meterRegistry.counter("rebooking.group-commit.rejected", "queue", name);
+        meterRegistry.gaugeCollectionSize("rebooking.group-commit.pending",
+            List.of(Tag.of("queue", name)), queue);
+
+        this.flusher = Thread.ofPlatform().name("group-commit-" + name).daemon().unstarted(this::run);
+        flusher.start();
+    }
+
+    /**
+     * Queues a write for the next batch.
+     *
+     * @return completes once the batch holding the write has committed, or with the write's failure
+     * @throws GroupCommitUnavailableException if {@code capacity} writes are already waiting
+     */
+    public CompletableFuture<R> submit(T value) {
+        if (closed) {
+            throw new IllegalStateException("Group commit queue " + name + " is closed");
+        }
+        Item<T, R> item = new Item<>(value);
+        if (!queue.offer(item)) {
+            rejected.increment();
+            throw new GroupCommitUnavailableException(
+                "Too many rebooks are waiting to commit; please retry later", RETRY_AFTER);
+        }
+        return item.future;
+    }
+
+    /**
+     * Takes back a submitted write that has not yet joined a batch, failing it with
+     * {@code failure}. A write already in a batch is left to finish.
+     *
+     * @return whether the write was taken back, so it will never be written
+     */
+    public boolean withdraw(CompletableFuture<R> submitted, RuntimeException failure) {
+        List<Item<T, R>> withdrawn = new ArrayList<>(1);
+        queue.removeIf(item -> item.future == submitted && withdrawn.add(item));
+        for (Item<T, R> item : withdrawn) {
+            item.fail(failure);
+            item.complete();
+        }
+        return !withdrawn.isEmpty();
+    }
+
+    /**
+     * Stops accepting writes and returns once everything already queued has been flushed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A submit racing with close can land after the flusher's last look at the queue
+        Item<T, R> orphan;
+        while ((orphan = queue.poll()) != null) {
+            orphan.fail(new IllegalStateException("Group commit queue " + name + " is closed"));
+            orphan.complete();
+        }
+    }
+
+    private void run() {
+        List<Item<T, R>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Item<T, R> first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(List<Item<T, R>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            // Writes already waiting join without lingering
+            Item<T, R> next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Item<T, R>> batch) {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                writer.write(connection, batch);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            RuntimeException failure = e instanceof SQLException sql
+                ? exceptionTranslator.translate("Group commit of " + batch.size() + " writes", null, sql)
+                : (RuntimeException) e;
+            for (Item<T, R> item : batch) {
+                item.fail(failure);
+            }
+        }
+        flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        for (Item<T, R> item : batch) {
+            item.complete();
+        }
+    }
+}
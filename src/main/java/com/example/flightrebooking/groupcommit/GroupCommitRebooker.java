@@ -0,0 +1,255 @@
+package com.example.flightrebooking.groupcommit;
+
+import com.example.flightrebooking.config.GroupCommitProperties;
+import com.example.flightrebooking.dto.RebookResult;
+import com.example.flightrebooking.entity.Booking;
+import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.entity.RebookingAudit;
+import com.example.flightrebooking.exception.AlreadyRebookedException;
+import com.example.flightrebooking.exception.GroupCommitUnavailableException;
+import com.example.flightrebooking.routing.ReadRoutingContext;
+import com.example.flightrebooking.seathold.SeatHolds;
+import com.example.flightrebooking.service.RebookPlan;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Commits rebooks through a {@link GroupCommitQueue} per shard when
+ * {@code rebooking.group-commit.enabled} is set.
+ *
+ * Each rebook is validated on the caller's thread exactly as the one-transaction path does,
+ * then only its writes are queued. A batch inserts every audit record first, with
+ * {@code ON CONFLICT DO NOTHING} so that a reused idempotency key fails just that rebook
+ * (the controller's retry then replays the stored response), and then moves every booking
+ * to {@code REBOOKED} guarded by the version it was validated against. A booking that
+ * changed in between, including one rebooked earlier in the same batch, fails with the
+ * same conflicts the one-transaction path raises and its audit record is removed again.
+ * Seats are taken before the rebook is queued and given back if its write fails.
+ *
+ * A rebook that has not committed within {@code commit-timeout} is answered with 503. If it
+ * had not joined a batch yet it is taken out of the queue, so it is never written. If its
+ * batch is already being written the outcome is not known yet; a retry with the same
+ * idempotency key replays it once committed, and its seats are given back should it fail.
+ *
+ * Per-rebook outcomes rely on the driver reporting a row count for every batched
+ * statement, which the PostgreSQL driver does unless {@code reWriteBatchedInserts} is on.
+ */
+@Component
+public class GroupCommitRebooker implements DisposableBean {
+
+    private static final String INSERT_AUDIT =
+        "INSERT INTO rebooking_audit (id, booking_id, idempotency_key, previous_flight_id, new_flight_id, outcome, " +
+        "                             response_payload, response_payload_cbor, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?::rebooking_outcome, ?::jsonb, ?, ?) " +
+        "ON CONFLICT (idempotency_key) DO NOTHING";
+
+    private static final String UPDATE_BOOKING =
+        "UPDATE bookings SET status = 'REBOOKED', rebooked_flight_id = ?, rebooked_connecting_flight_ids = ?, " +
+        "                    updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND version = ?";
+
+    private static final String DELETE_AUDITS = "DELETE FROM rebooking_audit WHERE id = ANY(?)";
+
+    private static final String CURRENT_STATUS = "SELECT id, status::text FROM bookings WHERE id = ANY(?)";
+
+    private final RebookingService rebookingService;
+    private final SeatHolds seatHolds;
+    private final Duration commitTimeout;
+    private final List<GroupCommitQueue<RebookPlan, RebookResult>> queues = new ArrayList<>();
+
+    public GroupCommitRebooker(RebookingService rebookingService, SeatHolds seatHolds,
+                               ShardRoutingDataSource shardRoutingDataSource, GroupCommitProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.rebookingService = rebookingService;
+        this.seatHolds = seatHolds;
+        this.commitTimeout = properties.commitTimeout();
+        if (properties.enabled()) {
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                queues.add(new GroupCommitQueue<>("shard-" + shard.index(), shard.writePool(), this::write,
+                    properties.maxBatchSize(), properties.linger(), properties.maxPending(), meterRegistry));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return !queues.isEmpty();
+    }
+
+    /**
+     * Same contract as {@link RebookingService#rebook}; blocks until the batch holding the
+     * rebook has committed, or for at most {@code commit-timeout}.
+     *
+     * @throws GroupCommitUnavailableException if the shard's queue is full or the commit timed out
+     */
+    public RebookResult rebook(String reference, String selectedFlightId, List<String> connectingFlightIds,
+                               UUID idempotencyKey, Long expectedVersion) {
+        RebookPlan plan = ReadRoutingContext.onPrimary(() -> rebookingService.planRebook(
+            reference, selectedFlightId, connectingFlightIds, idempotencyKey, expectedVersion));
+        if (plan.isReplay()) {
+            return plan.replay();
+        }
+        List<SeatHolds.SeatClaim> claims = seatHolds.take(List.of(reference), plan.legIds());
+        GroupCommitQueue<RebookPlan, RebookResult> queue = queues.get(ShardContext.currentShard());
+        CompletableFuture<RebookResult> committed;
+        try {
+            committed = queue.submit(plan);
+        } catch (RuntimeException e) {
+            seatHolds.giveBack(claims);
+            throw e;
+        }
+        try {
+            return committed.get(commitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            seatHolds.giveBack(claims);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            GroupCommitUnavailableException timedOut = new GroupCommitUnavailableException(
+                "Rebook was not committed within " + commitTimeout + "; please retry with the same Idempotency-Key",
+                commitTimeout);
+            if (queue.withdraw(committed, timedOut)) {
+                seatHolds.giveBack(claims);
+            } else {
+                committed.whenCompleteAsync((result, failure) -> {
+                    if (failure != null) {
+                        seatHolds.giveBack(claims);
+                    }
+                });
+            }
+            throw timedOut;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        queues.forEach(GroupCommitQueue::close);
+    }
+
+    private void write(Connection connection, List<GroupCommitQueue.Item<RebookPlan, RebookResult>> batch)
+            throws SQLException {
+        List<GroupCommitQueue.Item<RebookPlan, RebookResult>> inserted = new ArrayList<>();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_AUDIT)) {
+            for (GroupCommitQueue.Item<RebookPlan, RebookResult> item : batch) {
+                RebookingAudit audit = item.value().audit();
+                insert.setObject(1, audit.getId());
+                insert.setObject(2, item.value().booking().getId());
+                insert.setObject(3, audit.getIdempotencyKey());
+                insert.setObject(4, item.value().booking().getOriginalFlight().getId());
+                insert.setObject(5, item.value().newFlight().getId());
+                insert.setString(6, audit.getOutcome().name());
+                insert.setString(7, audit.getResponsePayload());
+                insert.setBytes(8, audit.getResponsePayloadCbor());
+                insert.setTimestamp(9, Timestamp.from(audit.getCreatedAt()));
+                insert.addBatch();
+            }
+            int[] counts = executeBatch(insert);
+            for (int i = 0; i < counts.length; i++) {
+                GroupCommitQueue.Item<RebookPlan, RebookResult> item = batch.get(i);
+                if (counts[i] == 0) {
+                    item.fail(new DuplicateKeyException(
+                        "Idempotency key " + item.value().audit().getIdempotencyKey() + " was used concurrently"));
+                } else {
+                    inserted.add(item);
+                }
+            }
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        List<GroupCommitQueue.Item<RebookPlan, RebookResult>> conflicted = new ArrayList<>();
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_BOOKING)) {
+            for (GroupCommitQueue.Item<RebookPlan, RebookResult> item : inserted) {
+                RebookPlan plan = item.value();
+                update.setObject(1, plan.newFlight().getId());
+                update.setArray(2, connection.createArrayOf("uuid",
+                    plan.connectingFlights().stream().map(Flight::getId).toArray()));
+                update.setTimestamp(3, Timestamp.from(plan.response().rebookedAt()));
+                update.setObject(4, plan.booking().getId());
+                update.setLong(5, plan.booking().getVersion());
+                update.addBatch();
+            }
+            int[] counts = executeBatch(update);
+            for (int i = 0; i < counts.length; i++) {
+                GroupCommitQueue.Item<RebookPlan, RebookResult> item = inserted.get(i);
+                if (counts[i] == 0) {
+                    conflicted.add(item);
+                } else {
+                    item.succeed(RebookResult.newRebook(item.value().response()));
+                }
+            }
+        }
+        if (!conflicted.isEmpty()) {
+            rejectConflicts(connection, conflicted);
+        }
+    }
+
+    private static void rejectConflicts(Connection connection,
+                                        List<GroupCommitQueue.Item<RebookPlan, RebookResult>> conflicted)
+            throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_AUDITS)) {
+            delete.setArray(1, connection.createArrayOf("uuid",
+                conflicted.stream().map(item -> item.value().audit().getId()).toArray()));
+            delete.executeUpdate();
+        }
+
+        Map<UUID, String> statuses = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(CURRENT_STATUS)) {
+            select.setArray(1, connection.createArrayOf("uuid",
+                conflicted.stream().map(item -> item.value().booking().getId()).toArray()));
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    statuses.put(rs.getObject(1, UUID.class), rs.getString(2));
+                }
+            }
+        }
+        for (GroupCommitQueue.Item<RebookPlan, RebookResult> item : conflicted) {
+            Booking booking = item.value().booking();
+            if ("REBOOKED".equals(statuses.get(booking.getId()))) {
+                item.fail(new AlreadyRebookedException(booking.getReference()));
+            } else {
+                item.fail(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()));
+            }
+        }
+    }
+
+    private static int[] executeBatch(PreparedStatement statement) throws SQLException {
+        int[] counts = statement.executeBatch();
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Group commit needs per-statement row counts; " +
+                    "turn off reWriteBatchedInserts");
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.flightrebooking.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys for rows created by the service.
+ */
+public interface IdGenerator {
+
+    UUID next();
+}
@@ -0,0 +1,14 @@
+package com.example.flightrebooking.id;
+
+import java.util.UUID;
+
+/**
+ * Random version 4 UUIDs. Kept for comparison and as a fallback strategy.
+ */
+public class RandomUuidGenerator implements IdGenerator {
+
+    @Override
+    public UUID next() {
+        return UUID.randomUUID();
+    }
+}
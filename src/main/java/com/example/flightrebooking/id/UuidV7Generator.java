@@ -0,0 +1,57 @@
+package com.example.flightrebooking.id;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered version 7 UUIDs (RFC 9562).
+ *
+ * Layout: 48-bit Unix millisecond timestamp, 4-bit version, 12-bit sequence counter,
+ * 2-bit variant, 62 random bits. The timestamp and counter are advanced together with a
+ * CAS so IDs issued by this generator are strictly increasing, even when many threads
+ * call it within the same millisecond or the clock steps backwards. If the counter
+ * overflows within a millisecond the timestamp is borrowed from the next millisecond.
+ */
+public class UuidV7Generator implements IdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+    private static final long RANDOM_62_BITS = 0x3FFFFFFFFFFFFFFFL;
+
+    private final Clock clock;
+    // (timestampMillis << SEQUENCE_BITS) | sequence of the last issued ID
+    private final AtomicLong lastState = new AtomicLong();
+
+    public UuidV7Generator() {
+        this(Clock.systemUTC());
+    }
+
+    public UuidV7Generator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID next() {
+        long state = nextState(clock.millis());
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+
+        long msb = (timestamp << 16) | VERSION_7 | sequence;
+        long lsb = VARIANT_RFC_4122 | (ThreadLocalRandom.current().nextLong() & RANDOM_62_BITS);
+        return new UUID(msb, lsb);
+    }
+
+    private long nextState(long nowMillis) {
+        long candidate = nowMillis << SEQUENCE_BITS;
+        while (true) {
+            long previous = lastState.get();
+            long next = Math.max(candidate, previous + 1);
+            if (lastState.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.flightrebooking.limit;
+
+import com.example.flightrebooking.config.ConcurrencyLimitProperties;
+import com.example.flightrebooking.exception.ConcurrencyLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link ConcurrencyLimited} limits around controller methods. Rejected requests
+ * never reach the service layer, so they hold neither a transaction nor a pooled connection.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimiterRegistry registry;
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiterRegistry registry, ConcurrencyLimitProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.enabled() || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        ConcurrencyLimited annotation = method.getMethodAnnotation(ConcurrencyLimited.class);
+        if (annotation == null) {
+            return true;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = registry.limiter(annotation.value()).tryAcquire();
+        if (permit == null) {
+            registry.recordRejection(annotation.value());
+            throw new ConcurrencyLimitExceededException(annotation.value(), properties.retryAfter());
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter.Permit permit) {
+            permit.release();
+        }
+    }
+}
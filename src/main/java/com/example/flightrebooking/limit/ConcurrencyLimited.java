@@ -0,0 +1,17 @@
+package com.example.flightrebooking.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method as guarded by the named adaptive concurrency limit
+ * (configured under {@code rebooking.concurrency-limit.endpoints.<name>}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+
+    String value();
+}
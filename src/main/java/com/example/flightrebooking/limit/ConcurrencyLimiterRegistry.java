@@ -0,0 +1,63 @@
+package com.example.flightrebooking.limit;
+
+import com.example.flightrebooking.config.ConcurrencyLimitProperties;
+import com.example.flightrebooking.config.ConcurrencyLimitProperties.EndpointLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link AdaptiveConcurrencyLimiter} per limited endpoint and publishes
+ * its limit, in-flight count and rejections as metrics tagged by endpoint.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimiter limiter(String endpoint) {
+        return limiters.computeIfAbsent(endpoint, this::create);
+    }
+
+    public void recordRejection(String endpoint) {
+        rejections.computeIfAbsent(endpoint, name -> Counter.builder("rebooking.concurrency.rejected")
+            .description("Requests rejected because the endpoint was at its concurrency limit")
+            .tag("endpoint", name)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    private AdaptiveConcurrencyLimiter create(String endpoint) {
+        EndpointLimit config = properties.endpoints().getOrDefault(endpoint, EndpointLimit.defaults());
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            endpoint,
+            config.initialLimit(),
+            config.minLimit(),
+            config.maxLimit(),
+            config.latencyThreshold().toNanos(),
+            config.backoffRatio()
+        );
+
+        Gauge.builder("rebooking.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        Gauge.builder("rebooking.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Requests currently holding a concurrency permit")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        return limiter;
+    }
+}
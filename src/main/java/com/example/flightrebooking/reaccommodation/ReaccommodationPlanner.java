@@ -0,0 +1,186 @@
+package com.example.flightrebooking.reaccommodation;
+
+import com.example.flightrebooking.config.ReaccommodationProperties;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.GroupRebookResponse;
+import com.example.flightrebooking.dto.GroupRebookResult;
+import com.example.flightrebooking.dto.PlannedRebooking;
+import com.example.flightrebooking.dto.ReaccommodationCommitRequest;
+import com.example.flightrebooking.dto.ReaccommodationPlanResponse;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.dto.RebookingOptionResponse;
+import com.example.flightrebooking.routing.ReadConsistency;
+import com.example.flightrebooking.service.ReaccommodationDemand;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Plans and commits the reaccommodation of every disrupted booking of a set of flights at
+ * once, instead of leaving the best replacement flights to whoever rebooks first.
+ *
+ * A plan is read from every shard: bookings with the same search are interchangeable, so
+ * each such group becomes one demand of the {@link ReaccommodationSolver} with its best
+ * direct flights as candidates. Connecting itineraries are left out, since one passenger
+ * would take a seat on each of their legs. Seat counts come with the request rather than
+ * from the seat inventory, so a plan can be tried against any capacity.
+ *
+ * A plan is committed as group rebooks, one per shard and replacement flight, each in one
+ * transaction and idempotent under a key derived from the commit's key.
+ */
+@Component
+public class ReaccommodationPlanner {
+
+    /** Commit outcome; a replay when every group had been committed before under the same key. */
+    public record CommitResult(GroupRebookResponse response, boolean isReplay) {}
+
+    private final RebookingService rebookingService;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardRouter shardRouter;
+    private final ReadConsistency readConsistency;
+    private final ReaccommodationProperties properties;
+    private final Timer solveTime;
+
+    public ReaccommodationPlanner(RebookingService rebookingService, ShardRoutingDataSource shardRoutingDataSource,
+                                  ShardRouter shardRouter, ReadConsistency readConsistency,
+                                  ReaccommodationProperties properties, MeterRegistry meterRegistry) {
+        this.rebookingService = rebookingService;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardRouter = shardRouter;
+        this.readConsistency = readConsistency;
+        this.properties = properties;
+        this.solveTime = meterRegistry.timer("rebooking.reaccommodation.solve");
+    }
+
+    public ReaccommodationPlanResponse plan(List<UUID> flightIds, int defaultSeatsAvailable,
+                                           Map<UUID, Integer> seatsAvailable) {
+        // The same search on different shards yields the same options, so their bookings merge
+        Map<List<RebookingOptionResponse>, List<String>> bookingsByOptions = new LinkedHashMap<>();
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            List<ReaccommodationDemand> demands = ShardContext.onShard(shard.index(),
+                () -> rebookingService.findReaccommodationDemand(flightIds, properties.maxCandidates()));
+            for (ReaccommodationDemand demand : demands) {
+                bookingsByOptions.computeIfAbsent(demand.options(), options -> new ArrayList<>())
+                    .addAll(demand.bookingReferences());
+            }
+        }
+
+        Map<String, Integer> flightIndex = new HashMap<>();
+        List<String> flightsByIndex = new ArrayList<>();
+        List<ReaccommodationSolver.Demand> demands = new ArrayList<>(bookingsByOptions.size());
+        bookingsByOptions.forEach((options, references) -> {
+            int[] flights = new int[options.size()];
+            int[] scores = new int[options.size()];
+            for (int k = 0; k < options.size(); k++) {
+                String flightId = options.get(k).flight().flightId();
+                flights[k] = flightIndex.computeIfAbsent(flightId, id -> {
+                    flightsByIndex.add(id);
+                    return flightsByIndex.size() - 1;
+                });
+                scores[k] = options.get(k).score();
+            }
+            references.sort(Comparator.naturalOrder());
+            demands.add(new ReaccommodationSolver.Demand(references.size(), flights, scores));
+        });
+        int[] seats = new int[flightsByIndex.size()];
+        for (int i = 0; i < seats.length; i++) {
+            UUID flightId = UUID.fromString(flightsByIndex.get(i));
+            seats[i] = seatsAvailable == null
+                ? defaultSeatsAvailable
+                : seatsAvailable.getOrDefault(flightId, defaultSeatsAvailable);
+        }
+
+        ReaccommodationSolver.Solution solution = solveTime.record(() -> ReaccommodationSolver.solve(demands, seats));
+
+        // Interchangeable bookings take their group's seats in reference order, best option first
+        List<PlannedRebooking> assignments = new ArrayList<>(solution.assignedPassengers());
+        List<String> unassigned = new ArrayList<>();
+        int d = 0;
+        int bookings = 0;
+        for (Map.Entry<List<RebookingOptionResponse>, List<String>> entry : bookingsByOptions.entrySet()) {
+            List<RebookingOptionResponse> options = entry.getKey();
+            List<String> references = entry.getValue();
+            bookings += references.size();
+            int next = 0;
+            for (int k = 0; k < options.size(); k++) {
+                RebookingOptionResponse option = options.get(k);
+                for (int seat = 0; seat < solution.assigned()[d][k]; seat++) {
+                    assignments.add(new PlannedRebooking(references.get(next++), option.flight().flightId(),
+                        option.flight(), option.score(), option.reason()));
+                }
+            }
+            unassigned.addAll(references.subList(next, references.size()));
+            d++;
+        }
+        assignments.sort(Comparator.comparing(PlannedRebooking::bookingReference));
+        unassigned.sort(Comparator.naturalOrder());
+
+        return new ReaccommodationPlanResponse(
+            flightIds.stream().map(UUID::toString).toList(),
+            Instant.now(),
+            bookings,
+            solution.totalScore(),
+            assignments,
+            unassigned
+        );
+    }
+
+    /**
+     * Commits the assignments one group rebook per shard and flight, in a fixed order. A group
+     * that fails stops the commit with its error; the groups before it stay committed and are
+     * replayed when the commit is retried with the same key.
+     */
+    public CommitResult commit(List<ReaccommodationCommitRequest.Assignment> assignments, UUID idempotencyKey) {
+        Map<Integer, Map<String, List<String>>> groups = new TreeMap<>();
+        for (ReaccommodationCommitRequest.Assignment assignment : assignments) {
+            groups.computeIfAbsent(shardRouter.shardFor(assignment.bookingReference()), shard -> new TreeMap<>())
+                .computeIfAbsent(assignment.selectedFlightId(), flightId -> new ArrayList<>())
+                .add(assignment.bookingReference());
+        }
+
+        Map<String, RebookResponse> responses = new HashMap<>();
+        boolean replay = true;
+        for (Map.Entry<Integer, Map<String, List<String>>> shard : groups.entrySet()) {
+            for (Map.Entry<String, List<String>> group : shard.getValue().entrySet()) {
+                List<String> references = group.getValue();
+                references.sort(Comparator.naturalOrder());
+                UUID groupKey = groupIdempotencyKey(idempotencyKey, shard.getKey(), group.getKey());
+                GroupRebookResult result = ShardContext.onShard(shard.getKey(), () -> {
+                    try {
+                        return rebookingService.groupRebook(references, group.getKey(), List.of(), groupKey);
+                    } catch (DataIntegrityViolationException e) {
+                        // Concurrent commit with the same key - retry will find existing audits
+                        return rebookingService.groupRebook(references, group.getKey(), List.of(), groupKey);
+                    }
+                });
+                references.forEach(readConsistency::recordWrite);
+                result.response().bookings().forEach(booking -> responses.put(booking.bookingReference(), booking));
+                replay &= result.isReplay();
+            }
+        }
+
+        return new CommitResult(new GroupRebookResponse(assignments.stream()
+            .map(assignment -> responses.get(assignment.bookingReference()))
+            .toList()), replay);
+    }
+
+    private static UUID groupIdempotencyKey(UUID commitKey, int shard, String flightId) {
+        return UUID.nameUUIDFromBytes((commitKey + "/" + shard + "/" + flightId).getBytes(StandardCharsets.UTF_8));
+    }
+}
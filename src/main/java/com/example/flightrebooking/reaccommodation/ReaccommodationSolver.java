@@ -0,0 +1,387 @@
+package com.example.flightrebooking.reaccommodation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns disrupted passengers to replacement flights with limited seats: as many
+ * passengers as possible get a seat and, among all such assignments, the total score is
+ * the highest possible.
+ *
+ * The problem is solved as a min-cost max-flow over source, demands, flights and sink, with
+ * a demand's edge to a flight costing the best score minus that flight's score. Flow is
+ * pushed primal-dual: one Dijkstra over reduced costs per phase, then blocking flows
+ * (Dinic) along every zero-cost path it found, so a phase places many passengers at once
+ * rather than one. Interchangeable passengers are a single demand with that many
+ * passengers, which keeps the network as small as the number of distinct candidate lists.
+ *
+ * Demands that share no candidate flight, directly or through other demands, are
+ * independent; each such component is solved on its own, in parallel.
+ */
+public final class ReaccommodationSolver {
+
+    /**
+     * Passengers that are interchangeable: same candidate flights, same scores.
+     *
+     * @param flights candidate flight indexes, distinct
+     * @param scores score of each candidate, higher is better
+     */
+    public record Demand(int passengers, int[] flights, int[] scores) {}
+
+    /**
+     * @param assigned per demand, the passengers placed on each of its candidates
+     */
+    public record Solution(int[][] assigned, long totalScore, int assignedPassengers) {}
+
+    private ReaccommodationSolver() {}
+
+    /**
+     * @param seats seats available on each flight, by flight index
+     */
+    public static Solution solve(List<Demand> demands, int[] seats) {
+        int[][] assigned = new int[demands.size()][];
+        for (int d = 0; d < demands.size(); d++) {
+            assigned[d] = new int[demands.get(d).flights().length];
+        }
+
+        List<Component> components = components(demands, seats);
+        if (components.size() > 1) {
+            components.parallelStream().forEach(component -> component.solve(demands, seats, assigned));
+        } else {
+            components.forEach(component -> component.solve(demands, seats, assigned));
+        }
+
+        long totalScore = 0;
+        int assignedPassengers = 0;
+        for (int d = 0; d < demands.size(); d++) {
+            for (int k = 0; k < assigned[d].length; k++) {
+                totalScore += (long) assigned[d][k] * demands.get(d).scores()[k];
+                assignedPassengers += assigned[d][k];
+            }
+        }
+        return new Solution(assigned, totalScore, assignedPassengers);
+    }
+
+    /** Groups demands joined by a flight with seats, with union-find over demands and flights. */
+    private static List<Component> components(List<Demand> demands, int[] seats) {
+        int[] parent = new int[demands.size() + seats.length];
+        Arrays.setAll(parent, i -> i);
+        for (int d = 0; d < demands.size(); d++) {
+            for (int flight : demands.get(d).flights()) {
+                if (seats[flight] > 0) {
+                    parent[find(parent, d)] = find(parent, demands.size() + flight);
+                }
+            }
+        }
+
+        Map<Integer, Component> byRoot = new HashMap<>();
+        List<Component> components = new ArrayList<>();
+        for (int d = 0; d < demands.size(); d++) {
+            if (demands.get(d).passengers() == 0) {
+                continue;
+            }
+            Component component = byRoot.computeIfAbsent(find(parent, d), root -> {
+                Component created = new Component();
+                components.add(created);
+                return created;
+            });
+            component.demands.add(d);
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static final class Component {
+
+        final List<Integer> demands = new ArrayList<>();
+
+        void solve(List<Demand> all, int[] seats, int[][] assigned) {
+            // Local node numbering: source, demands, flights in order of first use, sink
+            Map<Integer, Integer> flightNodes = new HashMap<>();
+            int best = Integer.MIN_VALUE;
+            int edges = 0;
+            for (int d : demands) {
+                Demand demand = all.get(d);
+                for (int k = 0; k < demand.flights().length; k++) {
+                    if (seats[demand.flights()[k]] > 0) {
+                        flightNodes.putIfAbsent(demand.flights()[k], 1 + demands.size() + flightNodes.size());
+                        best = Math.max(best, demand.scores()[k]);
+                        edges++;
+                    }
+                }
+            }
+            if (flightNodes.isEmpty()) {
+                return;
+            }
+
+            int sink = 1 + demands.size() + flightNodes.size();
+            Network network = new Network(sink + 1, demands.size() + edges + flightNodes.size());
+            for (int i = 0; i < demands.size(); i++) {
+                network.addEdge(0, 1 + i, all.get(demands.get(i)).passengers(), 0);
+            }
+            int[][] candidateEdges = new int[demands.size()][];
+            for (int i = 0; i < demands.size(); i++) {
+                Demand demand = all.get(demands.get(i));
+                candidateEdges[i] = new int[demand.flights().length];
+                for (int k = 0; k < demand.flights().length; k++) {
+                    Integer flightNode = flightNodes.get(demand.flights()[k]);
+                    candidateEdges[i][k] = flightNode == null
+                        ? -1
+                        : network.addEdge(1 + i, flightNode, demand.passengers(), best - demand.scores()[k]);
+                }
+            }
+            flightNodes.forEach((flight, node) -> network.addEdge(node, sink, seats[flight], 0));
+
+            network.maxFlowMinCost(0, sink);
+
+            for (int i = 0; i < demands.size(); i++) {
+                for (int k = 0; k < candidateEdges[i].length; k++) {
+                    if (candidateEdges[i][k] >= 0) {
+                        assigned[demands.get(i)][k] = network.flow(candidateEdges[i][k]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Residual graph in flat arrays; edge {@code e ^ 1} is the reverse of edge {@code e}.
+     */
+    private static final class Network {
+
+        private static final long UNREACHED = Long.MAX_VALUE;
+
+        final int nodes;
+        final int[] head;
+        final int[] next;
+        final int[] to;
+        final int[] capacity;
+        final int[] initialCapacity;
+        final int[] cost;
+        int edgeCount;
+
+        final long[] potential;
+        final long[] distance;
+        final int[] level;
+        final int[] currentEdge;
+        final int[] queue;
+        final int[] path;
+        Heap heap;
+
+        Network(int nodes, int maxEdges) {
+            this.nodes = nodes;
+            this.head = new int[nodes];
+            Arrays.fill(head, -1);
+            this.next = new int[2 * maxEdges];
+            this.to = new int[2 * maxEdges];
+            this.capacity = new int[2 * maxEdges];
+            this.initialCapacity = new int[2 * maxEdges];
+            this.cost = new int[2 * maxEdges];
+            this.potential = new long[nodes];
+            this.distance = new long[nodes];
+            this.level = new int[nodes];
+            this.currentEdge = new int[nodes];
+            this.queue = new int[nodes];
+            this.path = new int[nodes];
+        }
+
+        int addEdge(int from, int target, int edgeCapacity, int edgeCost) {
+            int e = edgeCount;
+            link(from, target, edgeCapacity, edgeCost);
+            link(target, from, 0, -edgeCost);
+            return e;
+        }
+
+        private void link(int from, int target, int edgeCapacity, int edgeCost) {
+            to[edgeCount] = target;
+            capacity[edgeCount] = edgeCapacity;
+            initialCapacity[edgeCount] = edgeCapacity;
+            cost[edgeCount] = edgeCost;
+            next[edgeCount] = head[from];
+            head[from] = edgeCount++;
+        }
+
+        int flow(int edge) {
+            return initialCapacity[edge] - capacity[edge];
+        }
+
+        void maxFlowMinCost(int source, int sink) {
+            while (shortestDistances(source, sink)) {
+                while (levels(source, sink)) {
+                    System.arraycopy(head, 0, currentEdge, 0, nodes);
+                    while (augment(source, sink) > 0) {
+                        // keep pushing along the same levels
+                    }
+                }
+            }
+        }
+
+        private long reducedCost(int edge) {
+            return cost[edge] + potential[to[edge ^ 1]] - potential[to[edge]];
+        }
+
+        private boolean admissible(int edge) {
+            return capacity[edge] > 0 && reducedCost(edge) == 0;
+        }
+
+        /**
+         * Dijkstra over reduced costs, then moves the potentials so that every shortest path
+         * to the sink is made of zero-cost edges. False once the sink is unreachable.
+         */
+        private boolean shortestDistances(int source, int sink) {
+            Arrays.fill(distance, UNREACHED);
+            distance[source] = 0;
+            if (heap == null) {
+                // Each edge is relaxed at most once per search
+                heap = new Heap(edgeCount + 1);
+            }
+            heap.push(0, source);
+            while (!heap.isEmpty()) {
+                long d = heap.topKey();
+                int u = heap.pop();
+                if (d > distance[u]) {
+                    continue;
+                }
+                for (int e = head[u]; e != -1; e = next[e]) {
+                    if (capacity[e] > 0) {
+                        long candidate = d + reducedCost(e);
+                        if (candidate < distance[to[e]]) {
+                            distance[to[e]] = candidate;
+                            heap.push(candidate, to[e]);
+                        }
+                    }
+                }
+            }
+            if (distance[sink] == UNREACHED) {
+                return false;
+            }
+            for (int v = 0; v < nodes; v++) {
+                potential[v] += Math.min(distance[v], distance[sink]);
+            }
+            return true;
+        }
+
+        /** Breadth-first levels over admissible edges; false when they no longer reach the sink. */
+        private boolean levels(int source, int sink) {
+            Arrays.fill(level, -1);
+            level[source] = 0;
+            int headIndex = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            while (headIndex < tail) {
+                int u = queue[headIndex++];
+                for (int e = head[u]; e != -1; e = next[e]) {
+                    if (level[to[e]] < 0 && admissible(e)) {
+                        level[to[e]] = level[u] + 1;
+                        queue[tail++] = to[e];
+                    }
+                }
+            }
+            return level[sink] >= 0;
+        }
+
+        /** Pushes the bottleneck along one level path, found without recursion; 0 when none is left. */
+        private int augment(int source, int sink) {
+            int depth = 0;
+            int u = source;
+            while (u != sink) {
+                int e = currentEdge[u];
+                while (e != -1 && !(level[to[e]] == level[u] + 1 && admissible(e))) {
+                    e = next[e];
+                }
+                currentEdge[u] = e;
+                if (e != -1) {
+                    path[depth++] = e;
+                    u = to[e];
+                } else if (depth == 0) {
+                    return 0;
+                } else {
+                    // Dead end: never enter u again in this blocking flow
+                    level[u] = -1;
+                    u = to[path[--depth] ^ 1];
+                }
+            }
+
+            int bottleneck = Integer.MAX_VALUE;
+            for (int i = 0; i < depth; i++) {
+                bottleneck = Math.min(bottleneck, capacity[path[i]]);
+            }
+            for (int i = 0; i < depth; i++) {
+                capacity[path[i]] -= bottleneck;
+                capacity[path[i] ^ 1] += bottleneck;
+            }
+            return bottleneck;
+        }
+    }
+
+    /** Binary min-heap of (key, node) with duplicates allowed; stale entries are skipped by the caller. */
+    private static final class Heap {
+
+        private final long[] keys;
+        private final int[] values;
+        private int size;
+
+        Heap(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long topKey() {
+            return keys[0];
+        }
+
+        void push(long key, int value) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int pop() {
+            int top = values[0];
+            long key = keys[--size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.flightrebooking.reactive;
+
+import com.example.flightrebooking.controller.BookingController;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.example.flightrebooking.dto.BookingResponse;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.RebookingOptionsQuery;
+import com.example.flightrebooking.dto.RebookingOptionsResponse;
+import com.example.flightrebooking.entity.BookingStatus;
+import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.exception.BookingNotEligibleException;
+import com.example.flightrebooking.exception.BookingNotFoundException;
+import com.example.flightrebooking.exception.BulkheadFullException;
+import com.example.flightrebooking.exception.GlobalExceptionHandler;
+import com.example.flightrebooking.exception.InvalidCursorException;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardRouter;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * {@code GET /bookings/{ref}} and {@code GET /bookings/{ref}/rebooking-options} as
+ * non-blocking handlers, with the parameters, validation messages, options search and
+ * problem responses of {@code BookingController}.
+ */
+final class ReactiveBookingHandler {
+
+    private static final Pattern BOOKING_REF_PATTERN = Pattern.compile(BookingController.BOOKING_REF_PATTERN);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    /** A request parameter that Spring MVC would have refused to bind or validate. */
+    private static final class InvalidParameterException extends RuntimeException {
+        InvalidParameterException(String message) {
+            super(message);
+        }
+    }
+
+    private final ReactiveBookingReader reader;
+    private final ShardRouter shardRouter;
+    private final RebookingService rebookingService;
+    private final GlobalExceptionHandler exceptionHandler;
+    // Converts parameters as Spring MVC's request binding does
+    private final DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+
+    ReactiveBookingHandler(ReactiveBookingReader reader, ShardRouter shardRouter, RebookingService rebookingService,
+                           GlobalExceptionHandler exceptionHandler) {
+        this.reader = reader;
+        this.shardRouter = shardRouter;
+        this.rebookingService = rebookingService;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .GET("/api/v1/bookings/{ref}", this::getBooking)
+            .GET("/api/v1/bookings/{ref}/rebooking-options", this::getRebookingOptions)
+            .build();
+    }
+
+    Mono<ServerResponse> getBooking(ServerRequest request) {
+        String ref = request.pathVariable("ref");
+        return Mono.defer(() -> {
+                validateReference(ref);
+                return findBooking(shardRouter.shardFor(ref), ref);
+            })
+            .flatMap(booking -> {
+                String eTag = "\"" + booking.version() + "\"";
+                return request.checkNotModified(eTag).switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                    .eTag(eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(booking)));
+            })
+            .onErrorResume(error -> problem(request, error));
+    }
+
+    Mono<ServerResponse> getRebookingOptions(ServerRequest request) {
+        String ref = request.pathVariable("ref");
+        return Mono.defer(() -> {
+                RebookingOptionsQuery query = query(request);
+                validateReference(ref);
+                if (query.limit() < 1 || query.limit() > RebookingOptionsQuery.MAX_LIMIT) {
+                    throw new InvalidParameterException(RebookingOptionsQuery.LIMIT_MESSAGE);
+                }
+                int shard = shardRouter.shardFor(ref);
+                return findBooking(shard, ref).flatMap(booking -> searchOptions(shard, booking, query));
+            })
+            .flatMap(options -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(options))
+            .onErrorResume(error -> problem(request, error));
+    }
+
+    private Mono<BookingResponse> findBooking(int shard, String reference) {
+        return reader.findBooking(shard, reference)
+            .switchIfEmpty(Mono.error(() -> new BookingNotFoundException(reference)));
+    }
+
+    /** {@link RebookingService#getRebookingOptions}, with its reads made here. */
+    private Mono<RebookingOptionsResponse> searchOptions(int shard, BookingResponse booking,
+                                                         RebookingOptionsQuery query) {
+        BookingStatus status = BookingStatus.valueOf(booking.status());
+        if (status != BookingStatus.DISRUPTED) {
+            return Mono.error(new BookingNotEligibleException(booking.reference(), status));
+        }
+        RebookingService.OptionSearch search = rebookingService.optionSearch(booking.reference(),
+            flight(booking.originalFlight()),
+            booking.disruption() != null ? booking.disruption().occurredAt() : null,
+            query);
+        return reader.findFlights(shard, search.connectingLegIds())
+            .flatMap(legs -> {
+                search.addConnectingLegs(legs);
+                return readDirectFlights(shard, search);
+            })
+            .then(Mono.fromSupplier(search::result));
+    }
+
+    private Mono<Void> readDirectFlights(int shard, RebookingService.OptionSearch search) {
+        RebookingService.DirectFlightQuery chunk = search.nextDirectQuery();
+        if (chunk == null) {
+            return Mono.empty();
+        }
+        return reader.findAvailableFlights(shard, chunk).flatMap(flights -> {
+            search.addDirectFlights(flights);
+            return readDirectFlights(shard, search);
+        });
+    }
+
+    private RebookingOptionsQuery query(ServerRequest request) {
+        return new RebookingOptionsQuery(
+            parameter(request, "limit", Integer.class, RebookingOptionsQuery.DEFAULT_LIMIT),
+            parameter(request, "earliestDeparture", Instant.class, null),
+            parameter(request, "latestDeparture", Instant.class, null),
+            parameter(request, "sameDayOnly", Boolean.class, false),
+            request.queryParam("cursor").filter(cursor -> !cursor.isEmpty()).orElse(null));
+    }
+
+    private <T> T parameter(ServerRequest request, String name, Class<T> type, T defaultValue) {
+        String value = request.queryParam(name).orElse("");
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return conversionService.convert(value, type);
+        } catch (ConversionException e) {
+            throw new InvalidParameterException(String.format("Invalid value for %s: %s", name, value));
+        }
+    }
+
+    private static void validateReference(String reference) {
+        if (!BOOKING_REF_PATTERN.matcher(reference).matches()) {
+            throw new InvalidParameterException(BookingController.BOOKING_REF_MESSAGE);
+        }
+    }
+
+    private static Flight flight(FlightResponse response) {
+        Flight flight = new Flight();
+        flight.setId(UUID.fromString(response.flightId()));
+        flight.setFlightNumber(response.flightNumber());
+        flight.setOrigin(response.origin());
+        flight.setDestination(response.destination());
+        flight.setScheduledDeparture(response.scheduledDeparture());
+        flight.setScheduledArrival(response.scheduledArrival());
+        return flight;
+    }
+
+    /** The problem response {@link GlobalExceptionHandler} gives the servlet endpoints. */
+    private Mono<ServerResponse> problem(ServerRequest request, Throwable error) {
+        ResponseEntity<ProblemDetail> response = switch (Exceptions.unwrap(error)) {
+            case BookingNotFoundException e -> of(exceptionHandler.handleBookingNotFound(e));
+            case BookingNotEligibleException e -> of(exceptionHandler.handleBookingNotEligible(e));
+            case InvalidCursorException e -> of(exceptionHandler.handleInvalidCursor(e));
+            case InvalidParameterException e -> {
+                ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+                problem.setTitle("Bad Request");
+                yield of(problem);
+            }
+            // No connection came free in time: the pool is this tier's bulkhead
+            case DataAccessResourceFailureException e when e.contains(R2dbcTimeoutException.class) ->
+                exceptionHandler.handleBulkheadFull(new BulkheadFullException(TrafficClass.READ, RETRY_AFTER));
+            case Exception e -> of(exceptionHandler.handleUnexpectedException(e));
+            case Throwable e -> throw Exceptions.propagate(e);
+        };
+        ProblemDetail problem = response.getBody();
+        if (problem.getInstance() == null) {
+            problem.setInstance(URI.create(request.path()));
+        }
+        return ServerResponse.status(response.getStatusCode())
+            .headers(headers -> headers.addAll(response.getHeaders()))
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .bodyValue(problem);
+    }
+
+    private static ResponseEntity<ProblemDetail> of(ProblemDetail problem) {
+        return ResponseEntity.status(problem.getStatus()).body(problem);
+    }
+}
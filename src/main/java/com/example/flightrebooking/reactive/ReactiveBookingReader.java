@@ -0,0 +1,167 @@
+package com.example.flightrebooking.reactive;
+
+import com.example.flightrebooking.config.ReactiveReadProperties;
+import com.example.flightrebooking.dto.BookingResponse;
+import com.example.flightrebooking.dto.DisruptionResponse;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The reads of the booking and rebooking-options endpoints over R2DBC: one connection pool
+ * per shard, to the same database the shard's read pool uses. Rows are mapped to the DTOs
+ * and entities the JPA reads produce, so responses come out the same.
+ */
+final class ReactiveBookingReader implements AutoCloseable {
+
+    private static final String FLIGHT_COLUMNS =
+        "id, flight_number, origin, destination, scheduled_departure, scheduled_arrival";
+
+    // Enum columns as text: the driver has no codec for the application's enum types
+    private static final String BOOKING_QUERY =
+        "SELECT b.reference, b.status::text AS status, b.passenger_name, b.rebooked_connecting_flight_ids, " +
+        "b.version, " +
+        "o.id AS o_id, o.flight_number AS o_flight_number, o.origin AS o_origin, o.destination AS o_destination, " +
+        "o.scheduled_departure AS o_scheduled_departure, o.scheduled_arrival AS o_scheduled_arrival, " +
+        "r.id AS r_id, r.flight_number AS r_flight_number, r.origin AS r_origin, r.destination AS r_destination, " +
+        "r.scheduled_departure AS r_scheduled_departure, r.scheduled_arrival AS r_scheduled_arrival, " +
+        "d.type::text AS d_type, d.reason_code AS d_reason_code, d.reason_description AS d_reason_description, " +
+        "d.occurred_at AS d_occurred_at " +
+        "FROM bookings b " +
+        "JOIN flights o ON o.id = b.original_flight_id " +
+        "LEFT JOIN flights r ON r.id = b.rebooked_flight_id " +
+        "LEFT JOIN disruptions d ON d.booking_id = b.id " +
+        "WHERE b.reference = $1";
+
+    // As FlightRepository.findAvailableFlights
+    private static final String DIRECT_FLIGHTS_QUERY =
+        "SELECT " + FLIGHT_COLUMNS + " FROM flights " +
+        "WHERE origin = ANY($1) " +
+        "AND destination = ANY($2) " +
+        "AND scheduled_departure >= $3 " +
+        "AND scheduled_departure < $4 " +
+        "AND scheduled_departure >= $5 " +
+        "AND (scheduled_departure, id) > ($5, $6) " +
+        "ORDER BY scheduled_departure, id " +
+        "LIMIT $7";
+
+    private static final String FLIGHTS_BY_ID_QUERY =
+        "SELECT " + FLIGHT_COLUMNS + " FROM flights WHERE id = ANY($1)";
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<DatabaseClient> clients = new ArrayList<>();
+
+    ReactiveBookingReader(ShardRoutingDataSource shardRoutingDataSource, ReactiveReadProperties properties) {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                    ConnectionFactories.get(options(shard.readPool())))
+                .name("shard-" + shard.index() + "-reactive-read")
+                .initialSize(0)
+                .maxSize(properties.poolSize())
+                .maxAcquireTime(properties.maxAcquireTime())
+                .acquireRetry(0)
+                .build());
+            pools.add(pool);
+            clients.add(DatabaseClient.create(pool));
+        }
+    }
+
+    /** The booking as {@code GET /bookings/{ref}} returns it, or empty if there is none on the shard. */
+    Mono<BookingResponse> findBooking(int shard, String reference) {
+        return clients.get(shard).sql(BOOKING_QUERY)
+            .bind(0, reference)
+            .map(ReactiveBookingReader::booking)
+            .one();
+    }
+
+    Mono<List<Flight>> findAvailableFlights(int shard, RebookingService.DirectFlightQuery query) {
+        return clients.get(shard).sql(DIRECT_FLIGHTS_QUERY)
+            .bind(0, query.origins())
+            .bind(1, query.destinations())
+            .bind(2, query.earliest())
+            .bind(3, query.before())
+            .bind(4, query.afterDeparture())
+            .bind(5, query.afterId())
+            .bind(6, query.limit())
+            .map(row -> flight(row, ""))
+            .all()
+            .collectList();
+    }
+
+    Mono<List<Flight>> findFlights(int shard, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return clients.get(shard).sql(FLIGHTS_BY_ID_QUERY)
+            .bind(0, ids.toArray(UUID[]::new))
+            .map(row -> flight(row, ""))
+            .all()
+            .collectList();
+    }
+
+    @Override
+    public void close() {
+        Flux.fromIterable(pools).flatMap(ConnectionPool::disposeLater).blockLast();
+    }
+
+    private static ConnectionFactoryOptions options(HikariDataSource pool) {
+        return ConnectionFactoryOptions.parse(pool.getJdbcUrl().replaceFirst("^jdbc:", "r2dbc:"))
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, pool.getUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, pool.getPassword())
+            .build();
+    }
+
+    private static BookingResponse booking(Readable row) {
+        UUID[] connectingFlightIds = row.get("rebooked_connecting_flight_ids", UUID[].class);
+        String disruptionType = row.get("d_type", String.class);
+        return new BookingResponse(
+            row.get("reference", String.class),
+            row.get("status", String.class),
+            row.get("passenger_name", String.class),
+            FlightResponse.from(flight(row, "o_")),
+            disruptionType == null ? null : new DisruptionResponse(
+                disruptionType,
+                row.get("d_reason_code", String.class),
+                row.get("d_reason_description", String.class),
+                row.get("d_occurred_at", Instant.class)),
+            FlightResponse.from(flight(row, "r_")),
+            connectingFlightIds == null ? List.of()
+                : Arrays.stream(connectingFlightIds).map(UUID::toString).toList(),
+            row.get("version", Long.class)
+        );
+    }
+
+    /** The flight in the columns named with {@code prefix}, or null if its id is null. */
+    private static Flight flight(Readable row, String prefix) {
+        UUID id = row.get(prefix + "id", UUID.class);
+        if (id == null) {
+            return null;
+        }
+        Flight flight = new Flight();
+        flight.setId(id);
+        flight.setFlightNumber(row.get(prefix + "flight_number", String.class));
+        flight.setOrigin(row.get(prefix + "origin", String.class));
+        flight.setDestination(row.get(prefix + "destination", String.class));
+        flight.setScheduledDeparture(row.get(prefix + "scheduled_departure", Instant.class));
+        flight.setScheduledArrival(row.get(prefix + "scheduled_arrival", Instant.class));
+        return flight;
+    }
+}
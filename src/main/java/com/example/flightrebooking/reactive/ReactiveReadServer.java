@@ -0,0 +1,112 @@
+package com.example.flightrebooking.reactive;
+
+import com.example.flightrebooking.config.ReactiveReadProperties;
+import com.example.flightrebooking.exception.GlobalExceptionHandler;
+import com.example.flightrebooking.service.RebookingService;
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * A second, non-blocking server for the two read endpoints that take polling storms, next
+ * to the servlet one, which keeps serving them and everything else.
+ *
+ * Behind it a request holds no thread while it waits on the database: Reactor Netty's event
+ * loops (one per core) parse requests and write responses, and R2DBC reads the booking and
+ * flights without blocking. Options are searched and scored by {@link RebookingService}
+ * itself, so both tiers return the same options as the same JSON. Concurrency is bounded by
+ * the per-shard R2DBC pools; a read that gets no connection within {@code max-acquire-time}
+ * is refused with 503, as the servlet bulkheads would.
+ *
+ * Reads go to each shard's primary: this tier does not route to replicas, so it has no
+ * read-your-writes window to honour either.
+ *
+ * Nothing is opened unless {@code rebooking.reactive-reads.enabled} is set when the
+ * application starts; the bean itself always exists, so AOT-processed builds can turn the
+ * tier on too.
+ */
+@Component
+public class ReactiveReadServer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardRouter shardRouter;
+    private final RebookingService rebookingService;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ObjectMapper objectMapper;
+    private final ReactiveReadProperties properties;
+    private volatile ReactiveBookingReader reader;
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                              RebookingService rebookingService, GlobalExceptionHandler exceptionHandler,
+                              ObjectMapper objectMapper, ReactiveReadProperties properties) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardRouter = shardRouter;
+        this.rebookingService = rebookingService;
+        this.exceptionHandler = exceptionHandler;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        reader = new ReactiveBookingReader(shardRoutingDataSource, properties);
+        ReactiveBookingHandler handler = new ReactiveBookingHandler(reader, shardRouter, rebookingService,
+            exceptionHandler);
+        // The application's ObjectMapper, so JSON is written exactly as the servlet tier writes it
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(handler.routes(), strategies);
+        server = HttpServer.create()
+            .port(properties.port())
+            .handle(new ReactorHttpHandlerAdapter(httpHandler))
+            .bindNow();
+        log.info("Reactive read tier listening on port {}", server.port());
+    }
+
+    /**
+     * The port the server is bound to, once the application is ready.
+     *
+     * @throws IllegalStateException if the tier is not enabled
+     */
+    public int port() {
+        DisposableServer bound = server;
+        if (bound == null) {
+            throw new IllegalStateException("Reactive read tier is not running");
+        }
+        return bound.port();
+    }
+
+    @Override
+    public void destroy() {
+        if (server != null) {
+            server.disposeNow();
+        }
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
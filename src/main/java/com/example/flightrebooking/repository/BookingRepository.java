@@ -1,20 +1,59 @@
 package com.example.flightrebooking.repository;
 
 import com.example.flightrebooking.entity.Booking;
+import com.example.flightrebooking.entity.BookingStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
+    @Transactional(readOnly = true)
     @Query("SELECT b FROM Booking b " +
            "LEFT JOIN FETCH b.originalFlight " +
            "LEFT JOIN FETCH b.rebookedFlight " +
            "LEFT JOIN FETCH b.disruption " +
            "WHERE b.reference = :reference")
     Optional<Booking> findByReferenceWithDetails(String reference);
+
+    /**
+     * Loads and locks the bookings for an update of them all. Rows are locked in id order, so
+     * two transactions locking overlapping sets wait for each other instead of deadlocking.
+     *
+     * PostgreSQL cannot lock the nullable side of an outer join, so a locking fetch-join would
+     * make Hibernate lock each booking and disruption with a statement of its own. The rows
+     * are locked in one statement instead and then read, so the round trips do not grow with
+     * the number of bookings.
+     */
+    default List<Booking> findAllByReferenceInForUpdate(Collection<String> references) {
+        lockAllByReference(references.toArray(String[]::new));
+        return findAllByReferenceInWithDetails(references);
+    }
+
+    @Query(value = "SELECT id FROM bookings WHERE reference = ANY(:references) ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<UUID> lockAllByReference(String[] references);
+
+    @Query("SELECT b FROM Booking b " +
+           "LEFT JOIN FETCH b.originalFlight " +
+           "LEFT JOIN FETCH b.rebookedFlight " +
+           "LEFT JOIN FETCH b.disruption " +
+           "WHERE b.reference IN :references " +
+           "ORDER BY b.id")
+    List<Booking> findAllByReferenceInWithDetails(Collection<String> references);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT b FROM Booking b " +
+           "JOIN FETCH b.originalFlight " +
+           "LEFT JOIN FETCH b.disruption " +
+           "WHERE b.originalFlight.id IN :flightIds AND b.status = :status " +
+           "ORDER BY b.id")
+    List<Booking> findAllByOriginalFlightIdInAndStatus(Collection<UUID> flightIds, BookingStatus status);
 }
@@ -12,10 +12,22 @@ import java.util.UUID;
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, UUID> {
 
-    @Query("SELECT f FROM Flight f " +
-           "WHERE f.origin = :origin " +
-           "AND f.destination = :destination " +
-           "AND f.scheduledDeparture > :after " +
-           "ORDER BY f.scheduledDeparture")
-    List<Flight> findAvailableFlights(String origin, String destination, Instant after);
+    /**
+     * One keyset page of flights between any of the given origins and destinations,
+     * departing in {@code [earliest, before)} and after {@code (afterDeparture, afterId)}.
+     * Arrays keep this one statement (and one cached plan) whatever the airport group
+     * sizes; {@code = ANY} and the departure range both use the route index.
+     */
+    @Query(value = "SELECT * FROM flights " +
+                   "WHERE origin = ANY(:origins) " +
+                   "AND destination = ANY(:destinations) " +
+                   "AND scheduled_departure >= :earliest " +
+                   "AND scheduled_departure < :before " +
+                   "AND scheduled_departure >= :afterDeparture " +
+                   "AND (scheduled_departure, id) > (:afterDeparture, :afterId) " +
+                   "ORDER BY scheduled_departure, id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Flight> findAvailableFlights(String[] origins, String[] destinations, Instant earliest, Instant before,
+                                      Instant afterDeparture, UUID afterId, int limit);
 }
@@ -4,6 +4,7 @@ import com.example.flightrebooking.entity.RebookingAudit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +12,6 @@ import java.util.UUID;
 public interface RebookingAuditRepository extends JpaRepository<RebookingAudit, UUID> {
 
     Optional<RebookingAudit> findByIdempotencyKey(UUID idempotencyKey);
+
+    List<RebookingAudit> findByGroupIdempotencyKey(UUID groupIdempotencyKey);
 }
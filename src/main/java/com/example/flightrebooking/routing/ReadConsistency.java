@@ -0,0 +1,56 @@
+package com.example.flightrebooking.routing;
+
+import com.example.flightrebooking.config.ReplicaProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for bookings: reads of a booking rebooked on this node within the
+ * configured window are served by the primary rather than a possibly-lagging replica.
+ *
+ * Writes are remembered per node only. A client whose next request lands on another
+ * instance may read a replica up to {@code max-lag} behind its own rebook, so deployments
+ * with more than one instance and replicas should route each booking reference to one
+ * instance (load-balancer affinity on the {@code /bookings/{ref}} path segment), or keep
+ * {@code max-lag} within what clients tolerate.
+ */
+@Component
+public class ReadConsistency {
+
+    private final long windowNanos;
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    public ReadConsistency(ReplicaProperties properties) {
+        this.windowNanos = properties.readYourWritesWindow().toNanos();
+    }
+
+    public void recordWrite(String reference) {
+        recentWrites.put(reference, System.nanoTime());
+    }
+
+    /** Whether the booking was written on this node within the window. */
+    public boolean isRecentlyWritten(String reference) {
+        Long writtenAt = recentWrites.get(reference);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    /**
+     * Runs a read-only operation for the booking, pinned to the primary if it was written recently.
+     */
+    public <T> T readBooking(String reference, Supplier<T> read) {
+        if (isRecentlyWritten(reference)) {
+            return ReadRoutingContext.onPrimary(read);
+        }
+        return read.get();
+    }
+
+    @Scheduled(fixedDelayString = "${rebooking.replicas.read-your-writes-window:10s}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        recentWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.flightrebooking.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound override that pins read-only transactions to the primary.
+ *
+ * Must wrap the whole read-only transaction: the physical connection is chosen on first
+ * statement, and the choice lasts until the transaction ends.
+ */
+public final class ReadRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRoutingContext() {}
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            } else {
+                PRIMARY.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.flightrebooking.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the target for read-only connections: healthy replicas in round-robin order,
+ * or the primary's read pool when a caller requires it or no replica is within the lag limit.
+ */
+public class ReadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY_KEY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadRoutingDataSource(HikariDataSource primaryReadPool, List<Replica> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primaryReadPool);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.getName(), replica.getPool());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primaryReadPool);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || ReadRoutingContext.isPrimaryRequired()) {
+            return PRIMARY_KEY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.isHealthy()) {
+                return candidate.getName();
+            }
+        }
+        return PRIMARY_KEY;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.getPool().close());
+    }
+
+    public static class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        // Unhealthy until the first lag check proves otherwise
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        public Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HikariDataSource getPool() {
+            return pool;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public double getLagSeconds() {
+            return lagSeconds;
+        }
+
+        public void update(boolean healthy, double lagSeconds) {
+            this.healthy = healthy;
+            this.lagSeconds = lagSeconds;
+        }
+    }
+}
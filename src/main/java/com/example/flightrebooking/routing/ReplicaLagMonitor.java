@@ -0,0 +1,108 @@
+package com.example.flightrebooking.routing;
+
+import com.example.flightrebooking.config.ReplicaProperties;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Samples replay lag on each replica and takes replicas out of rotation while they are
+ * further behind than {@code rebooking.replicas.max-lag}, not streaming from the primary,
+ * or unreachable.
+ *
+ * Lag is the age of the last transaction a replica replayed. Every check first commits a
+ * heartbeat on the primary, so that age stays small while the primary is idle and keeps
+ * growing on a replica that has stopped receiving WAL, connection dropped or not. A
+ * replica therefore joins the rotation at the first check after it has replayed a
+ * heartbeat.
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String HEARTBEAT = "UPDATE replica_heartbeat SET beat_at = now()";
+
+    // NULL when no WAL receiver is streaming, or nothing has been replayed since the replica
+    // started. Without pg_monitor a receiver's status reads as NULL, and only whether one
+    // is running can be seen.
+    private static final String LAG_QUERY =
+        "SELECT CASE WHEN EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+        "WHERE COALESCE(status, 'streaming') = 'streaming') " +
+        "THEN EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final DataSource primary;
+
+    private final ReadRoutingDataSource routingDataSource;
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(ReadRoutingDataSource routingDataSource, ShardRoutingDataSource shardRoutingDataSource,
+                             ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        // Replicas follow shard 0
+        this.primary = shardRoutingDataSource.getShards().getFirst().writePool();
+        this.maxLagSeconds = properties.maxLag().toMillis() / 1000.0;
+
+        for (ReadRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("rebooking.replica.lag", replica, ReadRoutingDataSource.Replica::getLagSeconds)
+                .description("Replica replay lag in seconds")
+                .baseUnit("seconds")
+                .tag("replica", replica.getName())
+                .register(meterRegistry);
+            Gauge.builder("rebooking.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                .description("1 when the replica is serving reads")
+                .tag("replica", replica.getName())
+                .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rebooking.replicas.lag-check-interval:2s}")
+    public void checkLag() {
+        if (routingDataSource.getReplicas().isEmpty()) {
+            return;
+        }
+        try (Connection conn = primary.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(HEARTBEAT);
+        } catch (Exception e) {
+            // Replicas then fall behind by the heartbeat's age, and leave the rotation after max-lag
+            log.warn("Replica heartbeat could not be written on the primary", e);
+        }
+
+        for (ReadRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            try (Connection conn = replica.getPool().getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lag = rs.getDouble(1);
+                if (rs.wasNull()) {
+                    if (replica.isHealthy()) {
+                        log.warn("Replica {} is not streaming from the primary; routing reads to primary",
+                            replica.getName());
+                    }
+                    replica.update(false, Double.NaN);
+                    continue;
+                }
+                boolean healthy = lag <= maxLagSeconds;
+                if (replica.isHealthy() && !healthy) {
+                    log.warn("Replica {} is {}s behind; routing reads to primary", replica.getName(), lag);
+                }
+                replica.update(healthy, lag);
+            } catch (Exception e) {
+                if (replica.isHealthy()) {
+                    log.warn("Replica {} lag check failed; routing reads to primary", replica.getName(), e);
+                }
+                replica.update(false, Double.NaN);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.flightrebooking.schedule;
+
+import com.example.flightrebooking.config.FlightPartitionProperties;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly {@code flights} partitions ahead of the schedule and archives departed
+ * months.
+ *
+ * A departed partition is moved to the {@code flights_archive} schema only once no booking
+ * (in any status) references its flights, so every booking can still resolve its original
+ * and rebooked flight. Runs on every shard; an advisory lock keeps concurrent nodes from
+ * doing the same work twice.
+ */
+@Component
+public class FlightPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightPartitionMaintenance.class);
+
+    private static final long ADVISORY_LOCK_KEY = 0x666C69676874L; // "flight"
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String LIST_PARTITIONS =
+        "SELECT c.relname FROM pg_inherits i " +
+        "JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = 'flights'::regclass AND c.relname ~ '^flights_[0-9]{4}_[0-9]{2}$' " +
+        "ORDER BY c.relname";
+
+    private static final String REFERENCED_BY_BOOKINGS =
+        "SELECT EXISTS (SELECT 1 FROM bookings WHERE original_flight_id IN (SELECT id FROM %1$s)) " +
+        "OR EXISTS (SELECT 1 FROM bookings WHERE rebooked_flight_id IN (SELECT id FROM %1$s))";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final FlightPartitionProperties properties;
+    private final Clock clock;
+
+    public FlightPartitionMaintenance(ShardRoutingDataSource shardRoutingDataSource,
+                                      FlightPartitionProperties properties) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.properties = properties;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Scheduled(cron = "${rebooking.flights.partitions.cron:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard.writePool());
+            TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(shard.writePool()));
+            tx.executeWithoutResult(status -> {
+                Boolean locked = jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                    ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Flight partition maintenance already running on shard {}", shard.index());
+                    return;
+                }
+                createUpcomingPartitions(jdbc);
+                List<String> archived = archiveDepartedPartitions(jdbc);
+                if (!archived.isEmpty()) {
+                    log.info("Archived flight partitions {} on shard {}", archived, shard.index());
+                }
+            });
+        }
+    }
+
+    private void createUpcomingPartitions(JdbcTemplate jdbc) {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= properties.monthsAhead(); i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            jdbc.queryForObject("SELECT create_flight_partition(?)", String.class, Date.valueOf(monthStart));
+        }
+    }
+
+    private List<String> archiveDepartedPartitions(JdbcTemplate jdbc) {
+        Instant cutoff = clock.instant().minus(properties.archiveAfter());
+        List<String> archived = new ArrayList<>();
+
+        for (String partition : jdbc.queryForList(LIST_PARTITIONS, String.class)) {
+            YearMonth month = YearMonth.parse(partition.substring("flights_".length()), PARTITION_SUFFIX);
+            Instant upperBound = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (!upperBound.isBefore(cutoff)) {
+                // Partitions are listed oldest first, so nothing after this one has departed either
+                break;
+            }
+            Boolean referenced = jdbc.queryForObject(REFERENCED_BY_BOOKINGS.formatted(partition), Boolean.class);
+            if (Boolean.TRUE.equals(referenced)) {
+                continue;
+            }
+            jdbc.execute("ALTER TABLE flights DETACH PARTITION " + partition);
+            jdbc.execute("ALTER TABLE " + partition + " SET SCHEMA flights_archive");
+            archived.add(partition);
+        }
+        return archived;
+    }
+}
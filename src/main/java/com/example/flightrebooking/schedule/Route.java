@@ -0,0 +1,6 @@
+package com.example.flightrebooking.schedule;
+
+public record Route(
+    String origin,
+    String destination
+) {}
@@ -0,0 +1,13 @@
+package com.example.flightrebooking.schedule;
+
+import java.util.Set;
+
+/**
+ * Notified after a schedule import commits, with every route that gained or changed a
+ * flight (for a moved flight, both its old and new route). Implementations refresh
+ * whatever flight caches or route indexes they hold for those routes.
+ */
+public interface ScheduleChangeListener {
+
+    void onRoutesChanged(Set<Route> routes);
+}
@@ -0,0 +1,80 @@
+package com.example.flightrebooking.schedule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming parser for schedule files with the columns
+ * {@code flight_number,origin,destination,scheduled_departure[,scheduled_arrival]}
+ * (ISO-8601 instants). The arrival column may be omitted or left empty: an existing flight
+ * then keeps its block time, and a new one can only be offered as a direct rebooking, not
+ * as a leg of a connecting itinerary.
+ *
+ * Reads one line at a time, so memory use does not depend on file size. A header line
+ * is skipped; blank lines are ignored; invalid rows are reported and skipped.
+ */
+public class ScheduleCsvParser {
+
+    private static final Pattern FLIGHT_NUMBER = Pattern.compile("^[A-Z0-9]{2,10}$");
+    private static final Pattern AIRPORT = Pattern.compile("^[A-Z]{3}$");
+
+    private final BufferedReader reader;
+
+    public ScheduleCsvParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 1 << 16);
+    }
+
+    public void parse(Consumer<ScheduleRecord> accepted, Consumer<ScheduleRowError> rejected) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.startsWith("flight_number"))) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 4 && fields.length != 5) {
+                rejected.accept(new ScheduleRowError(lineNumber, "Expected 4 or 5 columns but found " + fields.length));
+                continue;
+            }
+
+            String flightNumber = fields[0].trim();
+            String origin = fields[1].trim();
+            String destination = fields[2].trim();
+            if (!FLIGHT_NUMBER.matcher(flightNumber).matches()) {
+                rejected.accept(new ScheduleRowError(lineNumber, "Invalid flight number: " + flightNumber));
+            } else if (!AIRPORT.matcher(origin).matches() || !AIRPORT.matcher(destination).matches()) {
+                rejected.accept(new ScheduleRowError(lineNumber, "Airports must be 3-letter IATA codes"));
+            } else if (origin.equals(destination)) {
+                rejected.accept(new ScheduleRowError(lineNumber, "Origin and destination must differ"));
+            } else {
+                Instant departure;
+                Instant arrival = null;
+                try {
+                    departure = Instant.parse(fields[3].trim());
+                } catch (DateTimeParseException e) {
+                    rejected.accept(new ScheduleRowError(lineNumber, "Invalid scheduled_departure: " + fields[3].trim()));
+                    continue;
+                }
+                if (fields.length == 5 && !fields[4].isBlank()) {
+                    try {
+                        arrival = Instant.parse(fields[4].trim());
+                    } catch (DateTimeParseException e) {
+                        rejected.accept(new ScheduleRowError(lineNumber, "Invalid scheduled_arrival: " + fields[4].trim()));
+                        continue;
+                    }
+                    if (!arrival.isAfter(departure)) {
+                        rejected.accept(new ScheduleRowError(lineNumber, "scheduled_arrival must be after scheduled_departure"));
+                        continue;
+                    }
+                }
+                accepted.accept(new ScheduleRecord(lineNumber, flightNumber, origin, destination, departure, arrival));
+            }
+        }
+    }
+}
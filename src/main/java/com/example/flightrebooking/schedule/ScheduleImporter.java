@@ -0,0 +1,480 @@
+package com.example.flightrebooking.schedule;
+
+import com.example.flightrebooking.config.ScheduleImportProperties;
+import com.example.flightrebooking.dto.ScheduleImportResponse;
+import com.example.flightrebooking.exception.ScheduleImportIncompleteException;
+import com.example.flightrebooking.id.IdGenerator;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a full or partial flight schedule in bulk.
+ *
+ * The file is parsed as a stream and valid rows are sent straight into a {@code COPY} on
+ * every shard (flights are replicated to all shards), so memory use is bounded by the copy
+ * buffer rather than the file. Each shard then merges its staging table into
+ * {@code flights} with a handful of set-based statements:
+ * <ul>
+ *   <li>a leg is identified by flight number, origin and UTC departure date, so the legs of a
+ *       multi-stop flight number stay apart; when the file lists the same leg twice, the later
+ *       line wins</li>
+ *   <li>only legs whose destination, departure or arrival time actually changed are updated, and
+ *       unknown legs are inserted</li>
+ *   <li>flights missing from the file are left alone, as bookings may still reference them</li>
+ * </ul>
+ * Once every merge succeeded the shards are committed one after another. There is no two-phase
+ * commit: if a later shard fails to commit, the earlier ones keep the new schedule and the import
+ * fails with {@link ScheduleImportIncompleteException} naming them. Re-running the same file
+ * completes it, as legs that already landed compare unchanged and a leg that is new on some shards
+ * only takes the id it was given on the others. {@link ScheduleChangeListener}s are told which
+ * routes changed once every shard committed.
+ */
+@Component
+public class ScheduleImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleImporter.class);
+
+    private static final String CREATE_STAGING =
+        "CREATE TEMP TABLE schedule_staging (" +
+        "line_number BIGINT NOT NULL, id UUID NOT NULL, flight_number VARCHAR(10) NOT NULL, " +
+        "origin VARCHAR(3) NOT NULL, destination VARCHAR(3) NOT NULL, " +
+        "scheduled_departure TIMESTAMPTZ NOT NULL, scheduled_arrival TIMESTAMPTZ) ON COMMIT DROP";
+
+    private static final String COPY_STAGING =
+        "COPY schedule_staging (line_number, id, flight_number, origin, destination, scheduled_departure, " +
+        "                      scheduled_arrival) " +
+        "FROM STDIN WITH (FORMAT csv)";
+
+    // Each incoming leg next to the stored flight it matches, if any
+    private static final String MATCH_LEGS =
+        "CREATE TEMP TABLE schedule_legs ON COMMIT DROP AS " +
+        "SELECT s.id AS staging_id, f.id AS flight_id, " +
+        "       f.origin AS old_origin, f.destination AS old_destination, f.scheduled_departure AS old_departure, " +
+        "       f.scheduled_arrival AS old_arrival, " +
+        "       s.flight_number, s.origin, s.destination, s.scheduled_departure, s.scheduled_arrival " +
+        "FROM (SELECT DISTINCT ON (flight_number, origin, departure_day) *, " +
+        "             date_trunc('day', scheduled_departure AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS departure_day " +
+        "      FROM schedule_staging " +
+        "      ORDER BY flight_number, origin, departure_day, line_number DESC) s " +
+        "LEFT JOIN flights f ON f.flight_number = s.flight_number " +
+        "                   AND f.origin = s.origin " +
+        "                   AND f.scheduled_departure >= s.departure_day " +
+        "                   AND f.scheduled_departure < s.departure_day + INTERVAL '1 day'";
+
+    // One row per incoming leg that is new or differs from the stored flight. A row without
+    // an arrival keeps the stored block time, moved along with the departure
+    private static final String DETECT_CHANGES =
+        "CREATE TEMP TABLE schedule_changes ON COMMIT DROP AS " +
+        "SELECT staging_id, flight_id, old_origin, old_destination, old_departure, " +
+        "       flight_number, origin, destination, scheduled_departure, " +
+        "       COALESCE(scheduled_arrival, old_arrival + (scheduled_departure - old_departure)) AS scheduled_arrival " +
+        "FROM schedule_legs " +
+        "WHERE flight_id IS NULL " +
+        "   OR (old_destination, old_departure, old_arrival) " +
+        "      IS DISTINCT FROM (destination, scheduled_departure, " +
+        "                        COALESCE(scheduled_arrival, old_arrival + (scheduled_departure - old_departure)))";
+
+    // Every shard stages the same rows with the same ids, so equal fingerprints mean every
+    // shard is about to insert the same legs
+    private static final String NEW_LEGS_FINGERPRINT =
+        "SELECT count(*) || ':' || COALESCE(sum(hashtextextended(staging_id::text, 0)), 0) " +
+        "FROM schedule_changes WHERE flight_id IS NULL";
+
+    private static final String NEW_LEGS =
+        "SELECT staging_id FROM schedule_changes WHERE flight_id IS NULL";
+
+    private static final String STORED_LEGS =
+        "SELECT staging_id, flight_id FROM schedule_legs WHERE flight_id IS NOT NULL AND staging_id = ANY (?)";
+
+    private static final String REUSE_FLIGHT_ID =
+        "UPDATE schedule_changes SET staging_id = ? WHERE staging_id = ?";
+
+    // Inserted legs may fall in months beyond the pre-created partitions
+    private static final String CREATE_PARTITIONS =
+        "SELECT create_flight_partition(month) FROM (" +
+        "  SELECT DISTINCT date_trunc('month', scheduled_departure AT TIME ZONE 'UTC')::date AS month " +
+        "  FROM schedule_changes WHERE flight_id IS NULL) months";
+
+    private static final String UPDATE_FLIGHTS =
+        "UPDATE flights f SET origin = c.origin, destination = c.destination, " +
+        "                     scheduled_departure = c.scheduled_departure, scheduled_arrival = c.scheduled_arrival " +
+        "FROM schedule_changes c " +
+        "WHERE f.id = c.flight_id AND f.scheduled_departure = c.old_departure";
+
+    // Keeps the work queue's priority in step with moved departures
+    private static final String UPDATE_BOOKING_DEPARTURES =
+        "UPDATE bookings b SET original_departure = c.scheduled_departure " +
+        "FROM schedule_changes c " +
+        "WHERE b.original_flight_id = c.flight_id AND c.scheduled_departure <> c.old_departure";
+
+    private static final String INSERT_FLIGHTS =
+        "INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure, scheduled_arrival) " +
+        "SELECT staging_id, flight_number, origin, destination, scheduled_departure, scheduled_arrival " +
+        "FROM schedule_changes WHERE flight_id IS NULL";
+
+    private static final String CHANGED_ROUTES =
+        "SELECT origin, destination FROM schedule_changes " +
+        "UNION SELECT old_origin, old_destination FROM schedule_changes WHERE flight_id IS NOT NULL";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final IdGenerator idGenerator;
+    private final ObjectProvider<ScheduleChangeListener> listeners;
+    private final ScheduleImportProperties properties;
+    private final Counter acceptedRows;
+    private final Counter rejectedRows;
+    private final Counter insertedFlights;
+    private final Counter updatedFlights;
+    private final Timer copyTimer;
+    private final Timer mergeTimer;
+    private final AtomicLong rowsInProgress = new AtomicLong();
+
+    public ScheduleImporter(ShardRoutingDataSource shardRoutingDataSource, IdGenerator idGenerator,
+                            ObjectProvider<ScheduleChangeListener> listeners,
+                            ScheduleImportProperties properties, MeterRegistry meterRegistry) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.idGenerator = idGenerator;
+        this.listeners = listeners;
+        this.properties = properties;
+        this.acceptedRows = meterRegistry.counter("rebooking.schedule.import.rows", "result", "accepted");
+        this.rejectedRows = meterRegistry.counter("rebooking.schedule.import.rows", "result", "rejected");
+        this.insertedFlights = meterRegistry.counter("rebooking.schedule.import.flights", "change", "inserted");
+        this.updatedFlights = meterRegistry.counter("rebooking.schedule.import.flights", "change", "updated");
+        this.copyTimer = meterRegistry.timer("rebooking.schedule.import.duration", "phase", "copy");
+        this.mergeTimer = meterRegistry.timer("rebooking.schedule.import.duration", "phase", "merge");
+        meterRegistry.gauge("rebooking.schedule.import.progress", rowsInProgress);
+    }
+
+    public synchronized ScheduleImportResponse importSchedule(Reader source) {
+        long started = System.nanoTime();
+        rowsInProgress.set(0);
+
+        List<ShardRoutingDataSource.Shard> shards = shardRoutingDataSource.getShards();
+        List<Connection> connections = new ArrayList<>(shards.size());
+        try {
+            for (ShardRoutingDataSource.Shard shard : shards) {
+                Connection connection = shard.writePool().getConnection();
+                connections.add(connection);
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING);
+                }
+            }
+
+            ParseResult parsed = copyToStaging(source, connections);
+
+            long mergeStarted = System.nanoTime();
+            for (Connection connection : connections) {
+                detectChanges(connection);
+            }
+            alignNewLegIds(connections);
+            // Shards normally agree; after an incomplete import the lagging shards report the most
+            MergeResult merged = null;
+            for (Connection connection : connections) {
+                MergeResult shardResult = merge(connection);
+                if (merged == null) {
+                    merged = shardResult;
+                } else {
+                    merged.routes().addAll(shardResult.routes());
+                    merged = new MergeResult(Math.max(merged.inserted(), shardResult.inserted()),
+                        Math.max(merged.updated(), shardResult.updated()), merged.routes());
+                }
+            }
+            commit(shards, connections);
+            mergeTimer.record(System.nanoTime() - mergeStarted, TimeUnit.NANOSECONDS);
+
+            insertedFlights.increment(merged.inserted());
+            updatedFlights.increment(merged.updated());
+            if (!merged.routes().isEmpty()) {
+                Set<Route> routes = Set.copyOf(merged.routes());
+                listeners.orderedStream().forEach(listener -> listener.onRoutesChanged(routes));
+            }
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            log.info("Schedule import finished in {} ms: {} rows accepted, {} rejected, {} flights inserted, " +
+                     "{} updated, {} routes changed", durationMillis, parsed.accepted(), parsed.rejected(),
+                     merged.inserted(), merged.updated(), merged.routes().size());
+
+            return new ScheduleImportResponse(
+                parsed.accepted() + parsed.rejected(),
+                parsed.accepted(),
+                parsed.rejected(),
+                merged.inserted(),
+                merged.updated(),
+                merged.routes().size(),
+                durationMillis,
+                parsed.errors()
+            );
+        } catch (SQLException e) {
+            rollback(connections);
+            throw new IllegalStateException("Schedule import failed: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            rollback(connections);
+            throw e;
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.setAutoCommit(true);
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to release schedule import connection", e);
+                }
+            }
+        }
+    }
+
+    private ParseResult copyToStaging(Reader source, List<Connection> connections) throws SQLException {
+        long copyStarted = System.nanoTime();
+        List<CopyIn> copies = new ArrayList<>(connections.size());
+        for (Connection connection : connections) {
+            copies.add(connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING));
+        }
+
+        StringBuilder buffer = new StringBuilder(properties.copyBufferBytes() + 128);
+        List<ScheduleImportResponse.RowError> errors = new ArrayList<>();
+        long[] counts = new long[2];
+        try {
+            new ScheduleCsvParser(source).parse(
+                row -> {
+                    // Validated fields contain no commas or quotes, so no CSV escaping is needed
+                    buffer.append(row.lineNumber()).append(',')
+                        .append(idGenerator.next()).append(',')
+                        .append(row.flightNumber()).append(',')
+                        .append(row.origin()).append(',')
+                        .append(row.destination()).append(',')
+                        .append(row.scheduledDeparture()).append(',')
+                        // An empty unquoted CSV field is NULL
+                        .append(row.scheduledArrival() == null ? "" : row.scheduledArrival()).append('\n');
+                    if (buffer.length() >= properties.copyBufferBytes()) {
+                        flush(buffer, copies);
+                    }
+                    counts[0]++;
+                    acceptedRows.increment();
+                    progress();
+                },
+                error -> {
+                    if (errors.size() < properties.maxReportedErrors()) {
+                        errors.add(new ScheduleImportResponse.RowError(error.lineNumber(), error.message()));
+                    }
+                    counts[1]++;
+                    rejectedRows.increment();
+                    progress();
+                });
+            flush(buffer, copies);
+            for (CopyIn copy : copies) {
+                copy.endCopy();
+            }
+        } catch (IOException e) {
+            cancel(copies);
+            throw new UncheckedIOException("Failed to read schedule file", e);
+        } catch (UncheckedSqlException e) {
+            cancel(copies);
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            cancel(copies);
+            throw e;
+        }
+        copyTimer.record(System.nanoTime() - copyStarted, TimeUnit.NANOSECONDS);
+        return new ParseResult(counts[0], counts[1], errors);
+    }
+
+    private static void detectChanges(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE schedule_staging");
+            statement.execute(MATCH_LEGS);
+            statement.execute(DETECT_CHANGES);
+        }
+    }
+
+    /**
+     * Gives a leg that is new on some shards but already stored on others (left behind by an
+     * import that did not commit everywhere) the id it has on the shards that store it.
+     */
+    private static void alignNewLegIds(List<Connection> connections) throws SQLException {
+        Set<String> fingerprints = new HashSet<>();
+        for (Connection connection : connections) {
+            fingerprints.add(queryForString(connection, NEW_LEGS_FINGERPRINT));
+        }
+        if (fingerprints.size() <= 1) {
+            return;
+        }
+
+        List<Set<UUID>> newLegs = new ArrayList<>(connections.size());
+        Set<UUID> allNewLegs = new HashSet<>();
+        for (Connection connection : connections) {
+            Set<UUID> legs = new HashSet<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(NEW_LEGS)) {
+                while (rs.next()) {
+                    legs.add(rs.getObject(1, UUID.class));
+                }
+            }
+            newLegs.add(legs);
+            allNewLegs.addAll(legs);
+        }
+
+        Map<UUID, UUID> storedIds = new HashMap<>();
+        for (int i = 0; i < connections.size(); i++) {
+            Set<UUID> storedHere = new HashSet<>(allNewLegs);
+            storedHere.removeAll(newLegs.get(i));
+            if (storedHere.isEmpty()) {
+                continue;
+            }
+            Connection connection = connections.get(i);
+            try (PreparedStatement statement = connection.prepareStatement(STORED_LEGS)) {
+                statement.setArray(1, connection.createArrayOf("uuid", storedHere.toArray()));
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        storedIds.putIfAbsent(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < connections.size(); i++) {
+            try (PreparedStatement statement = connections.get(i).prepareStatement(REUSE_FLIGHT_ID)) {
+                for (UUID stagingId : newLegs.get(i)) {
+                    UUID flightId = storedIds.get(stagingId);
+                    if (flightId != null) {
+                        statement.setObject(1, flightId);
+                        statement.setObject(2, stagingId);
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        }
+        log.info("Schedule import found {} legs stored on only some shards and reuses their ids", storedIds.size());
+    }
+
+    private MergeResult merge(Connection connection) throws SQLException {
+        Set<Route> routes = new HashSet<>();
+        long updated;
+        long inserted;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_PARTITIONS);
+            updated = statement.executeLargeUpdate(UPDATE_FLIGHTS);
+            statement.executeLargeUpdate(UPDATE_BOOKING_DEPARTURES);
+            inserted = statement.executeLargeUpdate(INSERT_FLIGHTS);
+            try (ResultSet rs = statement.executeQuery(CHANGED_ROUTES)) {
+                while (rs.next()) {
+                    routes.add(new Route(rs.getString(1), rs.getString(2)));
+                }
+            }
+        }
+        return new MergeResult(inserted, updated, routes);
+    }
+
+    private static void commit(List<ShardRoutingDataSource.Shard> shards, List<Connection> connections)
+            throws SQLException {
+        List<Integer> committed = new ArrayList<>();
+        for (int i = 0; i < connections.size(); i++) {
+            try {
+                connections.get(i).commit();
+                committed.add(shards.get(i).index());
+            } catch (SQLException e) {
+                if (committed.isEmpty()) {
+                    throw e;
+                }
+                int failed = shards.get(i).index();
+                log.error("Schedule import committed on shards {} but not on shard {}; re-run the same file " +
+                          "to complete it", committed, failed, e);
+                rollback(connections.subList(i + 1, connections.size()));
+                throw new ScheduleImportIncompleteException(committed, failed, e);
+            }
+        }
+    }
+
+    private static String queryForString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private void progress() {
+        long rows = rowsInProgress.incrementAndGet();
+        if (rows % properties.progressInterval() == 0) {
+            log.info("Schedule import progress: {} rows read", rows);
+        }
+    }
+
+    private static void flush(StringBuilder buffer, List<CopyIn> copies) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+        try {
+            for (CopyIn copy : copies) {
+                copy.writeToCopy(bytes, 0, bytes.length);
+            }
+        } catch (SQLException e) {
+            throw new UncheckedSqlException(e);
+        }
+    }
+
+    private static void cancel(List<CopyIn> copies) {
+        for (CopyIn copy : copies) {
+            try {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to cancel schedule COPY", e);
+            }
+        }
+    }
+
+    private static void rollback(List<Connection> connections) {
+        for (Connection connection : connections) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                log.warn("Failed to roll back schedule import", e);
+            }
+        }
+    }
+
+    private record ParseResult(long accepted, long rejected, List<ScheduleImportResponse.RowError> errors) {}
+
+    private record MergeResult(long inserted, long updated, Set<Route> routes) {}
+
+    private static class UncheckedSqlException extends RuntimeException {
+        UncheckedSqlException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.flightrebooking.schedule;
+
+import java.time.Instant;
+
+public record ScheduleRecord(
+    long lineNumber,
+    String flightNumber,
+    String origin,
+    String destination,
+    Instant scheduledDeparture,
+    Instant scheduledArrival
+) {}
@@ -0,0 +1,6 @@
+package com.example.flightrebooking.schedule;
+
+public record ScheduleRowError(
+    long lineNumber,
+    String message
+) {}
@@ -0,0 +1,211 @@
+package com.example.flightrebooking.seathold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck): timers in rings of 64 slots, each level's
+ * slot spanning a full turn of the level below. Scheduling and cancelling are O(1) whatever
+ * the number of live timers; a timer is moved down a level at most once per level before
+ * it fires.
+ *
+ * Any thread may schedule or cancel. Both are queued and applied by the single thread that
+ * calls {@link #advanceTo}, which owns the rings, so no lock is taken. A timer fires on the
+ * first advance at or after its deadline rounded up to a tick, never early.
+ *
+ * @param <T> what is handed back when a timer fires
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    /** A scheduled timer. */
+    public interface Timeout {
+
+        /** @return false if the timer had already fired or been cancelled */
+        boolean cancel();
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final int SCHEDULED = 0;
+    private static final int CANCELLED = 1;
+    private static final int FIRED = 2;
+
+    private final long originMillis;
+    private final long tickMillis;
+    private final int levels;
+    private final long maxTicks;
+    // Sentinels of circular doubly-linked lists, one per slot of each level
+    private final Node<T>[][] slots;
+    private final Queue<Node<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Node<T>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long currentTick;
+
+    /**
+     * @param levels rings; the longest delay placed directly is {@code 64^levels} ticks, later
+     *               timers wait in the top ring and are placed again as it turns
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels < 1 || levels > 10) {
+            throw new IllegalArgumentException("tickMillis must be positive and levels between 1 and 10");
+        }
+        this.originMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.maxTicks = 1L << (SLOT_BITS * levels);
+        this.slots = new Node[levels][SLOTS];
+        for (Node<T>[] level : slots) {
+            for (int s = 0; s < SLOTS; s++) {
+                level[s] = new Node<>(null, 0, this);
+                level[s].prev = level[s];
+                level[s].next = level[s];
+            }
+        }
+    }
+
+    public Timeout schedule(T value, long deadlineMillis) {
+        // Round up, so a timer never fires before its deadline
+        long deadlineTick = Math.ceilDiv(deadlineMillis - originMillis, tickMillis);
+        Node<T> node = new Node<>(value, deadlineTick, this);
+        size.incrementAndGet();
+        scheduled.add(node);
+        return node;
+    }
+
+    /** Timers scheduled and neither fired nor cancelled. */
+    public int size() {
+        return size.get();
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Applies pending schedules and cancellations, then turns the wheel through every tick up
+     * to {@code nowMillis}. Only ever called from one thread.
+     *
+     * @return the values of the timers that fired, earliest tick first
+     */
+    public List<T> advanceTo(long nowMillis) {
+        List<T> fired = new ArrayList<>();
+        for (Node<T> node; (node = cancelled.poll()) != null; ) {
+            node.unlink();
+        }
+        for (Node<T> node; (node = scheduled.poll()) != null; ) {
+            if (node.state.get() == SCHEDULED) {
+                place(node, fired);
+            }
+        }
+
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Higher rings first: what they hand down may land in a lower ring's slot due now
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    Node<T> sentinel = slots[level][slot(currentTick, level)];
+                    for (Node<T> node = detachAll(sentinel); node != null; ) {
+                        Node<T> next = node.next;
+                        place(node, fired);
+                        node = next;
+                    }
+                }
+            }
+            Node<T> sentinel = slots[0][slot(currentTick, 0)];
+            for (Node<T> node = detachAll(sentinel); node != null; ) {
+                Node<T> next = node.next;
+                node.next = null;
+                fire(node, fired);
+                node = next;
+            }
+        }
+        return fired;
+    }
+
+    private void place(Node<T> node, List<T> fired) {
+        long delay = node.deadlineTick - currentTick;
+        if (delay <= 0) {
+            fire(node, fired);
+            return;
+        }
+        // Beyond the top ring: park at its far end and place again when it comes round
+        long placementTick = delay < maxTicks ? node.deadlineTick : currentTick + maxTicks - 1;
+        int level = 0;
+        while (level < levels - 1 && (placementTick - currentTick) >>> (SLOT_BITS * (level + 1)) != 0) {
+            level++;
+        }
+        Node<T> sentinel = slots[level][slot(placementTick, level)];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private void fire(Node<T> node, List<T> fired) {
+        node.prev = null;
+        node.next = null;
+        if (node.state.compareAndSet(SCHEDULED, FIRED)) {
+            size.decrementAndGet();
+            fired.add(node.value);
+        }
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    /** Empties the slot; returns its nodes as a null-terminated list linked by {@code next}. */
+    private static <T> Node<T> detachAll(Node<T> sentinel) {
+        if (sentinel.next == sentinel) {
+            return null;
+        }
+        Node<T> first = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        return first;
+    }
+
+    private static final class Node<T> implements Timeout {
+
+        final T value;
+        final long deadlineTick;
+        final HierarchicalTimingWheel<T> wheel;
+        final AtomicInteger state = new AtomicInteger(SCHEDULED);
+        Node<T> prev;
+        Node<T> next;
+
+        Node(T value, long deadlineTick, HierarchicalTimingWheel<T> wheel) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+            this.wheel = wheel;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            wheel.size.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        /** Removes the node from its slot, if it has been placed in one. */
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.example.flightrebooking.seathold;
+
+import com.example.flightrebooking.config.SeatHoldProperties;
+import com.example.flightrebooking.exception.NoSeatsAvailableException;
+import com.example.flightrebooking.exception.SeatHoldNotFoundException;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Short holds on replacement seats, so that a passenger who picked an option still has its
+ * seat when they confirm the rebook.
+ *
+ * Seats are counted in {@code seat_inventory} and held in {@code seat_holds}, both on the
+ * flight's home shard: the shard its id routes to, since flights themselves are copied to
+ * every shard. A flight without an inventory row is not managed here and never runs out.
+ * Placing a hold takes a seat; releasing it or letting it expire puts the seat back, and a
+ * rebook consumes it, keeping the seat. A rebook without a hold takes a free seat instead.
+ * A booking holds one seat at a time: holding another flight replaces its hold and gives
+ * that seat back, or keeps it if the new flight has none left.
+ *
+ * Expiry runs on a {@link HierarchicalTimingWheel} rather than a polling query: every hold
+ * this instance places or extends is scheduled on it, and a single thread turns it and
+ * deletes the holds that are due in one statement per shard. The table stays the truth:
+ * the delete only removes holds whose {@code expires_at} has passed by the database clock,
+ * so a hold extended or consumed in the meantime is left alone, and a timer that fires for
+ * nothing costs one statement. On startup every stored hold is scheduled again, and those
+ * that ran out while the service was down expire on the first tick. Holds the wheel does
+ * not cover, placed by another instance that has since stopped, are caught by a sweep every
+ * instance runs each {@code sweep-interval}; it skips rows another instance is already
+ * deleting, so sweeps never wait on each other.
+ */
+@Component
+public class SeatHolds implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHolds.class);
+
+    // Rings of 64 ticks; four of them reach 16.7M ticks, 19 days at 100ms
+    private static final int WHEEL_LEVELS = 4;
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final int SWEEP_BATCH_SIZE = 1_000;
+
+    /** A stored hold; {@code placed} is false when the booking's existing hold was extended. */
+    public record SeatHold(UUID id, String bookingReference, UUID flightId, Instant expiresAt, boolean placed) {}
+
+    /** Seats taken on a flight by {@link #take}, in a transaction of their own. */
+    public record SeatClaim(UUID flightId, int seats) {}
+
+    private record Expiry(UUID holdId, int shard) {}
+
+    private record StoredHold(UUID id, Instant expiresAt) {}
+
+    // Serialises holds for one booking across shards and instances; a hash collision only queues two bookings
+    private static final String LOCK_BOOKING = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private static final String EXTEND =
+        "UPDATE seat_holds SET expires_at = GREATEST(expires_at, now() + make_interval(secs => ?)) " +
+        "WHERE booking_reference = ? AND flight_id = ? " +
+        "RETURNING id, expires_at";
+
+    // The hold goes in only if a seat came out of the inventory, or the flight has none
+    private static final String PLACE =
+        "WITH seat AS (UPDATE seat_inventory SET seats_available = seats_available - 1 " +
+        "              WHERE flight_id = ? AND seats_available > 0 " +
+        "              RETURNING flight_id) " +
+        "INSERT INTO seat_holds (id, booking_reference, flight_id, expires_at) " +
+        "SELECT ?, ?, ?, now() + make_interval(secs => ?) " +
+        "WHERE EXISTS (SELECT 1 FROM seat) OR NOT EXISTS (SELECT 1 FROM seat_inventory WHERE flight_id = ?) " +
+        "RETURNING id, expires_at";
+
+    private static final String REPLACE =
+        "WITH replaced AS (DELETE FROM seat_holds WHERE booking_reference = ? RETURNING id, flight_id), " +
+        "     restored AS (UPDATE seat_inventory i SET seats_available = i.seats_available + 1 " +
+        "                  FROM replaced r WHERE i.flight_id = r.flight_id) " +
+        "SELECT id FROM replaced";
+
+    private static final String RELEASE =
+        "WITH released AS (DELETE FROM seat_holds WHERE id = ? AND booking_reference = ? RETURNING flight_id), " +
+        "     restored AS (UPDATE seat_inventory i SET seats_available = i.seats_available + 1 " +
+        "                  FROM released r WHERE i.flight_id = r.flight_id) " +
+        "SELECT count(*) FROM released";
+
+    private static final String EXPIRE =
+        "WITH expired AS (DELETE FROM seat_holds WHERE id = ANY(?) AND expires_at <= now() RETURNING flight_id), " +
+        "     freed AS (SELECT flight_id, count(*) AS seats FROM expired GROUP BY flight_id), " +
+        "     restored AS (UPDATE seat_inventory i SET seats_available = i.seats_available + f.seats " +
+        "                  FROM freed f WHERE i.flight_id = f.flight_id) " +
+        "SELECT count(*) FROM expired";
+
+    private static final String SWEEP =
+        "WITH expired AS (DELETE FROM seat_holds WHERE id IN (" +
+        "                     SELECT id FROM seat_holds WHERE expires_at <= now() " +
+        "                     ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "                 RETURNING id, flight_id), " +
+        "     freed AS (SELECT flight_id, count(*) AS seats FROM expired GROUP BY flight_id), " +
+        "     restored AS (UPDATE seat_inventory i SET seats_available = i.seats_available + f.seats " +
+        "                  FROM freed f WHERE i.flight_id = f.flight_id) " +
+        "SELECT id FROM expired";
+
+    private static final String FIND_BY_IDS = "SELECT id, expires_at FROM seat_holds WHERE id = ANY(?)";
+
+    private static final String FIND_ALL = "SELECT id, expires_at FROM seat_holds";
+
+    // Holds that ran out but are not deleted yet still count as taken; they cannot be consumed
+    private static final String CONSUME =
+        "DELETE FROM seat_holds " +
+        "WHERE flight_id = ? AND booking_reference = ANY(?) AND expires_at > now() " +
+        "RETURNING id";
+
+    private static final String TAKE =
+        "UPDATE seat_inventory SET seats_available = seats_available - ? " +
+        "WHERE flight_id = ? AND seats_available >= ?";
+
+    private static final String IS_MANAGED = "SELECT EXISTS (SELECT 1 FROM seat_inventory WHERE flight_id = ?)";
+
+    private static final String GIVE_BACK =
+        "UPDATE seat_inventory SET seats_available = seats_available + ? WHERE flight_id = ?";
+
+    private static final RowMapper<StoredHold> STORED_HOLD = (rs, rowNum) -> new StoredHold(
+        rs.getObject("id", UUID.class), rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+
+    private static final RowMapper<UUID> HOLD_ID = (rs, rowNum) -> rs.getObject("id", UUID.class);
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardRouter shardRouter;
+    private final SeatHoldProperties properties;
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+    private final HierarchicalTimingWheel<Expiry> wheel;
+    private final Map<UUID, HierarchicalTimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+    private final Counter placed;
+    private final Counter extended;
+    private final Counter replaced;
+    private final Counter consumed;
+    private final Counter released;
+    private final Counter expired;
+    private volatile Thread expiryThread;
+
+    public SeatHolds(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                     SeatHoldProperties properties, MeterRegistry meterRegistry) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            jdbcTemplates.add(new JdbcTemplate(shard.writePool()));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(shard.writePool())));
+        }
+        this.wheel = new HierarchicalTimingWheel<>(properties.tick().toMillis(), WHEEL_LEVELS,
+            System.currentTimeMillis());
+        meterRegistry.gauge("rebooking.seat-holds.live", wheel, HierarchicalTimingWheel::size);
+        this.placed = meterRegistry.counter("rebooking.seat-holds", "event", "placed");
+        this.extended = meterRegistry.counter("rebooking.seat-holds", "event", "extended");
+        this.replaced = meterRegistry.counter("rebooking.seat-holds", "event", "replaced");
+        this.consumed = meterRegistry.counter("rebooking.seat-holds", "event", "consumed");
+        this.released = meterRegistry.counter("rebooking.seat-holds", "event", "released");
+        this.expired = meterRegistry.counter("rebooking.seat-holds", "event", "expired");
+    }
+
+    /**
+     * Holds a seat on the flight for the booking, or extends the hold it already has there.
+     * A hold the booking has on another flight is replaced, and its seat given back.
+     *
+     * @throws NoSeatsAvailableException if the flight is managed and has no seat left; the
+     *                                   booking keeps any hold it had
+     */
+    public SeatHold hold(String reference, UUID flightId) {
+        int bookingShard = shardRouter.shardFor(reference);
+        return transactionTemplates.get(bookingShard).execute(status -> {
+            jdbcTemplates.get(bookingShard).query(LOCK_BOOKING, rs -> null, reference);
+            return holdLocked(reference, flightId);
+        });
+    }
+
+    private SeatHold holdLocked(String reference, UUID flightId) {
+        int shard = homeShard(flightId);
+        JdbcTemplate jdbc = jdbcTemplates.get(shard);
+        long seconds = properties.duration().toSeconds();
+
+        List<StoredHold> stored = jdbc.query(EXTEND, STORED_HOLD, seconds, reference, flightId);
+        if (!stored.isEmpty()) {
+            schedule(stored.get(0), shard);
+            extended.increment();
+            return new SeatHold(stored.get(0).id(), reference, flightId, stored.get(0).expiresAt(), false);
+        }
+
+        // The hold on this shard is replaced in the same transaction, so it stays if no seat is left
+        List<UUID> replacedHolds = new ArrayList<>();
+        StoredHold hold = transactionTemplates.get(shard).execute(status -> {
+            replacedHolds.addAll(jdbc.query(REPLACE, HOLD_ID, reference));
+            List<StoredHold> placedHold = jdbc.query(PLACE, STORED_HOLD, flightId, UUID.randomUUID(), reference,
+                flightId, seconds, flightId);
+            if (placedHold.isEmpty()) {
+                throw new NoSeatsAvailableException(flightId);
+            }
+            return placedHold.get(0);
+        });
+        for (int other = 0; other < jdbcTemplates.size(); other++) {
+            if (other != shard) {
+                replacedHolds.addAll(jdbcTemplates.get(other).query(REPLACE, HOLD_ID, reference));
+            }
+        }
+
+        cancelTimers(replacedHolds);
+        replaced.increment(replacedHolds.size());
+        schedule(hold, shard);
+        placed.increment();
+        return new SeatHold(hold.id(), reference, flightId, hold.expiresAt(), true);
+    }
+
+    /**
+     * Releases the booking's hold and puts its seat back.
+     *
+     * @throws SeatHoldNotFoundException if the booking holds nothing under that id any more
+     */
+    public void release(String reference, UUID holdId) {
+        for (int shard = 0; shard < jdbcTemplates.size(); shard++) {
+            Long count = jdbcTemplates.get(shard).queryForObject(RELEASE, Long.class, holdId, reference);
+            if (count != null && count > 0) {
+                cancelTimers(List.of(holdId));
+                released.increment();
+                return;
+            }
+        }
+        throw new SeatHoldNotFoundException(reference, holdId);
+    }
+
+    /**
+     * Takes a seat on every flight for every booking: each booking's live hold on the flight
+     * if it has one, otherwise a free seat. A flight that cannot seat them all fails the
+     * whole take, and seats already taken on earlier flights are given back.
+     *
+     * Inside a transaction, flights homed on its own shard are taken in that transaction;
+     * the others are taken in their own and given back if it rolls back. Outside one every
+     * flight is taken in its own transaction and the caller gives the returned claims back
+     * with {@link #giveBack} if what they were taken for fails.
+     *
+     * @throws NoSeatsAvailableException if a managed flight has too few seats left
+     */
+    public List<SeatClaim> take(List<String> references, List<UUID> flightIds) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        // The caller's transaction holds a connection to its shard that these statements can join
+        boolean joinable = inTransaction && TransactionSynchronizationManager.hasResource(shardRoutingDataSource);
+        List<SeatClaim> claims = new ArrayList<>();
+        List<UUID> consumedHolds = new ArrayList<>();
+        try {
+            for (UUID flightId : flightIds) {
+                int shard = homeShard(flightId);
+                if (joinable && shard == ShardContext.currentShard()) {
+                    // Joins the caller's transaction, which commits or rolls back the seats with the rebook
+                    consumedHolds.addAll(takeSeats(new JdbcTemplate(shardRoutingDataSource), references, flightId));
+                } else {
+                    consumedHolds.addAll(transactionTemplates.get(shard).execute(
+                        status -> takeSeats(jdbcTemplates.get(shard), references, flightId)));
+                    claims.add(new SeatClaim(flightId, references.size()));
+                }
+            }
+        } catch (RuntimeException e) {
+            giveBack(claims);
+            throw e;
+        }
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        cancelTimers(consumedHolds);
+                        consumed.increment(consumedHolds.size());
+                    } else {
+                        giveBack(claims);
+                    }
+                }
+            });
+            return List.of();
+        }
+        cancelTimers(consumedHolds);
+        consumed.increment(consumedHolds.size());
+        return claims;
+    }
+
+    /** Puts back seats taken outside a transaction, for a rebook that did not go through. */
+    public void giveBack(Collection<SeatClaim> claims) {
+        for (SeatClaim claim : claims) {
+            try {
+                jdbcTemplates.get(homeShard(claim.flightId())).update(GIVE_BACK, claim.seats(), claim.flightId());
+            } catch (DataAccessException e) {
+                log.error("Could not give back {} seats on flight {}", claim.seats(), claim.flightId(), e);
+            }
+        }
+    }
+
+    private List<UUID> takeSeats(JdbcTemplate jdbc, List<String> references, UUID flightId) {
+        List<UUID> holds = jdbc.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CONSUME);
+            statement.setObject(1, flightId);
+            statement.setArray(2, connection.createArrayOf("varchar", references.toArray()));
+            return statement;
+        }, HOLD_ID);
+
+        int needed = references.size() - holds.size();
+        if (needed > 0 && jdbc.update(TAKE, needed, flightId, needed) == 0
+                && Boolean.TRUE.equals(jdbc.queryForObject(IS_MANAGED, Boolean.class, flightId))) {
+            // Rolls back the holds consumed above along with everything else
+            throw new NoSeatsAvailableException(flightId);
+        }
+        return holds;
+    }
+
+    private int homeShard(UUID flightId) {
+        return shardRouter.shardFor(flightId.toString());
+    }
+
+    private void schedule(StoredHold hold, int shard) {
+        HierarchicalTimingWheel.Timeout previous = timers.put(hold.id(),
+            wheel.schedule(new Expiry(hold.id(), shard), hold.expiresAt().toEpochMilli()));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void cancelTimers(Collection<UUID> holdIds) {
+        for (UUID holdId : holdIds) {
+            HierarchicalTimingWheel.Timeout timeout = timers.remove(holdId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    /** Schedules every stored hold, then starts turning the wheel. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int reconciled = 0;
+        for (int shard = 0; shard < jdbcTemplates.size(); shard++) {
+            for (StoredHold hold : jdbcTemplates.get(shard).query(FIND_ALL, STORED_HOLD)) {
+                schedule(hold, shard);
+                reconciled++;
+            }
+        }
+        log.info("Scheduled {} stored seat holds for expiry", reconciled);
+
+        expiryThread = Thread.ofPlatform().name("seat-hold-expiry").daemon().start(this::runExpiry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread thread = expiryThread;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(properties.tick().toMillis() * 10);
+        }
+    }
+
+    private void runExpiry() {
+        long tickMillis = wheel.tickMillis();
+        long sweepMillis = properties.sweepInterval().toMillis();
+        long nextSweep = System.currentTimeMillis() + sweepMillis;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextSweep) {
+                sweep();
+                nextSweep = now + sweepMillis;
+            }
+            List<Expiry> due = wheel.advanceTo(now);
+            if (due.isEmpty()) {
+                continue;
+            }
+            due.forEach(expiry -> timers.remove(expiry.holdId()));
+            due.stream()
+                .collect(Collectors.groupingBy(Expiry::shard, Collectors.mapping(Expiry::holdId, Collectors.toList())))
+                .forEach(this::expire);
+        }
+    }
+
+    private void sweep() {
+        for (int shard = 0; shard < jdbcTemplates.size(); shard++) {
+            try {
+                List<UUID> swept;
+                do {
+                    swept = jdbcTemplates.get(shard).query(SWEEP, HOLD_ID, SWEEP_BATCH_SIZE);
+                    cancelTimers(swept);
+                    expired.increment(swept.size());
+                } while (swept.size() == SWEEP_BATCH_SIZE);
+            } catch (DataAccessException e) {
+                log.warn("Could not sweep expired seat holds on shard {}; retrying next sweep", shard, e);
+            }
+        }
+    }
+
+    private void expire(int shard, List<UUID> holdIds) {
+        JdbcTemplate jdbc = jdbcTemplates.get(shard);
+        try {
+            Long count = jdbc.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPIRE);
+                statement.setArray(1, connection.createArrayOf("uuid", holdIds.toArray()));
+                return statement;
+            }, rs -> rs.next() ? rs.getLong(1) : 0L);
+            expired.increment(count == null ? 0 : count);
+            if (count != null && count == holdIds.size()) {
+                return;
+            }
+
+            // Extended by another instance, or not yet due by the database clock: look again later
+            List<StoredHold> remaining = jdbc.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(FIND_BY_IDS);
+                statement.setArray(1, connection.createArrayOf("uuid", holdIds.toArray()));
+                return statement;
+            }, STORED_HOLD);
+            long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+            for (StoredHold hold : remaining) {
+                schedule(new StoredHold(hold.id(), Instant.ofEpochMilli(
+                    Math.max(hold.expiresAt().toEpochMilli(), retryAt))), shard);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not expire {} seat holds on shard {}; retrying", holdIds.size(), shard, e);
+            Instant retryAt = Instant.ofEpochMilli(System.currentTimeMillis() + RETRY_DELAY_MILLIS);
+            holdIds.forEach(holdId -> schedule(new StoredHold(holdId, retryAt), shard));
+        }
+    }
+}
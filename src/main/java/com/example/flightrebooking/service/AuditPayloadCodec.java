@@ -0,0 +1,59 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.config.AuditProperties;
+import com.example.flightrebooking.config.AuditProperties.PayloadFormat;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.entity.RebookingAudit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Encodes rebook responses for idempotent replay storage in {@code rebooking_audit}.
+ *
+ * Writes use the configured format; reads accept either column so rows written before
+ * the CBOR column existed (or while JSON was configured) continue to replay.
+ */
+@Component
+public class AuditPayloadCodec {
+
+    private final ObjectMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final PayloadFormat format;
+
+    public AuditPayloadCodec(ObjectMapper jsonMapper, AuditProperties properties) {
+        this.jsonMapper = jsonMapper;
+        // Instants are written as numeric timestamps, which CBOR stores as exact decimal fractions
+        this.cborMapper = CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .build();
+        this.format = properties.payloadFormat();
+    }
+
+    public EncodedPayload encode(RebookResponse response) {
+        try {
+            return switch (format) {
+                case JSON -> new EncodedPayload(jsonMapper.writeValueAsString(response), null);
+                case CBOR -> new EncodedPayload(null, cborMapper.writeValueAsBytes(response));
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize response for idempotency storage", e);
+        }
+    }
+
+    public RebookResponse decode(RebookingAudit audit) {
+        try {
+            if (audit.getResponsePayloadCbor() != null) {
+                return cborMapper.readValue(audit.getResponsePayloadCbor(), RebookResponse.class);
+            }
+            return jsonMapper.readValue(audit.getResponsePayload(), RebookResponse.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to deserialize stored response", e);
+        }
+    }
+
+    public record EncodedPayload(String json, byte[] cbor) {}
+}
@@ -0,0 +1,107 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.dto.GroupRebookResponse;
+import com.example.flightrebooking.dto.GroupRebookResult;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.exception.GroupRebookIncompleteException;
+import com.example.flightrebooking.sharding.ShardContext;
+import com.example.flightrebooking.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Runs a group rebook whose bookings may live on several shards.
+ *
+ * Each shard's part of the group is a {@link RebookingService#groupRebook} in a transaction
+ * of its own, and the transactions are nested in shard order: a shard's bookings are locked,
+ * validated and written, then the next shard's, and only once the last shard is written do
+ * they commit, innermost first. A booking that cannot be rebooked therefore rolls back the
+ * whole group, wherever it lives, and locks are always taken in the same shard order.
+ *
+ * Without two-phase commit the commits themselves are not atomic. A commit that fails after
+ * a later shard's has succeeded is reported with {@link GroupRebookIncompleteException}; each
+ * shard's part is idempotent under the group key, so a retry with the same key replays the
+ * committed shards and completes the others.
+ */
+@Component
+public class GroupRebooker {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupRebooker.class);
+
+    private final RebookingService rebookingService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate shardTransaction;
+
+    public GroupRebooker(RebookingService rebookingService, ShardRouter shardRouter,
+                         PlatformTransactionManager transactionManager) {
+        this.rebookingService = rebookingService;
+        this.shardRouter = shardRouter;
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Same contract as {@link RebookingService#groupRebook}, for bookings on any shards.
+     *
+     * @throws GroupRebookIncompleteException if some shards committed and another then failed to
+     */
+    public GroupRebookResult groupRebook(List<String> references, String selectedFlightId,
+                                         List<String> connectingFlightIds, UUID idempotencyKey) {
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        for (String reference : references) {
+            byShard.computeIfAbsent(shardRouter.shardFor(reference), shard -> new ArrayList<>()).add(reference);
+        }
+        List<Map.Entry<Integer, List<String>>> shards = List.copyOf(byShard.entrySet());
+        Map<String, RebookResponse> responses = new HashMap<>();
+        List<String> committed = new ArrayList<>();
+        boolean replay;
+        try {
+            replay = rebookFrom(0, shards, selectedFlightId, connectingFlightIds, idempotencyKey, responses, committed);
+        } catch (RuntimeException e) {
+            if (!committed.isEmpty()) {
+                log.error("Group rebook committed for {} but not for the rest of {}; a retry with key {} " +
+                    "completes it", committed, references, idempotencyKey, e);
+                throw new GroupRebookIncompleteException(committed, e);
+            }
+            throw e;
+        }
+        GroupRebookResponse response = new GroupRebookResponse(references.stream().map(responses::get).toList());
+        return replay ? GroupRebookResult.replay(response) : GroupRebookResult.newRebook(response);
+    }
+
+    /**
+     * Rebooks the part of the group on {@code shards[index]} and, inside its transaction, every
+     * later shard's part.
+     *
+     * @return whether every part from {@code index} on was a replay
+     */
+    private boolean rebookFrom(int index, List<Map.Entry<Integer, List<String>>> shards, String selectedFlightId,
+                               List<String> connectingFlightIds, UUID idempotencyKey,
+                               Map<String, RebookResponse> responses, List<String> committed) {
+        if (index == shards.size()) {
+            return true;
+        }
+        Map.Entry<Integer, List<String>> shard = shards.get(index);
+        boolean replay = ShardContext.onShard(shard.getKey(), () -> shardTransaction.execute(status -> {
+            GroupRebookResult result = rebookingService.groupRebook(shard.getValue(), selectedFlightId,
+                connectingFlightIds, idempotencyKey);
+            result.response().bookings().forEach(booking -> responses.put(booking.bookingReference(), booking));
+            boolean rest = rebookFrom(index + 1, shards, selectedFlightId, connectingFlightIds, idempotencyKey,
+                responses, committed);
+            return result.isReplay() && rest;
+        }));
+        committed.addAll(shard.getValue());
+        return replay;
+    }
+}
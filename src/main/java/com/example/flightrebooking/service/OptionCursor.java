@@ -0,0 +1,60 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.dto.RebookingOptionResponse;
+import com.example.flightrebooking.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position of an option in the ranking: best score first, then earliest departure, then
+ * flight ID (the first leg's, for a connection) to break ties. Encoded as an opaque
+ * URL-safe token so clients cannot come to depend on its layout.
+ */
+record OptionCursor(int score, Instant departure, String flightId) {
+
+    static final Comparator<OptionCursor> RANKING = Comparator
+        .comparingInt(OptionCursor::score).reversed()
+        .thenComparing(OptionCursor::departure)
+        // Canonical UUID text sorts like PostgreSQL's uuid ordering
+        .thenComparing(OptionCursor::flightId);
+
+    static final Comparator<RebookingOptionResponse> OPTION_RANKING = Comparator.comparing(OptionCursor::of, RANKING);
+
+    static OptionCursor of(RebookingOptionResponse option) {
+        return new OptionCursor(option.score(), option.flight().scheduledDeparture(), option.flight().flightId());
+    }
+
+    boolean ranksBefore(RebookingOptionResponse option) {
+        return RANKING.compare(this, of(option)) < 0;
+    }
+
+    boolean ranksBefore(int score, Instant departure, String flightId) {
+        return RANKING.compare(this, new OptionCursor(score, departure, flightId)) < 0;
+    }
+
+    String encode() {
+        String value = score + "|" + departure.getEpochSecond() + "|" + departure.getNano() + "|" + flightId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OptionCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 4) {
+                throw new InvalidCursorException();
+            }
+            return new OptionCursor(
+                Integer.parseInt(parts[0]),
+                Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2])),
+                UUID.fromString(parts[3]).toString()
+            );
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
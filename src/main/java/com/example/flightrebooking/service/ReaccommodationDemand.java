@@ -0,0 +1,17 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.dto.RebookingOptionResponse;
+
+import java.util.List;
+
+/**
+ * Disrupted bookings that are interchangeable for reaccommodation: they are offered the
+ * same direct flights with the same scores.
+ *
+ * @param bookingReferences in booking order
+ * @param options best first
+ */
+public record ReaccommodationDemand(
+    List<String> bookingReferences,
+    List<RebookingOptionResponse> options
+) {}
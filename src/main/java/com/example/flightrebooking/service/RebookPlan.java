@@ -0,0 +1,43 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.dto.RebookResult;
+import com.example.flightrebooking.entity.Booking;
+import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.entity.RebookingAudit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A validated rebooking that has not been written yet: either the replay of an earlier
+ * request with the same idempotency key, or the booking as it was read (its version is the
+ * one the write must still find) with the audit record and response to write for it.
+ *
+ * @param replay the stored response when the idempotency key was already used; the other fields are then null
+ */
+public record RebookPlan(
+    RebookResult replay,
+    Booking booking,
+    Flight newFlight,
+    List<Flight> connectingFlights,
+    RebookingAudit audit,
+    RebookResponse response
+) {
+    static RebookPlan replay(RebookResult replay) {
+        return new RebookPlan(replay, null, null, List.of(), null, null);
+    }
+
+    public boolean isReplay() {
+        return replay != null;
+    }
+
+    /** The new flight and its onward legs, in order. */
+    public List<UUID> legIds() {
+        List<UUID> legIds = new ArrayList<>(1 + connectingFlights.size());
+        legIds.add(newFlight.getId());
+        connectingFlights.forEach(flight -> legIds.add(flight.getId()));
+        return legIds;
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.flightrebooking.service;
 
+import com.example.flightrebooking.config.RebookingOptionsProperties;
+import com.example.flightrebooking.connection.AirportGroups;
+import com.example.flightrebooking.connection.ConnectionSearchEngine;
+import com.example.flightrebooking.connection.Timetable;
 import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.GroupRebookResponse;
+import com.example.flightrebooking.dto.GroupRebookResult;
 import com.example.flightrebooking.dto.RebookingOptionResponse;
+import com.example.flightrebooking.dto.RebookingOptionsQuery;
 import com.example.flightrebooking.dto.RebookingOptionsResponse;
 import com.example.flightrebooking.dto.RebookResponse;
 import com.example.flightrebooking.dto.RebookResult;
@@ -12,53 +19,371 @@ import com.example.flightrebooking.exception.BookingNotFoundException;
 import com.example.flightrebooking.exception.ETagMismatchException;
 import com.example.flightrebooking.exception.IdempotencyKeyReusedException;
 import com.example.flightrebooking.exception.InvalidFlightSelectionException;
+import com.example.flightrebooking.id.IdGenerator;
 import com.example.flightrebooking.repository.BookingRepository;
 import com.example.flightrebooking.repository.FlightRepository;
 import com.example.flightrebooking.repository.RebookingAuditRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.flightrebooking.seathold.SeatHolds;
+import com.example.flightrebooking.sharding.CrossShardIdempotencyCheck;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
 public class RebookingService {
 
-    private static final int MAX_OPTIONS = 5;
+    private static final int STOP_PENALTY = 15;
+    private static final int TIME_OF_DAY_BONUS = 10;
+    private static final int MIN_CHUNK_SIZE = 50;
+    // Sorts after every other UUID, so a keyset position (t, LAST_UUID) means "after t"
+    private static final UUID LAST_UUID = new UUID(-1L, -1L);
 
     private final BookingRepository bookingRepository;
     private final FlightRepository flightRepository;
     private final RebookingAuditRepository auditRepository;
-    private final ObjectMapper objectMapper;
+    private final AuditPayloadCodec payloadCodec;
+    private final IdGenerator idGenerator;
+    private final CrossShardIdempotencyCheck crossShardIdempotencyCheck;
+    private final ConnectionSearchEngine connectionSearchEngine;
+    private final AirportGroups airportGroups;
+    private final SeatHolds seatHolds;
+    private final Duration searchHorizon;
+    private final EntityManager entityManager;
 
     public RebookingService(BookingRepository bookingRepository,
                            FlightRepository flightRepository,
                            RebookingAuditRepository auditRepository,
-                           ObjectMapper objectMapper) {
+                           AuditPayloadCodec payloadCodec,
+                           IdGenerator idGenerator,
+                           CrossShardIdempotencyCheck crossShardIdempotencyCheck,
+                           ConnectionSearchEngine connectionSearchEngine,
+                           AirportGroups airportGroups,
+                           SeatHolds seatHolds,
+                           RebookingOptionsProperties optionsProperties,
+                           EntityManager entityManager) {
         this.bookingRepository = bookingRepository;
         this.flightRepository = flightRepository;
         this.auditRepository = auditRepository;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.idGenerator = idGenerator;
+        this.crossShardIdempotencyCheck = crossShardIdempotencyCheck;
+        this.connectionSearchEngine = connectionSearchEngine;
+        this.airportGroups = airportGroups;
+        this.seatHolds = seatHolds;
+        this.searchHorizon = optionsProperties.searchHorizon();
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
     public RebookingOptionsResponse getRebookingOptions(String reference) {
+        return getRebookingOptions(reference, RebookingOptionsQuery.firstPage());
+    }
+
+    /**
+     * One page of options, best first.
+     *
+     * Direct flights are read in departure order, one keyset chunk at a time, with the
+     * departure filters applied in SQL. A score can only fall as departure gets later (apart
+     * from the time-of-day bonus), so the scan stops as soon as no later flight could still
+     * make the page. Past a day or so every later flight scores the same, so the scan also
+     * ends at the search horizon; a page never scores every candidate on the route.
+     */
+    @Transactional(readOnly = true)
+    public RebookingOptionsResponse getRebookingOptions(String reference, RebookingOptionsQuery query) {
+        Booking booking = findDisruptedBooking(reference);
+        OptionSearch search = new OptionSearch(booking.getReference(), searchScope(booking), query);
+
+        search.addConnectingLegs(flightRepository.findAllById(search.connectingLegIds()));
+        for (DirectFlightQuery chunk = search.nextDirectQuery(); chunk != null; chunk = search.nextDirectQuery()) {
+            search.addDirectFlights(findAvailableFlights(chunk));
+        }
+        return search.result();
+    }
+
+    /**
+     * The search {@link #getRebookingOptions} runs for a disrupted booking, for a caller that
+     * reads the flights it needs itself.
+     *
+     * @param disruptedAt when the disruption occurred, or null if none is recorded
+     */
+    public OptionSearch optionSearch(String reference, Flight originalFlight, Instant disruptedAt,
+                                     RebookingOptionsQuery query) {
+        return new OptionSearch(reference, searchScope(originalFlight, disruptedAt), query);
+    }
+
+    /**
+     * A chunk of direct flights for an option search: flights from one of {@code origins} to
+     * one of {@code destinations} departing in {@code [earliest, before)}, after the keyset
+     * position {@code (afterDeparture, afterId)} in {@code (scheduled_departure, id)} order,
+     * at most {@code limit} of them.
+     */
+    public record DirectFlightQuery(String[] origins, String[] destinations, Instant earliest, Instant before,
+                                    Instant afterDeparture, UUID afterId, int limit) {}
+
+    /**
+     * One page of options, computed with the reads left to the caller: first the
+     * {@link #connectingLegIds() legs} of the connecting itineraries, then every
+     * {@link #nextDirectQuery() chunk of direct flights} asked for, in turn.
+     */
+    public final class OptionSearch {
+
+        private final String reference;
+        private final SearchScope scope;
+        private final RebookingOptionsQuery query;
+        private final OptionCursor cursor;
+        private final Instant earliest;
+        private final Instant before;
+        private final List<Timetable.Itinerary> itineraries;
+        private final List<RebookingOptionResponse> ranked = new ArrayList<>();
+        private DirectScan directScan;
+
+        private OptionSearch(String reference, SearchScope scope, RebookingOptionsQuery query) {
+            this.reference = reference;
+            this.scope = scope;
+            this.query = query;
+            this.cursor = query.cursor() == null ? null : OptionCursor.decode(query.cursor());
+
+            // Departures in [earliest, before), always after the search start
+            this.earliest = query.earliestDeparture() == null || query.earliestDeparture().isBefore(scope.searchAfter())
+                ? scope.searchAfter()
+                : query.earliestDeparture();
+            Instant until = searchUntil(scope);
+            if (query.latestDeparture() != null && query.latestDeparture().isBefore(until)) {
+                until = query.latestDeparture().plus(1, ChronoUnit.MICROS);
+            }
+            if (query.sameDayOnly()) {
+                Instant nextDay = toLocalDate(scope.original().getScheduledDeparture()).plusDays(1)
+                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+                until = nextDay.isBefore(until) ? nextDay : until;
+            }
+            this.before = until;
+            // Up to the configured number of itineraries for this page, past those ranked on earlier pages
+            this.itineraries = findItineraries(scope, earliest.minusSeconds(1),
+                itinerary -> departsWithin(itinerary.departure(), earliest, before)
+                    && (cursor == null || cursor.ranksBefore(itineraryScore(itinerary, scope.original()),
+                        itinerary.departure(), itinerary.flightIds().getFirst().toString())));
+        }
+
+        /** Flights to read for {@link #addConnectingLegs}. */
+        public Set<UUID> connectingLegIds() {
+            return itineraries.stream()
+                .flatMap(itinerary -> itinerary.flightIds().stream())
+                .collect(Collectors.toSet());
+        }
+
+        /** The flights of {@link #connectingLegIds()} still scheduled. */
+        public void addConnectingLegs(Collection<Flight> legs) {
+            if (directScan != null) {
+                throw new IllegalStateException("Connecting legs must be added before direct flights are read");
+            }
+            connectingOptions(scope, itineraries, legs).stream()
+                .filter(option -> departsWithin(option, earliest, before))
+                .filter(option -> cursor == null || cursor.ranksBefore(option))
+                .forEach(ranked::add);
+            // One more than the page tells whether there is a next page
+            directScan = new DirectScan(ranked, scope, earliest, before, query.limit() + 1,
+                option -> cursor == null || cursor.ranksBefore(option));
+        }
+
+        /** The next chunk of direct flights to read, or null once no unread flight can make the page. */
+        public DirectFlightQuery nextDirectQuery() {
+            if (directScan == null) {
+                throw new IllegalStateException("Connecting legs must be added first");
+            }
+            return directScan.next();
+        }
+
+        /** The flights {@link #nextDirectQuery()} asked for. */
+        public void addDirectFlights(List<Flight> chunk) {
+            directScan.add(chunk);
+        }
+
+        public RebookingOptionsResponse result() {
+            ranked.sort(OptionCursor.OPTION_RANKING);
+            List<RebookingOptionResponse> options = List.copyOf(ranked.subList(0, Math.min(query.limit(), ranked.size())));
+            String nextCursor = ranked.size() > query.limit() ? OptionCursor.of(options.getLast()).encode() : null;
+
+            return new RebookingOptionsResponse(
+                reference,
+                Instant.now(),
+                options,
+                nextCursor
+            );
+        }
+    }
+
+    /**
+     * Adds direct flights departing in {@code [earliest, before)} that pass {@code include} to
+     * {@code ranked}, until no unread flight could rank among its best {@code wanted}. Leaves
+     * {@code ranked} unsorted, possibly with more than {@code wanted} options.
+     */
+    private void addBestDirectOptions(List<RebookingOptionResponse> ranked, SearchScope scope, Instant earliest,
+                                      Instant before, int wanted, Predicate<RebookingOptionResponse> include) {
+        DirectScan scan = new DirectScan(ranked, scope, earliest, before, wanted, include);
+        for (DirectFlightQuery chunk = scan.next(); chunk != null; chunk = scan.next()) {
+            scan.add(findAvailableFlights(chunk));
+        }
+    }
+
+    private List<Flight> findAvailableFlights(DirectFlightQuery chunk) {
+        return flightRepository.findAvailableFlights(chunk.origins(), chunk.destinations(), chunk.earliest(),
+            chunk.before(), chunk.afterDeparture(), chunk.afterId(), chunk.limit());
+    }
+
+    /** The state of {@link #addBestDirectOptions} between chunks. */
+    private final class DirectScan {
+
+        private final List<RebookingOptionResponse> ranked;
+        private final Flight originalFlight;
+        private final String[] origins;
+        private final String[] destinations;
+        private final Instant earliest;
+        private final Instant before;
+        private final int wanted;
+        private final Predicate<RebookingOptionResponse> include;
+        private final int chunkSize;
+        private Instant afterDeparture;
+        private UUID afterId = LAST_UUID;
+        private boolean done;
+
+        DirectScan(List<RebookingOptionResponse> ranked, SearchScope scope, Instant earliest, Instant before,
+                   int wanted, Predicate<RebookingOptionResponse> include) {
+            this.ranked = ranked;
+            this.originalFlight = scope.original();
+            this.origins = scope.origins().toArray(String[]::new);
+            this.destinations = scope.destinations().toArray(String[]::new);
+            this.earliest = earliest;
+            this.before = before;
+            this.wanted = wanted;
+            this.include = include;
+            this.chunkSize = Math.max(2 * wanted, MIN_CHUNK_SIZE);
+            this.afterDeparture = scope.searchAfter();
+        }
+
+        DirectFlightQuery next() {
+            return done ? null
+                : new DirectFlightQuery(origins, destinations, earliest, before, afterDeparture, afterId, chunkSize);
+        }
+
+        void add(List<Flight> chunk) {
+            for (Flight flight : chunk) {
+                if (flight.getId().equals(originalFlight.getId())) {
+                    continue;
+                }
+                RebookingOptionResponse option = scoreAndCreateOption(flight, originalFlight);
+                if (include.test(option)) {
+                    ranked.add(option);
+                }
+            }
+            if (chunk.size() < chunkSize) {
+                done = true;
+                return;
+            }
+            afterDeparture = chunk.getLast().getScheduledDeparture();
+            afterId = chunk.getLast().getId();
+
+            ranked.sort(OptionCursor.OPTION_RANKING);
+            if (ranked.size() > wanted) {
+                ranked.subList(wanted, ranked.size()).clear();
+            }
+            if (ranked.size() == wanted) {
+                // Unread flights depart at or after afterDeparture, so score at most this
+                int bound = maxScoreDepartingFrom(afterDeparture, originalFlight);
+                RebookingOptionResponse last = ranked.getLast();
+                if (bound < last.score()
+                        || (bound == last.score() && last.flight().scheduledDeparture().isBefore(afterDeparture))) {
+                    done = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * The disrupted bookings of the given flights on the current shard, each with its best
+     * {@code maxCandidates} direct flights as {@link #getRebookingOptions} scores them, best
+     * first, within the same search horizon. None of the given flights is a candidate. Bookings with the same search (route
+     * and earliest departure) share one query and are returned together.
+     */
+    @Transactional(readOnly = true)
+    public List<ReaccommodationDemand> findReaccommodationDemand(Collection<UUID> flightIds, int maxCandidates) {
+        Set<String> excluded = flightIds.stream().map(UUID::toString).collect(Collectors.toSet());
+        Map<SearchScope, List<String>> bookingsByScope = new LinkedHashMap<>();
+        for (Booking booking : bookingRepository.findAllByOriginalFlightIdInAndStatus(flightIds, BookingStatus.DISRUPTED)) {
+            bookingsByScope.computeIfAbsent(searchScope(booking), scope -> new ArrayList<>()).add(booking.getReference());
+        }
+
+        List<ReaccommodationDemand> demands = new ArrayList<>(bookingsByScope.size());
+        bookingsByScope.forEach((scope, references) -> {
+            List<RebookingOptionResponse> ranked = new ArrayList<>();
+            addBestDirectOptions(ranked, scope, scope.searchAfter(), searchUntil(scope), maxCandidates,
+                option -> !excluded.contains(option.flight().flightId()));
+            ranked.sort(OptionCursor.OPTION_RANKING);
+            List<RebookingOptionResponse> options = List.copyOf(ranked.subList(0, Math.min(maxCandidates, ranked.size())));
+            demands.add(new ReaccommodationDemand(references, options));
+        });
+        return demands;
+    }
+
+    /**
+     * The flight, if the booking may hold a seat on it: the booking is disrupted and the
+     * flight is one of its direct options. Connecting itineraries are not held.
+     */
+    @Transactional(readOnly = true)
+    public Flight findHoldableFlight(String reference, String flightId) {
+        Booking booking = findDisruptedBooking(reference);
+        Flight flight = findSelectedFlight(flightId);
+        if (!isOffered(searchScope(booking), flight, List.of())) {
+            throw new InvalidFlightSelectionException(flightId);
+        }
+        return flight;
+    }
+
+    private Booking findDisruptedBooking(String reference) {
         Booking booking = bookingRepository.findByReferenceWithDetails(reference)
             .orElseThrow(() -> new BookingNotFoundException(reference));
 
         if (booking.getStatus() != BookingStatus.DISRUPTED) {
             throw new BookingNotEligibleException(reference, booking.getStatus());
         }
+        return booking;
+    }
 
-        Flight originalFlight = booking.getOriginalFlight();
-        Instant disruptionTime = booking.getDisruption() != null
-            ? booking.getDisruption().getOccurredAt()
-            : originalFlight.getScheduledDeparture();
+    /**
+     * @param searchAfter options must depart after this
+     * @param origins the original origin and the other airports of its city
+     * @param destinations the original destination and the other airports of its city
+     */
+    private record SearchScope(Flight original, Instant searchAfter, List<String> origins, List<String> destinations) {}
+
+    /** Options depart before this, so a scan never reads past the search horizon. */
+    private Instant searchUntil(SearchScope scope) {
+        return scope.searchAfter().plus(searchHorizon);
+    }
+
+    private SearchScope searchScope(Booking booking) {
+        return searchScope(booking.getOriginalFlight(),
+            booking.getDisruption() != null ? booking.getDisruption().getOccurredAt() : null);
+    }
+
+    private SearchScope searchScope(Flight originalFlight, Instant disruptedAt) {
+        Instant disruptionTime = disruptedAt != null ? disruptedAt : originalFlight.getScheduledDeparture();
 
         // Search for flights departing after both the disruption AND the original departure
         // This prevents offering flights earlier than the original booking
@@ -66,39 +391,109 @@ public class RebookingService {
             ? disruptionTime
             : originalFlight.getScheduledDeparture();
 
-        List<Flight> availableFlights = flightRepository.findAvailableFlights(
-            originalFlight.getOrigin(),
-            originalFlight.getDestination(),
-            searchAfter
+        // Every airport of the origin and destination city
+        return new SearchScope(
+            originalFlight,
+            searchAfter,
+            airportGroups.withAlternatives(originalFlight.getOrigin()),
+            airportGroups.withAlternatives(originalFlight.getDestination())
         );
+    }
 
-        List<RebookingOptionResponse> options = availableFlights.stream()
-            .filter(f -> !f.getId().equals(originalFlight.getId()))
-            .map(f -> scoreAndCreateOption(f, originalFlight))
-            .sorted(Comparator
-                .comparingInt(RebookingOptionResponse::score).reversed()
-                .thenComparing(o -> o.flight().scheduledDeparture()))
-            .limit(MAX_OPTIONS)
-            .toList();
+    private static boolean departsWithin(RebookingOptionResponse option, Instant earliest, Instant before) {
+        return departsWithin(option.flight().scheduledDeparture(), earliest, before);
+    }
 
-        return new RebookingOptionsResponse(
-            booking.getReference(),
-            Instant.now(),
-            options
-        );
+    private static boolean departsWithin(Instant departure, Instant earliest, Instant before) {
+        return !departure.isBefore(earliest) && departure.isBefore(before);
     }
 
     private RebookingOptionResponse scoreAndCreateOption(Flight candidate, Flight original) {
-        int score = calculateScore(candidate, original);
-        String reason = generateReason(candidate, original);
-        return new RebookingOptionResponse(FlightResponse.from(candidate), score, reason);
+        int score = Math.max(calculateScore(candidate, original)
+            - alternateAirportPenalty(candidate.getOrigin(), candidate.getDestination(), original), 0);
+        String reason = generateReason(candidate, original)
+            + describeAlternateAirports(candidate.getOrigin(), candidate.getDestination(), original);
+        return new RebookingOptionResponse(FlightResponse.from(candidate), List.of(), score, reason);
+    }
+
+    /**
+     * Connecting itineraries from the in-memory timetable, the configured number of them
+     * passing {@code counted} plus any others found on the way.
+     */
+    private List<Timetable.Itinerary> findItineraries(SearchScope scope, Instant departAfter,
+                                                      Predicate<Timetable.Itinerary> counted) {
+        return connectionSearchEngine.findConnections(scope.origins(), scope.destinations(),
+            departAfter.isAfter(scope.searchAfter()) ? departAfter : scope.searchAfter(), scope.original().getId(),
+            counted);
+    }
+
+    /** The score {@link #connectingOptions} gives an itinerary, from the timetable alone. */
+    private int itineraryScore(Timetable.Itinerary itinerary, Flight original) {
+        return Math.max(calculateScore(itinerary.departure(), original)
+            - STOP_PENALTY * itinerary.via().size()
+            - alternateAirportPenalty(itinerary.origin(), itinerary.destination(), original), 0);
+    }
+
+    /**
+     * The itineraries as options, scored on their first leg like a direct flight and then
+     * penalised per stop. Itineraries whose legs have since been removed from the schedule
+     * are dropped.
+     *
+     * @param legs the itineraries' flights as read from the schedule
+     */
+    private List<RebookingOptionResponse> connectingOptions(SearchScope scope, List<Timetable.Itinerary> itineraries,
+                                                            Collection<Flight> legs) {
+        Flight original = scope.original();
+        Map<UUID, Flight> legsById = legs.stream().collect(Collectors.toMap(Flight::getId, Function.identity()));
+
+        List<RebookingOptionResponse> options = new ArrayList<>();
+        for (Timetable.Itinerary itinerary : itineraries) {
+            List<Flight> flights = itinerary.flightIds().stream().map(legsById::get).toList();
+            if (flights.stream().anyMatch(Objects::isNull)) {
+                continue;
+            }
+            Flight first = flights.getFirst();
+            String arrivalAirport = flights.getLast().getDestination();
+            int score = Math.max(calculateScore(first, original)
+                - STOP_PENALTY * itinerary.via().size()
+                - alternateAirportPenalty(first.getOrigin(), arrivalAirport, original), 0);
+            options.add(new RebookingOptionResponse(
+                FlightResponse.from(first),
+                flights.subList(1, flights.size()).stream().map(FlightResponse::from).toList(),
+                score,
+                generateReason(first, original, itinerary.via())
+                    + describeAlternateAirports(first.getOrigin(), arrivalAirport, original)
+            ));
+        }
+        return options;
     }
 
     int calculateScore(Flight candidate, Flight original) {
+        return calculateScore(candidate.getScheduledDeparture(), original);
+    }
+
+    private int calculateScore(Instant departure, Flight original) {
+        int score = scoreBeforeTimeOfDayBonus(departure, original);
+
+        // Bonus for similar departure time (within 2 hours of original time-of-day)
+        LocalTime originalTime = toLocalTime(original.getScheduledDeparture());
+        LocalTime candidateTime = toLocalTime(departure);
+        long timeDiffMinutes = Math.abs(
+            Duration.between(originalTime, candidateTime).toMinutes()
+        );
+
+        if (timeDiffMinutes <= 120) {
+            score += TIME_OF_DAY_BONUS;
+        }
+
+        return Math.max(score, 0);
+    }
+
+    private int scoreBeforeTimeOfDayBonus(Instant departure, Flight original) {
         int score = 100;
 
         LocalDate originalDate = toLocalDate(original.getScheduledDeparture());
-        LocalDate candidateDate = toLocalDate(candidate.getScheduledDeparture());
+        LocalDate candidateDate = toLocalDate(departure);
 
         // Penalty for different day (30 points)
         if (!candidateDate.equals(originalDate)) {
@@ -106,32 +501,54 @@ public class RebookingService {
         }
 
         // Delay penalty (5 points per hour, capped at 40)
-        long delayMinutes = Duration.between(
-            original.getScheduledDeparture(),
-            candidate.getScheduledDeparture()
-        ).toMinutes();
+        long delayMinutes = Duration.between(original.getScheduledDeparture(), departure).toMinutes();
 
         if (delayMinutes > 0) {
             double delayHours = delayMinutes / 60.0;
             int delayPenalty = (int) Math.min(delayHours * 5, 40);
             score -= delayPenalty;
         }
+        return score;
+    }
 
-        // Bonus for similar departure time (within 2 hours of original time-of-day)
-        LocalTime originalTime = toLocalTime(original.getScheduledDeparture());
-        LocalTime candidateTime = toLocalTime(candidate.getScheduledDeparture());
-        long timeDiffMinutes = Math.abs(
-            Duration.between(originalTime, candidateTime).toMinutes()
-        );
+    /**
+     * Highest score any direct flight departing at or after {@code departure} can get: both
+     * penalties only grow with departure time, so assume the time-of-day bonus.
+     */
+    int maxScoreDepartingFrom(Instant departure, Flight original) {
+        return Math.max(scoreBeforeTimeOfDayBonus(departure, original) + TIME_OF_DAY_BONUS, 0);
+    }
 
-        if (timeDiffMinutes <= 120) {
-            score += 10;
-        }
+    /** Penalty for each end of the trip that uses a different airport of the city than booked. */
+    private int alternateAirportPenalty(String departureAirport, String arrivalAirport, Flight original) {
+        int alternates = (departureAirport.equals(original.getOrigin()) ? 0 : 1)
+            + (arrivalAirport.equals(original.getDestination()) ? 0 : 1);
+        return alternates * airportGroups.alternateAirportPenalty();
+    }
 
-        return Math.max(score, 0);
+    String describeAlternateAirports(String departureAirport, String arrivalAirport, Flight original) {
+        StringBuilder description = new StringBuilder();
+        if (!departureAirport.equals(original.getOrigin())) {
+            description.append(", departs ").append(departureAirport);
+        }
+        if (!arrivalAirport.equals(original.getDestination())) {
+            description.append(", arrives ").append(arrivalAirport);
+        }
+        return description.toString();
     }
 
     String generateReason(Flight candidate, Flight original) {
+        return generateReason(candidate, original, List.of());
+    }
+
+    /**
+     * @param via connecting airports when {@code candidate} is the first leg of an itinerary
+     */
+    String generateReason(Flight candidate, Flight original, List<String> via) {
+        String routing = via.isEmpty()
+            ? "direct flight"
+            : String.format("%d stop%s via %s", via.size(), via.size() == 1 ? "" : "s", String.join(", ", via));
+
         LocalDate originalDate = toLocalDate(original.getScheduledDeparture());
         LocalDate candidateDate = toLocalDate(candidate.getScheduledDeparture());
         LocalTime candidateTime = toLocalTime(candidate.getScheduledDeparture());
@@ -152,17 +569,51 @@ public class RebookingService {
             );
 
             if (timeDiffMinutes <= 120) {
-                return "Same day, similar departure time, direct flight";
+                return "Same day, similar departure time, " + routing;
             } else {
-                return String.format("Same day, %dh later than original, direct flight", hoursDiff);
+                return String.format("Same day, %dh later than original, %s", hoursDiff, routing);
             }
         } else if (daysDiff == 1) {
-            return String.format("Next day, %s departure, direct flight", timeStr);
-        } else {
+            return String.format("Next day, %s departure, %s", timeStr, routing);
+        } else if (via.isEmpty()) {
             return String.format("%d days later, %s departure", daysDiff, timeStr);
+        } else {
+            return String.format("%d days later, %s departure, %s", daysDiff, timeStr, routing);
         }
     }
 
+    private Flight findSelectedFlight(String flightId) {
+        try {
+            return flightRepository.findById(UUID.fromString(flightId))
+                .orElseThrow(() -> new InvalidFlightSelectionException(flightId));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFlightSelectionException(flightId);
+        }
+    }
+
+    /**
+     * Whether the selection would be listed by {@link #getRebookingOptions} without filters:
+     * a direct flight on one of the searched routes, or an itinerary the connection search
+     * finds when boarding from the selected first leg onwards.
+     */
+    private boolean isOffered(SearchScope scope, Flight first, List<Flight> connecting) {
+        if (first.getId().equals(scope.original().getId())
+                || !first.getScheduledDeparture().isAfter(scope.searchAfter())
+                || !first.getScheduledDeparture().isBefore(searchUntil(scope))) {
+            return false;
+        }
+        if (connecting.isEmpty()) {
+            return scope.origins().contains(first.getOrigin()) && scope.destinations().contains(first.getDestination());
+        }
+        List<UUID> legs = new ArrayList<>();
+        legs.add(first.getId());
+        connecting.forEach(flight -> legs.add(flight.getId()));
+        return connectionSearchEngine.findConnections(scope.origins(), scope.destinations(),
+                first.getScheduledDeparture().minusSeconds(1), scope.original().getId())
+            .stream()
+            .anyMatch(itinerary -> itinerary.flightIds().equals(legs));
+    }
+
     private LocalDate toLocalDate(Instant instant) {
         return instant.atZone(ZoneOffset.UTC).toLocalDate();
     }
@@ -172,7 +623,46 @@ public class RebookingService {
     }
 
     @Transactional
-    public RebookResult rebook(String reference, String selectedFlightId, UUID idempotencyKey, Long expectedVersion) {
+    public RebookResult rebook(String reference, String selectedFlightId, List<String> connectingFlightIds,
+                               UUID idempotencyKey, Long expectedVersion) {
+        RebookPlan plan = plan(reference, selectedFlightId, connectingFlightIds, idempotencyKey, expectedVersion);
+        if (plan.isReplay()) {
+            return plan.replay();
+        }
+
+        // A seat on every leg, from the booking's own holds where it has them
+        seatHolds.take(List.of(reference), plan.legIds());
+
+        // Update booking
+        Booking booking = plan.booking();
+        booking.setStatus(BookingStatus.REBOOKED);
+        booking.setRebookedFlight(plan.newFlight());
+        booking.setRebookedConnectingFlightIds(plan.connectingFlights().stream().map(Flight::getId).toList());
+        booking.setUpdatedAt(plan.response().rebookedAt());
+        bookingRepository.save(booking);
+
+        // Create audit record - unique constraint on idempotency_key prevents duplicates
+        // If this fails due to concurrent request, DataIntegrityViolationException propagates
+        // and controller retries, which will find the existing audit and return replay
+        auditRepository.save(plan.audit());
+
+        return RebookResult.newRebook(plan.response());
+    }
+
+    /**
+     * Validates a rebooking without writing it, for callers that apply the plan themselves.
+     * Callers should run it on the primary, so the idempotency check sees every committed audit.
+     */
+    @Transactional(readOnly = true)
+    public RebookPlan planRebook(String reference, String selectedFlightId, List<String> connectingFlightIds,
+                                 UUID idempotencyKey, Long expectedVersion) {
+        return plan(reference, selectedFlightId, connectingFlightIds, idempotencyKey, expectedVersion);
+    }
+
+    private RebookPlan plan(String reference, String selectedFlightId, List<String> connectingFlightIds,
+                            UUID idempotencyKey, Long expectedVersion) {
+        List<String> onwardIds = connectingFlightIds == null ? List.of() : connectingFlightIds;
+
         // Check for existing idempotency key
         var existingAudit = auditRepository.findByIdempotencyKey(idempotencyKey);
         if (existingAudit.isPresent()) {
@@ -182,9 +672,10 @@ public class RebookingService {
                 throw new IdempotencyKeyReusedException(idempotencyKey);
             }
             // Return stored response (replay)
-            RebookResponse storedResponse = deserializeResponse(audit.getResponsePayload());
-            return RebookResult.replay(storedResponse);
+            RebookResponse storedResponse = payloadCodec.decode(audit);
+            return RebookPlan.replay(RebookResult.replay(storedResponse));
         }
+        crossShardIdempotencyCheck.assertNotUsedOnOtherShards(idempotencyKey);
 
         Booking booking = bookingRepository.findByReferenceWithDetails(reference)
             .orElseThrow(() -> new BookingNotFoundException(reference));
@@ -201,69 +692,154 @@ public class RebookingService {
             throw new BookingNotEligibleException(reference, booking.getStatus());
         }
 
-        // Validate selected flight is a valid option
-        RebookingOptionsResponse options = getRebookingOptions(reference);
-        boolean validSelection = options.options().stream()
-            .anyMatch(opt -> opt.flight().flightId().equals(selectedFlightId));
+        // Find the new flight (and onward legs, for a connection)
+        Flight newFlight = findSelectedFlight(selectedFlightId);
+        List<Flight> connectingFlights = new ArrayList<>(onwardIds.size());
+        for (String onwardId : onwardIds) {
+            connectingFlights.add(findSelectedFlight(onwardId));
+        }
 
-        if (!validSelection) {
+        // Validate the selection is one of the booking's options, on whichever page it was listed
+        if (!isOffered(searchScope(booking), newFlight, connectingFlights)) {
             throw new InvalidFlightSelectionException(selectedFlightId);
         }
 
-        // Find the new flight
-        UUID newFlightId = UUID.fromString(selectedFlightId);
-        Flight newFlight = flightRepository.findById(newFlightId)
-            .orElseThrow(() -> new InvalidFlightSelectionException(selectedFlightId));
-
         Flight previousFlight = booking.getOriginalFlight();
         Instant rebookedAt = Instant.now();
 
-        // Update booking
-        booking.setStatus(BookingStatus.REBOOKED);
-        booking.setRebookedFlight(newFlight);
-        booking.setUpdatedAt(rebookedAt);
-        bookingRepository.save(booking);
-
         // Create response
         RebookResponse response = new RebookResponse(
             booking.getReference(),
             BookingStatus.REBOOKED.name(),
             FlightResponse.from(previousFlight),
             FlightResponse.from(newFlight),
+            connectingFlights.stream().map(FlightResponse::from).toList(),
             rebookedAt
         );
 
-        // Create audit record - unique constraint on idempotency_key prevents duplicates
-        // If this fails due to concurrent request, DataIntegrityViolationException propagates
-        // and controller retries, which will find the existing audit and return replay
-        String responseJson = serializeResponse(response);
+        AuditPayloadCodec.EncodedPayload payload = payloadCodec.encode(response);
         RebookingAudit audit = new RebookingAudit(
-            UUID.randomUUID(),
+            idGenerator.next(),
             booking,
             idempotencyKey,
             previousFlight,
             newFlight,
             RebookingOutcome.SUCCESS,
-            responseJson
+            payload.json(),
+            payload.cbor()
         );
-        auditRepository.save(audit);
 
-        return RebookResult.newRebook(response);
+        return new RebookPlan(null, booking, newFlight, connectingFlights, audit, response);
     }
 
-    private String serializeResponse(RebookResponse response) {
-        try {
-            return objectMapper.writeValueAsString(response);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to serialize response for idempotency storage", e);
+    /**
+     * Rebooks several bookings onto the same selection in one transaction: all of them or none.
+     *
+     * The bookings are locked in one statement, in id order so that overlapping groups cannot
+     * deadlock, loaded in another, and validated as the single rebook validates each of them.
+     * The bookings must all live on the current shard; {@link GroupRebooker} splits a group
+     * that spans shards.
+     * Each gets its own audit record under a key derived from the group's idempotency key;
+     * the group key is stored alongside to replay the whole group. Updates and inserts are
+     * flushed at commit as JDBC batches.
+     */
+    @Transactional
+    public GroupRebookResult groupRebook(List<String> references, String selectedFlightId,
+                                         List<String> connectingFlightIds, UUID idempotencyKey) {
+        List<String> onwardIds = connectingFlightIds == null ? List.of() : connectingFlightIds;
+
+        // Check for an earlier request with this key: the same group replays, anything else is reuse
+        List<RebookingAudit> stored = auditRepository.findByGroupIdempotencyKey(idempotencyKey);
+        if (!stored.isEmpty()) {
+            Map<String, RebookingAudit> storedByReference = stored.stream()
+                .collect(Collectors.toMap(audit -> audit.getBooking().getReference(), Function.identity()));
+            if (!storedByReference.keySet().equals(new HashSet<>(references))) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            return GroupRebookResult.replay(new GroupRebookResponse(references.stream()
+                .map(reference -> payloadCodec.decode(storedByReference.get(reference)))
+                .toList()));
+        }
+        if (auditRepository.findByIdempotencyKey(idempotencyKey).isPresent()) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        crossShardIdempotencyCheck.assertNotUsedOnOtherShards(idempotencyKey);
+
+        Map<String, Booking> bookings = bookingRepository.findAllByReferenceInForUpdate(references).stream()
+            .collect(Collectors.toMap(Booking::getReference, Function.identity()));
+        for (String reference : references) {
+            Booking booking = bookings.get(reference);
+            if (booking == null) {
+                throw new BookingNotFoundException(reference);
+            }
+            if (booking.getStatus() == BookingStatus.REBOOKED) {
+                throw new AlreadyRebookedException(reference);
+            }
+            if (booking.getStatus() != BookingStatus.DISRUPTED) {
+                throw new BookingNotEligibleException(reference, booking.getStatus());
+            }
         }
-    }
 
-    private RebookResponse deserializeResponse(String json) {
-        try {
-            return objectMapper.readValue(json, RebookResponse.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to deserialize stored response", e);
+        Flight newFlight = findSelectedFlight(selectedFlightId);
+        List<Flight> connectingFlights = new ArrayList<>(onwardIds.size());
+        for (String onwardId : onwardIds) {
+            connectingFlights.add(findSelectedFlight(onwardId));
+        }
+
+        // Passengers of one group usually share the disrupted flight, so most share one search too
+        Map<SearchScope, Boolean> offered = new HashMap<>();
+        for (String reference : references) {
+            SearchScope scope = searchScope(bookings.get(reference));
+            if (!offered.computeIfAbsent(scope, s -> isOffered(s, newFlight, connectingFlights))) {
+                throw new InvalidFlightSelectionException(selectedFlightId);
+            }
+        }
+
+        List<UUID> connectingIds = connectingFlights.stream().map(Flight::getId).toList();
+        List<UUID> legIds = new ArrayList<>(1 + connectingIds.size());
+        legIds.add(newFlight.getId());
+        legIds.addAll(connectingIds);
+        seatHolds.take(references, legIds);
+
+        Instant rebookedAt = Instant.now();
+        List<RebookResponse> responses = new ArrayList<>(references.size());
+        for (String reference : references) {
+            Booking booking = bookings.get(reference);
+            Flight previousFlight = booking.getOriginalFlight();
+            booking.setStatus(BookingStatus.REBOOKED);
+            booking.setRebookedFlight(newFlight);
+            booking.setRebookedConnectingFlightIds(connectingIds);
+            booking.setUpdatedAt(rebookedAt);
+
+            RebookResponse response = new RebookResponse(
+                reference,
+                BookingStatus.REBOOKED.name(),
+                FlightResponse.from(previousFlight),
+                FlightResponse.from(newFlight),
+                connectingFlights.stream().map(FlightResponse::from).toList(),
+                rebookedAt
+            );
+            responses.add(response);
+
+            // persist rather than save: the id is assigned, so save would first select to merge
+            AuditPayloadCodec.EncodedPayload payload = payloadCodec.encode(response);
+            entityManager.persist(new RebookingAudit(
+                idGenerator.next(),
+                booking,
+                memberIdempotencyKey(idempotencyKey, reference),
+                idempotencyKey,
+                previousFlight,
+                newFlight,
+                RebookingOutcome.SUCCESS,
+                payload.json(),
+                payload.cbor()
+            ));
         }
+
+        return GroupRebookResult.newRebook(new GroupRebookResponse(responses));
+    }
+
+    private static UUID memberIdempotencyKey(UUID groupKey, String reference) {
+        return UUID.nameUUIDFromBytes((groupKey + "/" + reference).getBytes(StandardCharsets.UTF_8));
     }
 }
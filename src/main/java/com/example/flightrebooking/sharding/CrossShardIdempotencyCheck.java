@@ -0,0 +1,43 @@
+package com.example.flightrebooking.sharding;
+
+import com.example.flightrebooking.exception.IdempotencyKeyReusedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Idempotency keys live on the shard of the booking they were first used for, so the
+ * unique constraint only catches reuse within a shard. Before a key is used for the first
+ * time this checks the other shards' indexes so a key reused for a booking on another
+ * shard is still rejected.
+ *
+ * Concurrent first use of one key on two different shards is not detected; clients
+ * generate a fresh UUID per logical operation, so this is accepted.
+ */
+@Component
+public class CrossShardIdempotencyCheck {
+
+    private static final String KEY_EXISTS =
+        "SELECT EXISTS (SELECT 1 FROM rebooking_audit WHERE idempotency_key = ?)";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    public CrossShardIdempotencyCheck(ShardRoutingDataSource shardRoutingDataSource) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+    }
+
+    public void assertNotUsedOnOtherShards(UUID idempotencyKey) {
+        int currentShard = ShardContext.currentShard();
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            if (shard.index() == currentShard) {
+                continue;
+            }
+            Boolean exists = new JdbcTemplate(shard.writePool())
+                .queryForObject(KEY_EXISTS, Boolean.class, idempotencyKey);
+            if (Boolean.TRUE.equals(exists)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+        }
+    }
+}
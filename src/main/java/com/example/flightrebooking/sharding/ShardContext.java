@@ -0,0 +1,42 @@
+package com.example.flightrebooking.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound shard selection. Like {@link com.example.flightrebooking.routing.ReadRoutingContext},
+ * it must be set before the transaction starts, since the connection is bound to one shard
+ * for the life of the transaction. Unset means shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    static void set(int shard) {
+        SHARD.set(shard);
+    }
+
+    static void clear() {
+        SHARD.remove();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.flightrebooking.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top-level data source: picks the shard from {@link ShardContext}, then delegates to that
+ * shard's read/write-splitting data source.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<Shard> shards;
+
+    public ShardRoutingDataSource(List<Shard> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (Shard shard : this.shards) {
+            targets.put(shard.index(), shard.dataSource());
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Closes pools of additional shards; shard 0's pools are Spring beans with their own lifecycle.
+     */
+    @Override
+    public void close() {
+        shards.stream()
+            .filter(shard -> shard.index() > 0)
+            .forEach(shard -> {
+                shard.writePool().close();
+                shard.readPool().close();
+            });
+    }
+
+    /**
+     * @param writePool direct access to the shard primary, bypassing routing (migrations, fan-out lookups)
+     * @param dataSource the read/write-splitting data source transactions on this shard use
+     */
+    public record Shard(int index, HikariDataSource writePool, HikariDataSource readPool, DataSource dataSource) {}
+}
@@ -0,0 +1,206 @@
+package com.example.flightrebooking.workqueue;
+
+import com.example.flightrebooking.config.WorkQueueProperties;
+import com.example.flightrebooking.dto.WorkItemResponse;
+import com.example.flightrebooking.exception.LeaseNotHeldException;
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands disrupted bookings to rebooking agents and automated workers so that no two of
+ * them work on the same booking.
+ *
+ * A claim leases the next unleased {@code DISRUPTED} bookings, earliest original
+ * departure first, in one statement: {@code FOR UPDATE SKIP LOCKED} passes over rows
+ * another claim is locking at that moment instead of waiting for it, so concurrent claims
+ * on any number of nodes never block each other or take the same booking. The lease lives
+ * in the booking row and outlasts the claim's transaction; a booking whose worker neither
+ * renews nor releases it is claimable again once the lease expires. Rebooking takes a
+ * booking out of the queue for good.
+ *
+ * Leases are written with plain SQL and do not touch {@code version}, so claiming does not
+ * invalidate ETags a worker already holds.
+ */
+@Component
+public class WorkQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkQueue.class);
+
+    // The inner query is served by the partial queue index in departure order and stops after
+    // the first LIMIT rows it could lock
+    private static final String CLAIM =
+        "UPDATE bookings b SET lease_id = gen_random_uuid(), lease_owner = ?, " +
+        "                      lease_expires_at = now() + make_interval(secs => ?) " +
+        "FROM (SELECT id, lease_expires_at FROM bookings " +
+        "      WHERE status = 'DISRUPTED' AND (lease_expires_at IS NULL OR lease_expires_at <= now()) " +
+        "      ORDER BY original_departure, id " +
+        "      LIMIT ? " +
+        "      FOR UPDATE SKIP LOCKED) next " +
+        "WHERE b.id = next.id " +
+        "RETURNING b.reference, b.original_departure, b.lease_id, b.lease_expires_at, " +
+        "          next.lease_expires_at IS NOT NULL AS expired";
+
+    private static final String RENEW =
+        "UPDATE bookings SET lease_expires_at = now() + make_interval(secs => ?) " +
+        "WHERE reference = ? AND lease_id = ? AND lease_expires_at > now() AND status = 'DISRUPTED' " +
+        "RETURNING reference, original_departure, lease_id, lease_expires_at, false AS expired";
+
+    private static final String RELEASE =
+        "UPDATE bookings SET lease_id = NULL, lease_owner = NULL, lease_expires_at = NULL " +
+        "WHERE reference = ? AND lease_id = ?";
+
+    private static final String DEPTH =
+        "SELECT count(*) FILTER (WHERE lease_expires_at IS NULL OR lease_expires_at <= now()), " +
+        "       count(*) FILTER (WHERE lease_expires_at > now()) " +
+        "FROM bookings WHERE status = 'DISRUPTED'";
+
+    private static final RowMapper<Claim> CLAIM_MAPPER = (rs, rowNum) -> new Claim(
+        new WorkItemResponse(
+            rs.getString(1),
+            toInstant(rs.getObject(2, OffsetDateTime.class)),
+            rs.getObject(3, UUID.class),
+            rs.getObject(4, OffsetDateTime.class).toInstant()),
+        rs.getBoolean(5));
+
+    private static final Comparator<WorkItemResponse> QUEUE_ORDER = Comparator
+        .comparing(WorkItemResponse::originalDeparture, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(WorkItemResponse::bookingReference);
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardRouter shardRouter;
+    private final WorkQueueProperties properties;
+    private final Counter claimed;
+    private final Counter expired;
+    private final Counter renewed;
+    private final Counter released;
+    private final Counter lost;
+    private final Timer claimTimer;
+    private final AtomicLong waiting = new AtomicLong();
+    private final AtomicLong leased = new AtomicLong();
+
+    public WorkQueue(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                     WorkQueueProperties properties, MeterRegistry meterRegistry) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.claimed = meterRegistry.counter("rebooking.work-queue.claimed");
+        this.expired = meterRegistry.counter("rebooking.work-queue.leases", "event", "expired");
+        this.renewed = meterRegistry.counter("rebooking.work-queue.leases", "event", "renewed");
+        this.released = meterRegistry.counter("rebooking.work-queue.leases", "event", "released");
+        this.lost = meterRegistry.counter("rebooking.work-queue.leases", "event", "lost");
+        this.claimTimer = meterRegistry.timer("rebooking.work-queue.claim");
+        meterRegistry.gauge("rebooking.work-queue.depth", List.of(Tag.of("state", "waiting")), waiting);
+        meterRegistry.gauge("rebooking.work-queue.depth", List.of(Tag.of("state", "leased")), leased);
+    }
+
+    /**
+     * Leases up to {@code limit} bookings to {@code worker}. With several shards each is asked
+     * for {@code limit} bookings and those beyond the overall first {@code limit} are released
+     * straight away.
+     */
+    public List<WorkItemResponse> claim(String worker, int limit) {
+        return claimTimer.record(() -> {
+            List<WorkItemResponse> items = new ArrayList<>();
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                for (Claim claim : new JdbcTemplate(shard.writePool())
+                        .query(CLAIM, CLAIM_MAPPER, worker, leaseSeconds(), limit)) {
+                    items.add(claim.item());
+                    if (claim.expired()) {
+                        expired.increment();
+                    }
+                }
+            }
+            items.sort(QUEUE_ORDER);
+            if (items.size() > limit) {
+                for (WorkItemResponse surplus : items.subList(limit, items.size())) {
+                    jdbcFor(surplus.bookingReference()).update(RELEASE, surplus.bookingReference(), surplus.leaseId());
+                }
+                items = new ArrayList<>(items.subList(0, limit));
+            }
+            claimed.increment(items.size());
+            return items;
+        });
+    }
+
+    /**
+     * Extends a lease by the full lease duration from now.
+     *
+     * @throws LeaseNotHeldException if the lease expired, was released or belongs to another claim
+     */
+    public WorkItemResponse renew(String reference, UUID leaseId) {
+        List<Claim> renewedClaims = jdbcFor(reference).query(RENEW, CLAIM_MAPPER, leaseSeconds(), reference, leaseId);
+        if (renewedClaims.isEmpty()) {
+            lost.increment();
+            throw new LeaseNotHeldException(reference);
+        }
+        renewed.increment();
+        return renewedClaims.getFirst().item();
+    }
+
+    /**
+     * Gives a booking back to the queue, or just drops the lease once the booking has been rebooked.
+     *
+     * @throws LeaseNotHeldException if the booking is not leased under {@code leaseId}
+     */
+    public void release(String reference, UUID leaseId) {
+        if (jdbcFor(reference).update(RELEASE, reference, leaseId) == 0) {
+            lost.increment();
+            throw new LeaseNotHeldException(reference);
+        }
+        released.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${rebooking.work-queue.depth-refresh-interval:15s}")
+    public void refreshDepth() {
+        long waitingTotal = 0;
+        long leasedTotal = 0;
+        try {
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                long[] counts = new JdbcTemplate(shard.readPool())
+                    .queryForObject(DEPTH, (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+                waitingTotal += counts[0];
+                leasedTotal += counts[1];
+            }
+        } catch (RuntimeException e) {
+            log.warn("Work queue depth refresh failed", e);
+            return;
+        }
+        waiting.set(waitingTotal);
+        leased.set(leasedTotal);
+    }
+
+    private JdbcTemplate jdbcFor(String reference) {
+        return new JdbcTemplate(shardRoutingDataSource.getShards().get(shardRouter.shardFor(reference)).writePool());
+    }
+
+    private double leaseSeconds() {
+        return properties.leaseDuration().toMillis() / 1000.0;
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value != null ? value.toInstant() : null;
+    }
+
+    /**
+     * @param expired the booking was taken over from a worker whose lease had run out
+     */
+    private record Claim(WorkItemResponse item, boolean expired) {}
+}
@@ -0,0 +1,30 @@
+-- Rebooks accepted with Prefer: respond-async, kept on the booking's shard until a worker
+-- has run them and for a retention period afterwards so clients can poll the outcome
+CREATE TYPE rebook_request_status AS ENUM ('PENDING', 'PROCESSING', 'SUCCEEDED', 'FAILED');
+
+CREATE TABLE rebook_requests (
+    id UUID PRIMARY KEY,
+    booking_reference VARCHAR(20) NOT NULL,
+    idempotency_key UUID NOT NULL,
+    selected_flight_id VARCHAR(100) NOT NULL,
+    connecting_flight_ids TEXT[],
+    expected_version BIGINT,
+    status rebook_request_status NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    -- PENDING: when the next attempt may start; PROCESSING: when the worker's lease runs out
+    available_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    response_payload JSONB,
+    error_status INT,
+    error_title VARCHAR(100),
+    error_detail TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT uk_rebook_requests_idempotency_key UNIQUE (idempotency_key)
+);
+
+-- Only unfinished requests are claimable; finished ones drop out of the index
+CREATE INDEX idx_rebook_requests_claimable ON rebook_requests (available_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+CREATE INDEX idx_rebook_requests_completed ON rebook_requests (completed_at)
+    WHERE completed_at IS NOT NULL;
@@ -0,0 +1,6 @@
+-- A group rebook writes one audit record per booking, each under a key derived from the
+-- group's Idempotency-Key; the group key itself is kept to replay the group as a whole
+ALTER TABLE rebooking_audit ADD COLUMN group_idempotency_key UUID;
+
+CREATE INDEX idx_rebooking_audit_group_idempotency ON rebooking_audit (group_idempotency_key)
+    WHERE group_idempotency_key IS NOT NULL;
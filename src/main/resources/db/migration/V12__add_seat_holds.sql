@@ -0,0 +1,19 @@
+-- Seats left to sell on replacement flights, and short holds on them, both kept on the
+-- flight's home shard. A flight without an inventory row is not managed here: holding and
+-- rebooking onto it never run out of seats
+CREATE TABLE seat_inventory (
+    flight_id UUID PRIMARY KEY,
+    seats_available INT NOT NULL,
+    CONSTRAINT ck_seat_inventory_seats_available CHECK (seats_available >= 0)
+);
+
+-- A live hold has taken its seat out of seat_inventory; the seat goes back when the hold is
+-- released or expires, and not when a rebook consumes it
+CREATE TABLE seat_holds (
+    id UUID PRIMARY KEY,
+    booking_reference VARCHAR(20) NOT NULL,
+    flight_id UUID NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_seat_holds_booking_flight UNIQUE (booking_reference, flight_id)
+);
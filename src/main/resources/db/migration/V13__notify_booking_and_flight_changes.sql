@@ -0,0 +1,39 @@
+-- Change feed for the service's own caches and event streams: every committed change to a
+-- booking or flight is announced with NOTIFY on the shard it was written to. Notifications
+-- are delivered only after commit, and identical ones from one transaction are sent once
+
+-- Payload: the booking reference. Lease renewals do not change what clients see, so only a
+-- new version or status, or a deletion, is announced
+CREATE OR REPLACE FUNCTION notify_booking_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('booking_changes', OLD.reference);
+    ELSIF NEW.version IS DISTINCT FROM OLD.version OR NEW.status IS DISTINCT FROM OLD.status THEN
+        PERFORM pg_notify('booking_changes', NEW.reference);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_notify_change
+    AFTER UPDATE OR DELETE ON bookings
+    FOR EACH ROW EXECUTE FUNCTION notify_booking_change();
+
+-- Payload: the route as ORIGIN-DESTINATION, both the old and the new one for a moved flight.
+-- A schedule import touching many flights of a route announces that route once
+CREATE OR REPLACE FUNCTION notify_flight_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM pg_notify('flight_changes', OLD.origin || '-' || OLD.destination);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM pg_notify('flight_changes', NEW.origin || '-' || NEW.destination);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Defined on the partitioned table, so partitions created later get it too
+CREATE TRIGGER flights_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON flights
+    FOR EACH ROW EXECUTE FUNCTION notify_flight_change();
@@ -0,0 +1,10 @@
+-- Committed on the primary by every replica lag check, so a replica's last replayed
+-- transaction is never older than the check interval while it keeps up, even when nothing
+-- else is being written
+CREATE TABLE replica_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT ck_replica_heartbeat_single_row CHECK (id = 1)
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, now());
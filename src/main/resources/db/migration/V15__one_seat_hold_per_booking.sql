@@ -0,0 +1,19 @@
+-- A booking holds one seat at a time: holding another flight replaces its hold. Keep each
+-- booking's latest hold on this shard and give the others' seats back before the key goes on
+WITH dropped AS (
+    DELETE FROM seat_holds h
+    WHERE EXISTS (SELECT 1 FROM seat_holds l
+                  WHERE l.booking_reference = h.booking_reference
+                    AND (l.expires_at, l.id) > (h.expires_at, h.id))
+    RETURNING flight_id
+), freed AS (
+    SELECT flight_id, count(*) AS seats FROM dropped GROUP BY flight_id
+)
+UPDATE seat_inventory i SET seats_available = i.seats_available + f.seats
+FROM freed f WHERE i.flight_id = f.flight_id;
+
+ALTER TABLE seat_holds DROP CONSTRAINT uk_seat_holds_booking_flight;
+ALTER TABLE seat_holds ADD CONSTRAINT uk_seat_holds_booking UNIQUE (booking_reference);
+
+-- Every instance sweeps expired holds, its own or not, without reading the live ones
+CREATE INDEX idx_seat_holds_expires_at ON seat_holds (expires_at);
@@ -0,0 +1,70 @@
+-- Replaces the row-level change-feed triggers of V13 with statement-level ones: a COPY or
+-- bulk import now makes one trigger call per statement rather than one per row, and each
+-- distinct reference or route it touched is announced once. A trigger with transition
+-- tables serves a single event, hence one trigger per event
+DROP TRIGGER bookings_notify_change ON bookings;
+DROP TRIGGER flights_notify_change ON flights;
+DROP FUNCTION notify_booking_change();
+DROP FUNCTION notify_flight_change();
+
+-- Payload: the booking reference. Lease renewals do not change what clients see, so only a
+-- new version or status, or a deletion, is announced
+CREATE FUNCTION notify_booking_changes() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('booking_changes', reference)
+        FROM (SELECT DISTINCT reference FROM old_rows) changed;
+    ELSE
+        PERFORM pg_notify('booking_changes', reference)
+        FROM (SELECT DISTINCT n.reference
+              FROM new_rows n JOIN old_rows o ON o.id = n.id
+              WHERE n.version IS DISTINCT FROM o.version OR n.status IS DISTINCT FROM o.status) changed;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_notify_update
+    AFTER UPDATE ON bookings
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_booking_changes();
+
+CREATE TRIGGER bookings_notify_delete
+    AFTER DELETE ON bookings
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_booking_changes();
+
+-- Payload: the route as ORIGIN-DESTINATION, both the old and the new one for a moved flight
+CREATE FUNCTION notify_flight_changes() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM pg_notify('flight_changes', route)
+        FROM (SELECT DISTINCT origin || '-' || destination AS route FROM new_rows) changed;
+    ELSIF TG_OP = 'UPDATE' THEN
+        PERFORM pg_notify('flight_changes', route)
+        FROM (SELECT origin || '-' || destination AS route FROM old_rows
+              UNION
+              SELECT origin || '-' || destination FROM new_rows) changed;
+    ELSE
+        PERFORM pg_notify('flight_changes', route)
+        FROM (SELECT DISTINCT origin || '-' || destination AS route FROM old_rows) changed;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Defined on the partitioned table, so partitions created later are covered too
+CREATE TRIGGER flights_notify_insert
+    AFTER INSERT ON flights
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_flight_changes();
+
+CREATE TRIGGER flights_notify_update
+    AFTER UPDATE ON flights
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_flight_changes();
+
+CREATE TRIGGER flights_notify_delete
+    AFTER DELETE ON flights
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_flight_changes();
@@ -0,0 +1,4 @@
+-- Compact binary (CBOR) encoding for stored rebook responses
+-- Rows written before this migration keep their JSONB payload and are still readable;
+-- new rows populate exactly one of the two columns depending on rebooking.audit.payload-format
+ALTER TABLE rebooking_audit ADD COLUMN response_payload_cbor BYTEA;
@@ -0,0 +1,91 @@
+-- Range-partition flights by scheduled_departure month
+-- Route searches only ever look forward in time, so the planner prunes departed months
+-- instead of scanning indexes that cover the full schedule history.
+
+-- A partitioned table's unique keys must include the partition key, so flights(id) can no
+-- longer be the target of foreign keys; flight references are validated by the application
+ALTER TABLE bookings DROP CONSTRAINT bookings_original_flight_id_fkey;
+ALTER TABLE bookings DROP CONSTRAINT bookings_rebooked_flight_id_fkey;
+ALTER TABLE rebooking_audit DROP CONSTRAINT rebooking_audit_previous_flight_id_fkey;
+ALTER TABLE rebooking_audit DROP CONSTRAINT rebooking_audit_new_flight_id_fkey;
+
+ALTER TABLE flights RENAME TO flights_unpartitioned;
+
+CREATE TABLE flights (
+    id UUID NOT NULL,
+    flight_number VARCHAR(10) NOT NULL,
+    origin VARCHAR(3) NOT NULL,
+    destination VARCHAR(3) NOT NULL,
+    scheduled_departure TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, scheduled_departure)
+) PARTITION BY RANGE (scheduled_departure);
+
+-- Safety net for flights outside the pre-created months; create_flight_partition moves them out
+CREATE TABLE flights_default PARTITION OF flights DEFAULT;
+
+-- Departed partitions are moved here once no booking references them
+CREATE SCHEMA IF NOT EXISTS flights_archive;
+
+-- Creates the partition for the UTC calendar month containing month_start (idempotent)
+CREATE OR REPLACE FUNCTION create_flight_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    lower_date DATE := date_trunc('month', month_start::timestamp)::date;
+    lower_bound TIMESTAMPTZ := lower_date::timestamp AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMPTZ := (lower_date + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+    partition_name TEXT := 'flights_' || to_char(lower_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL
+        OR to_regclass('flights_archive.' || partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    -- The partition cannot be created while the default partition holds rows in its range
+    CREATE TEMP TABLE pending_flights ON COMMIT DROP AS
+        SELECT * FROM flights_default
+        WHERE scheduled_departure >= lower_bound AND scheduled_departure < upper_bound;
+    DELETE FROM flights_default
+        WHERE scheduled_departure >= lower_bound AND scheduled_departure < upper_bound;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF flights FOR VALUES FROM (%L) TO (%L)',
+        partition_name, lower_bound, upper_bound);
+
+    INSERT INTO flights SELECT * FROM pending_flights;
+    DROP TABLE pending_flights;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions from the oldest existing flight through twelve months ahead
+DO $$
+DECLARE
+    month_cursor DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', LEAST(COALESCE(min(scheduled_departure), now()), now()) AT TIME ZONE 'UTC')::date,
+           GREATEST(
+               date_trunc('month', now() AT TIME ZONE 'UTC')::date + INTERVAL '12 months',
+               date_trunc('month', max(scheduled_departure) AT TIME ZONE 'UTC'))::date
+    INTO month_cursor, last_month
+    FROM flights_unpartitioned;
+
+    WHILE month_cursor <= last_month LOOP
+        PERFORM create_flight_partition(month_cursor);
+        month_cursor := (month_cursor + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure, created_at)
+SELECT id, flight_number, origin, destination, scheduled_departure, created_at
+FROM flights_unpartitioned;
+
+DROP TABLE flights_unpartitioned;
+
+-- Equality on the route plus the departure range and ORDER BY, all from one index
+CREATE INDEX idx_flights_route ON flights (origin, destination, scheduled_departure);
+CREATE INDEX idx_flights_departure ON flights (scheduled_departure);
+
+-- Lets archival check whether any booking still references a partition's flights
+CREATE INDEX idx_bookings_original_flight ON bookings (original_flight_id);
+CREATE INDEX idx_bookings_rebooked_flight ON bookings (rebooked_flight_id) WHERE rebooked_flight_id IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Schedule imports match incoming legs to existing flights by flight number and UTC
+-- departure date, probing this index once per leg with a one-day range
+CREATE INDEX idx_flights_number_departure ON flights (flight_number, scheduled_departure);
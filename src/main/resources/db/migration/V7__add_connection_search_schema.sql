@@ -0,0 +1,25 @@
+-- Arrival times and minimum connection times for connecting-itinerary search
+
+-- Nullable: flights without an arrival time are still offered as direct options, but
+-- cannot be the first leg of a connection
+ALTER TABLE flights ADD COLUMN scheduled_arrival TIMESTAMP WITH TIME ZONE;
+
+UPDATE flights SET scheduled_arrival = scheduled_departure + CASE
+        WHEN (origin, destination) IN (('AKL', 'WLG'), ('WLG', 'AKL')) THEN INTERVAL '65 minutes'
+        WHEN (origin, destination) IN (('AKL', 'CHC'), ('CHC', 'AKL')) THEN INTERVAL '85 minutes'
+    END
+WHERE id BETWEEN '00000000-0000-0000-0000-000000000001' AND '00000000-0000-0000-0000-000000000010';
+
+-- Airports without a row use rebooking.connections.default-minimum-connection-time
+CREATE TABLE airport_connection_times (
+    airport VARCHAR(3) PRIMARY KEY,
+    minimum_connection_minutes INTEGER NOT NULL CHECK (minimum_connection_minutes >= 0)
+);
+
+INSERT INTO airport_connection_times (airport, minimum_connection_minutes) VALUES
+    ('AKL', 60),
+    ('WLG', 40),
+    ('CHC', 45);
+
+-- Onward legs of a connecting rebooking; rebooked_flight_id holds the first leg
+ALTER TABLE bookings ADD COLUMN rebooked_connecting_flight_ids UUID[];
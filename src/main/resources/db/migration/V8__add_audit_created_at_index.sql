@@ -0,0 +1,2 @@
+-- Audit exports read in (created_at, id) order and resume after the last row of each segment
+CREATE INDEX idx_rebooking_audit_created_at ON rebooking_audit (created_at, id);
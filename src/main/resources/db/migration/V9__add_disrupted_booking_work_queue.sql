@@ -0,0 +1,33 @@
+-- Work queue over disrupted bookings: workers claim the next bookings by original departure
+-- with FOR UPDATE SKIP LOCKED and hold them under a lease until it expires or is released
+
+-- The original flight's departure, copied onto the booking so the queue order is served by
+-- an index on bookings alone; schedule imports keep it in step with moved flights
+ALTER TABLE bookings ADD COLUMN original_departure TIMESTAMP WITH TIME ZONE;
+
+UPDATE bookings b SET original_departure = f.scheduled_departure
+FROM flights f
+WHERE f.id = b.original_flight_id;
+
+-- Filled in on insert when the caller did not supply it
+CREATE OR REPLACE FUNCTION set_booking_original_departure() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.original_departure IS NULL THEN
+        SELECT scheduled_departure INTO NEW.original_departure
+        FROM flights WHERE id = NEW.original_flight_id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_original_departure
+    BEFORE INSERT ON bookings
+    FOR EACH ROW EXECUTE FUNCTION set_booking_original_departure();
+
+-- Unleased when lease_expires_at is null or in the past
+ALTER TABLE bookings ADD COLUMN lease_id UUID;
+ALTER TABLE bookings ADD COLUMN lease_owner VARCHAR(100);
+ALTER TABLE bookings ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
+
+-- Only disrupted bookings are queued, a small fraction of the table; rebooked ones drop out
+CREATE INDEX idx_bookings_disrupted_queue ON bookings (original_departure, id) WHERE status = 'DISRUPTED';
@@ -0,0 +1,92 @@
+package com.example.flightrebooking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class AlternateAirportIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        // Queenstown and Wanaka serve the same lakes district
+        registry.add("rebooking.airport-groups.groups.ZQN", () -> "ZQN,WKA");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE reference = 'BK-ALT'", Integer.class) > 0) {
+            return;
+        }
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content("""
+                    flight_number,origin,destination,scheduled_departure,scheduled_arrival
+                    NZ701,AKL,ZQN,2026-06-22T08:00:00Z,2026-06-22T09:50:00Z
+                    NZ703,AKL,ZQN,2026-06-23T08:00:00Z,2026-06-23T09:50:00Z
+                    NZ721,AKL,WKA,2026-06-22T09:00:00Z,2026-06-22T10:50:00Z
+                    NZ731,AKL,HLZ,2026-06-22T09:00:00Z,2026-06-22T09:40:00Z
+                    """))
+            .andExpect(status().isOk());
+
+        jdbcTemplate.update("INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+            "SELECT '30000000-0000-0000-0000-000000000011', 'BK-ALT', 'DISRUPTED', 'Mere Tane', id " +
+            "FROM flights WHERE flight_number = 'NZ701'");
+        jdbcTemplate.update("INSERT INTO disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) " +
+            "VALUES ('30000000-0000-0000-0000-000000000012', '30000000-0000-0000-0000-000000000011', " +
+            "'CANCELLATION', 'WX', 'Weather', '2026-06-22 06:00:00+00')");
+    }
+
+    @Test
+    @DisplayName("should offer flights to every airport of the destination group, penalising the alternate")
+    void shouldOfferAlternateAirports() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-ALT/rebooking-options"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.options[*].flight.flightNumber", contains("NZ721", "NZ703")))
+            // 100 - 5 (1h later) + 10 (similar time) - 20 (alternate airport)
+            .andExpect(jsonPath("$.options[0].score").value(85))
+            .andExpect(jsonPath("$.options[0].reason")
+                .value("Same day, similar departure time, direct flight, arrives WKA"))
+            .andExpect(jsonPath("$.options[1].flight.destination").value("ZQN"));
+    }
+
+    @Test
+    @DisplayName("should leave routes outside any group unchanged")
+    void shouldNotWidenUngroupedAirports() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.options[*].flight.destination", everyItem(is("WLG"))))
+            .andExpect(jsonPath("$.options[*].reason", everyItem(not(containsString("arrives")))));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.flightrebooking;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class AsyncRebookIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("rebooking.async-rebook.poll-interval", () -> "20ms");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM rebook_requests");
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @Test
+    @DisplayName("should accept with 202 and then serve the response the synchronous rebook returns")
+    void shouldRebookAsynchronously() throws Exception {
+        String flightId = firstOption("BK-001");
+        UUID idempotencyKey = UUID.randomUUID();
+
+        MockHttpServletResponse accepted = mockMvc.perform(post("/api/v1/bookings/BK-001/rebook")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Preference-Applied", "respond-async"))
+            .andExpect(jsonPath("$.bookingReference").value("BK-001"))
+            .andExpect(jsonPath("$.status").value("PENDING"))
+            .andReturn().getResponse();
+        String statusUrl = accepted.getHeader("Location");
+        assertEquals(statusUrl, JsonPath.read(accepted.getContentAsString(), "$.statusUrl"));
+
+        MockHttpServletResponse outcome = poll(statusUrl);
+        assertEquals(200, outcome.getStatus());
+        String body = outcome.getContentAsString();
+        assertEquals("BK-001", JsonPath.read(body, "$.bookingReference"));
+        assertEquals("REBOOKED", JsonPath.read(body, "$.status"));
+        assertEquals(flightId, JsonPath.read(body, "$.newFlight.flightId"));
+
+        // The synchronous endpoint replays the very same response for the key
+        String replay = mockMvc.perform(post("/api/v1/bookings/BK-001/rebook")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        assertEquals((String) JsonPath.read(replay, "$.rebookedAt"), JsonPath.read(body, "$.rebookedAt"));
+    }
+
+    @Test
+    @DisplayName("should serve the error the synchronous rebook would have returned")
+    void shouldReportFailure() throws Exception {
+        String flightId = firstOption("BK-001");
+
+        String statusUrl = rebookAsync("BK-002", flightId, UUID.randomUUID());
+
+        MockHttpServletResponse outcome = poll(statusUrl);
+        assertEquals(409, outcome.getStatus());
+        assertEquals("Conflict", JsonPath.read(outcome.getContentAsString(), "$.title"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM bookings WHERE reference = 'BK-002' AND status = 'REBOOKED'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("should accept a repeated request with the same idempotency key only once")
+    void shouldAcceptOncePerIdempotencyKey() throws Exception {
+        String flightId = firstOption("BK-003");
+        UUID idempotencyKey = UUID.randomUUID();
+
+        String first = rebookAsync("BK-003", flightId, idempotencyKey);
+        String second = rebookAsync("BK-003", flightId, idempotencyKey);
+
+        assertEquals(first, second);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM rebook_requests", Integer.class));
+
+        mockMvc.perform(post("/api/v1/bookings/BK-004/rebook")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("should take over a request whose worker's lease ran out")
+    void shouldRecoverAbandonedRequest() throws Exception {
+        String flightId = firstOption("BK-004");
+        UUID requestId = UUID.randomUUID();
+        jdbcTemplate.update(
+            "INSERT INTO rebook_requests (id, booking_reference, idempotency_key, selected_flight_id, status, " +
+            "                             attempts, available_at) " +
+            "VALUES (?, 'BK-004', ?, ?, 'PROCESSING', 1, now() - INTERVAL '1 second')",
+            requestId, UUID.randomUUID(), flightId);
+
+        MockHttpServletResponse outcome = poll("/api/v1/bookings/BK-004/rebook-requests/" + requestId);
+        assertEquals(200, outcome.getStatus());
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT attempts FROM rebook_requests WHERE id = ?", Integer.class, requestId));
+    }
+
+    @Test
+    @DisplayName("should return 404 for an unknown request and 400 for a malformed id")
+    void shouldReturn404ForUnknownRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-001/rebook-requests/" + UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001/rebook-requests/not-a-uuid"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private String rebookAsync(String reference, String flightId, UUID idempotencyKey) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/" + reference + "/rebook")
+                .header("Idempotency-Key", idempotencyKey.toString())
+                .header("Prefer", "respond-async, wait=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getHeader("Location");
+    }
+
+    private MockHttpServletResponse poll(String statusUrl) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            MockHttpServletResponse response = mockMvc.perform(get(statusUrl)).andReturn().getResponse();
+            if (response.getStatus() != 202) {
+                return response;
+            }
+            assertNotNull(response.getHeader("Retry-After"));
+            assertTrue(System.nanoTime() < deadline, "rebook still pending: " + response.getContentAsString());
+            Thread.sleep(20);
+        }
+    }
+
+    private String firstOption(String reference) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/bookings/" + reference + "/rebooking-options"))
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.options[0].flight.flightId");
+    }
+}
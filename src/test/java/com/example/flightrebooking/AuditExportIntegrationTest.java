@@ -0,0 +1,161 @@
+package com.example.flightrebooking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class AuditExportIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        // Tiny segments so every export resumes across several transactions
+        registry.add("rebooking.audit.export.fetch-size", () -> "1");
+        registry.add("rebooking.audit.export.flush-rows", () -> "1");
+        registry.add("rebooking.audit.export.segment-rows", () -> "2");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void insertAuditRecords() {
+        // BK-001 and BK-004 were disrupted on AKL-WLG, BK-003 on WLG-AKL
+        insertAudit(1, "10000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000001",
+            "00000000-0000-0000-0000-000000000002", "CONFLICT", "2020-01-01T10:00:00Z");
+        insertAudit(2, "10000000-0000-0000-0000-000000000003", "00000000-0000-0000-0000-000000000006",
+            "00000000-0000-0000-0000-000000000007", "SUCCESS", "2020-01-02T10:00:00Z");
+        insertAudit(3, "10000000-0000-0000-0000-000000000004", "00000000-0000-0000-0000-000000000009",
+            "00000000-0000-0000-0000-000000000010", "SUCCESS", "2020-01-03T10:00:00Z");
+        insertAudit(4, "10000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000001",
+            "00000000-0000-0000-0000-000000000009", "ERROR", "2020-01-04T10:00:00Z");
+    }
+
+    @Test
+    @DisplayName("should stream every record as one JSON object per line in creation order")
+    void shouldExportEveryRecord() throws Exception {
+        List<JsonNode> records = export(get("/api/v1/audit:export"));
+
+        // The four above plus the seeded BK-005 record, created when the schema was migrated
+        assertEquals(List.of(
+                "40000000-0000-0000-0000-000000000001",
+                "40000000-0000-0000-0000-000000000002",
+                "40000000-0000-0000-0000-000000000003",
+                "40000000-0000-0000-0000-000000000004",
+                "30000000-0000-0000-0000-000000000001"),
+            records.stream().map(record -> record.get("id").asText()).toList());
+
+        JsonNode first = records.getFirst();
+        assertEquals("BK-001", first.get("bookingReference").asText());
+        assertEquals("CONFLICT", first.get("outcome").asText());
+        assertEquals("2020-01-01T10:00:00Z", first.get("createdAt").asText());
+        assertEquals("NZ101", first.get("previousFlight").get("flightNumber").asText());
+        assertEquals("AKL", first.get("previousFlight").get("origin").asText());
+        assertEquals("2026-06-15T08:00:00Z", first.get("previousFlight").get("scheduledDeparture").asText());
+        assertEquals("NZ103", first.get("newFlight").get("flightNumber").asText());
+    }
+
+    @Test
+    @DisplayName("should filter by time range, outcome and route")
+    void shouldFilterRecords() throws Exception {
+        assertEquals(List.of("BK-003", "BK-004"),
+            references(export(get("/api/v1/audit:export")
+                .param("from", "2020-01-02T10:00:00Z")
+                .param("to", "2020-01-04T10:00:00Z"))));
+
+        assertEquals(List.of("BK-001", "BK-001"),
+            references(export(get("/api/v1/audit:export")
+                .param("outcome", "CONFLICT", "ERROR"))));
+
+        assertEquals(List.of("BK-003"),
+            references(export(get("/api/v1/audit:export")
+                .param("origin", "WLG")
+                .param("destination", "AKL"))));
+
+        assertEquals(List.of(),
+            references(export(get("/api/v1/audit:export")
+                .param("origin", "CHC"))));
+    }
+
+    @Test
+    @DisplayName("should return 400 for invalid filters")
+    void shouldReturn400ForInvalidFilters() throws Exception {
+        mockMvc.perform(get("/api/v1/audit:export").param("origin", "auckland"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/audit:export").param("outcome", "MAYBE"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/audit:export").param("from", "yesterday"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> export(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                records.add(objectMapper.readTree(line));
+            }
+        }
+        assertTrue(body.isEmpty() || body.endsWith("\n"), "every record should end with a newline");
+        return records;
+    }
+
+    private static List<String> references(List<JsonNode> records) {
+        return records.stream().map(record -> record.get("bookingReference").asText()).toList();
+    }
+
+    private void insertAudit(int n, String bookingId, String previousFlightId, String newFlightId,
+                             String outcome, String createdAt) {
+        jdbcTemplate.update(
+            "INSERT INTO rebooking_audit (id, booking_id, idempotency_key, previous_flight_id, new_flight_id, " +
+            "                             outcome, created_at) " +
+            "VALUES (?::uuid, ?::uuid, ?::uuid, ?::uuid, ?::uuid, ?::rebooking_outcome, ?::timestamptz) " +
+            "ON CONFLICT (id) DO NOTHING",
+            "40000000-0000-0000-0000-00000000000" + n, bookingId, "b0000000-0000-0000-0000-00000000000" + n,
+            previousFlightId, newFlightId, outcome, createdAt);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.flightrebooking;
+
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "rebooking.booking-cache.enabled=true")
+@AutoConfigureMockMvc
+@Testcontainers
+class BookingCacheIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetData() throws Exception {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+        awaitVersion("BK-001", 1);
+    }
+
+    @Test
+    @DisplayName("should serve a booking from memory once it has been read")
+    void shouldServeFromMemory() throws Exception {
+        double hitsBefore = hits();
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""));
+
+        assertTrue(hits() > hitsBefore, "expected a cache hit");
+    }
+
+    @Test
+    @DisplayName("should serve a change written elsewhere once it is announced")
+    void shouldInvalidateOnChangeElsewhere() throws Exception {
+        // As another instance or tool would, straight to the database
+        jdbcTemplate.update("UPDATE bookings SET version = 2 WHERE reference = 'BK-001'");
+
+        awaitVersion("BK-001", 2);
+        mockMvc.perform(get("/api/v1/bookings/BK-001"))
+            .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    @DisplayName("should serve a change to a flight on the booking's route once it is announced")
+    void shouldInvalidateOnFlightChange() throws Exception {
+        // Not rebooked by another test, which would have it read from the database for a while
+        mockMvc.perform(get("/api/v1/bookings/BK-003"))
+            .andExpect(jsonPath("$.originalFlight.flightNumber").value("NZ301"));
+        try {
+            jdbcTemplate.update("UPDATE flights SET flight_number = 'NZ381' WHERE flight_number = 'NZ301'");
+            awaitFlightNumber("BK-003", "NZ381");
+        } finally {
+            jdbcTemplate.update("UPDATE flights SET flight_number = 'NZ301' WHERE flight_number = 'NZ381'");
+        }
+        awaitFlightNumber("BK-003", "NZ301");
+
+        double hitsBefore = hits();
+        assertEquals("NZ301", flightNumber("BK-003"));
+        assertTrue(hits() > hitsBefore, "expected the reloaded booking to be served from memory");
+    }
+
+    @Test
+    @DisplayName("should serve this instance's own rebook straight away")
+    void shouldReadOwnRebook() throws Exception {
+        mockMvc.perform(post("/api/v1/bookings/BK-001/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"00000000-0000-0000-0000-000000000002\"}"))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("REBOOKED"))
+            .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    @DisplayName("should not cache an unknown booking")
+    void shouldNotCacheUnknownBooking() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-999"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/bookings/BK-999"))
+            .andExpect(status().isNotFound());
+    }
+
+    private void awaitVersion(String reference, long version) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String etag = "\"" + version + "\"";
+        while (!etag.equals(etag(reference)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(etag, etag(reference));
+    }
+
+    private void awaitFlightNumber(String reference, String flightNumber) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!flightNumber.equals(flightNumber(reference)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(flightNumber, flightNumber(reference));
+    }
+
+    private String flightNumber(String reference) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/bookings/" + reference)).andReturn().getResponse()
+            .getContentAsString();
+        return JsonPath.read(body, "$.originalFlight.flightNumber");
+    }
+
+    private String etag(String reference) throws Exception {
+        return mockMvc.perform(get("/api/v1/bookings/" + reference)).andReturn().getResponse().getHeader("ETag");
+    }
+
+    private double hits() {
+        return meterRegistry.counter("rebooking.booking-cache.requests", "result", "hit").count();
+    }
+}
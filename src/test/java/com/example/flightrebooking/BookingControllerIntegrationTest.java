@@ -1,5 +1,6 @@
 package com.example.flightrebooking;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,9 +19,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -129,6 +133,60 @@ class BookingControllerIntegrationTest {
                     .andExpect(jsonPath("$.options").isArray())
                     .andExpect(jsonPath("$.options[0].reason").value(containsString("Next day")));
         }
+
+        @Test
+        @DisplayName("should page through every option with the continuation cursor")
+        void shouldPageThroughOptions() throws Exception {
+            List<String> all = JsonPath.read(mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options")
+                            .param("limit", "50"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                    .andReturn().getResponse().getContentAsString(), "$.options[*].flight.flightId");
+
+            List<String> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                var request = get("/api/v1/bookings/BK-001/rebooking-options").param("limit", "2");
+                if (cursor != null) {
+                    request.param("cursor", cursor);
+                }
+                String body = mockMvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.options.length()").value(lessThanOrEqualTo(2)))
+                        .andReturn().getResponse().getContentAsString();
+                paged.addAll(JsonPath.read(body, "$.options[*].flight.flightId"));
+                cursor = JsonPath.read(body, "$.nextCursor");
+            } while (cursor != null);
+
+            assertEquals(5, all.size());
+            assertEquals(all, paged);
+        }
+
+        @Test
+        @DisplayName("should filter options by departure window and same day")
+        void shouldFilterOptions() throws Exception {
+            mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options").param("sameDayOnly", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.options[*].flight.flightNumber",
+                            containsInAnyOrder("NZ401", "NZ103", "NZ403")));
+
+            mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options")
+                            .param("earliestDeparture", "2026-06-15T12:00:00Z")
+                            .param("latestDeparture", "2026-06-15T14:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.options[*].flight.flightNumber", containsInAnyOrder("NZ401", "NZ103")));
+        }
+
+        @Test
+        @DisplayName("should return 400 for an invalid limit, departure or cursor")
+        void shouldReturn400ForInvalidPagingParameters() throws Exception {
+            mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options").param("limit", "0"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.detail").value(containsString("limit")));
+            mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options").param("earliestDeparture", "tomorrow"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options").param("cursor", "not-a-cursor"))
+                    .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -0,0 +1,182 @@
+package com.example.flightrebooking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class BookingEventsIntegrationTest {
+
+    private static final String EXTRA_FLIGHT_ID = "00000000-0000-0000-0000-000000000099";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @AfterEach
+    void removeExtraFlight() {
+        jdbcTemplate.update("DELETE FROM flights WHERE id = ?::uuid", EXTRA_FLIGHT_ID);
+    }
+
+    @Test
+    @DisplayName("should send the booking and its options when the stream opens")
+    void shouldSendSnapshot() throws Exception {
+        MockHttpServletResponse stream = open("BK-001");
+
+        String events = awaitContent(stream, content -> content.contains("event:options"));
+        assertEquals(1, count(events, "event:booking"));
+        assertEquals(1, count(events, "event:options"));
+        assertTrue(events.contains("\"reference\":\"BK-001\""), events);
+        assertTrue(events.contains("\"status\":\"DISRUPTED\""), events);
+    }
+
+    @Test
+    @DisplayName("should send the rebooked booking once it is rebooked")
+    void shouldSendRebookedBooking() throws Exception {
+        MockHttpServletResponse stream = open("BK-001");
+        awaitContent(stream, content -> content.contains("event:options"));
+
+        mockMvc.perform(post("/api/v1/bookings/BK-001/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"00000000-0000-0000-0000-000000000002\"}"))
+            .andExpect(status().isCreated());
+
+        String events = awaitContent(stream, content -> count(content, "event:booking") == 2);
+        assertTrue(events.contains("\"status\":\"REBOOKED\""), events);
+    }
+
+    @Test
+    @DisplayName("should send nothing for a change to another booking on another route")
+    void shouldIgnoreUnrelatedChange() throws Exception {
+        MockHttpServletResponse stream = open("BK-001");
+        String before = awaitContent(stream, content -> content.contains("event:options"));
+
+        jdbcTemplate.update("UPDATE bookings SET version = version + 1 WHERE reference = 'BK-003'");
+        Thread.sleep(1_000);
+
+        assertEquals(before, stream.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("should send new options when a flight on the booking's route is added")
+    void shouldSendOptionsOnFlightChange() throws Exception {
+        MockHttpServletResponse stream = open("BK-001");
+        awaitContent(stream, content -> content.contains("event:options"));
+
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure) " +
+            "VALUES (?::uuid, 'NZ105', 'AKL', 'WLG', '2026-06-15 10:00:00+00')", EXTRA_FLIGHT_ID);
+
+        String events = awaitContent(stream, content -> count(content, "event:options") == 2);
+        assertTrue(events.contains(EXTRA_FLIGHT_ID), events);
+        assertEquals(1, count(events, "event:booking"));
+    }
+
+    @Test
+    @DisplayName("should re-read only for a flight on the booking's route or a leg of a connection on it")
+    void shouldRereadOnlyForFlightsOfRoute() throws Exception {
+        MockHttpServletResponse stream = open("BK-001");
+        awaitContent(stream, content -> content.contains("event:options"));
+        double before = refreshes();
+
+        // Departs from the booking's origin, but nothing flies on from there to its destination
+        insertFlight("AKL", "ZQN");
+        Thread.sleep(1_000);
+        assertEquals(before, refreshes());
+        removeExtraFlight();
+
+        // Can follow AKL-CHC as the second leg of a connection to WLG
+        insertFlight("CHC", "WLG");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (refreshes() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(refreshes() > before);
+    }
+
+    @Test
+    @DisplayName("should return 404 for an unknown booking before streaming")
+    void shouldRejectUnknownBooking() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-999/events").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletResponse open(String reference) throws Exception {
+        return mockMvc.perform(get("/api/v1/bookings/" + reference + "/events").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn().getResponse();
+    }
+
+    private void insertFlight(String origin, String destination) {
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure) " +
+            "VALUES (?::uuid, 'NZ999', ?, ?, '2026-06-15 10:00:00+00')", EXTRA_FLIGHT_ID, origin, destination);
+    }
+
+    private double refreshes() {
+        return meterRegistry.counter("rebooking.events.refreshes").count();
+    }
+
+    private static String awaitContent(MockHttpServletResponse stream, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String content = stream.getContentAsString();
+        while (!condition.test(content) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            content = stream.getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+
+    private static int count(String content, String line) {
+        return content.split(line, -1).length - 1;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.bulkhead.Bulkhead;
+import com.example.flightrebooking.bulkhead.BulkheadRegistry;
+import com.example.flightrebooking.bulkhead.TrafficClass;
+import com.zaxxer.hikari.HikariDataSource;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+    "rebooking.concurrency-limit.enabled=false",
+    "rebooking.bulkhead.read.max-concurrent=4",
+    "rebooking.bulkhead.read.max-waiting=0",
+    "rebooking.bulkhead.read.pool-size=2",
+    "rebooking.bulkhead.read.connection-timeout=250ms",
+    "rebooking.bulkhead.write.max-concurrent=4",
+    "rebooking.bulkhead.write.pool-size=2"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+class BulkheadIsolationIntegrationTest {
+
+    // Seeded options for BK-001 (NZ101 08:00 AKL-WLG): NZ401 12:00
+    private static final String BK_001_OPTION = "00000000-0000-0000-0000-000000000009";
+    // Rebooks before measuring, so the JIT has compiled the rebook path, then per phase
+    private static final int WARM_UP_REBOOKS = 50;
+    private static final int MEASURED_REBOOKS = 100;
+    private static final long STORM_P99_SLACK_MILLIS = 100;
+    // Twice as many pollers as the read bulkhead admits, so reads are shed throughout
+    private static final int STORM_CLIENTS = 8;
+    private static final long STORM_THINK_TIME_MILLIS = 10;
+    // As many rebooks in flight as the write bulkhead admits at once
+    private static final int REBOOK_THREADS = 4;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    private final List<Runnable> cleanup = new ArrayList<>();
+
+    @BeforeEach
+    void resetData() throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM rebooking_audit WHERE booking_id <> '10000000-0000-0000-0000-000000000005'");
+            stmt.execute("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+        }
+    }
+
+    @AfterEach
+    void release() {
+        cleanup.forEach(Runnable::run);
+        cleanup.clear();
+    }
+
+    @Test
+    @DisplayName("rebook should commit while the read bulkhead is saturated")
+    void rebookShouldSucceedWhileReadBulkheadSaturated() throws Exception {
+        Bulkhead read = bulkheadRegistry.bulkhead(TrafficClass.READ);
+        while (read.tryEnter()) {
+            cleanup.add(read::exit);
+        }
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001/rebooking-options"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+
+        rebook("BK-001", BK_001_OPTION).andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("rebook should commit while every read pool connection is checked out")
+    void rebookShouldSucceedWhileReadPoolExhausted() throws Exception {
+        for (int i = 0; i < readDataSource.getMaximumPoolSize(); i++) {
+            Connection held = readDataSource.getConnection();
+            cleanup.add(() -> {
+                try {
+                    held.close();
+                } catch (Exception ignored) {
+                }
+            });
+        }
+
+        rebook("BK-001", BK_001_OPTION).andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("rebook p99 should hold while an options polling storm saturates the read side")
+    void rebookP99ShouldHoldUnderOptionsStorm() throws Exception {
+        List<String> references = disruptedBookings(WARM_UP_REBOOKS + 2 * MEASURED_REBOOKS);
+        rebookConcurrently(references.subList(0, WARM_UP_REBOOKS));
+        Histogram unloaded = rebookConcurrently(
+                references.subList(WARM_UP_REBOOKS, WARM_UP_REBOOKS + MEASURED_REBOOKS));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger optionsShed = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_CLIENTS);
+        for (int i = 0; i < STORM_CLIENTS; i++) {
+            storm.submit(() -> {
+                while (running.get()) {
+                    int status = mockMvc.perform(get("/api/v1/bookings/BK-003/rebooking-options"))
+                            .andReturn().getResponse().getStatus();
+                    if (status == 503) {
+                        optionsShed.incrementAndGet();
+                    }
+                    // Polling clients, not a busy loop: the storm is meant to exhaust the read
+                    // bulkhead and pool, not the test machine's CPU
+                    Thread.sleep(STORM_THINK_TIME_MILLIS);
+                }
+                return null;
+            });
+        }
+        Histogram underStorm;
+        try {
+            Thread.sleep(500);
+            underStorm = rebookConcurrently(references.subList(WARM_UP_REBOOKS + MEASURED_REBOOKS, references.size()));
+        } finally {
+            running.set(false);
+            storm.shutdown();
+            assertTrue(storm.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        // The storm did saturate the read side: options requests were shed while rebooks ran
+        assertTrue(optionsShed.get() > 0, "Options storm never filled the read bulkhead");
+        long unloadedP99 = TimeUnit.MICROSECONDS.toMillis(unloaded.getValueAtPercentile(99));
+        long stormP99 = TimeUnit.MICROSECONDS.toMillis(underStorm.getValueAtPercentile(99));
+        String summary = "Rebook p99 was " + stormP99 + "ms under the options storm and " + unloadedP99 + "ms without it";
+        assertTrue(stormP99 < 1_000, summary);
+        assertTrue(stormP99 <= 3 * unloadedP99 + STORM_P99_SLACK_MILLIS, summary);
+    }
+
+    /** Rebooks each booking, as many at once as the write bulkhead admits, and returns their latencies. */
+    private Histogram rebookConcurrently(List<String> references) throws Exception {
+        ConcurrentHistogram latency = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(30), 3);
+        ExecutorService writers = Executors.newFixedThreadPool(REBOOK_THREADS);
+        try {
+            List<Future<?>> rebooks = new ArrayList<>();
+            for (String reference : references) {
+                rebooks.add(writers.submit(() -> {
+                    long start = System.nanoTime();
+                    rebook(reference, BK_001_OPTION).andExpect(status().isCreated());
+                    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    return null;
+                }));
+            }
+            for (Future<?> rebook : rebooks) {
+                rebook.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdown();
+        }
+        assertEquals(references.size(), latency.getTotalCount());
+        return latency;
+    }
+
+    /** Disrupted bookings like BK-001, so every concurrent rebook is a real write. */
+    private List<String> disruptedBookings(int count) throws Exception {
+        List<String> references = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM rebooking_audit WHERE booking_id IN " +
+                    "(SELECT id FROM bookings WHERE reference LIKE 'BK-STORM-%')");
+            stmt.execute("DELETE FROM disruptions WHERE booking_id IN " +
+                    "(SELECT id FROM bookings WHERE reference LIKE 'BK-STORM-%')");
+            stmt.execute("DELETE FROM bookings WHERE reference LIKE 'BK-STORM-%'");
+            stmt.execute("INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+                    "SELECT gen_random_uuid(), 'BK-STORM-' || lpad(n::text, 3, '0'), 'DISRUPTED', 'Storm ' || n, " +
+                    "'00000000-0000-0000-0000-000000000001' FROM generate_series(1, " + count + ") AS n");
+            stmt.execute("INSERT INTO disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) " +
+                    "SELECT gen_random_uuid(), id, 'CANCELLATION', 'WX', 'Weather', '2026-06-14 22:00:00+00' " +
+                    "FROM bookings WHERE reference LIKE 'BK-STORM-%'");
+        }
+        for (int i = 1; i <= count; i++) {
+            references.add(String.format("BK-STORM-%03d", i));
+        }
+        return references;
+    }
+
+    private ResultActions rebook(String ref, String flightId) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/" + ref + "/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"));
+    }
+}
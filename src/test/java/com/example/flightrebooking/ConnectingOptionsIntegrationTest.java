@@ -0,0 +1,123 @@
+package com.example.flightrebooking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ConnectingOptionsIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE reference = 'BK-CONN'", Integer.class) > 0) {
+            jdbcTemplate.update("DELETE FROM rebooking_audit");
+            jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+                "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference = 'BK-CONN'");
+            return;
+        }
+        // Importing the schedule also rebuilds the connection timetable
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content("""
+                    flight_number,origin,destination,scheduled_departure,scheduled_arrival
+                    NZ601,CHC,ZQN,2026-06-20T08:00:00Z,2026-06-20T09:10:00Z
+                    NZ603,CHC,ZQN,2026-06-21T08:00:00Z,2026-06-21T09:10:00Z
+                    NZ521,CHC,AKL,2026-06-20T09:00:00Z,2026-06-20T10:25:00Z
+                    NZ615,AKL,ZQN,2026-06-20T11:00:00Z,2026-06-20T12:50:00Z
+                    NZ617,AKL,ZQN,2026-06-20T12:00:00Z,2026-06-20T13:50:00Z
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightsInserted").value(5));
+
+        jdbcTemplate.update("INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+            "SELECT '30000000-0000-0000-0000-000000000001', 'BK-CONN', 'DISRUPTED', 'Aroha Ngata', id " +
+            "FROM flights WHERE flight_number = 'NZ601'");
+        jdbcTemplate.update("INSERT INTO disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) " +
+            "VALUES ('30000000-0000-0000-0000-000000000002', '30000000-0000-0000-0000-000000000001', " +
+            "'CANCELLATION', 'WX', 'Weather', '2026-06-20 06:00:00+00')");
+    }
+
+    private String flightId(String flightNumber) {
+        return jdbcTemplate.queryForObject("SELECT id::text FROM flights WHERE flight_number = ?", String.class,
+            flightNumber);
+    }
+
+    @Test
+    @DisplayName("should rank a same-day connection that meets the minimum connection time above a next-day direct flight")
+    void shouldOfferConnectingItinerary() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/BK-CONN/rebooking-options"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.options", hasSize(2)))
+            // NZ615 leaves 35 minutes after NZ521 lands, inside AKL's 60 minute minimum
+            .andExpect(jsonPath("$.options[0].flight.flightNumber").value("NZ521"))
+            .andExpect(jsonPath("$.options[0].connectingFlights[*].flightNumber", contains("NZ617")))
+            .andExpect(jsonPath("$.options[0].score").value(90))
+            .andExpect(jsonPath("$.options[0].reason").value("Same day, similar departure time, 1 stop via AKL"))
+            .andExpect(jsonPath("$.options[1].flight.flightNumber").value("NZ603"))
+            .andExpect(jsonPath("$.options[1].connectingFlights", empty()))
+            .andExpect(jsonPath("$.options[1].reason", endsWith("direct flight")));
+    }
+
+    @Test
+    @DisplayName("should rebook onto every leg of a connection and reject a first leg on its own")
+    void shouldRebookConnectingItinerary() throws Exception {
+        mockMvc.perform(post("/api/v1/bookings/BK-CONN/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId("NZ521") + "\"}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/bookings/BK-CONN/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId("NZ521") + "\", " +
+                    "\"connectingFlightIds\": [\"" + flightId("NZ617") + "\"]}"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.newFlight.flightNumber").value("NZ521"))
+            .andExpect(jsonPath("$.connectingFlights[0].flightNumber").value("NZ617"))
+            .andExpect(jsonPath("$.connectingFlights[0].scheduledArrival").value("2026-06-20T13:50:00Z"));
+
+        mockMvc.perform(get("/api/v1/bookings/BK-CONN"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("REBOOKED"))
+            .andExpect(jsonPath("$.rebookedConnectingFlightIds", contains(flightId("NZ617"))));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.schedule.FlightPartitionMaintenance;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers
+class FlightPartitionMaintenanceIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlightPartitionMaintenance maintenance;
+
+    @Test
+    @DisplayName("should keep monthly partitions created ahead of the schedule")
+    void shouldCreateUpcomingPartitions() {
+        maintenance.maintain();
+
+        String future = "flights_" + YearMonth.now(ZoneOffset.UTC).plusMonths(12)
+                .format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, future));
+    }
+
+    @Test
+    @DisplayName("should archive departed partitions no booking references, and keep referenced ones")
+    void shouldArchiveOnlyUnreferencedDepartedPartitions() {
+        // Lands in the default partition, then gets its own month
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure) " +
+                "VALUES (gen_random_uuid(), 'NZ001', 'AKL', 'SYD', '2020-03-10T09:00:00Z')");
+        jdbcTemplate.queryForObject("SELECT create_flight_partition('2020-03-01')", String.class);
+
+        maintenance.maintain();
+
+        assertEquals("flights_archive.flights_2020_03",
+                jdbcTemplate.queryForObject("SELECT to_regclass('flights_archive.flights_2020_03')::text", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flights WHERE flight_number = 'NZ001'", Integer.class));
+        // Seed bookings reference June 2026 flights
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass('public.flights_2026_06')::text", String.class));
+    }
+
+    @Test
+    @DisplayName("route search should prune partitions that departed before the search window")
+    void routeSearchShouldPruneDepartedPartitions() {
+        jdbcTemplate.queryForObject("SELECT create_flight_partition('2021-01-01')", String.class);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM flights WHERE origin = 'AKL' AND destination = 'WLG' " +
+                "AND scheduled_departure > '2026-06-15T08:00:00Z' ORDER BY scheduled_departure", String.class);
+
+        String joined = String.join("\n", plan);
+        assertTrue(joined.contains("flights_2026_06"));
+        assertFalse(joined.contains("flights_2021_01"), joined);
+    }
+}
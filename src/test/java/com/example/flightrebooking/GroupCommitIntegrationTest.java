@@ -0,0 +1,181 @@
+package com.example.flightrebooking;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class GroupCommitIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("rebooking.group-commit.enabled", () -> "true");
+        // Long enough that concurrent requests reliably share a batch
+        registry.add("rebooking.group-commit.linger", () -> "50ms");
+        // Nothing here should be shed while a cold JVM is slow
+        registry.add("rebooking.concurrency-limit.enabled", () -> "false");
+        registry.add("rebooking.bulkhead.enabled", () -> "false");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @Test
+    @DisplayName("should rebook several bookings committed together")
+    void shouldRebookConcurrently() throws Exception {
+        List<String> references = List.of("BK-001", "BK-003", "BK-004");
+        List<String> flightIds = new ArrayList<>();
+        for (String reference : references) {
+            flightIds.add(firstOption(reference));
+        }
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < references.size(); i++) {
+            String reference = references.get(i);
+            String flightId = flightIds.get(i);
+            requests.add(() -> rebook(reference, flightId, UUID.randomUUID(), null));
+        }
+
+        assertEquals(List.of(201, 201, 201), runConcurrently(requests));
+        for (int i = 0; i < references.size(); i++) {
+            assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT version FROM bookings WHERE reference = ? AND status = 'REBOOKED' AND rebooked_flight_id = ?::uuid",
+                Long.class, references.get(i), flightIds.get(i)));
+        }
+        mockMvc.perform(get("/api/v1/bookings/BK-003"))
+            .andExpect(header().string("ETag", "\"2\""))
+            .andExpect(jsonPath("$.status").value("REBOOKED"));
+    }
+
+    @Test
+    @DisplayName("should let exactly one of many concurrent rebooks of a booking win")
+    void shouldRejectConcurrentRebooksOfOneBooking() throws Exception {
+        String flightId = firstOption("BK-001");
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(() -> rebook("BK-001", flightId, UUID.randomUUID(), 1L));
+        }
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertEquals(1, Collections.frequency(statuses, 201), "statuses: " + statuses);
+        assertEquals(7, Collections.frequency(statuses, 409), "statuses: " + statuses);
+        assertEquals(1, auditCount("BK-001"));
+        assertEquals(2L, jdbcTemplate.queryForObject(
+            "SELECT version FROM bookings WHERE reference = 'BK-001'", Long.class));
+    }
+
+    @Test
+    @DisplayName("should replay one stored response to concurrent requests with the same idempotency key")
+    void shouldReplayConcurrentRetries() throws Exception {
+        String flightId = firstOption("BK-004");
+        UUID idempotencyKey = UUID.randomUUID();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(() -> rebook("BK-004", flightId, idempotencyKey, null));
+        }
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertEquals(1, Collections.frequency(statuses, 201), "statuses: " + statuses);
+        assertEquals(7, Collections.frequency(statuses, 200), "statuses: " + statuses);
+        assertEquals(1, auditCount("BK-004"));
+    }
+
+    @Test
+    @DisplayName("should return 409 for a stale ETag")
+    void shouldRejectStaleVersion() throws Exception {
+        String flightId = firstOption("BK-003");
+
+        mockMvc.perform(post("/api/v1/bookings/BK-003/rebook")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .header("If-Match", "\"999\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isConflict());
+        assertEquals(0, auditCount("BK-003"));
+    }
+
+    private String firstOption(String reference) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/bookings/" + reference + "/rebooking-options"))
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.options[0].flight.flightId");
+    }
+
+    private int rebook(String reference, String flightId, UUID idempotencyKey, Long version) throws Exception {
+        var request = post("/api/v1/bookings/" + reference + "/rebook")
+            .header("Idempotency-Key", idempotencyKey.toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"selectedFlightId\": \"" + flightId + "\"}");
+        if (version != null) {
+            request.header("If-Match", "\"" + version + "\"");
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private static List<Integer> runConcurrently(List<Callable<Integer>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        try {
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> status : executor.invokeAll(requests)) {
+                statuses.add(status.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int auditCount(String reference) {
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM rebooking_audit a JOIN bookings b ON b.id = a.booking_id WHERE b.reference = ?",
+            Integer.class, reference);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.flightrebooking;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Testcontainers
+class GroupRebookIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @Test
+    @DisplayName("should rebook every booking of the group onto the same flight")
+    void shouldRebookGroup() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        groupRebook(UUID.randomUUID(), flightId, "BK-004", "BK-001")
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-004", "BK-001")))
+            .andExpect(jsonPath("$.bookings[*].status", everyItem(is("REBOOKED"))))
+            .andExpect(jsonPath("$.bookings[*].newFlight.flightId", everyItem(is(flightId))));
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM bookings WHERE reference IN ('BK-001', 'BK-004') " +
+            "AND status = 'REBOOKED' AND rebooked_flight_id = ?::uuid AND version = 2", Integer.class, flightId));
+        assertEquals(2, auditCount("BK-001", "BK-004"));
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001"))
+            .andExpect(jsonPath("$.status").value("REBOOKED"))
+            .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    @DisplayName("should replay the group for its idempotency key and reject the key for another group")
+    void shouldReplayGroup() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+        UUID idempotencyKey = UUID.randomUUID();
+
+        String first = groupRebook(idempotencyKey, flightId, "BK-001", "BK-004")
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+
+        String replay = groupRebook(idempotencyKey, flightId, "BK-004", "BK-001")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-004", "BK-001")))
+            .andReturn().getResponse().getContentAsString();
+        assertEquals((String) JsonPath.read(first, "$.bookings[0].rebookedAt"),
+            JsonPath.read(replay, "$.bookings[1].rebookedAt"));
+
+        groupRebook(idempotencyKey, flightId, "BK-001")
+            .andExpect(status().isBadRequest());
+        assertEquals(2, auditCount("BK-001", "BK-004"));
+    }
+
+    @Test
+    @DisplayName("should rebook none of the group when one booking is not eligible")
+    void shouldRebookNoneWhenOneFails() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        groupRebook(UUID.randomUUID(), flightId, "BK-001", "BK-002", "BK-004")
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.detail").value(containsString("BK-002")));
+
+        groupRebook(UUID.randomUUID(), flightId, "BK-001", "BK-999")
+            .andExpect(status().isNotFound());
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM bookings WHERE reference IN ('BK-001', 'BK-004') " +
+            "AND status = 'DISRUPTED' AND version = 1", Integer.class));
+        assertEquals(0, auditCount("BK-001", "BK-004"));
+    }
+
+    @Test
+    @DisplayName("should let exactly one of two concurrent overlapping groups win without deadlocking")
+    void shouldSerializeOverlappingGroups() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        List<Callable<Integer>> requests = List.of(
+            () -> groupRebook(UUID.randomUUID(), flightId, "BK-001", "BK-004").andReturn().getResponse().getStatus(),
+            () -> groupRebook(UUID.randomUUID(), flightId, "BK-004", "BK-001").andReturn().getResponse().getStatus());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            for (Future<Integer> status : executor.invokeAll(requests)) {
+                statuses.add(status.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(statuses.containsAll(List.of(201, 409)), "statuses: " + statuses);
+        assertEquals(2, auditCount("BK-001", "BK-004"));
+    }
+
+    @Test
+    @DisplayName("should rebook a group of twenty with as many statements as a pair and in a fraction of twenty rebooks")
+    void shouldRebookGroupInAboutTheTimeOfOne() throws Exception {
+        List<String> group = IntStream.rangeClosed(1, 20).mapToObj(i -> String.format("BK-G%02d", i)).toList();
+        // Twenty more passengers of BK-001's cancelled flight
+        jdbcTemplate.update("INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+            "SELECT gen_random_uuid(), 'BK-G' || lpad(i::text, 2, '0'), 'DISRUPTED', 'Passenger ' || i, " +
+            "original_flight_id FROM bookings, generate_series(1, 20) i WHERE reference = 'BK-001'");
+        jdbcTemplate.update("INSERT INTO disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) " +
+            "SELECT gen_random_uuid(), g.id, d.type, d.reason_code, d.reason_description, d.occurred_at " +
+            "FROM bookings g, disruptions d JOIN bookings b ON b.id = d.booking_id " +
+            "WHERE g.reference LIKE 'BK-G%' AND b.reference = 'BK-001'");
+        try {
+            String flightId = sharedOption("BK-G01");
+            resetGroup();
+            long pair = statementsFor(() -> groupRebook(UUID.randomUUID(), flightId, "BK-G01", "BK-G02")
+                .andExpect(status().isCreated()));
+            resetGroup();
+            long twenty = statementsFor(() -> groupRebook(UUID.randomUUID(), flightId, group.toArray(String[]::new))
+                .andExpect(status().isCreated()));
+            // Locks, reads and batched writes: round trips do not grow with the group
+            assertEquals(pair, twenty);
+
+            long single = Long.MAX_VALUE;
+            long grouped = Long.MAX_VALUE;
+            // Best of several runs, so a cold first run or a stray pause does not decide it
+            for (int run = 0; run < 5; run++) {
+                resetGroup();
+                long started = System.nanoTime();
+                mockMvc.perform(post("/api/v1/bookings/BK-G01/rebook")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selectedFlightId\": \"" + flightId + "\"}"))
+                    .andExpect(status().isCreated());
+                single = Math.min(single, System.nanoTime() - started);
+
+                resetGroup();
+                started = System.nanoTime();
+                groupRebook(UUID.randomUUID(), flightId, group.toArray(String[]::new))
+                    .andExpect(status().isCreated());
+                grouped = Math.min(grouped, System.nanoTime() - started);
+            }
+
+            // Rebooking one at a time would take twenty times as long
+            assertTrue(grouped < 4 * single,
+                "group of 20: " + grouped / 1000 + " µs, single rebook: " + single / 1000 + " µs");
+        } finally {
+            resetGroup();
+            jdbcTemplate.update("DELETE FROM disruptions WHERE booking_id IN " +
+                "(SELECT id FROM bookings WHERE reference LIKE 'BK-G%')");
+            jdbcTemplate.update("DELETE FROM bookings WHERE reference LIKE 'BK-G%'");
+        }
+    }
+
+    @Test
+    @DisplayName("should return 400 for an invalid group")
+    void shouldReturn400ForInvalidGroup() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        groupRebook(UUID.randomUUID(), flightId, "BK-001", "BK-001")
+            .andExpect(status().isBadRequest());
+
+        groupRebook(UUID.randomUUID(), flightId)
+            .andExpect(status().isBadRequest());
+
+        groupRebook(UUID.randomUUID(), flightId, "bk 1")
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/bookings:groupRebook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingReferences\": [\"BK-001\"], \"selectedFlightId\": \"" + flightId + "\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private long statementsFor(Callable<?> request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        request.call();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void resetGroup() {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference LIKE 'BK-G%')");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference LIKE 'BK-G%'");
+    }
+
+    private ResultActions groupRebook(UUID idempotencyKey, String flightId, String... references) throws Exception {
+        String list = String.join("\", \"", references);
+        return mockMvc.perform(post("/api/v1/bookings:groupRebook")
+            .header("Idempotency-Key", idempotencyKey.toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"bookingReferences\": [" + (references.length == 0 ? "" : "\"" + list + "\"") + "], " +
+                     "\"selectedFlightId\": \"" + flightId + "\"}"));
+    }
+
+    private String sharedOption(String... references) throws Exception {
+        List<String> shared = null;
+        for (String reference : references) {
+            String body = mockMvc.perform(get("/api/v1/bookings/" + reference + "/rebooking-options")
+                    .param("limit", "50"))
+                .andReturn().getResponse().getContentAsString();
+            List<String> direct = JsonPath.read(body, "$.options[?(@.connectingFlights.length() == 0)].flight.flightId");
+            if (shared == null) {
+                shared = new ArrayList<>(direct);
+            } else {
+                shared.retainAll(direct);
+            }
+        }
+        assertFalse(shared.isEmpty(), "no direct option shared by " + String.join(", ", references));
+        return shared.getFirst();
+    }
+
+    private int auditCount(String... references) {
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM rebooking_audit a JOIN bookings b ON b.id = a.booking_id " +
+            "WHERE b.reference = ANY(?)", Integer.class, (Object) references);
+    }
+}
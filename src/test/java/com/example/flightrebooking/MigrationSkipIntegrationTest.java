@@ -0,0 +1,108 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.config.FlywayConfig;
+import com.example.flightrebooking.config.MigrationProperties;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.exception.FlywayValidateException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "rebooking.migrations.skip=true")
+@Testcontainers
+class MigrationSkipIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    /** The first instance of the release, started without skipping, has migrated the schema. */
+    @BeforeAll
+    static void migrateAsFirstInstance() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private FlywayMigrationStrategy migrationStrategy;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Integer originalChecksum;
+
+    @AfterEach
+    void restoreHistory() {
+        if (originalChecksum != null) {
+            jdbcTemplate.update("UPDATE flyway_schema_history SET checksum = ? WHERE version = '1'", originalChecksum);
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('skipped_history') IS NOT NULL", Boolean.class))) {
+            jdbcTemplate.execute("INSERT INTO flyway_schema_history SELECT * FROM skipped_history");
+            jdbcTemplate.execute("DROP TABLE skipped_history");
+        }
+    }
+
+    @Test
+    @DisplayName("should neither validate nor apply migrations when migrations are skipped")
+    void shouldNotRunFlyway() {
+        // An applied script that no longer matches its history row, as validation would detect
+        originalChecksum = jdbcTemplate.queryForObject(
+                "SELECT checksum FROM flyway_schema_history WHERE version = '1'", Integer.class);
+        jdbcTemplate.update("UPDATE flyway_schema_history SET checksum = ? WHERE version = '1'", originalChecksum + 1);
+        // And the latest migration made pending again, as migrating would apply
+        jdbcTemplate.execute("CREATE TABLE skipped_history AS SELECT * FROM flyway_schema_history " +
+                "WHERE installed_rank = (SELECT max(installed_rank) FROM flyway_schema_history)");
+        Integer applied = jdbcTemplate.queryForObject("SELECT count(*) FROM flyway_schema_history", Integer.class);
+        jdbcTemplate.update("DELETE FROM flyway_schema_history " +
+                "WHERE installed_rank = (SELECT installed_rank FROM skipped_history)");
+
+        assertDoesNotThrow(() -> migrationStrategy.migrate(flyway));
+        assertEquals(applied - 1,
+                jdbcTemplate.queryForObject("SELECT count(*) FROM flyway_schema_history", Integer.class));
+
+        FlywayMigrationStrategy migrating = new FlywayConfig()
+                .shardedMigrationStrategy(shardRoutingDataSource, new MigrationProperties(false));
+        assertThrows(FlywayValidateException.class, () -> migrating.migrate(flyway));
+    }
+
+    @Test
+    @DisplayName("should start without Hibernate schema validation when migrations are skipped")
+    void shouldSkipSchemaValidation() {
+        assertEquals("none", entityManagerFactory.getProperties().get("hibernate.hbm2ddl.auto"));
+    }
+}
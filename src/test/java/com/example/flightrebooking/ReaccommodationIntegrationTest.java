@@ -0,0 +1,157 @@
+package com.example.flightrebooking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReaccommodationIntegrationTest {
+
+    // NZ101 (BK-001) and NZ401 (BK-004), both AKL-WLG
+    private static final String NZ101 = "00000000-0000-0000-0000-000000000001";
+    private static final String NZ401 = "00000000-0000-0000-0000-000000000009";
+    // Later the same day: 14:00 and 16:00
+    private static final String NZ103 = "00000000-0000-0000-0000-000000000002";
+    private static final String NZ403 = "00000000-0000-0000-0000-000000000010";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @Test
+    @DisplayName("should plan the assignment with the highest total score rather than first come first served")
+    void shouldPlanBestTotalScore() throws Exception {
+        // BK-001 first would take NZ103 (70) and leave BK-004 NZ403 (80); the other way round scores 60 + 100
+        plan(1, 1)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightIds", contains(NZ101, NZ401)))
+            .andExpect(jsonPath("$.bookings").value(2))
+            .andExpect(jsonPath("$.totalScore").value(160))
+            .andExpect(jsonPath("$.assignments[*].bookingReference", contains("BK-001", "BK-004")))
+            .andExpect(jsonPath("$.assignments[*].selectedFlightId", contains(NZ403, NZ103)))
+            .andExpect(jsonPath("$.assignments[*].score", contains(60, 100)))
+            .andExpect(jsonPath("$.assignments[0].flight.flightNumber").value("NZ403"))
+            .andExpect(jsonPath("$.unassigned", empty()));
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM bookings WHERE reference IN ('BK-001', 'BK-004') AND status = 'DISRUPTED'",
+            Integer.class));
+    }
+
+    @Test
+    @DisplayName("should leave bookings unassigned when seats run out")
+    void shouldRespectSeats() throws Exception {
+        plan(1, 0)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalScore").value(100))
+            .andExpect(jsonPath("$.assignments[*].bookingReference", contains("BK-004")))
+            .andExpect(jsonPath("$.unassigned", contains("BK-001")));
+    }
+
+    @Test
+    @DisplayName("should commit a plan sent back as is and replay it for the same key")
+    void shouldCommitPlan() throws Exception {
+        String plan = plan(1, 1).andReturn().getResponse().getContentAsString();
+        UUID idempotencyKey = UUID.randomUUID();
+
+        commit(idempotencyKey, plan)
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-001", "BK-004")))
+            .andExpect(jsonPath("$.bookings[*].newFlight.flightId", contains(NZ403, NZ103)));
+
+        assertEquals(NZ403, jdbcTemplate.queryForObject(
+            "SELECT rebooked_flight_id::text FROM bookings WHERE reference = 'BK-001' AND status = 'REBOOKED'",
+            String.class));
+        assertEquals(NZ103, jdbcTemplate.queryForObject(
+            "SELECT rebooked_flight_id::text FROM bookings WHERE reference = 'BK-004' AND status = 'REBOOKED'",
+            String.class));
+
+        commit(idempotencyKey, plan)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-001", "BK-004")));
+
+        // Nothing left to plan
+        plan(1, 1)
+            .andExpect(jsonPath("$.bookings").value(0))
+            .andExpect(jsonPath("$.assignments", empty()));
+    }
+
+    @Test
+    @DisplayName("should reject a commit for a booking that is no longer disrupted")
+    void shouldRejectStaleCommit() throws Exception {
+        jdbcTemplate.update("UPDATE bookings SET status = 'CONFIRMED' WHERE reference = 'BK-001'");
+
+        commit(UUID.randomUUID(), "{\"assignments\": [{\"bookingReference\": \"BK-001\", \"selectedFlightId\": \""
+                + NZ403 + "\"}]}")
+            .andExpect(status().isConflict());
+
+        commit(UUID.randomUUID(), "{\"assignments\": [" +
+                "{\"bookingReference\": \"BK-004\", \"selectedFlightId\": \"" + NZ103 + "\"}, " +
+                "{\"bookingReference\": \"BK-004\", \"selectedFlightId\": \"" + NZ403 + "\"}]}")
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/reaccommodation:plan")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"flightIds\": [], \"defaultSeatsAvailable\": 1}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions plan(int seatsOnNz103, int seatsOnNz403) throws Exception {
+        return mockMvc.perform(post("/api/v1/reaccommodation:plan")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"flightIds\": [\"" + NZ101 + "\", \"" + NZ401 + "\"], " +
+                     "\"defaultSeatsAvailable\": 0, " +
+                     "\"seatsAvailable\": {\"" + NZ103 + "\": " + seatsOnNz103 + ", \"" + NZ403 + "\": " + seatsOnNz403 + "}}"));
+    }
+
+    private ResultActions commit(UUID idempotencyKey, String body) throws Exception {
+        return mockMvc.perform(post("/api/v1/reaccommodation:commit")
+            .header("Idempotency-Key", idempotencyKey.toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body));
+    }
+}
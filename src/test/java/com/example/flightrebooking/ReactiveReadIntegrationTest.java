@@ -0,0 +1,161 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.reactive.ReactiveReadServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"rebooking.reactive-reads.enabled=true", "rebooking.reactive-reads.port=0"})
+@AutoConfigureMockMvc
+@Testcontainers
+class ReactiveReadIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.update("DELETE FROM rebooking_audit");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004', 'BK-CONN')");
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE reference = 'BK-CONN'", Integer.class) > 0) {
+            return;
+        }
+        // A booking whose best option is a connection, as in ConnectingOptionsIntegrationTest
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content("""
+                    flight_number,origin,destination,scheduled_departure,scheduled_arrival
+                    NZ601,CHC,ZQN,2026-06-20T08:00:00Z,2026-06-20T09:10:00Z
+                    NZ603,CHC,ZQN,2026-06-21T08:00:00Z,2026-06-21T09:10:00Z
+                    NZ521,CHC,AKL,2026-06-20T09:00:00Z,2026-06-20T10:25:00Z
+                    NZ615,AKL,ZQN,2026-06-20T11:00:00Z,2026-06-20T12:50:00Z
+                    NZ617,AKL,ZQN,2026-06-20T12:00:00Z,2026-06-20T13:50:00Z
+                    """))
+            .andExpect(status().isOk());
+        jdbcTemplate.update("INSERT INTO bookings (id, reference, status, passenger_name, original_flight_id) " +
+            "SELECT '30000000-0000-0000-0000-000000000001', 'BK-CONN', 'DISRUPTED', 'Aroha Ngata', id " +
+            "FROM flights WHERE flight_number = 'NZ601'");
+        jdbcTemplate.update("INSERT INTO disruptions (id, booking_id, type, reason_code, reason_description, occurred_at) " +
+            "VALUES ('30000000-0000-0000-0000-000000000002', '30000000-0000-0000-0000-000000000001', " +
+            "'CANCELLATION', 'WX', 'Weather', '2026-06-20 06:00:00+00')");
+    }
+
+    @Test
+    @DisplayName("should return the booking as the servlet endpoint does")
+    void shouldReturnSameBooking() throws Exception {
+        for (String path : new String[] {"/api/v1/bookings/BK-001", "/api/v1/bookings/BK-005",
+                "/api/v1/bookings/BK-CONN"}) {
+            assertSameResponse(path);
+        }
+        assertEquals("\"1\"", reactive("/api/v1/bookings/BK-001").headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("should answer 304 when the client already has the booking's version")
+    void shouldHonourIfNoneMatch() throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/api/v1/bookings/BK-001"))
+            .header("If-None-Match", "\"1\"").build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(304, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("should return the same rebooking options, connections and pages as the servlet endpoint")
+    void shouldReturnSameOptions() throws Exception {
+        assertSameResponse("/api/v1/bookings/BK-001/rebooking-options");
+        assertSameResponse("/api/v1/bookings/BK-003/rebooking-options?sameDayOnly=true");
+        assertSameResponse("/api/v1/bookings/BK-CONN/rebooking-options");
+
+        JsonNode firstPage = objectMapper.readTree(reactive("/api/v1/bookings/BK-001/rebooking-options?limit=1").body());
+        String cursor = firstPage.get("nextCursor").asText();
+        assertSameResponse("/api/v1/bookings/BK-001/rebooking-options?limit=1&cursor=" + cursor);
+    }
+
+    @Test
+    @DisplayName("should return the same problems as the servlet endpoint")
+    void shouldReturnSameProblems() throws Exception {
+        assertSameResponse("/api/v1/bookings/BK-999");
+        assertSameResponse("/api/v1/bookings/BK-002/rebooking-options");
+        assertSameResponse("/api/v1/bookings/bk!1/rebooking-options");
+        assertSameResponse("/api/v1/bookings/BK-001/rebooking-options?limit=51");
+        assertSameResponse("/api/v1/bookings/BK-001/rebooking-options?limit=many");
+        assertSameResponse("/api/v1/bookings/BK-001/rebooking-options?cursor=not-a-cursor");
+
+        HttpResponse<String> notFound = reactive("/api/v1/bookings/BK-999");
+        assertEquals(404, notFound.statusCode());
+        assertEquals("application/problem+json", notFound.headers().firstValue("Content-Type").orElseThrow());
+    }
+
+    private void assertSameResponse(String path) throws Exception {
+        MvcResult servlet = mockMvc.perform(get(path)).andReturn();
+        HttpResponse<String> reactive = reactive(path);
+
+        assertEquals(servlet.getResponse().getStatus(), reactive.statusCode(), path);
+        assertEquals(comparable(servlet.getResponse().getContentAsString()), comparable(reactive.body()), path);
+    }
+
+    /** The body without the time it was generated at, which differs between any two reads. */
+    private JsonNode comparable(String body) throws Exception {
+        JsonNode json = objectMapper.readTree(body);
+        if (json instanceof ObjectNode object) {
+            object.remove("generatedAt");
+        }
+        return json;
+    }
+
+    private HttpResponse<String> reactive(String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + reactiveReadServer.port() + path);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.routing.ReadRoutingContext;
+import com.example.flightrebooking.routing.ReadRoutingDataSource;
+import com.example.flightrebooking.routing.ReplicaLagMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against a primary plus a hot-standby streaming replica built from the same
+ * scripts docker-compose uses.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReadReplicaRoutingIntegrationTest {
+
+    static Network network = Network.newNetwork();
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight")
+            .withNetwork(network)
+            .withNetworkAliases("postgres")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "wal_level=replica", "-c", "max_wal_senders=5")
+            .withCopyFileToContainer(MountableFile.forHostPath("docker/postgres/primary-init.sh", 0755),
+                    "/docker-entrypoint-initdb.d/primary-init.sh");
+
+    @Container
+    static GenericContainer<?> replica = new GenericContainer<>("postgres:16-alpine")
+            .withNetwork(network)
+            .withEnv("PRIMARY_HOST", "postgres")
+            .withExposedPorts(5432)
+            .withCopyFileToContainer(MountableFile.forHostPath("docker/postgres/replica-entrypoint.sh", 0755),
+                    "/usr/local/bin/replica-entrypoint.sh")
+            .withCreateContainerCmdModifier(cmd -> cmd.withEntrypoint("/usr/local/bin/replica-entrypoint.sh"))
+            .dependsOn(primary)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("rebooking.replicas.urls", ReadReplicaRoutingIntegrationTest::replicaUrl);
+    }
+
+    static String replicaUrl() {
+        return "jdbc:postgresql://" + replica.getHost() + ":" + replica.getMappedPort(5432) + "/flightrebooking";
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadRoutingDataSource readRoutingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.execute("DELETE FROM rebooking_audit WHERE booking_id <> '10000000-0000-0000-0000-000000000005'");
+        jdbcTemplate.execute("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+        lagMonitor.checkLag();
+    }
+
+    @Test
+    @DisplayName("read-only transactions should be served by the replica")
+    void readOnlyTransactionsShouldUseReplica() {
+        assertTrue(readRoutingDataSource.getReplicas().get(0).isHealthy());
+
+        assertTrue(inRecovery(), "readOnly transaction should run on the hot standby");
+    }
+
+    @Test
+    @DisplayName("read-write transactions and pinned reads should use the primary")
+    void writesAndPinnedReadsShouldUsePrimary() {
+        Boolean writeInRecovery = jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class);
+
+        assertFalse(writeInRecovery);
+        assertFalse(ReadRoutingContext.onPrimary(this::inRecovery));
+    }
+
+    @Test
+    @DisplayName("should fall back to the primary when the replica is too far behind")
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        readRoutingDataSource.getReplicas().get(0).update(false, 60);
+
+        assertFalse(inRecovery());
+    }
+
+    @Test
+    @DisplayName("should fall back to the primary when the replica stops streaming, though it has replayed all it received")
+    void shouldFallBackToPrimaryWhenReplicaDisconnected() throws Exception {
+        ReadRoutingDataSource.Replica replicaPool = readRoutingDataSource.getReplicas().get(0);
+        try (Connection conn = replicaConnection();
+             Statement stmt = conn.createStatement()) {
+            String primaryConninfo = queryForString(stmt, "SHOW primary_conninfo");
+            stmt.execute("ALTER SYSTEM SET primary_conninfo = ''");
+            stmt.execute("SELECT pg_reload_conf()");
+            try {
+                // Receive and replay positions freeze together once the receiver has gone
+                awaitReplica(stmt, "SELECT NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver) " +
+                        "AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()");
+                lagMonitor.checkLag();
+
+                assertFalse(replicaPool.isHealthy());
+                assertFalse(inRecovery());
+            } finally {
+                stmt.execute("ALTER SYSTEM SET primary_conninfo = '" + primaryConninfo.replace("'", "''") + "'");
+                stmt.execute("SELECT pg_reload_conf()");
+                awaitReplica(stmt, "SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming')");
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!replicaPool.isHealthy() && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+            lagMonitor.checkLag();
+        }
+        assertTrue(replicaPool.isHealthy(), "Replica should rejoin once it streams and replays a heartbeat");
+    }
+
+    @Test
+    @DisplayName("should read the rebooked state immediately after a rebook, while the replica has not replayed it")
+    void shouldReadYourWritesAfterRebook() throws Exception {
+        try (Connection conn = replicaConnection();
+             Statement stmt = conn.createStatement()) {
+            awaitReplica(stmt, "SELECT status = 'DISRUPTED' FROM bookings WHERE reference = 'BK-001'");
+            // Behind, though by less than max-lag: only read-your-writes keeps this booking on the primary
+            stmt.execute("SELECT pg_wal_replay_pause()");
+            try {
+                mockMvc.perform(post("/api/v1/bookings/BK-001/rebook")
+                                .header("Idempotency-Key", UUID.randomUUID().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"selectedFlightId\": \"00000000-0000-0000-0000-000000000009\"}"))
+                        .andExpect(status().isCreated());
+
+                assertEquals("DISRUPTED", queryForString(stmt, "SELECT status FROM bookings WHERE reference = 'BK-001'"));
+                assertTrue(readRoutingDataSource.getReplicas().get(0).isHealthy());
+                mockMvc.perform(get("/api/v1/bookings/BK-001"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.status").value("REBOOKED"))
+                        .andExpect(jsonPath("$.rebookedFlight.flightNumber").value("NZ401"));
+            } finally {
+                stmt.execute("SELECT pg_wal_replay_resume()");
+            }
+        }
+    }
+
+    private Connection replicaConnection() throws Exception {
+        return DriverManager.getConnection(replicaUrl(), primary.getUsername(), primary.getPassword());
+    }
+
+    private static String queryForString(Statement stmt, String sql) throws Exception {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static void awaitReplica(Statement stmt, String condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!"t".equals(queryForString(stmt, condition))) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for: " + condition);
+            Thread.sleep(100);
+        }
+    }
+
+    private boolean inRecovery() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return Boolean.TRUE.equals(readOnly.execute(status ->
+                jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+}
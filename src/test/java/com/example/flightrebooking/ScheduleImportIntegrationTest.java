@@ -0,0 +1,143 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.schedule.Route;
+import com.example.flightrebooking.schedule.ScheduleChangeListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ScheduleImportIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    static final List<Set<Route>> notifications = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class ListenerConfig {
+        @Bean
+        ScheduleChangeListener recordingListener() {
+            return notifications::add;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("should insert new legs, update changed legs, skip unchanged and invalid rows")
+    void shouldMergeSchedule() throws Exception {
+        String csv = """
+            flight_number,origin,destination,scheduled_departure
+            NZ101,AKL,WLG,2026-06-15T08:00:00Z
+            NZ103,AKL,WLG,2026-06-15T15:30:00Z
+            NZ901,AKL,ZQN,2029-01-10T07:00:00Z
+            NZ902,AKL,ZQN,not-a-time
+            """;
+
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(4))
+            .andExpect(jsonPath("$.rowsAccepted").value(3))
+            .andExpect(jsonPath("$.rowsRejected").value(1))
+            .andExpect(jsonPath("$.flightsInserted").value(1))
+            .andExpect(jsonPath("$.flightsUpdated").value(1))
+            .andExpect(jsonPath("$.routesChanged").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(5))
+            .andExpect(jsonPath("$.errors[0].message", containsString("scheduled_departure")));
+
+        // Same flight row, moved within its operating day
+        assertEquals("2026-06-15 15:30:00+00", jdbcTemplate.queryForObject(
+            "SELECT to_char(scheduled_departure AT TIME ZONE 'UTC', 'YYYY-MM-DD HH24:MI:SS') || '+00' " +
+            "FROM flights WHERE id = '00000000-0000-0000-0000-000000000002'", String.class));
+        // New leg lands in a partition created for it
+        assertEquals("flights_2029_01", jdbcTemplate.queryForObject(
+            "SELECT tableoid::regclass::text FROM flights WHERE flight_number = 'NZ901'", String.class));
+        assertEquals(Set.of(new Route("AKL", "WLG"), new Route("AKL", "ZQN")), notifications.getLast());
+
+        // Re-importing the same file changes nothing
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightsInserted").value(0))
+            .andExpect(jsonPath("$.flightsUpdated").value(0))
+            .andExpect(jsonPath("$.routesChanged").value(0));
+    }
+
+    @Test
+    @DisplayName("should keep the legs of a multi-stop flight number apart")
+    void shouldMatchLegsByOrigin() throws Exception {
+        String csv = """
+            flight_number,origin,destination,scheduled_departure,scheduled_arrival
+            NZ501,AKL,WLG,2029-02-01T07:00:00Z,2029-02-01T08:05:00Z
+            NZ501,WLG,CHC,2029-02-01T09:00:00Z,2029-02-01T09:50:00Z
+            """;
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightsInserted").value(2))
+            .andExpect(jsonPath("$.flightsUpdated").value(0));
+
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightsInserted").value(0))
+            .andExpect(jsonPath("$.flightsUpdated").value(0));
+
+        // Moving the second leg leaves the first alone
+        mockMvc.perform(post("/api/v1/schedules:import")
+                .contentType("text/csv")
+                .content("""
+                    flight_number,origin,destination,scheduled_departure,scheduled_arrival
+                    NZ501,WLG,CHC,2029-02-01T10:00:00Z,2029-02-01T10:50:00Z
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.flightsInserted").value(0))
+            .andExpect(jsonPath("$.flightsUpdated").value(1));
+
+        assertEquals(List.of("AKL 07:00", "WLG 10:00"), jdbcTemplate.queryForList(
+            "SELECT origin || ' ' || to_char(scheduled_departure AT TIME ZONE 'UTC', 'HH24:MI') " +
+            "FROM flights WHERE flight_number = 'NZ501' ORDER BY scheduled_departure", String.class));
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.flightrebooking;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+    "rebooking.seat-holds.duration=2s",
+    "rebooking.seat-holds.sweep-interval=500ms"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+class SeatHoldIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void resetData() {
+        jdbcTemplate.update("DELETE FROM seat_holds");
+        jdbcTemplate.update("DELETE FROM seat_inventory");
+        jdbcTemplate.update("DELETE FROM rebooking_audit WHERE booking_id IN " +
+            "(SELECT id FROM bookings WHERE reference IN ('BK-001', 'BK-003', 'BK-004'))");
+        jdbcTemplate.update("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, " +
+            "rebooked_connecting_flight_ids = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+    }
+
+    @Test
+    @DisplayName("should hold the last seat for one booking and extend it when held again")
+    void shouldHoldSeat() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+        setSeats(flightId, 1);
+
+        String body = hold("BK-001", flightId)
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Location", startsWith("/api/v1/bookings/BK-001/seat-holds/")))
+            .andExpect(jsonPath("$.bookingReference").value("BK-001"))
+            .andExpect(jsonPath("$.flightId").value(flightId))
+            .andReturn().getResponse().getContentAsString();
+        assertEquals(0, seats(flightId));
+
+        hold("BK-004", flightId)
+            .andExpect(status().isConflict());
+
+        hold("BK-001", flightId)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.holdId").value((String) JsonPath.read(body, "$.holdId")));
+        assertEquals(0, seats(flightId));
+    }
+
+    @Test
+    @DisplayName("should replace the booking's hold on another flight and keep it when that flight is full")
+    void shouldReplaceHold() throws Exception {
+        List<String> options = directOptions("BK-001");
+        assertTrue(options.size() >= 3, "BK-001 needs three direct options");
+        String first = options.get(0);
+        String second = options.get(1);
+        String full = options.get(2);
+        setSeats(first, 1);
+        setSeats(second, 1);
+        setSeats(full, 0);
+
+        hold("BK-001", first).andExpect(status().isCreated());
+        String body = hold("BK-001", second)
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        assertEquals(1, seats(first));
+        assertEquals(0, seats(second));
+
+        hold("BK-001", full).andExpect(status().isConflict());
+        assertEquals(List.of((String) JsonPath.read(body, "$.holdId")),
+            jdbcTemplate.queryForList("SELECT id::text FROM seat_holds WHERE booking_reference = 'BK-001'",
+                String.class));
+        assertEquals(0, seats(second));
+    }
+
+    @Test
+    @DisplayName("should rebook onto the held seat and refuse a rebook when no seat is left")
+    void shouldRebookWithHold() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+        setSeats(flightId, 1);
+
+        hold("BK-001", flightId).andExpect(status().isCreated());
+        rebook("BK-001", flightId).andExpect(status().isCreated());
+        assertEquals(0, seats(flightId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM seat_holds", Integer.class));
+
+        rebook("BK-004", flightId)
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.detail").value(containsString(flightId)));
+        assertEquals("DISRUPTED", jdbcTemplate.queryForObject(
+            "SELECT status::text FROM bookings WHERE reference = 'BK-004'", String.class));
+        assertEquals(0, seats(flightId));
+    }
+
+    @Test
+    @DisplayName("should take a free seat for a rebook without a hold")
+    void shouldRebookWithoutHold() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+        setSeats(flightId, 2);
+
+        rebook("BK-004", flightId).andExpect(status().isCreated());
+
+        assertEquals(1, seats(flightId));
+    }
+
+    @Test
+    @DisplayName("should give the seat back when a hold is released")
+    void shouldReleaseHold() throws Exception {
+        String flightId = sharedOption("BK-001");
+        setSeats(flightId, 1);
+
+        String holdId = JsonPath.read(hold("BK-001", flightId).andReturn().getResponse().getContentAsString(),
+            "$.holdId");
+        assertEquals(0, seats(flightId));
+
+        mockMvc.perform(delete("/api/v1/bookings/BK-001/seat-holds/" + holdId))
+            .andExpect(status().isNoContent());
+        assertEquals(1, seats(flightId));
+
+        mockMvc.perform(delete("/api/v1/bookings/BK-001/seat-holds/" + holdId))
+            .andExpect(status().isNotFound());
+        assertEquals(1, seats(flightId));
+    }
+
+    @Test
+    @DisplayName("should give the seat back when a hold expires")
+    void shouldExpireHold() throws Exception {
+        String flightId = sharedOption("BK-001");
+        setSeats(flightId, 1);
+
+        hold("BK-001", flightId).andExpect(status().isCreated());
+        assertEquals(0, seats(flightId));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (seats(flightId) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, seats(flightId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM seat_holds", Integer.class));
+
+        rebook("BK-001", flightId).andExpect(status().isCreated());
+        assertEquals(0, seats(flightId));
+    }
+
+    @Test
+    @DisplayName("should sweep expired holds no timer covers, skipping those locked elsewhere")
+    void shouldSweepUnscheduledHolds() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+        setSeats(flightId, 0);
+        // Placed by an instance that has since stopped: this one never scheduled them
+        jdbcTemplate.update("INSERT INTO seat_holds (id, booking_reference, flight_id, expires_at) VALUES " +
+            "(gen_random_uuid(), 'BK-001', ?::uuid, now() - interval '1 minute'), " +
+            "(gen_random_uuid(), 'BK-004', ?::uuid, now() - interval '1 minute')", flightId, flightId);
+
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            other.setAutoCommit(false);
+            statement.execute("SELECT 1 FROM seat_holds WHERE booking_reference = 'BK-004' FOR UPDATE");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (seats(flightId) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, seats(flightId));
+            assertEquals(List.of("BK-004"),
+                jdbcTemplate.queryForList("SELECT booking_reference FROM seat_holds", String.class));
+            other.rollback();
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (seats(flightId) == 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(2, seats(flightId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM seat_holds", Integer.class));
+    }
+
+    @Test
+    @DisplayName("should hold and rebook without limit on a flight with no inventory")
+    void shouldNotLimitUnmanagedFlight() throws Exception {
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        hold("BK-001", flightId).andExpect(status().isCreated());
+        rebook("BK-004", flightId).andExpect(status().isCreated());
+        rebook("BK-001", flightId).andExpect(status().isCreated());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM seat_inventory", Integer.class));
+    }
+
+    @Test
+    @DisplayName("should refuse a hold on a flight that is not a direct option of the booking")
+    void shouldRejectHoldOnOtherFlight() throws Exception {
+        String flightId = sharedOption("BK-001");
+
+        hold("BK-001", "00000000-0000-0000-0000-000000000005")
+            .andExpect(status().isBadRequest());
+        hold("BK-002", flightId)
+            .andExpect(status().isConflict());
+        hold("BK-999", flightId)
+            .andExpect(status().isNotFound());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM seat_holds", Integer.class));
+    }
+
+    private ResultActions hold(String reference, String flightId) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/" + reference + "/seat-holds")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"flightId\": \"" + flightId + "\"}"));
+    }
+
+    private ResultActions rebook(String reference, String flightId) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/" + reference + "/rebook")
+            .header("Idempotency-Key", UUID.randomUUID().toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"selectedFlightId\": \"" + flightId + "\"}"));
+    }
+
+    private void setSeats(String flightId, int seats) {
+        jdbcTemplate.update("INSERT INTO seat_inventory (flight_id, seats_available) VALUES (?::uuid, ?)",
+            flightId, seats);
+    }
+
+    private int seats(String flightId) {
+        return jdbcTemplate.queryForObject("SELECT seats_available FROM seat_inventory WHERE flight_id = ?::uuid",
+            Integer.class, flightId);
+    }
+
+    private List<String> directOptions(String reference) throws Exception {
+        String body = mockMvc.perform(get("/api/v1/bookings/" + reference + "/rebooking-options")
+                .param("limit", "50"))
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.options[?(@.connectingFlights.length() == 0)].flight.flightId");
+    }
+
+    private String sharedOption(String... references) throws Exception {
+        List<String> shared = null;
+        for (String reference : references) {
+            List<String> direct = directOptions(reference);
+            if (shared == null) {
+                shared = new ArrayList<>(direct);
+            } else {
+                shared.retainAll(direct);
+            }
+        }
+        assertFalse(shared.isEmpty(), "no direct option shared by " + String.join(", ", references));
+        return shared.getFirst();
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.sharding.ShardRouter;
+import com.example.flightrebooking.sharding.ShardRoutingDataSource;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ShardingIntegrationTest {
+
+    private static final List<String> DISRUPTED = List.of("BK-001", "BK-003", "BK-004");
+
+    // First scored option for each disrupted seed booking
+    private static final String BK_001_OPTION = "00000000-0000-0000-0000-000000000009";
+    private static final String BK_003_OPTION = "00000000-0000-0000-0000-000000000007";
+    private static final String BK_004_OPTION = "00000000-0000-0000-0000-000000000002";
+
+    @Container
+    static PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @Container
+    static PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", shard0::getJdbcUrl);
+        registry.add("spring.datasource.username", shard0::getUsername);
+        registry.add("spring.datasource.password", shard0::getPassword);
+        registry.add("rebooking.sharding.additional-shard-urls", shard1::getJdbcUrl);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetData() {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard.writePool());
+            jdbc.execute("DELETE FROM rebooking_audit WHERE booking_id <> '10000000-0000-0000-0000-000000000005'");
+            jdbc.execute("UPDATE bookings SET status = 'DISRUPTED', rebooked_flight_id = NULL, version = 1 WHERE reference IN ('BK-001', 'BK-003', 'BK-004')");
+        }
+    }
+
+    @Test
+    @DisplayName("Flyway should migrate every shard")
+    void shouldMigrateEveryShard() {
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            Integer flights = new JdbcTemplate(shard.writePool())
+                    .queryForObject("SELECT count(*) FROM flights", Integer.class);
+            assertEquals(10, flights, "Shard " + shard.index() + " should have the flight schedule");
+        }
+    }
+
+    @Test
+    @DisplayName("rebook should write only to the booking's home shard")
+    void shouldWriteToHomeShard() throws Exception {
+        rebook("BK-001", BK_001_OPTION, UUID.randomUUID()).andExpect(status().isCreated());
+
+        int home = shardRouter.shardFor("BK-001");
+        for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+            String status = new JdbcTemplate(shard.writePool())
+                    .queryForObject("SELECT status::text FROM bookings WHERE reference = 'BK-001'", String.class);
+            assertEquals(shard.index() == home ? "REBOOKED" : "DISRUPTED", status);
+        }
+
+        mockMvc.perform(get("/api/v1/bookings/BK-001"))
+                .andExpect(jsonPath("$.status").value("REBOOKED"));
+    }
+
+    @Test
+    @DisplayName("should reject an idempotency key reused for a booking on another shard")
+    void shouldRejectKeyReusedAcrossShards() throws Exception {
+        String first = DISRUPTED.stream()
+                .filter(ref -> shardRouter.shardFor(ref) == 0).findFirst().orElse(null);
+        String second = DISRUPTED.stream()
+                .filter(ref -> shardRouter.shardFor(ref) == 1).findFirst().orElse(null);
+        assumeTrue(first != null && second != null, "Seed bookings all hash to one shard");
+
+        UUID key = UUID.randomUUID();
+        rebook(first, optionFor(first), key).andExpect(status().isCreated());
+
+        rebook(second, optionFor(second), key)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(containsString("different booking")));
+    }
+
+    @Test
+    @DisplayName("should report a schedule import committed on only some shards and complete it on re-run")
+    void shouldCompleteIncompleteScheduleImport() throws Exception {
+        String csv = """
+            flight_number,origin,destination,scheduled_departure
+            NZ777,AKL,WLG,2026-06-20T09:00:00Z
+            """;
+        List<ShardRoutingDataSource.Shard> shards = shardRoutingDataSource.getShards();
+        JdbcTemplate first = new JdbcTemplate(shards.get(0).writePool());
+        JdbcTemplate second = new JdbcTemplate(shards.get(1).writePool());
+        try {
+            // Refuses the second shard's commit once the first shard has committed
+            second.execute("CREATE FUNCTION refuse_commit() RETURNS trigger LANGUAGE plpgsql AS " +
+                           "$$ BEGIN RAISE EXCEPTION 'commit refused'; END $$");
+            second.execute("CREATE CONSTRAINT TRIGGER refuse_commit AFTER INSERT ON flights " +
+                           "DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION refuse_commit()");
+
+            mockMvc.perform(post("/api/v1/schedules:import").contentType("text/csv").content(csv))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.committedShards[0]").value(0))
+                    .andExpect(jsonPath("$.failedShard").value(1));
+            assertEquals(1, countLegs(first, "NZ777"));
+            assertEquals(0, countLegs(second, "NZ777"));
+
+            second.execute("DROP TRIGGER refuse_commit ON flights");
+            second.execute("DROP FUNCTION refuse_commit()");
+
+            mockMvc.perform(post("/api/v1/schedules:import").contentType("text/csv").content(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.flightsInserted").value(1));
+            String sql = "SELECT id FROM flights WHERE flight_number = 'NZ777'";
+            assertEquals(first.queryForObject(sql, UUID.class), second.queryForObject(sql, UUID.class),
+                    "the lagging shard should take the leg's id from the shard that committed");
+        } finally {
+            second.execute("DROP TRIGGER IF EXISTS refuse_commit ON flights");
+            second.execute("DROP FUNCTION IF EXISTS refuse_commit()");
+            for (ShardRoutingDataSource.Shard shard : shards) {
+                new JdbcTemplate(shard.writePool()).update("DELETE FROM flights WHERE flight_number = 'NZ777'");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should rebook a group whose bookings live on different shards")
+    void shouldRebookGroupAcrossShards() throws Exception {
+        assumeTrue(shardRouter.shardFor("BK-001") != shardRouter.shardFor("BK-004"), "BK-001 and BK-004 share a shard");
+        String flightId = sharedOption("BK-001", "BK-004");
+        UUID key = UUID.randomUUID();
+
+        groupRebook(key, flightId, "BK-004", "BK-001")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-004", "BK-001")));
+
+        for (String reference : List.of("BK-001", "BK-004")) {
+            int home = shardRouter.shardFor(reference);
+            for (ShardRoutingDataSource.Shard shard : shardRoutingDataSource.getShards()) {
+                assertEquals(shard.index() == home ? "REBOOKED" : "DISRUPTED", statusOn(shard, reference));
+            }
+        }
+        groupRebook(key, flightId, "BK-001", "BK-004")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings[*].bookingReference", contains("BK-001", "BK-004")));
+    }
+
+    @Test
+    @DisplayName("should rebook none of a group spanning shards when a booking on another shard is not eligible")
+    void shouldRebookNoneAcrossShardsWhenOneFails() throws Exception {
+        assumeTrue(shardRouter.shardFor("BK-001") != shardRouter.shardFor("BK-002"), "BK-001 and BK-002 share a shard");
+        String flightId = sharedOption("BK-001", "BK-004");
+
+        groupRebook(UUID.randomUUID(), flightId, "BK-001", "BK-002")
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value(containsString("BK-002")));
+
+        ShardRoutingDataSource.Shard home = shardRoutingDataSource.getShards().get(shardRouter.shardFor("BK-001"));
+        assertEquals("DISRUPTED", statusOn(home, "BK-001"));
+        assertEquals(0, new JdbcTemplate(home.writePool()).queryForObject(
+                "SELECT count(*) FROM rebooking_audit a JOIN bookings b ON b.id = a.booking_id " +
+                "WHERE b.reference = 'BK-001'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("should report a group rebook committed on only some shards and complete it on retry")
+    void shouldCompleteIncompleteGroupRebook() throws Exception {
+        assumeTrue(shardRouter.shardFor("BK-001") == 0 && shardRouter.shardFor("BK-004") == 1,
+                "BK-001 and BK-004 are not on shards 0 and 1");
+        String flightId = sharedOption("BK-001", "BK-004");
+        UUID key = UUID.randomUUID();
+        // Shard 0's part commits last, after shard 1's
+        JdbcTemplate first = new JdbcTemplate(shardRoutingDataSource.getShards().get(0).writePool());
+        try {
+            first.execute("CREATE FUNCTION refuse_commit() RETURNS trigger LANGUAGE plpgsql AS " +
+                          "$$ BEGIN RAISE EXCEPTION 'commit refused'; END $$");
+            first.execute("CREATE CONSTRAINT TRIGGER refuse_commit AFTER INSERT ON rebooking_audit " +
+                          "DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION refuse_commit()");
+
+            groupRebook(key, flightId, "BK-001", "BK-004")
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.committedReferences", contains("BK-004")));
+            assertEquals("DISRUPTED", statusOn(shardRoutingDataSource.getShards().get(0), "BK-001"));
+            assertEquals("REBOOKED", statusOn(shardRoutingDataSource.getShards().get(1), "BK-004"));
+
+            first.execute("DROP TRIGGER refuse_commit ON rebooking_audit");
+            first.execute("DROP FUNCTION refuse_commit()");
+
+            groupRebook(key, flightId, "BK-001", "BK-004")
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.bookings[*].status", everyItem(is("REBOOKED"))));
+            assertEquals("REBOOKED", statusOn(shardRoutingDataSource.getShards().get(0), "BK-001"));
+        } finally {
+            first.execute("DROP TRIGGER IF EXISTS refuse_commit ON rebooking_audit");
+            first.execute("DROP FUNCTION IF EXISTS refuse_commit()");
+        }
+    }
+
+    @Test
+    @DisplayName("should re-read an event stream only for the flight change announced by its booking's shard")
+    void shouldRereadStreamOnceForFlightOnEveryShard() throws Exception {
+        int home = shardRouter.shardFor("BK-001");
+        List<ShardRoutingDataSource.Shard> shards = shardRoutingDataSource.getShards();
+        String insert = "INSERT INTO flights (id, flight_number, origin, destination, scheduled_departure) " +
+                        "VALUES ('00000000-0000-0000-0000-000000000099', 'NZ999', 'AKL', 'WLG', '2026-06-15 10:00:00+00')";
+        mockMvc.perform(get("/api/v1/bookings/BK-001/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        try {
+            Thread.sleep(500);
+            double before = refreshes();
+
+            new JdbcTemplate(shards.get(1 - home).writePool()).update(insert);
+            Thread.sleep(1_000);
+            assertEquals(before, refreshes());
+
+            new JdbcTemplate(shards.get(home).writePool()).update(insert);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (refreshes() == before && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(before + 1, refreshes());
+        } finally {
+            for (ShardRoutingDataSource.Shard shard : shards) {
+                new JdbcTemplate(shard.writePool()).update("DELETE FROM flights WHERE flight_number = 'NZ999'");
+            }
+        }
+    }
+
+    private double refreshes() {
+        return meterRegistry.counter("rebooking.events.refreshes").count();
+    }
+
+    private static String statusOn(ShardRoutingDataSource.Shard shard, String reference) {
+        return new JdbcTemplate(shard.writePool())
+                .queryForObject("SELECT status::text FROM bookings WHERE reference = ?", String.class, reference);
+    }
+
+    private String sharedOption(String... references) throws Exception {
+        List<String> shared = null;
+        for (String reference : references) {
+            String body = mockMvc.perform(get("/api/v1/bookings/" + reference + "/rebooking-options")
+                            .param("limit", "50"))
+                    .andReturn().getResponse().getContentAsString();
+            List<String> direct = JsonPath.read(body, "$.options[?(@.connectingFlights.length() == 0)].flight.flightId");
+            if (shared == null) {
+                shared = new ArrayList<>(direct);
+            } else {
+                shared.retainAll(direct);
+            }
+        }
+        assertFalse(shared.isEmpty(), "no direct option shared by " + String.join(", ", references));
+        return shared.getFirst();
+    }
+
+    private ResultActions groupRebook(UUID key, String flightId, String... references) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings:groupRebook")
+                .header("Idempotency-Key", key.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingReferences\": [\"" + String.join("\", \"", references) + "\"], " +
+                         "\"selectedFlightId\": \"" + flightId + "\"}"));
+    }
+
+    private static int countLegs(JdbcTemplate jdbc, String flightNumber) {
+        return jdbc.queryForObject("SELECT count(*) FROM flights WHERE flight_number = ?", Integer.class, flightNumber);
+    }
+
+    private String optionFor(String reference) {
+        return switch (reference) {
+            case "BK-001" -> BK_001_OPTION;
+            case "BK-003" -> BK_003_OPTION;
+            default -> BK_004_OPTION;
+        };
+    }
+
+    private ResultActions rebook(String ref, String flightId, UUID key) throws Exception {
+        return mockMvc.perform(post("/api/v1/bookings/" + ref + "/rebook")
+                .header("Idempotency-Key", key.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"selectedFlightId\": \"" + flightId + "\"}"));
+    }
+}
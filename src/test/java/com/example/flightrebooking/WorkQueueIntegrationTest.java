@@ -0,0 +1,170 @@
+package com.example.flightrebooking;
+
+import com.example.flightrebooking.dto.WorkItemResponse;
+import com.example.flightrebooking.workqueue.WorkQueue;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class WorkQueueIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("flightrebooking")
+            .withUsername("flight")
+            .withPassword("flight");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WorkQueue workQueue;
+
+    @BeforeEach
+    void releaseAllLeases() {
+        jdbcTemplate.update("UPDATE bookings SET lease_id = NULL, lease_owner = NULL, lease_expires_at = NULL");
+    }
+
+    @Test
+    @DisplayName("should claim disrupted bookings by original departure until the queue is drained")
+    void shouldClaimInDepartureOrder() throws Exception {
+        // BK-001 departs 08:00, BK-004 12:00, BK-003 18:00; BK-002 and BK-005 are not disrupted
+        mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"agent-1\", \"limit\": 2}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[*].bookingReference", contains("BK-001", "BK-004")))
+            .andExpect(jsonPath("$.items[0].originalDeparture").value("2026-06-15T08:00:00Z"))
+            .andExpect(jsonPath("$.items[0].leaseId").isNotEmpty())
+            .andExpect(jsonPath("$.items[0].leaseExpiresAt").isNotEmpty());
+
+        mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"agent-2\", \"limit\": 2}"))
+            .andExpect(jsonPath("$.items[*].bookingReference", contains("BK-003")));
+
+        mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"agent-3\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("should hand each booking to exactly one of many concurrent workers")
+    void shouldNotClaimTwiceUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<List<WorkItemResponse>>> workers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String worker = "worker-" + i;
+                workers.add(() -> workQueue.claim(worker, 1));
+            }
+            List<String> claimed = new ArrayList<>();
+            for (Future<List<WorkItemResponse>> result : executor.invokeAll(workers)) {
+                result.get().forEach(item -> claimed.add(item.bookingReference()));
+            }
+            assertEquals(3, claimed.size());
+            assertEquals(3, claimed.stream().distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should reclaim a booking once its lease has expired")
+    void shouldReclaimExpiredLease() {
+        WorkItemResponse first = workQueue.claim("agent-1", 1).getFirst();
+        assertEquals("BK-001", first.bookingReference());
+
+        jdbcTemplate.update("UPDATE bookings SET lease_expires_at = now() - INTERVAL '1 second' WHERE reference = 'BK-001'");
+
+        WorkItemResponse second = workQueue.claim("agent-2", 1).getFirst();
+        assertEquals("BK-001", second.bookingReference());
+        assertNotEquals(first.leaseId(), second.leaseId());
+        assertEquals("agent-2",
+            jdbcTemplate.queryForObject("SELECT lease_owner FROM bookings WHERE reference = 'BK-001'", String.class));
+    }
+
+    @Test
+    @DisplayName("should renew and release only under the current lease id")
+    void shouldRenewAndReleaseLease() throws Exception {
+        String body = mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"agent-1\"}"))
+            .andReturn().getResponse().getContentAsString();
+        String leaseId = JsonPath.read(body, "$.items[0].leaseId");
+
+        mockMvc.perform(put("/api/v1/work-queue/BK-001/lease").param("leaseId", leaseId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.bookingReference").value("BK-001"))
+            .andExpect(jsonPath("$.leaseId").value(leaseId));
+
+        mockMvc.perform(put("/api/v1/work-queue/BK-001/lease").param("leaseId", UUID.randomUUID().toString()))
+            .andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/api/v1/work-queue/BK-001/lease").param("leaseId", leaseId))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(delete("/api/v1/work-queue/BK-001/lease").param("leaseId", leaseId))
+            .andExpect(status().isConflict());
+
+        // Released back to the head of the queue
+        assertEquals("BK-001", workQueue.claim("agent-2", 1).getFirst().bookingReference());
+    }
+
+    @Test
+    @DisplayName("should return 400 for an invalid claim")
+    void shouldReturn400ForInvalidClaim() throws Exception {
+        mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"\"}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/work-queue:claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"worker\": \"agent-1\", \"limit\": 500}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(put("/api/v1/work-queue/BK-001/lease").param("leaseId", "not-a-uuid"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.flightrebooking.cache;
+
+import com.example.flightrebooking.changefeed.ChangeFeed;
+import com.example.flightrebooking.config.BookingCacheProperties;
+import com.example.flightrebooking.config.ReplicaProperties;
+import com.example.flightrebooking.dto.BookingResponse;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.routing.ReadConsistency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingCacheTest {
+
+    private ChangeFeed changeFeed;
+    private ReadConsistency readConsistency;
+    private BookingCache cache;
+    private ChangeFeed.Listener bookingListener;
+    private ChangeFeed.Listener flightListener;
+    private final AtomicInteger loads = new AtomicInteger();
+    private long version = 1;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = mock(ChangeFeed.class);
+        when(changeFeed.isListening()).thenReturn(true);
+        readConsistency = new ReadConsistency(new ReplicaProperties(List.of(), Duration.ofSeconds(5),
+            Duration.ofSeconds(10), Duration.ofSeconds(2)));
+        cache = new BookingCache(new BookingCacheProperties(true, 100, Duration.ofMinutes(1)), changeFeed,
+            readConsistency, new SimpleMeterRegistry());
+
+        ArgumentCaptor<ChangeFeed.Listener> bookings = ArgumentCaptor.forClass(ChangeFeed.Listener.class);
+        verify(changeFeed).addListener(eq(ChangeFeed.BOOKING_CHANGES), bookings.capture());
+        bookingListener = bookings.getValue();
+        ArgumentCaptor<ChangeFeed.Listener> flights = ArgumentCaptor.forClass(ChangeFeed.Listener.class);
+        verify(changeFeed).addListener(eq(ChangeFeed.FLIGHT_CHANGES), flights.capture());
+        flightListener = flights.getValue();
+    }
+
+    @Test
+    @DisplayName("should serve a booking from memory until it is announced as changed")
+    void shouldServeUntilChanged() {
+        assertEquals(1L, get("BK-001").version());
+        version = 2;
+        assertEquals(1L, get("BK-001").version());
+        assertEquals(1, loads.get());
+
+        bookingListener.onChange(0, "BK-001");
+
+        assertEquals(2L, get("BK-001").version());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("should not keep a booking loaded while it was announced as changed")
+    void shouldNotKeepEntryLoadedDuringChange() {
+        cache.get("BK-001", () -> {
+            Optional<BookingResponse> read = load().get();
+            version = 2;
+            bookingListener.onChange(0, "BK-001");
+            return read;
+        });
+
+        assertEquals(2L, get("BK-001").version());
+    }
+
+    @Test
+    @DisplayName("should drop everything after missed changes and bypass memory while not listening")
+    void shouldHealAfterGap() {
+        get("BK-001");
+        get("BK-002");
+        version = 2;
+        when(changeFeed.isListening()).thenReturn(false);
+
+        assertEquals(2L, get("BK-001").version());
+        assertEquals(3, loads.get());
+
+        when(changeFeed.isListening()).thenReturn(true);
+        bookingListener.onMissedChanges();
+
+        assertEquals(2L, get("BK-002").version());
+        assertEquals(2L, get("BK-002").version());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("should drop bookings on a route when one of its flights changes")
+    void shouldDropBookingsOnChangedRoute() {
+        get("BK-001");
+        version = 2;
+
+        flightListener.onChange(0, "WLG-AKL");
+        assertEquals(1L, get("BK-001").version());
+
+        flightListener.onChange(0, "AKL-WLG");
+        assertEquals(2L, get("BK-001").version());
+    }
+
+    @Test
+    @DisplayName("should keep a booking loaded while a flight on another route changed")
+    void shouldKeepEntryLoadedDuringOtherRouteChange() {
+        cache.get("BK-001", () -> {
+            flightListener.onChange(0, "CHC-AKL");
+            return load().get();
+        });
+        version = 2;
+
+        assertEquals(1L, get("BK-001").version());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("should not keep a booking loaded while a flight on its route changed")
+    void shouldNotKeepEntryLoadedDuringRouteChange() {
+        cache.get("BK-001", () -> {
+            Optional<BookingResponse> read = load().get();
+            version = 2;
+            flightListener.onChange(0, "AKL-WLG");
+            return read;
+        });
+
+        assertEquals(2L, get("BK-001").version());
+    }
+
+    @Test
+    @DisplayName("should read a booking written on this instance from the database")
+    void shouldBypassOwnRecentWrites() {
+        get("BK-001");
+        version = 2;
+        readConsistency.recordWrite("BK-001");
+
+        assertEquals(2L, get("BK-001").version());
+    }
+
+    private BookingResponse get(String reference) {
+        return cache.get(reference, load()).orElseThrow();
+    }
+
+    private Supplier<Optional<BookingResponse>> load() {
+        return () -> {
+            loads.incrementAndGet();
+            FlightResponse flight = new FlightResponse("00000000-0000-0000-0000-000000000001", "NZ101",
+                "AKL", "WLG", Instant.parse("2026-06-15T08:00:00Z"), Instant.parse("2026-06-15T09:00:00Z"));
+            return Optional.of(new BookingResponse("BK-001", "DISRUPTED", "Alice", flight, null, null, List.of(),
+                version));
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.flightrebooking.capture;
+
+import com.example.flightrebooking.config.TrafficCaptureProperties;
+import com.fasterxml.jackson.databind.MappingIterator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficCaptureFilterTest {
+
+    @TempDir
+    Path directory;
+
+    private List<CapturedRequest> capture(double sampleRate, MockHttpServletRequest... requests) throws Exception {
+        // The handler sheds the request without reading its body
+        return capture(sampleRate, (req, res) -> ((MockHttpServletResponse) res).setStatus(503), requests);
+    }
+
+    private List<CapturedRequest> capture(double sampleRate, FilterChain handler, MockHttpServletRequest... requests)
+            throws Exception {
+        TrafficCaptureProperties properties =
+            new TrafficCaptureProperties(true, sampleRate, directory, DataSize.ofMegabytes(1), 1_000);
+        TrafficCaptureWriter writer = new TrafficCaptureWriter(properties, new SimpleMeterRegistry());
+        TrafficCaptureFilter filter = new TrafficCaptureFilter(writer, properties);
+        for (MockHttpServletRequest request : requests) {
+            filter.doFilter(request, new MockHttpServletResponse(), handler);
+        }
+        writer.destroy();
+
+        List<CapturedRequest> captured = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                try (InputStream in = Files.newInputStream(file);
+                     MappingIterator<CapturedRequest> records = TrafficTrace.read(in)) {
+                    records.forEachRemaining(captured::add);
+                }
+            }
+        }
+        return captured;
+    }
+
+    private static MockHttpServletRequest rebook(String ref) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bookings/" + ref + "/rebook");
+        request.setContentType("application/json");
+        request.addHeader("Idempotency-Key", "550e8400-e29b-41d4-a716-446655440000");
+        request.addHeader("Authorization", "Bearer secret");
+        request.setContent("{\"selectedFlightId\":\"f2\"}".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    @DisplayName("should capture the body and allowed headers of a request shed before its body was read")
+    void shouldCaptureUnreadBody() throws Exception {
+        List<CapturedRequest> captured = capture(1.0, rebook("BK-001"));
+
+        assertEquals(1, captured.size());
+        CapturedRequest request = captured.getFirst();
+        assertEquals("POST", request.method());
+        assertEquals("BK-001", request.reference());
+        assertEquals(503, request.status());
+        assertEquals("{\"selectedFlightId\":\"f2\"}", new String(request.body(), StandardCharsets.UTF_8));
+        assertEquals("550e8400-e29b-41d4-a716-446655440000", request.headers().get("Idempotency-Key"));
+        assertFalse(request.headers().containsKey("Authorization"));
+    }
+
+    @Test
+    @DisplayName("should record a large chunked body truncated and flagged while the handler reads all of it")
+    void shouldTruncateLargeChunkedBody() throws Exception {
+        byte[] content = "x".repeat(40_000).getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bookings/BK-001/rebook") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(content);
+        AtomicReference<byte[]> handled = new AtomicReference<>();
+
+        List<CapturedRequest> captured = capture(1.0,
+            (req, res) -> handled.set(req.getInputStream().readAllBytes()), request);
+
+        assertArrayEquals(content, handled.get());
+        CapturedRequest recorded = captured.getFirst();
+        assertTrue(recorded.bodyTruncated());
+        assertEquals(16 * 1024, recorded.body().length);
+    }
+
+    @Test
+    @DisplayName("should hand a buffered body to a read listener straight away")
+    void shouldNotifyReadListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream handled = new ByteArrayOutputStream();
+
+        List<CapturedRequest> captured = capture(1.0, (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    byte[] buffer = new byte[8];
+                    int n;
+                    while (in.isReady() && (n = in.read(buffer)) >= 0) {
+                        handled.write(buffer, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        }, rebook("BK-001"));
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals("{\"selectedFlightId\":\"f2\"}", handled.toString(StandardCharsets.UTF_8));
+        assertFalse(captured.getFirst().bodyTruncated());
+    }
+
+    @Test
+    @DisplayName("should sample whole bookings rather than individual requests")
+    void shouldSampleByReference() throws Exception {
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(rebook("BK-" + i));
+            requests.add(new MockHttpServletRequest("GET", "/api/v1/bookings/BK-" + i));
+        }
+
+        List<CapturedRequest> captured = capture(0.5, requests.toArray(MockHttpServletRequest[]::new));
+
+        assertTrue(captured.size() > 100 && captured.size() < 300, "captured " + captured.size());
+        assertEquals(0, captured.size() % 2);
+        assertEquals(captured.size() / 2, captured.stream().map(CapturedRequest::reference).distinct().count());
+    }
+}
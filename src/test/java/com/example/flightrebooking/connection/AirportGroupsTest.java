@@ -0,0 +1,32 @@
+package com.example.flightrebooking.connection;
+
+import com.example.flightrebooking.config.AirportGroupProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AirportGroupsTest {
+
+    @Test
+    @DisplayName("should list the airport itself first, then the rest of its group")
+    void shouldResolveGroupMembers() {
+        AirportGroups groups = new AirportGroups(new AirportGroupProperties(
+            Map.of("LON", List.of("LHR", "LGW", "STN")), 20));
+
+        assertEquals(List.of("LGW", "LHR", "STN"), groups.withAlternatives("LGW"));
+        assertEquals(List.of("AKL"), groups.withAlternatives("AKL"));
+    }
+
+    @Test
+    @DisplayName("should reject an airport configured in two groups")
+    void shouldRejectOverlappingGroups() {
+        AirportGroupProperties properties = new AirportGroupProperties(
+            Map.of("LON", List.of("LHR", "LGW"), "SOU", List.of("LGW", "SOU")), 20);
+
+        assertThrows(IllegalStateException.class, () -> new AirportGroups(properties));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.flightrebooking.connection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2026-06-15T00:00:00Z");
+    private static final Duration WINDOW = Duration.ofHours(48);
+
+    private static Instant at(String time) {
+        return MIDNIGHT.plus(Duration.parse("PT" + time));
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    @Test
+    @DisplayName("should connect through an airport only when its minimum connection time is met")
+    void shouldRespectMinimumConnectionTime() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(45))
+            .minimumConnectionTime("AKL", Duration.ofMinutes(60))
+            .flight(id(1), "CHC", "AKL", at("8H"), at("9H25M"))
+            // 50 minutes after arrival: under AKL's 60 minute minimum
+            .flight(id(2), "AKL", "ZQN", at("10H15M"), at("12H"))
+            .flight(id(3), "AKL", "ZQN", at("11H"), at("12H45M"))
+            .build();
+
+        List<Timetable.Itinerary> itineraries = timetable.findConnections("CHC", "ZQN", at("7H"), null, 2, 5, WINDOW);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of(id(1), id(3)), itineraries.getFirst().flightIds());
+        assertEquals(List.of("AKL"), itineraries.getFirst().via());
+        assertEquals(at("8H"), itineraries.getFirst().departure());
+        assertEquals(at("12H45M"), itineraries.getFirst().arrival());
+    }
+
+    @Test
+    @DisplayName("should not use more legs than allowed")
+    void shouldLimitLegs() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(30))
+            .flight(id(1), "NSN", "WLG", at("8H"), at("8H40M"))
+            .flight(id(2), "WLG", "AKL", at("10H"), at("11H05M"))
+            .flight(id(3), "AKL", "KKE", at("13H"), at("14H"))
+            .build();
+
+        assertTrue(timetable.findConnections("NSN", "KKE", at("7H"), null, 2, 5, WINDOW).isEmpty());
+        assertEquals(List.of("WLG", "AKL"),
+            timetable.findConnections("NSN", "KKE", at("7H"), null, 3, 5, WINDOW).getFirst().via());
+    }
+
+    @Test
+    @DisplayName("should skip the excluded flight and flights departing before the search time")
+    void shouldSkipExcludedAndEarlierFlights() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(45))
+            .flight(id(1), "CHC", "AKL", at("6H"), at("7H25M"))
+            .flight(id(2), "CHC", "AKL", at("8H"), at("9H25M"))
+            .flight(id(3), "CHC", "AKL", at("9H"), at("10H25M"))
+            .flight(id(4), "AKL", "ZQN", at("12H"), at("13H45M"))
+            .build();
+
+        List<Timetable.Itinerary> itineraries = timetable.findConnections("CHC", "ZQN", at("7H"), id(2), 2, 5, WINDOW);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of(id(3), id(4)), itineraries.getFirst().flightIds());
+    }
+
+    @Test
+    @DisplayName("should return later departures in order of arrival, ignoring direct flights")
+    void shouldReturnSuccessiveItineraries() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(45))
+            .flight(id(9), "CHC", "ZQN", at("7H30M"), at("8H30M"))
+            .flight(id(1), "CHC", "AKL", at("8H"), at("9H25M"))
+            .flight(id(2), "CHC", "WLG", at("9H"), at("9H45M"))
+            .flight(id(3), "AKL", "ZQN", at("11H"), at("12H45M"))
+            .flight(id(4), "WLG", "ZQN", at("11H"), at("12H30M"))
+            .flight(id(5), "CHC", "AKL", at("15H"), at("16H25M"))
+            .flight(id(6), "AKL", "ZQN", at("18H"), at("19H45M"))
+            .build();
+
+        List<Timetable.Itinerary> itineraries = timetable.findConnections("CHC", "ZQN", at("7H"), null, 2, 5, WINDOW);
+
+        // The 08:00 via AKL arrives later than the 09:00 via WLG, so it is never offered
+        assertEquals(List.of(List.of(id(2), id(4)), List.of(id(5), id(6))),
+            itineraries.stream().map(Timetable.Itinerary::flightIds).toList());
+    }
+
+    @Test
+    @DisplayName("should count only the itineraries asked for towards the maximum, for paging")
+    void shouldCountOnlyAcceptedItineraries() {
+        Timetable.Builder builder = Timetable.builder(Duration.ofMinutes(45));
+        for (int hour = 6; hour < 18; hour++) {
+            builder.flight(id(hour), "CHC", "AKL", at(hour + "H"), at(hour + "H50M"))
+                .flight(id(100 + hour), "AKL", "ZQN", at((hour + 2) + "H"), at((hour + 3) + "H"));
+        }
+        Timetable timetable = builder.build();
+        Instant shown = at("9H");
+
+        List<Timetable.Itinerary> itineraries = timetable.findConnections(List.of("CHC"), List.of("ZQN"), at("5H"),
+            null, 2, 2, WINDOW, itinerary -> itinerary.departure().isAfter(shown));
+
+        // 06:00 to 09:00 were on an earlier page; two more follow them
+        assertEquals(List.of(at("6H"), at("7H"), at("8H"), at("9H"), at("10H"), at("11H")),
+            itineraries.stream().map(Timetable.Itinerary::departure).toList());
+        assertEquals("CHC", itineraries.getFirst().origin());
+        assertEquals("ZQN", itineraries.getFirst().destination());
+    }
+
+    @Test
+    @DisplayName("should search every airport of the origin and destination groups in one pass")
+    void shouldSearchAirportGroups() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(45))
+            .flight(id(1), "LGW", "AMS", at("8H"), at("9H"))
+            .flight(id(2), "LHR", "AMS", at("8H30M"), at("9H30M"))
+            .flight(id(3), "AMS", "EWR", at("10H30M"), at("18H"))
+            // A direct flight within the groups is not a connection
+            .flight(id(4), "LHR", "JFK", at("9H"), at("17H"))
+            .build();
+
+        List<Timetable.Itinerary> itineraries = timetable.findConnections(List.of("LHR", "LGW"),
+            List.of("JFK", "EWR"), at("7H"), null, 2, 5, WINDOW, itinerary -> true);
+
+        assertEquals(List.of(List.of(id(1), id(3)), List.of(id(2), id(3))),
+            itineraries.stream().map(Timetable.Itinerary::flightIds).toList());
+    }
+
+    @Test
+    @DisplayName("should sort flights added out of departure order")
+    void shouldSortUnorderedFlights() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(45))
+            .flight(id(2), "AKL", "ZQN", at("12H"), at("13H45M"))
+            .flight(id(1), "CHC", "AKL", at("8H"), at("9H25M"))
+            .build();
+
+        assertEquals(List.of(id(1), id(2)),
+            timetable.findConnections("CHC", "ZQN", at("7H"), null, 2, 5, WINDOW).getFirst().flightIds());
+        assertTrue(timetable.findConnections("CHC", "XXX", at("7H"), null, 2, 5, WINDOW).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should find the routes a flight can be a leg of")
+    void shouldFindRoutesThroughFlight() {
+        Timetable timetable = Timetable.builder(Duration.ofMinutes(30))
+            .flight(id(1), "NSN", "WLG", at("8H"), at("8H40M"))
+            .flight(id(2), "WLG", "AKL", at("10H"), at("11H05M"))
+            .flight(id(3), "AKL", "KKE", at("13H"), at("14H"))
+            .flight(id(4), "CHC", "ZQN", at("9H"), at("10H"))
+            .build();
+
+        assertEquals(Map.of("WLG", Set.of("AKL", "KKE"), "NSN", Set.of("AKL")),
+            timetable.routesThrough("WLG", "AKL", 2));
+        assertEquals(Map.of("WLG", Set.of("AKL", "KKE"), "NSN", Set.of("AKL", "KKE")),
+            timetable.routesThrough("WLG", "AKL", 3));
+        assertEquals(Map.of("CHC", Set.of("ZQN")), timetable.routesThrough("CHC", "ZQN", 2));
+        assertEquals(Map.of("WLG", Set.of("DUD")), timetable.routesThrough("WLG", "DUD", 2));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.flightrebooking.groupcommit;
+
+import com.example.flightrebooking.exception.GroupCommitUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GroupCommitQueueTest {
+
+    private DataSource dataSource;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    @DisplayName("should commit queued writes together in batches of at most the maximum size")
+    void shouldBatchQueuedWrites() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        try (GroupCommitQueue<Integer, String> queue = queue(4, Duration.ofMillis(200), (c, batch) -> {
+            batchSizes.add(batch.size());
+            batch.forEach(item -> item.succeed("written-" + item.value()));
+        })) {
+            for (int i = 0; i < 10; i++) {
+                results.add(queue.submit(i));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals("written-" + i, results.get(i).join());
+            }
+        }
+
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4), "batches: " + batchSizes);
+        verify(connection, times(batchSizes.size())).commit();
+    }
+
+    @Test
+    @DisplayName("should give each write in a batch its own outcome")
+    void shouldCompleteWritesIndividually() throws Exception {
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        try (GroupCommitQueue<Integer, String> queue = queue(8, Duration.ofMillis(200), (c, batch) ->
+                batch.forEach(item -> {
+                    if (item.value() % 2 == 0) {
+                        item.succeed("ok");
+                    } else {
+                        item.fail(new IllegalStateException("odd " + item.value()));
+                    }
+                }))) {
+            for (int i = 0; i < 4; i++) {
+                results.add(queue.submit(i));
+            }
+            assertEquals("ok", results.get(0).join());
+            assertEquals("ok", results.get(2).join());
+            CompletionException failure = assertThrows(CompletionException.class, () -> results.get(1).join());
+            assertEquals("odd 1", failure.getCause().getMessage());
+            assertThrows(CompletionException.class, () -> results.get(3).join());
+        }
+    }
+
+    @Test
+    @DisplayName("should fail every write in the batch and roll back when the batch fails")
+    void shouldFailWholeBatchOnSqlError() throws Exception {
+        try (GroupCommitQueue<Integer, String> queue = queue(8, Duration.ofMillis(50), (c, batch) -> {
+            batch.forEach(item -> item.succeed("ok"));
+            throw new SQLException("could not serialize access", "40001");
+        })) {
+            CompletableFuture<String> first = queue.submit(1);
+            CompletableFuture<String> second = queue.submit(2);
+
+            CompletionException failure = assertThrows(CompletionException.class, first::join);
+            assertInstanceOf(DataAccessException.class, failure.getCause());
+            assertThrows(CompletionException.class, second::join);
+        }
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    @DisplayName("should flush queued writes on close and refuse new ones")
+    void shouldDrainOnClose() {
+        GroupCommitQueue<Integer, String> queue = queue(8, Duration.ofSeconds(1), (c, batch) ->
+            batch.forEach(item -> item.succeed("ok")));
+        CompletableFuture<String> pending = queue.submit(1);
+
+        queue.close();
+
+        assertEquals("ok", pending.getNow("not flushed"));
+        assertThrows(IllegalStateException.class, () -> queue.submit(2));
+    }
+
+    @Test
+    @DisplayName("should refuse writes beyond its capacity and take back one still waiting")
+    void shouldBoundWaitingWrites() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        GroupCommitUnavailableException timedOut = new GroupCommitUnavailableException("timed out", Duration.ZERO);
+        try (GroupCommitQueue<Integer, String> queue = new GroupCommitQueue<>("test", dataSource, (c, batch) -> {
+                writing.countDown();
+                release.join();
+                batch.forEach(item -> item.succeed("ok"));
+            }, 1, Duration.ZERO, 2, new SimpleMeterRegistry())) {
+            CompletableFuture<String> inBatch = queue.submit(0);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> waiting = queue.submit(1);
+            CompletableFuture<String> withdrawn = queue.submit(2);
+
+            assertThrows(GroupCommitUnavailableException.class, () -> queue.submit(3));
+            assertTrue(queue.withdraw(withdrawn, timedOut));
+            assertFalse(queue.withdraw(inBatch, timedOut));
+            release.complete(null);
+
+            assertEquals("ok", inBatch.get(5, TimeUnit.SECONDS));
+            assertEquals("ok", waiting.get(5, TimeUnit.SECONDS));
+            CompletionException failure = assertThrows(CompletionException.class, withdrawn::join);
+            assertSame(timedOut, failure.getCause());
+        }
+        verify(connection, times(2)).commit();
+    }
+
+    private GroupCommitQueue<Integer, String> queue(int maxBatchSize, Duration linger,
+                                                    GroupCommitQueue.BatchWriter<Integer, String> writer) {
+        return new GroupCommitQueue<>("test", dataSource, writer, maxBatchSize, linger, 16, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.flightrebooking.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("should set version 7 and RFC 4122 variant")
+    void shouldSetVersionAndVariant() {
+        UUID id = new UuidV7Generator().next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    @DisplayName("should embed the clock's millisecond timestamp")
+    void shouldEmbedTimestamp() {
+        Instant now = Instant.parse("2026-06-15T08:00:00.123Z");
+        UUID id = new UuidV7Generator(Clock.fixed(now, ZoneOffset.UTC)).next();
+
+        assertEquals(now.toEpochMilli(), id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    @DisplayName("should be strictly increasing within the same millisecond")
+    void shouldBeMonotonicWithinSameMillisecond() {
+        UuidV7Generator generator = new UuidV7Generator(
+            Clock.fixed(Instant.parse("2026-06-15T08:00:00Z"), ZoneOffset.UTC));
+
+        UUID previous = generator.next();
+        // Exceeds the 12-bit sequence so the timestamp has to roll forward
+        for (int i = 0; i < 10_000; i++) {
+            UUID current = generator.next();
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = current;
+        }
+    }
+
+    @Test
+    @DisplayName("should issue unique IDs across concurrent threads")
+    void shouldBeUniqueUnderConcurrency() throws Exception {
+        UuidV7Generator generator = new UuidV7Generator();
+        ConcurrentLinkedQueue<Long> prefixes = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    prefixes.add(generator.next().getMostSignificantBits());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000, prefixes.stream().distinct().count(),
+                "Timestamp and sequence alone should be unique per generator");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.flightrebooking.limit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("should reject requests beyond the current limit")
+    void shouldRejectBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, THRESHOLD, 0.5);
+
+        assertNotNull(limiter.tryAcquire());
+        assertNotNull(limiter.tryAcquire());
+        assertNull(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("should grow limit additively when busy and fast")
+    void shouldIncreaseLimitOnFastSamples() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10, THRESHOLD, 0.5);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        permits.get(3).release(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(5, limiter.getLimit());
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("should not grow limit when mostly idle")
+    void shouldNotIncreaseLimitWhenIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 20, THRESHOLD, 0.5);
+
+        limiter.tryAcquire().release(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("should back off multiplicatively on slow samples, bounded by the minimum")
+    void shouldDecreaseLimitOnSlowSamples() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 3, 10, THRESHOLD, 0.5);
+
+        limiter.tryAcquire().release(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire().release(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("should release a permit only once")
+    void shouldReleaseOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, THRESHOLD, 0.5);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        permit.release();
+        permit.release();
+
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.flightrebooking.reaccommodation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReaccommodationSolverTest {
+
+    private static ReaccommodationSolver.Demand passenger(int[] flights, int[] scores) {
+        return new ReaccommodationSolver.Demand(1, flights, scores);
+    }
+
+    @Test
+    @DisplayName("should give up the best flight for one passenger when that seats everyone")
+    void shouldMaximiseTotalScore() {
+        // First come first served would put A on flight 0 and leave B with its 10
+        List<ReaccommodationSolver.Demand> demands = List.of(
+            passenger(new int[] {0, 1}, new int[] {90, 80}),
+            passenger(new int[] {0, 1}, new int[] {100, 10}));
+
+        ReaccommodationSolver.Solution solution = ReaccommodationSolver.solve(demands, new int[] {1, 1});
+
+        assertArrayEquals(new int[] {0, 1}, solution.assigned()[0]);
+        assertArrayEquals(new int[] {1, 0}, solution.assigned()[1]);
+        assertEquals(180, solution.totalScore());
+        assertEquals(2, solution.assignedPassengers());
+    }
+
+    @Test
+    @DisplayName("should seat as many passengers as possible before maximising score")
+    void shouldSeatMostPassengers() {
+        // B scores more on flight 0, but only A can use flight 1
+        List<ReaccommodationSolver.Demand> demands = List.of(
+            passenger(new int[] {0, 1}, new int[] {50, 0}),
+            passenger(new int[] {0}, new int[] {100}),
+            passenger(new int[] {0}, new int[] {100}));
+
+        ReaccommodationSolver.Solution solution = ReaccommodationSolver.solve(demands, new int[] {1, 1});
+
+        assertEquals(2, solution.assignedPassengers());
+        assertEquals(100, solution.totalScore());
+        assertArrayEquals(new int[] {0, 1}, solution.assigned()[0]);
+    }
+
+    @Test
+    @DisplayName("should split interchangeable passengers across flights up to their seats")
+    void shouldRespectSeats() {
+        List<ReaccommodationSolver.Demand> demands = List.of(
+            new ReaccommodationSolver.Demand(10, new int[] {0, 1, 2}, new int[] {100, 70, 40}));
+
+        ReaccommodationSolver.Solution solution = ReaccommodationSolver.solve(demands, new int[] {4, 3, 0});
+
+        assertArrayEquals(new int[] {4, 3, 0}, solution.assigned()[0]);
+        assertEquals(7, solution.assignedPassengers());
+        assertEquals(610, solution.totalScore());
+    }
+
+    @Test
+    @DisplayName("should match an exhaustive search on small random problems")
+    void shouldMatchExhaustiveSearch() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int flights = 1 + random.nextInt(4);
+            int[] seats = new int[flights];
+            Arrays.setAll(seats, f -> random.nextInt(3));
+            List<ReaccommodationSolver.Demand> demands = new ArrayList<>();
+            for (int p = 0, passengers = 1 + random.nextInt(6); p < passengers; p++) {
+                List<Integer> candidates = new ArrayList<>();
+                for (int f = 0; f < flights; f++) {
+                    if (random.nextInt(3) > 0) {
+                        candidates.add(f);
+                    }
+                }
+                int[] scores = new int[candidates.size()];
+                Arrays.setAll(scores, k -> random.nextInt(111));
+                demands.add(passenger(candidates.stream().mapToInt(Integer::intValue).toArray(), scores));
+            }
+
+            ReaccommodationSolver.Solution solution = ReaccommodationSolver.solve(demands, seats);
+
+            long[] best = exhaustive(demands, 0, seats.clone());
+            assertEquals(best[0], solution.assignedPassengers(), "passengers seated in round " + round);
+            assertEquals(best[1], solution.totalScore(), "total score in round " + round);
+            int[] used = new int[flights];
+            for (int d = 0; d < demands.size(); d++) {
+                for (int k = 0; k < demands.get(d).flights().length; k++) {
+                    used[demands.get(d).flights()[k]] += solution.assigned()[d][k];
+                }
+            }
+            for (int f = 0; f < flights; f++) {
+                assertTrue(used[f] <= seats[f], "seats of flight " + f + " in round " + round);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should solve independent groups of passengers separately")
+    void shouldSolveComponents() {
+        List<ReaccommodationSolver.Demand> demands = new ArrayList<>();
+        int[] seats = new int[20];
+        for (int group = 0; group < 10; group++) {
+            seats[2 * group] = 1;
+            seats[2 * group + 1] = 1;
+            demands.add(passenger(new int[] {2 * group, 2 * group + 1}, new int[] {90, 80}));
+            demands.add(passenger(new int[] {2 * group, 2 * group + 1}, new int[] {100, 10}));
+        }
+
+        ReaccommodationSolver.Solution solution = ReaccommodationSolver.solve(demands, seats);
+
+        assertEquals(20, solution.assignedPassengers());
+        assertEquals(1800, solution.totalScore());
+    }
+
+    /** Best (passengers seated, total score) for demands from {@code d} on. */
+    private static long[] exhaustive(List<ReaccommodationSolver.Demand> demands, int d, int[] seats) {
+        if (d == demands.size()) {
+            return new long[] {0, 0};
+        }
+        long[] best = exhaustive(demands, d + 1, seats);
+        ReaccommodationSolver.Demand demand = demands.get(d);
+        for (int k = 0; k < demand.flights().length; k++) {
+            int flight = demand.flights()[k];
+            if (seats[flight] > 0) {
+                seats[flight]--;
+                long[] rest = exhaustive(demands, d + 1, seats);
+                seats[flight]++;
+                long[] option = {rest[0] + 1, rest[1] + demand.scores()[k]};
+                if (option[0] > best[0] || (option[0] == best[0] && option[1] > best[1])) {
+                    best = option;
+                }
+            }
+        }
+        return best;
+    }
+}
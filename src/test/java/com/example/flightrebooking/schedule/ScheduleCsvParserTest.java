@@ -0,0 +1,73 @@
+package com.example.flightrebooking.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleCsvParserTest {
+
+    private final List<ScheduleRecord> accepted = new ArrayList<>();
+    private final List<ScheduleRowError> rejected = new ArrayList<>();
+
+    private void parse(String csv) throws IOException {
+        new ScheduleCsvParser(new StringReader(csv)).parse(accepted::add, rejected::add);
+    }
+
+    @Test
+    @DisplayName("should skip the header and parse valid rows with their line numbers")
+    void shouldParseValidRows() throws IOException {
+        parse("""
+            flight_number,origin,destination,scheduled_departure
+            NZ101,AKL,WLG,2026-06-15T08:00:00Z
+
+            NZ103, AKL , WLG ,2026-06-15T14:00:00Z
+            """);
+
+        assertEquals(2, accepted.size());
+        assertTrue(rejected.isEmpty());
+        assertEquals(new ScheduleRecord(2, "NZ101", "AKL", "WLG", Instant.parse("2026-06-15T08:00:00Z"), null),
+            accepted.get(0));
+        assertEquals(4, accepted.get(1).lineNumber());
+        assertEquals("AKL", accepted.get(1).origin());
+    }
+
+    @Test
+    @DisplayName("should reject invalid rows and keep parsing")
+    void shouldRejectInvalidRows() throws IOException {
+        parse("""
+            NZ101,AKL,WLG
+            nz 1,AKL,WLG,2026-06-15T08:00:00Z
+            NZ102,AK,WLG,2026-06-15T08:00:00Z
+            NZ103,AKL,AKL,2026-06-15T08:00:00Z
+            NZ104,AKL,WLG,15/06/2026 08:00
+            NZ105,AKL,WLG,2026-06-15T08:00:00Z
+            """);
+
+        assertEquals(1, accepted.size());
+        assertEquals("NZ105", accepted.get(0).flightNumber());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), rejected.stream().map(ScheduleRowError::lineNumber).toList());
+        assertTrue(rejected.get(0).message().contains("4 or 5 columns"));
+    }
+
+    @Test
+    @DisplayName("should parse an optional arrival column and reject arrivals before departure")
+    void shouldParseOptionalArrival() throws IOException {
+        parse("""
+            NZ101,AKL,WLG,2026-06-15T08:00:00Z,2026-06-15T09:05:00Z
+            NZ103,AKL,WLG,2026-06-15T14:00:00Z,
+            NZ105,AKL,WLG,2026-06-15T16:00:00Z,2026-06-15T15:00:00Z
+            """);
+
+        assertEquals(2, accepted.size());
+        assertEquals(Instant.parse("2026-06-15T09:05:00Z"), accepted.get(0).scheduledArrival());
+        assertNull(accepted.get(1).scheduledArrival());
+        assertEquals(List.of(3L), rejected.stream().map(ScheduleRowError::lineNumber).toList());
+    }
+}
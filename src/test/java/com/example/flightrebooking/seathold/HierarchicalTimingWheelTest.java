@@ -0,0 +1,113 @@
+package com.example.flightrebooking.seathold;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    @DisplayName("should fire a timer on the first advance at or after its deadline")
+    void shouldFireAtDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 4, START);
+        wheel.schedule("hold", START + 250);
+
+        assertEquals(List.of(), wheel.advanceTo(START + 200));
+        assertEquals(List.of(), wheel.advanceTo(START + 299));
+        assertEquals(List.of("hold"), wheel.advanceTo(START + 300));
+        assertEquals(List.of(), wheel.advanceTo(START + 10_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("should fire a timer whose deadline has passed on the next advance")
+    void shouldFireOverdueTimer() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 4, START);
+        wheel.advanceTo(START + 5_000);
+        wheel.schedule("late", START + 1_000);
+
+        assertEquals(List.of("late"), wheel.advanceTo(START + 5_000));
+    }
+
+    @Test
+    @DisplayName("should never fire a cancelled timer")
+    void shouldNotFireCancelled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 4, START);
+        HierarchicalTimingWheel.Timeout placed = wheel.schedule("placed", START + 10_000);
+        wheel.advanceTo(START + 100);
+        HierarchicalTimingWheel.Timeout pending = wheel.schedule("pending", START + 10_000);
+
+        assertTrue(placed.cancel());
+        assertTrue(pending.cancel());
+        assertFalse(placed.cancel());
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advanceTo(START + 20_000));
+    }
+
+    @Test
+    @DisplayName("should fire every timer exactly once, never early, across rings and beyond the top ring")
+    void shouldFireRandomTimersOnce() {
+        // Two rings of 64 ticks place up to 4096 ticks ahead; later timers wait in the top ring
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 2, START);
+        Random random = new Random(7);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        List<HierarchicalTimingWheel.Timeout> timeouts = new ArrayList<>();
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long now = START;
+        while (now < START + 200_000) {
+            for (int i = 0; i < 5; i++) {
+                long deadline = now + random.nextInt(100_000);
+                deadlines.put(timeouts.size(), deadline);
+                timeouts.add(wheel.schedule(timeouts.size(), deadline));
+            }
+            if (random.nextInt(4) == 0) {
+                int victim = random.nextInt(timeouts.size());
+                if (timeouts.get(victim).cancel()) {
+                    deadlines.remove(victim);
+                }
+            }
+            now += 1 + random.nextInt(500);
+            for (int value : wheel.advanceTo(now)) {
+                assertNull(firedAt.put(value, now), "fired twice: " + value);
+            }
+        }
+        now += 200_000;
+        for (int value : wheel.advanceTo(now)) {
+            assertNull(firedAt.put(value, now), "fired twice: " + value);
+        }
+
+        assertEquals(deadlines.keySet(), firedAt.keySet());
+        assertEquals(0, wheel.size());
+        deadlines.forEach((value, deadline) -> assertTrue(firedAt.get(value) >= deadline, "fired early: " + value));
+    }
+
+    @Test
+    @DisplayName("should fire each timer on the tick that reaches its deadline")
+    void shouldNotFireLate() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 3, START);
+        Random random = new Random(11);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = START + random.nextInt(3_000_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        for (long now = START; now <= START + 3_000_010; now += 10) {
+            for (int value : wheel.advanceTo(now)) {
+                long deadline = deadlines.remove(value);
+                assertTrue(now >= deadline && now < deadline + 10, "timer " + value + " fired at " + now);
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.config.AuditProperties;
+import com.example.flightrebooking.config.AuditProperties.PayloadFormat;
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.RebookResponse;
+import com.example.flightrebooking.entity.RebookingAudit;
+import com.example.flightrebooking.entity.RebookingOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditPayloadCodecTest {
+
+    private ObjectMapper jsonMapper;
+    private RebookResponse response;
+
+    @BeforeEach
+    void setUp() {
+        jsonMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        response = new RebookResponse(
+            "BK-001",
+            "REBOOKED",
+            new FlightResponse(UUID.randomUUID().toString(), "NZ101", "AKL", "WLG",
+                Instant.parse("2026-06-15T08:00:00Z"), Instant.parse("2026-06-15T09:05:00Z")),
+            new FlightResponse(UUID.randomUUID().toString(), "NZ103", "AKL", "WLG",
+                Instant.parse("2026-06-15T14:00:00Z"), Instant.parse("2026-06-15T15:05:00Z")),
+            List.of(),
+            Instant.parse("2026-06-14T22:15:30.123456789Z")
+        );
+    }
+
+    @Test
+    @DisplayName("should round-trip CBOR payload to an identical response")
+    void shouldRoundTripCbor() throws Exception {
+        AuditPayloadCodec codec = codec(PayloadFormat.CBOR);
+
+        AuditPayloadCodec.EncodedPayload payload = codec.encode(response);
+
+        assertNull(payload.json());
+        assertNotNull(payload.cbor());
+        RebookResponse decoded = codec.decode(audit(payload));
+        assertEquals(response, decoded);
+        assertEquals(jsonMapper.writeValueAsString(response), jsonMapper.writeValueAsString(decoded),
+                "Replayed JSON should match the original response");
+    }
+
+    @Test
+    @DisplayName("CBOR payload should be smaller than JSON payload")
+    void cborShouldBeSmallerThanJson() {
+        byte[] cbor = codec(PayloadFormat.CBOR).encode(response).cbor();
+        String json = codec(PayloadFormat.JSON).encode(response).json();
+
+        assertTrue(cbor.length < json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("should still decode JSON rows when configured for CBOR")
+    void shouldDecodeLegacyJsonRows() {
+        AuditPayloadCodec.EncodedPayload legacy = codec(PayloadFormat.JSON).encode(response);
+
+        RebookResponse decoded = codec(PayloadFormat.CBOR).decode(audit(legacy));
+
+        assertEquals(response, decoded);
+    }
+
+    private AuditPayloadCodec codec(PayloadFormat format) {
+        return new AuditPayloadCodec(jsonMapper, new AuditProperties(format));
+    }
+
+    private RebookingAudit audit(AuditPayloadCodec.EncodedPayload payload) {
+        return new RebookingAudit(UUID.randomUUID(), null, UUID.randomUUID(), null, null,
+            RebookingOutcome.SUCCESS, payload.json(), payload.cbor());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.flightrebooking.service;
+
+import com.example.flightrebooking.dto.FlightResponse;
+import com.example.flightrebooking.dto.RebookingOptionResponse;
+import com.example.flightrebooking.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionCursorTest {
+
+    private static RebookingOptionResponse option(String flightId, String departure, int score) {
+        FlightResponse flight = new FlightResponse(flightId, "NZ101", "AKL", "WLG", Instant.parse(departure), null);
+        return new RebookingOptionResponse(flight, List.of(), score, "reason");
+    }
+
+    @Test
+    @DisplayName("should round-trip through its opaque encoding")
+    void shouldRoundTrip() {
+        OptionCursor cursor = new OptionCursor(85, Instant.parse("2026-06-15T14:00:00.123456Z"),
+            "00000000-0000-0000-0000-000000000002");
+
+        assertEquals(cursor, OptionCursor.decode(cursor.encode()));
+        assertFalse(cursor.encode().contains("|"));
+    }
+
+    @Test
+    @DisplayName("should reject tokens it did not produce")
+    void shouldRejectInvalidTokens() {
+        assertThrows(InvalidCursorException.class, () -> OptionCursor.decode("not a cursor!"));
+        assertThrows(InvalidCursorException.class, () -> OptionCursor.decode("MTB8MnwzfGZvbw"));
+    }
+
+    @Test
+    @DisplayName("should rank by score, then departure, then flight ID")
+    void shouldRankOptions() {
+        RebookingOptionResponse best = option("00000000-0000-0000-0000-000000000009", "2026-06-16T08:00:00Z", 90);
+        RebookingOptionResponse earlier = option("00000000-0000-0000-0000-000000000005", "2026-06-15T10:00:00Z", 40);
+        RebookingOptionResponse lowerId = option("00000000-0000-0000-0000-000000000003", "2026-06-15T12:00:00Z", 40);
+        RebookingOptionResponse higherId = option("ffffffff-0000-0000-0000-000000000001", "2026-06-15T12:00:00Z", 40);
+
+        List<RebookingOptionResponse> options = new ArrayList<>(List.of(higherId, lowerId, earlier, best));
+        options.sort(OptionCursor.OPTION_RANKING);
+
+        assertEquals(List.of(best, earlier, lowerId, higherId), options);
+        assertTrue(OptionCursor.of(lowerId).ranksBefore(higherId));
+        assertFalse(OptionCursor.of(lowerId).ranksBefore(lowerId));
+    }
+}
@@ -1,16 +1,33 @@
 package com.example.flightrebooking.service;
 
+import com.example.flightrebooking.config.AirportGroupProperties;
+import com.example.flightrebooking.config.RebookingOptionsProperties;
+import com.example.flightrebooking.connection.AirportGroups;
+import com.example.flightrebooking.connection.ConnectionSearchEngine;
+import com.example.flightrebooking.dto.RebookingOptionsQuery;
+import com.example.flightrebooking.dto.RebookingOptionsResponse;
+import com.example.flightrebooking.entity.Booking;
+import com.example.flightrebooking.entity.BookingStatus;
 import com.example.flightrebooking.entity.Flight;
+import com.example.flightrebooking.repository.BookingRepository;
+import com.example.flightrebooking.repository.FlightRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class RebookingServiceTest {
 
@@ -19,7 +36,110 @@ class RebookingServiceTest {
     @BeforeEach
     void setUp() {
         // Create service with null dependencies - we only test scoring methods
-        rebookingService = new RebookingService(null, null, null, null);
+        rebookingService = new RebookingService(null, null, null, null, null, null, null, null, null,
+            new RebookingOptionsProperties(SEARCH_HORIZON), null);
+    }
+
+    private static final Duration SEARCH_HORIZON = Duration.ofDays(7);
+
+    @Nested
+    @DisplayName("Direct Flight Scan")
+    class DirectFlightScan {
+
+        private final Flight original = flight(0, Instant.parse("2026-06-15T08:00:00Z"));
+        // Four flights a day for 90 days, none near the original time of day: from the next day
+        // on all of them score 30, below the 40 a later flight could reach with the bonus
+        private final List<Flight> route = IntStream.range(0, 90 * 4)
+            .mapToObj(i -> flight(i + 1, Instant.parse("2026-06-15T00:00:00Z")
+                .plus(i / 4, ChronoUnit.DAYS).plus(List.of(1, 13, 16, 20).get(i % 4), ChronoUnit.HOURS)))
+            .filter(flight -> flight.getScheduledDeparture().isAfter(original.getScheduledDeparture()))
+            .toList();
+
+        @Test
+        @DisplayName("should stop a page of low-scoring options at the search horizon")
+        void shouldStopLowScoringPageAtHorizon() {
+            RebookingService service = new RebookingService(null, null, null, null, null, null,
+                mock(ConnectionSearchEngine.class), new AirportGroups(new AirportGroupProperties(Map.of(), 20)),
+                null, new RebookingOptionsProperties(SEARCH_HORIZON), null);
+            Instant horizon = original.getScheduledDeparture().plus(SEARCH_HORIZON);
+            long withinHorizon = route.stream().filter(f -> f.getScheduledDeparture().isBefore(horizon)).count();
+
+            String cursor = null;
+            for (int page = 0; page < 3; page++) {
+                RebookingService.OptionSearch search = service.optionSearch("BK-001", original, null,
+                    new RebookingOptionsQuery(5, null, null, false, cursor));
+                search.addConnectingLegs(List.of());
+                int rowsRead = 0;
+                for (RebookingService.DirectFlightQuery chunk = search.nextDirectQuery(); chunk != null;
+                     chunk = search.nextDirectQuery()) {
+                    List<Flight> rows = read(chunk);
+                    rowsRead += rows.size();
+                    search.addDirectFlights(rows);
+                }
+                RebookingOptionsResponse result = search.result();
+
+                assertTrue(rowsRead <= withinHorizon, "page " + page + " read " + rowsRead + " of " + route.size());
+                assertEquals(5, result.options().size());
+                assertTrue(result.options().stream().allMatch(o -> o.flight().scheduledDeparture().isBefore(horizon)));
+                cursor = result.nextCursor();
+            }
+        }
+
+        @Test
+        @DisplayName("should stop the reaccommodation candidate scan at the search horizon")
+        void shouldStopReaccommodationScanAtHorizon() {
+            BookingRepository bookings = mock(BookingRepository.class);
+            FlightRepository flights = mock(FlightRepository.class);
+            Booking booking = mock(Booking.class);
+            when(booking.getReference()).thenReturn("BK-001");
+            when(booking.getOriginalFlight()).thenReturn(original);
+            when(bookings.findAllByOriginalFlightIdInAndStatus(List.of(original.getId()), BookingStatus.DISRUPTED))
+                .thenReturn(List.of(booking));
+            List<Flight> rowsRead = new ArrayList<>();
+            when(flights.findAvailableFlights(any(), any(), any(), any(), any(), any(), anyInt())).thenAnswer(call -> {
+                List<Flight> rows = read(new RebookingService.DirectFlightQuery(call.getArgument(0), call.getArgument(1),
+                    call.getArgument(2), call.getArgument(3), call.getArgument(4), call.getArgument(5),
+                    call.getArgument(6)));
+                rowsRead.addAll(rows);
+                return rows;
+            });
+            RebookingService service = new RebookingService(bookings, flights, null, null, null, null,
+                mock(ConnectionSearchEngine.class), new AirportGroups(new AirportGroupProperties(Map.of(), 20)),
+                null, new RebookingOptionsProperties(SEARCH_HORIZON), null);
+            Instant horizon = original.getScheduledDeparture().plus(SEARCH_HORIZON);
+
+            List<ReaccommodationDemand> demand = service.findReaccommodationDemand(List.of(original.getId()), 5);
+
+            assertEquals(5, demand.getFirst().options().size());
+            assertFalse(rowsRead.isEmpty());
+            assertTrue(rowsRead.stream().allMatch(f -> f.getScheduledDeparture().isBefore(horizon)),
+                "read " + rowsRead.size() + " of " + route.size());
+        }
+
+        /** What the repository's keyset query returns for a chunk. */
+        private List<Flight> read(RebookingService.DirectFlightQuery chunk) {
+            Comparator<Flight> keyset = Comparator.comparing(Flight::getScheduledDeparture)
+                .thenComparing(flight -> flight.getId().toString());
+            Flight after = flight(-1, chunk.afterDeparture());
+            after.setId(chunk.afterId());
+            return route.stream()
+                .filter(f -> !f.getScheduledDeparture().isBefore(chunk.earliest())
+                    && f.getScheduledDeparture().isBefore(chunk.before())
+                    && keyset.compare(f, after) > 0)
+                .sorted(keyset)
+                .limit(chunk.limit())
+                .toList();
+        }
+
+        private static Flight flight(int number, Instant departure) {
+            Flight flight = new Flight();
+            flight.setId(new UUID(0, number));
+            flight.setFlightNumber("NZ" + number);
+            flight.setOrigin("AKL");
+            flight.setDestination("WLG");
+            flight.setScheduledDeparture(departure);
+            return flight;
+        }
     }
 
     @Nested
@@ -112,6 +232,22 @@ class RebookingServiceTest {
             assertTrue(score >= 0, "Score should never be negative");
         }
 
+        @Test
+        @DisplayName("should bound the score of every later departure")
+        void shouldBoundScoresOfLaterDepartures() {
+            Instant originalTime = Instant.parse("2026-06-15T08:00:00Z");
+            Flight original = createFlight(originalTime);
+
+            for (int minutes = 0; minutes < 3 * 24 * 60; minutes += 15) {
+                Instant from = originalTime.plus(minutes, ChronoUnit.MINUTES);
+                int bound = rebookingService.maxScoreDepartingFrom(from, original);
+                for (int later = 0; later < 24 * 60; later += 15) {
+                    Flight candidate = createFlight(from.plus(later, ChronoUnit.MINUTES));
+                    assertTrue(rebookingService.calculateScore(candidate, original) <= bound);
+                }
+            }
+        }
+
         @Test
         @DisplayName("same-day flight should score higher than next-day flight (Scenario 3)")
         void sameDayFlightShouldScoreHigherThanNextDay() {
@@ -198,6 +334,28 @@ class RebookingServiceTest {
             assertTrue(reason.contains("days later"), "Should mention days later");
         }
 
+        @Test
+        @DisplayName("should name connecting airports instead of claiming a direct flight")
+        void shouldNameConnectingAirports() {
+            Instant originalTime = Instant.parse("2026-06-15T08:00:00Z");
+            Flight original = createFlight(originalTime);
+            Flight firstLeg = createFlight(originalTime.plus(1, ChronoUnit.HOURS));
+
+            String reason = rebookingService.generateReason(firstLeg, original, List.of("CHC"));
+
+            assertEquals("Same day, similar departure time, 1 stop via CHC", reason);
+        }
+
+        @Test
+        @DisplayName("should name alternate airports of the city")
+        void shouldNameAlternateAirports() {
+            Flight original = createFlight(Instant.parse("2026-06-15T08:00:00Z"));
+
+            assertEquals("", rebookingService.describeAlternateAirports("AKL", "WLG", original));
+            assertEquals(", departs HLZ, arrives PPQ",
+                rebookingService.describeAlternateAirports("HLZ", "PPQ", original));
+        }
+
         private Flight createFlight(Instant scheduledDeparture) {
             Flight flight = new Flight();
             flight.setId(UUID.randomUUID());
@@ -0,0 +1,62 @@
+package com.example.flightrebooking.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    @DisplayName("should always route to shard 0 with a single shard")
+    void shouldRouteToShardZeroWithSingleShard() {
+        ShardRouter router = new ShardRouter(1, 128);
+
+        assertEquals(0, router.shardFor("BK-001"));
+    }
+
+    @Test
+    @DisplayName("should route the same reference to the same shard")
+    void shouldBeDeterministic() {
+        ShardRouter first = new ShardRouter(4, 128);
+        ShardRouter second = new ShardRouter(4, 128);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(first.shardFor("BK-" + i), second.shardFor("BK-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("should spread references roughly evenly across shards")
+    void shouldBalanceReferences() {
+        ShardRouter router = new ShardRouter(4, 128);
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            counts.merge(router.shardFor("BK-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count ->
+                assertTrue(count > 18_000 && count < 32_000, "Unbalanced shard size: " + count));
+    }
+
+    @Test
+    @DisplayName("should move only a fraction of references when a shard is added")
+    void shouldMoveFewReferencesWhenAddingShard() {
+        ShardRouter before = new ShardRouter(4, 128);
+        ShardRouter after = new ShardRouter(5, 128);
+        int moved = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            if (before.shardFor("BK-" + i) != after.shardFor("BK-" + i)) {
+                moved++;
+            }
+        }
+
+        assertTrue(moved < 30_000, "Moved " + moved + " of 100000 references");
+    }
+}